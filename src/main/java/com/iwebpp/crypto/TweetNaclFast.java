@@ -397,6 +397,9 @@ public final class TweetNaclFast {
 
         private byte [] key;
 
+        // buffers of the in-place box and open
+        private byte [] mbuf = new byte[0], cbuf = new byte[0];
+
         public SecretBox(byte [] key) {
             this(key, 68);
         }
@@ -561,6 +564,78 @@ public final class TweetNaclFast {
             return ret;
         }
 
+        /*
+         * @description
+         *   Encrypt and authenticates message using the key and the nonce,
+         *   writing the result to the output array at the given offset.
+         *   The output may be the message array itself.
+         *
+         *   The buffers of this box are reused, so a box must not be used by multiple threads at once.
+         *
+         *   Returns the length of the encrypted message,
+         *   which is nacl.secretbox.overheadLength longer than the original message, or -1 on failure.
+         * */
+        public int box(byte [] message, final int moff, final int mlen, byte [] theNonce, byte [] out, final int outoff) {
+            // check message
+            if (!(message!=null && message.length>=(moff+mlen) &&
+                    theNonce!=null && theNonce.length==nonceLength &&
+                    out!=null && out.length>=(outoff+mlen+overheadLength)))
+                return -1;
+
+            final int d = mlen + zerobytesLength;
+            ensureBuffers(d);
+            byte [] m = mbuf, c = cbuf;
+
+            for (int i = 0; i < zerobytesLength; i ++)
+                m[i] = 0;
+            System.arraycopy(message, moff, m, zerobytesLength, mlen);
+
+            if (0 != crypto_secretbox(c, m, d, theNonce, key))
+                return -1;
+
+            System.arraycopy(c, boxzerobytesLength, out, outoff, d-boxzerobytesLength);
+            return d-boxzerobytesLength;
+        }
+
+        /*
+         * @description
+         *   Authenticates and decrypts the given secret box using the key and the nonce,
+         *   writing the original message to the output array at the given offset.
+         *   The output may be the box array itself.
+         *
+         *   The buffers of this box are reused, so a box must not be used by multiple threads at once.
+         *
+         *   Returns the length of the original message, or -1 if authentication fails.
+         * */
+        public int open(byte [] box, final int boxoff, final int boxlen, byte [] theNonce, byte [] out, final int outoff) {
+            // check message
+            if (!(box!=null && box.length>=(boxoff+boxlen) && boxlen>=overheadLength &&
+                    theNonce!=null && theNonce.length==nonceLength &&
+                    out!=null && out.length>=(outoff+boxlen-overheadLength)))
+                return -1;
+
+            final int d = boxlen + boxzerobytesLength;
+            ensureBuffers(d);
+            byte [] c = cbuf, m = mbuf;
+
+            for (int i = 0; i < boxzerobytesLength; i ++)
+                c[i] = 0;
+            System.arraycopy(box, boxoff, c, boxzerobytesLength, boxlen);
+
+            if (0 != crypto_secretbox_open(m, c, d, theNonce, key))
+                return -1;
+
+            System.arraycopy(m, zerobytesLength, out, outoff, d-zerobytesLength);
+            return d-zerobytesLength;
+        }
+
+        private void ensureBuffers(int length) {
+            if (mbuf.length < length) {
+                mbuf = new byte[length];
+                cbuf = new byte[length];
+            }
+        }
+
         /*
          * @description
          *   Length of key in bytes.
@@ -29,7 +29,9 @@ import net.dv8tion.jda.api.requests.RestAction;
 import net.dv8tion.jda.api.requests.restaction.AuditableRestAction;
 import net.dv8tion.jda.api.requests.restaction.GuildAction;
 import net.dv8tion.jda.api.sharding.ShardManager;
+import net.dv8tion.jda.api.utils.GatewaySendMetrics;
 import net.dv8tion.jda.api.utils.MiscUtil;
+import net.dv8tion.jda.api.utils.cache.CacheStatistics;
 import net.dv8tion.jda.api.utils.cache.CacheView;
 import net.dv8tion.jda.api.utils.cache.SnowflakeCacheView;
 import net.dv8tion.jda.internal.requests.CompletedRestAction;
@@ -243,6 +245,19 @@ public interface JDA
      */
     long getGatewayPing();
 
+    /**
+     * Metrics of the commands JDA sends over the gateway connection of this session,
+     * such as presence updates, voice state updates and member chunk requests.
+     * <br>This can be used to monitor how long commands are delayed by the gateway rate-limit.
+     * Before login and after shutdown, this returns empty metrics without any queued or sent commands.
+     *
+     * @return {@link GatewaySendMetrics} of this session
+     *
+     * @since  4.2.0
+     */
+    @Nonnull
+    GatewaySendMetrics getGatewaySendMetrics();
+
     /**
      * The time in milliseconds that discord took to respond to a REST request.
      * <br>This will request the current user from the API and calculate the time the response took.
@@ -854,6 +869,21 @@ public interface JDA
     @CheckReturnValue
     RestAction<User> retrieveUserById(long id, boolean update);
 
+    /**
+     * Takes a snapshot of the size of the entity caches of this session.
+     * <br>The snapshot includes the amount of cached entities, an estimate of their memory, and the amount of
+     * contended lock acquisitions for every cache, in total and per guild.
+     *
+     * <p>The memory is estimated from a sample of every cache, this requires a read-lock of each cache and should
+     * not be done more often than necessary, for instance once a minute to export the statistics.
+     *
+     * @return {@link net.dv8tion.jda.api.utils.cache.CacheStatistics CacheStatistics}
+     *
+     * @since  4.2.0
+     */
+    @Nonnull
+    CacheStatistics getCacheStatistics();
+
     /**
      * {@link net.dv8tion.jda.api.utils.cache.SnowflakeCacheView SnowflakeCacheView} of
      * all cached {@link net.dv8tion.jda.api.entities.Guild Guilds} visible to this JDA session.
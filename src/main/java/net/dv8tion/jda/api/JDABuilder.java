@@ -69,7 +69,9 @@ public class JDABuilder
     protected boolean shutdownCallbackPool = true;
     protected ExecutorService eventPool = null;
     protected boolean shutdownEventPool = true;
-    protected EnumSet<CacheFlag> cacheFlags = EnumSet.allOf(CacheFlag.class);
+    protected ExecutorService guildSetupPool = null;
+    protected boolean shutdownGuildSetupPool = true;
+    protected EnumSet<CacheFlag> cacheFlags = EnumSet.complementOf(EnumSet.of(CacheFlag.MEMBER_INDEX, CacheFlag.MESSAGE));
     protected ConcurrentMap<String, String> contextMap = null;
     protected SessionController controller = null;
     protected VoiceDispatchInterceptor voiceDispatchInterceptor = null;
@@ -81,6 +83,7 @@ public class JDABuilder
     protected IAudioSendFactory audioSendFactory = null;
     protected JDA.ShardInfo shardInfo = null;
     protected Compression compression = Compression.ZLIB;
+    protected GatewayEncoding encoding = GatewayEncoding.JSON;
     protected Activity activity = null;
     protected OnlineStatus status = OnlineStatus.ONLINE;
     protected boolean idle = false;
@@ -90,6 +93,11 @@ public class JDABuilder
     protected int intents = -1; // don't use intents by default
     protected EnumSet<ConfigFlag> flags = ConfigFlag.getDefault();
     protected ChunkingFilter chunkingFilter = ChunkingFilter.ALL;
+    protected DispatchFilter dispatchFilter = DispatchFilter.ALL;
+    protected DecompressionBufferPool decompressionPool = null;
+    protected RateLimitBackend rateLimitBackend = null;
+    protected int messageCacheSize = 50;
+    protected int messageCacheTotal = 5000;
     protected MemberCachePolicy memberCachePolicy = MemberCachePolicy.ALL;
 
     /**
@@ -572,6 +580,82 @@ public class JDABuilder
         return setFlag(ConfigFlag.USE_RELATIVE_RATELIMIT, enable);
     }
 
+    /**
+     * Whether REST requests should be executed asynchronously.
+     * <br>By default, each rate-limit worker thread blocks until the response of its current request arrives.
+     * Slow responses can therefore stall the requests of every other rate-limit bucket.
+     *
+     * <p>When enabled, the HTTP call is handed to the {@link okhttp3.Dispatcher Dispatcher} of the {@link okhttp3.OkHttpClient OkHttpClient}
+     * and the bucket continues once the response arrives. This allows a few rate-limit threads to keep many requests of different
+     * buckets in flight. Requests of the same bucket are still executed in order, one at a time.
+     * The amount of concurrent requests is limited by {@link okhttp3.Dispatcher#setMaxRequestsPerHost(int)},
+     * which is 25 for the default client.
+     *
+     * <p>Default: <b>false</b>
+     *
+     * @param  enable
+     *         True, if requests should be executed asynchronously
+     *
+     * @return The JDABuilder instance. Useful for chaining.
+     *
+     * @since  4.2.0
+     */
+    @Nonnull
+    public JDABuilder setAsyncRequests(boolean enable)
+    {
+        return setFlag(ConfigFlag.ASYNC_REQUESTS, enable);
+    }
+
+    /**
+     * Whether JDA should deduplicate activities, names, and discriminators of the cached entities.
+     * <br>Many members share identical activities and discriminators, without interning every presence update
+     * retains its own copy of these objects.
+     *
+     * <p>When enabled, equal instances are replaced by an instance that is already in use.
+     * The interners are shared by all JDA instances of the process, have a fixed size,
+     * and only hold weak references to the instances.
+     *
+     * <p>Default: <b>false</b>
+     *
+     * @param  enable
+     *         True, if activities and frequently repeated strings should be interned
+     *
+     * @return The JDABuilder instance. Useful for chaining.
+     *
+     * @since  4.2.0
+     */
+    @Nonnull
+    public JDABuilder setInterningEnabled(boolean enable)
+    {
+        return setFlag(ConfigFlag.INTERNING, enable);
+    }
+
+    /**
+     * Whether the member cache of each guild should store the state of the members in arrays.
+     * <br>By default, every cached member is a separate object graph. For millions of cached members,
+     * these objects can dominate the garbage collection pauses.
+     *
+     * <p>When enabled, the nickname, join and boost dates, roles, activities, and online status of the members
+     * are stored in a few large arrays per guild. The {@link net.dv8tion.jda.api.entities.Member Member} instances
+     * are created on demand and always reflect the current state of the member, which makes repeated lookups
+     * slightly slower. Once a member is removed from the cache, the instances which were already returned keep
+     * the last state of the member. The users of the members are still cached as objects.
+     *
+     * <p>Default: <b>false</b>
+     *
+     * @param  enable
+     *         True, if the compact member cache should be used
+     *
+     * @return The JDABuilder instance. Useful for chaining.
+     *
+     * @since  4.2.0
+     */
+    @Nonnull
+    public JDABuilder setCompactMemberCache(boolean enable)
+    {
+        return setFlag(ConfigFlag.COMPACT_MEMBER_CACHE, enable);
+    }
+
     /**
      * Flags used to enable selective parts of the JDA cache to reduce the runtime memory footprint.
      * <br><b>It is highly recommended to use {@link #setDisabledCacheFlags(EnumSet)} instead
@@ -652,6 +736,8 @@ public class JDABuilder
     /**
      * Flags used to disable parts of the JDA cache to reduce the runtime memory footprint.
      * <br>Shortcut for {@code setEnabledCacheFlags(EnumSet.complementOf(flags))}
+     * <br>This does not enable {@link CacheFlag#MEMBER_INDEX MEMBER_INDEX} or {@link CacheFlag#MESSAGE MESSAGE},
+     * use {@link #enableCache(CacheFlag, CacheFlag...)} for those.
      *
      * @param  flags
      *         EnumSet containing the flags for cache services that should be <b>disabled</b>
@@ -669,7 +755,12 @@ public class JDABuilder
     @DeprecatedSince("4.2.0")
     public JDABuilder setDisabledCacheFlags(@Nullable EnumSet<CacheFlag> flags)
     {
-        return setEnabledCacheFlags(flags == null ? EnumSet.allOf(CacheFlag.class) : EnumSet.complementOf(flags));
+        EnumSet<CacheFlag> enabled = flags == null ? EnumSet.allOf(CacheFlag.class) : EnumSet.complementOf(flags);
+        // The member index and message cache are opt-in, they stay disabled unless they were enabled before
+        EnumSet<CacheFlag> optIn = EnumSet.of(CacheFlag.MEMBER_INDEX, CacheFlag.MESSAGE);
+        optIn.removeAll(cacheFlags);
+        enabled.removeAll(optIn);
+        return setEnabledCacheFlags(enabled);
     }
 
     /**
@@ -838,6 +929,30 @@ public class JDABuilder
         return this;
     }
 
+    /**
+     * Sets the encoding used for payloads of the gateway connection.
+     * <br>{@link GatewayEncoding#ETF ETF} is a binary format which is smaller and cheaper to decode than JSON,
+     * outgoing payloads are then sent as binary messages.
+     * <br><b>Default: {@link GatewayEncoding#JSON}</b>
+     *
+     * @param  encoding
+     *         The encoding to use with the gateway connection
+     *
+     * @throws java.lang.IllegalArgumentException
+     *         If provided with null
+     *
+     * @return The JDABuilder instance. Useful for chaining
+     *
+     * @see    <a href="https://discord.com/developers/docs/topics/gateway#etfjson" target="_blank">Official Discord Documentation - ETF/JSON</a>
+     */
+    @Nonnull
+    public JDABuilder setGatewayEncoding(@Nonnull GatewayEncoding encoding)
+    {
+        Checks.notNull(encoding, "Encoding");
+        this.encoding = encoding;
+        return this;
+    }
+
     /**
      * Whether the Requester should retry when
      * a {@link java.net.SocketTimeoutException SocketTimeoutException} occurs.
@@ -1135,6 +1250,55 @@ public class JDABuilder
         return this;
     }
 
+    /**
+     * Sets the {@link ExecutorService ExecutorService} that should be used to build the guild entities
+     * once their setup is complete. By default this is done on the gateway thread, which handles one guild at a time.
+     * <br>With an executor the guilds are built concurrently, which reduces the startup time for bots with many guilds
+     * when the executor has multiple threads.
+     *
+     * <p>Events for a guild received while it is built are held back and handled once it is available, in the order they were received.
+     * The ready events for the guild, such as {@link net.dv8tion.jda.api.events.guild.GuildReadyEvent GuildReadyEvent},
+     * are fired on the thread of the executor.
+     *
+     * <p>The executor will not be shutdown automatically when JDA is shutdown.
+     * To shut it down automatically use {@link #setGuildSetupPool(ExecutorService, boolean)}.
+     *
+     * @param  executor
+     *         The executor for guild setup, or null to use the gateway thread
+     *
+     * @return The JDABuilder instance. Useful for chaining.
+     *
+     * @since  4.2.0
+     */
+    @Nonnull
+    public JDABuilder setGuildSetupPool(@Nullable ExecutorService executor)
+    {
+        return setGuildSetupPool(executor, executor == null);
+    }
+
+    /**
+     * Sets the {@link ExecutorService ExecutorService} that should be used to build the guild entities
+     * once their setup is complete. By default this is done on the gateway thread.
+     *
+     * @param  executor
+     *         The executor for guild setup, or null to use the gateway thread
+     * @param  automaticShutdown
+     *         True, if the executor should be shutdown when JDA shuts down
+     *
+     * @return The JDABuilder instance. Useful for chaining.
+     *
+     * @see    #setGuildSetupPool(ExecutorService)
+     *
+     * @since  4.2.0
+     */
+    @Nonnull
+    public JDABuilder setGuildSetupPool(@Nullable ExecutorService executor, boolean automaticShutdown)
+    {
+        this.guildSetupPool = executor;
+        this.shutdownGuildSetupPool = automaticShutdown;
+        return this;
+    }
+
     /**
      * If enabled, JDA will separate the bulk delete event into individual delete events, but this isn't as efficient as
      * handling a single event would be. It is recommended that BulkDelete Splitting be disabled and that the developer
@@ -1463,6 +1627,31 @@ public class JDABuilder
         return this;
     }
 
+    /**
+     * The {@link DispatchFilter} to decide which gateway dispatches should be handled.
+     * <br>By default this uses {@link DispatchFilter#ALL}.
+     *
+     * <p>Dispatches rejected by this filter are discarded before their payload is parsed,
+     * no cache updates or events will happen for them.
+     * This can greatly reduce the processing cost of high-traffic dispatches such as {@code TYPING_START} or {@code PRESENCE_UPDATE}.
+     *
+     * @param  filter
+     *         The filter to apply, or null to use {@link DispatchFilter#ALL}
+     *
+     * @return The JDABuilder instance. Useful for chaining.
+     *
+     * @since  4.2.0
+     *
+     * @see    DispatchFilter#include(String...)
+     * @see    DispatchFilter#exclude(String...)
+     */
+    @Nonnull
+    public JDABuilder setDispatchFilter(@Nullable DispatchFilter filter)
+    {
+        this.dispatchFilter = filter == null ? DispatchFilter.ALL : filter;
+        return this;
+    }
+
     /**
      * Enable typing and presence update events.
      * <br>These events cover the majority of traffic happening on the gateway and thus cause a lot
@@ -1776,6 +1965,80 @@ public class JDABuilder
         return this;
     }
 
+    /**
+     * Sets the {@link DecompressionBufferPool} used for {@link Compression#ZLIB ZLIB} decompression of gateway payloads.
+     * <br>A pool can be shared by multiple sessions and keeps track of the decompressed bytes and how often buffers were reused.
+     * If no pool is set, each session uses its own buffer limited by {@link #setMaxBufferSize(int)}.
+     *
+     * <p>Default: {@code null}
+     *
+     * @param  pool
+     *         The pool to use, or null to use a buffer per session
+     *
+     * @return The JDABuilder instance. Useful for chaining.
+     *
+     * @since  4.2.0
+     */
+    @Nonnull
+    public JDABuilder setDecompressionBufferPool(@Nullable DecompressionBufferPool pool)
+    {
+        this.decompressionPool = pool;
+        return this;
+    }
+
+    /**
+     * Sets the {@link RateLimitBackend} which stores the REST rate limits of this session.
+     * <br>This can be used to share the rate limits of a bot with sessions in other processes.
+     * If a backend is set, the global rate limit of the {@link #setSessionController(SessionController) SessionController} is not used.
+     *
+     * <p>Default: {@code null}
+     *
+     * @param  backend
+     *         The backend to use, or null to keep the rate limits in memory
+     *
+     * @return The JDABuilder instance. Useful for chaining.
+     *
+     * @see    LocalRateLimitBackend
+     *
+     * @since  4.2.0
+     */
+    @Nonnull
+    public JDABuilder setRateLimitBackend(@Nullable RateLimitBackend backend)
+    {
+        this.rateLimitBackend = backend;
+        return this;
+    }
+
+    /**
+     * The amount of messages kept by the message cache, which is enabled by {@link CacheFlag#MESSAGE CacheFlag.MESSAGE}.
+     * <br>Every {@link net.dv8tion.jda.api.entities.TextChannel TextChannel} and {@link net.dv8tion.jda.api.entities.PrivateChannel PrivateChannel}
+     * keeps up to {@code perChannel} of its latest messages. Once {@code total} messages are cached, the oldest messages of the
+     * least active channels are dropped first.
+     *
+     * <p>Default: {@code 50} per channel, {@code 5000} in total
+     *
+     * @param  perChannel
+     *         The maximum amount of messages per channel
+     * @param  total
+     *         The maximum amount of messages in all channels
+     *
+     * @throws IllegalArgumentException
+     *         If either size is not positive
+     *
+     * @return The JDABuilder instance. Useful for chaining.
+     *
+     * @since  4.2.0
+     */
+    @Nonnull
+    public JDABuilder setMessageCacheSize(int perChannel, int total)
+    {
+        Checks.positive(perChannel, "Messages per channel");
+        Checks.positive(total, "Total messages");
+        this.messageCacheSize = perChannel;
+        this.messageCacheTotal = total;
+        return this;
+    }
+
     /**
      * Builds a new {@link net.dv8tion.jda.api.JDA} instance and uses the provided token to start the login process.
      * <br>The login process runs in a different thread, so while this will return immediately, {@link net.dv8tion.jda.api.JDA} has not
@@ -1821,11 +2084,16 @@ public class JDABuilder
         threadingConfig.setGatewayPool(mainWsPool, shutdownMainWsPool);
         threadingConfig.setRateLimitPool(rateLimitPool, shutdownRateLimitPool);
         threadingConfig.setEventPool(eventPool, shutdownEventPool);
+        threadingConfig.setGuildSetupPool(guildSetupPool, shutdownGuildSetupPool);
         SessionConfig sessionConfig = new SessionConfig(controller, httpClient, wsFactory, voiceDispatchInterceptor, flags, maxReconnectDelay, largeThreshold);
         MetaConfig metaConfig = new MetaConfig(maxBufferSize, contextMap, cacheFlags, flags);
 
         JDAImpl jda = new JDAImpl(authConfig, sessionConfig, threadingConfig, metaConfig);
         jda.setMemberCachePolicy(memberCachePolicy);
+        jda.setDispatchFilter(dispatchFilter);
+        jda.setDecompressionPool(decompressionPool);
+        jda.setRateLimitBackend(rateLimitBackend);
+        jda.setMessageCacheSize(messageCacheSize, messageCacheTotal);
         // We can only do member chunking with the GUILD_MEMBERS intent
         if ((intents & GatewayIntent.GUILD_MEMBERS.getRawValue()) == 0)
             jda.setChunkingFilter(ChunkingFilter.NONE);
@@ -1846,7 +2114,7 @@ public class JDABuilder
                 .setCacheActivity(activity)
                 .setCacheIdle(idle)
                 .setCacheStatus(status);
-        jda.login(shardInfo, compression, true, intents);
+        jda.login(shardInfo, compression, true, intents, encoding);
         return jda;
     }
 
@@ -76,6 +76,12 @@ public interface AudioReceiveHandler
      * <p>This is useful for systems that want to either do lazy decoding of audio through {@link net.dv8tion.jda.api.audio.OpusPacket#getAudioData(double)}
      * or for systems that can decode and transform the audio data manually without JDA involvement.
      *
+     * <p>If neither {@link #canReceiveUser()} nor {@link #canReceiveCombined()} are enabled, JDA does not decode any audio.
+     * The opus decoder of a user is only created once one of their packets is decoded, and only advanced by the decoded packets.
+     * When a packet is decoded after some packets of the user were lost or skipped, the missing audio is concealed
+     * to continue smoothly, gaps of more than 100 milliseconds start a new stream instead.
+     * Packets must be decoded in order of their {@link OpusPacket#getSequence() sequence}.
+     *
      * @param packet
      *        The {@link net.dv8tion.jda.api.audio.OpusPacket}
      *
@@ -135,6 +135,7 @@ public final class OpusPacket implements Comparable<OpusPacket>
      * Attempts to decode the opus packet.
      * <br>This method is idempotent and will provide the same result on multiple calls
      * without decoding again.
+     * <br>Packets of the same user which were skipped since the last decoded packet are concealed by the decoder.
      *
      * For most use-cases {@link #getAudioData(double)} should be used instead.
      *
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2015-2020 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.api.audio.factory;
+
+import net.dv8tion.jda.internal.audio.AudioReactor;
+import net.dv8tion.jda.internal.utils.Checks;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import java.nio.channels.DatagramChannel;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Implementation of {@link IAudioSendFactory IAudioSendFactory} which sends and receives the audio of all connections
+ * on a small fixed amount of threads, instead of several threads per connection.
+ *
+ * <p>The connections are distributed over the threads, each thread uses a non-blocking {@link java.nio.channels.Selector Selector}
+ * for the received packets and sends the packets of its connections in a fixed 20 ms schedule.
+ * Connections which use this factory also receive their audio and provide the {@link net.dv8tion.jda.api.audio.CombinedAudio CombinedAudio}
+ * on these threads. Since the threads are shared, the {@link net.dv8tion.jda.api.audio.AudioSendHandler AudioSendHandler}
+ * and {@link net.dv8tion.jda.api.audio.AudioReceiveHandler AudioReceiveHandler} must never block.
+ *
+ * <p>A single instance should be shared by all shards, using {@link net.dv8tion.jda.api.JDABuilder#setAudioSendFactory(IAudioSendFactory)}.
+ *
+ * @since 4.2.0
+ */
+public class ReactorAudioSendFactory implements IAudioSendFactory
+{
+    private final AudioReactor reactor;
+
+    /**
+     * Creates a new factory with one thread for every 2 available processors.
+     */
+    public ReactorAudioSendFactory()
+    {
+        this(Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+    }
+
+    /**
+     * Creates a new factory with the provided amount of threads.
+     *
+     * @param  threads
+     *         The amount of threads
+     *
+     * @throws IllegalArgumentException
+     *         If the amount of threads is not positive
+     */
+    public ReactorAudioSendFactory(int threads)
+    {
+        Checks.positive(threads, "Threads");
+        this.reactor = AudioReactor.create(this, threads, "JDA Audio Reactor");
+    }
+
+    /**
+     * Stops the threads of this factory.
+     * <br>This should only be called once all audio connections using this factory have been closed.
+     */
+    public void shutdown()
+    {
+        reactor.shutdown();
+    }
+
+    @Nonnull
+    @Override
+    public IAudioSendSystem createSendSystem(@Nonnull IPacketProvider packetProvider)
+    {
+        DatagramChannel channel = packetProvider.getUdpSocket().getChannel();
+        // Sockets which were not opened through a channel cannot be used with a selector
+        if (channel == null)
+            return new DefaultSendSystem(packetProvider);
+        return new ReactorSendSystem(packetProvider, channel);
+    }
+
+    private class ReactorSendSystem implements IAudioSendSystem
+    {
+        private final IPacketProvider packetProvider;
+        private final DatagramChannel channel;
+        private ConcurrentMap<String, String> contextMap;
+        private AudioReactor.Registration registration;
+
+        private ReactorSendSystem(IPacketProvider packetProvider, DatagramChannel channel)
+        {
+            this.packetProvider = packetProvider;
+            this.channel = channel;
+        }
+
+        @Override
+        public void setContextMap(@CheckForNull ConcurrentMap<String, String> contextMap)
+        {
+            this.contextMap = contextMap;
+        }
+
+        @Override
+        public synchronized void start()
+        {
+            registration = reactor.register(channel);
+            registration.setContextMap(contextMap);
+            registration.setSender(packetProvider);
+        }
+
+        @Override
+        public synchronized void shutdown()
+        {
+            if (registration != null)
+                registration.setSender(null);
+            registration = null;
+        }
+    }
+}
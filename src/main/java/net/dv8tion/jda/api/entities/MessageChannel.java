@@ -37,9 +37,11 @@ import net.dv8tion.jda.internal.requests.restaction.pagination.MessagePagination
 import net.dv8tion.jda.internal.requests.restaction.pagination.ReactionPaginationActionImpl;
 import net.dv8tion.jda.internal.utils.Checks;
 import net.dv8tion.jda.internal.utils.EncodingUtil;
+import net.dv8tion.jda.internal.utils.cache.MessageCache;
 
 import javax.annotation.CheckReturnValue;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.io.*;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
@@ -279,6 +281,49 @@ public interface MessageChannel extends ISnowflake, Formattable
      */
     boolean hasLatestMessage();
 
+    /**
+     * The {@link net.dv8tion.jda.api.entities.Message Message} with the provided id, if it was kept by the message cache.
+     * <br>The message cache keeps the latest received messages of each channel and is only enabled with
+     * {@link net.dv8tion.jda.api.utils.cache.CacheFlag#MESSAGE CacheFlag.MESSAGE}.
+     * Use {@link #retrieveMessageById(String)} to retrieve messages which are not cached.
+     *
+     * @param  messageId
+     *         The id of the message
+     *
+     * @throws IllegalArgumentException
+     *         If the provided id is not a valid snowflake
+     *
+     * @return The cached message, or null if the message is not cached
+     *
+     * @since  4.2.0
+     */
+    @Nullable
+    default Message getCachedMessageById(@Nonnull String messageId)
+    {
+        return getCachedMessageById(MiscUtil.parseSnowflake(messageId));
+    }
+
+    /**
+     * The {@link net.dv8tion.jda.api.entities.Message Message} with the provided id, if it was kept by the message cache.
+     * <br>The message cache keeps the latest received messages of each channel and is only enabled with
+     * {@link net.dv8tion.jda.api.utils.cache.CacheFlag#MESSAGE CacheFlag.MESSAGE}.
+     * Use {@link #retrieveMessageById(long)} to retrieve messages which are not cached.
+     *
+     * @param  messageId
+     *         The id of the message
+     *
+     * @return The cached message, or null if the message is not cached
+     *
+     * @since  4.2.0
+     */
+    @Nullable
+    default Message getCachedMessageById(long messageId)
+    {
+        MessageCache cache = ((JDAImpl) getJDA()).getMessageCache();
+        Message message = cache == null ? null : cache.get(messageId);
+        return message != null && message.getChannel().getIdLong() == getIdLong() ? message : null;
+    }
+
     /**
      * This method is a shortcut method to return the following information in the following situation:
      * If the MessageChannel is instance of..
@@ -17,6 +17,7 @@ package net.dv8tion.jda.api.events.message;
 
 import net.dv8tion.jda.api.JDA;
 import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Message;
 import net.dv8tion.jda.api.entities.TextChannel;
 import net.dv8tion.jda.api.events.Event;
 
@@ -34,12 +35,19 @@ public class MessageBulkDeleteEvent extends Event
 {
     protected final TextChannel channel;
     protected final List<String> messageIds;
+    protected final List<Message> cachedMessages;
 
     public MessageBulkDeleteEvent(@Nonnull JDA api, long responseNumber, @Nonnull TextChannel channel, @Nonnull List<String> messageIds)
+    {
+        this(api, responseNumber, channel, messageIds, Collections.emptyList());
+    }
+
+    public MessageBulkDeleteEvent(@Nonnull JDA api, long responseNumber, @Nonnull TextChannel channel, @Nonnull List<String> messageIds, @Nonnull List<Message> cachedMessages)
     {
         super(api, responseNumber);
         this.channel = channel;
         this.messageIds = Collections.unmodifiableList(messageIds);
+        this.cachedMessages = Collections.unmodifiableList(cachedMessages);
     }
 
     /**
@@ -74,4 +82,17 @@ public class MessageBulkDeleteEvent extends Event
     {
         return messageIds;
     }
+
+    /**
+     * The deleted messages which were kept by the message cache.
+     * <br>This requires {@link net.dv8tion.jda.api.utils.cache.CacheFlag#MESSAGE CacheFlag.MESSAGE} to be enabled,
+     * messages which were not cached are only included in {@link #getMessageIds()}.
+     *
+     * @return Immutable list of the cached messages
+     */
+    @Nonnull
+    public List<Message> getCachedMessages()
+    {
+        return cachedMessages;
+    }
 }
@@ -16,22 +16,44 @@
 package net.dv8tion.jda.api.events.message;
 
 import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.Message;
 import net.dv8tion.jda.api.entities.MessageChannel;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 /**
  * Indicates that a Message was deleted in a {@link net.dv8tion.jda.api.entities.MessageChannel MessageChannel}.
  * 
  * <p>Can be used to detect when a Message is deleted. No matter if private or guild.
  *
- * <p><b>JDA does not have a cache for messages and is not able to provide previous information due to limitations by the
- * Discord API!</b>
+ * <p>The deleted message is only available through {@link #getCachedMessage()} if it was kept by the message cache,
+ * which is enabled by {@link net.dv8tion.jda.api.utils.cache.CacheFlag#MESSAGE CacheFlag.MESSAGE}.
  */
 public class MessageDeleteEvent extends GenericMessageEvent
 {
+    private final Message message;
+
     public MessageDeleteEvent(@Nonnull JDA api, long responseNumber, long messageId, @Nonnull MessageChannel channel)
+    {
+        this(api, responseNumber, messageId, channel, null);
+    }
+
+    public MessageDeleteEvent(@Nonnull JDA api, long responseNumber, long messageId, @Nonnull MessageChannel channel, @Nullable Message message)
     {
         super(api, responseNumber, messageId, channel);
+        this.message = message;
+    }
+
+    /**
+     * The deleted {@link net.dv8tion.jda.api.entities.Message Message}, if it was kept by the message cache.
+     * <br>This requires {@link net.dv8tion.jda.api.utils.cache.CacheFlag#MESSAGE CacheFlag.MESSAGE} to be enabled.
+     *
+     * @return The cached message, or null if the message was not cached
+     */
+    @Nullable
+    public Message getCachedMessage()
+    {
+        return message;
     }
 }
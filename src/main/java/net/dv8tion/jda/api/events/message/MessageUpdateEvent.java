@@ -29,17 +29,36 @@ import javax.annotation.Nullable;
  * <p>Can be used to detect a Message is edited in either a private or guild channel. Providing a MessageChannel and Message.
  * <br>This also includes whether a message is being pinned.
  *
- * <p><b>JDA does not have a cache for messages and is not able to provide previous information due to limitations by the
- * Discord API!</b>
+ * <p>The previous version of the message is only available through {@link #getOldMessage()} if it was kept by the message cache,
+ * which is enabled by {@link net.dv8tion.jda.api.utils.cache.CacheFlag#MESSAGE CacheFlag.MESSAGE}.
  */
 public class MessageUpdateEvent extends GenericMessageEvent
 {
     private final Message message;
+    private final Message oldMessage;
 
     public MessageUpdateEvent(@Nonnull JDA api, long responseNumber, @Nonnull Message message)
+    {
+        this(api, responseNumber, message, null);
+    }
+
+    public MessageUpdateEvent(@Nonnull JDA api, long responseNumber, @Nonnull Message message, @Nullable Message oldMessage)
     {
         super(api, responseNumber, message.getIdLong(), message.getChannel());
         this.message = message;
+        this.oldMessage = oldMessage;
+    }
+
+    /**
+     * The {@link net.dv8tion.jda.api.entities.Message Message} before the update, if it was kept by the message cache.
+     * <br>This requires {@link net.dv8tion.jda.api.utils.cache.CacheFlag#MESSAGE CacheFlag.MESSAGE} to be enabled.
+     *
+     * @return The previous message, or null if the message was not cached
+     */
+    @Nullable
+    public Message getOldMessage()
+    {
+        return oldMessage;
     }
 
     /**
@@ -16,9 +16,11 @@
 package net.dv8tion.jda.api.events.message.guild;
 
 import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.Message;
 import net.dv8tion.jda.api.entities.TextChannel;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 /**
  * Indicates that a Guild Message was deleted.
@@ -27,8 +29,28 @@ import javax.annotation.Nonnull;
  */
 public class GuildMessageDeleteEvent extends GenericGuildMessageEvent
 {
+    private final Message message;
+
     public GuildMessageDeleteEvent(@Nonnull JDA api, long responseNumber, long messageId, @Nonnull TextChannel channel)
+    {
+        this(api, responseNumber, messageId, channel, null);
+    }
+
+    public GuildMessageDeleteEvent(@Nonnull JDA api, long responseNumber, long messageId, @Nonnull TextChannel channel, @Nullable Message message)
     {
         super(api, responseNumber, messageId, channel);
+        this.message = message;
+    }
+
+    /**
+     * The deleted {@link net.dv8tion.jda.api.entities.Message Message}, if it was kept by the message cache.
+     * <br>This requires {@link net.dv8tion.jda.api.utils.cache.CacheFlag#MESSAGE CacheFlag.MESSAGE} to be enabled.
+     *
+     * @return The cached message, or null if the message was not cached
+     */
+    @Nullable
+    public Message getCachedMessage()
+    {
+        return message;
     }
 }
@@ -31,11 +31,30 @@ import javax.annotation.Nullable;
 public class GuildMessageUpdateEvent extends GenericGuildMessageEvent
 {
     private final Message message;
+    private final Message oldMessage;
 
     public GuildMessageUpdateEvent(@Nonnull JDA api, long responseNumber, @Nonnull Message message)
+    {
+        this(api, responseNumber, message, null);
+    }
+
+    public GuildMessageUpdateEvent(@Nonnull JDA api, long responseNumber, @Nonnull Message message, @Nullable Message oldMessage)
     {
         super(api, responseNumber, message.getIdLong(), message.getTextChannel());
         this.message = message;
+        this.oldMessage = oldMessage;
+    }
+
+    /**
+     * The {@link net.dv8tion.jda.api.entities.Message Message} before the update, if it was kept by the message cache.
+     * <br>This requires {@link net.dv8tion.jda.api.utils.cache.CacheFlag#MESSAGE CacheFlag.MESSAGE} to be enabled.
+     *
+     * @return The previous message, or null if the message was not cached
+     */
+    @Nullable
+    public Message getOldMessage()
+    {
+        return oldMessage;
     }
 
     /**
@@ -16,9 +16,11 @@
 package net.dv8tion.jda.api.events.message.priv;
 
 import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.Message;
 import net.dv8tion.jda.api.entities.PrivateChannel;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 /**
  * Indicates that a Message was deleted in a {@link net.dv8tion.jda.api.entities.PrivateChannel PrivateChannel}.
@@ -27,8 +29,28 @@ import javax.annotation.Nonnull;
  */
 public class PrivateMessageDeleteEvent extends GenericPrivateMessageEvent
 {
+    private final Message message;
+
     public PrivateMessageDeleteEvent(@Nonnull JDA api, long responseNumber, long messageId, @Nonnull PrivateChannel channel)
+    {
+        this(api, responseNumber, messageId, channel, null);
+    }
+
+    public PrivateMessageDeleteEvent(@Nonnull JDA api, long responseNumber, long messageId, @Nonnull PrivateChannel channel, @Nullable Message message)
     {
         super(api, responseNumber, messageId, channel);
+        this.message = message;
+    }
+
+    /**
+     * The deleted {@link net.dv8tion.jda.api.entities.Message Message}, if it was kept by the message cache.
+     * <br>This requires {@link net.dv8tion.jda.api.utils.cache.CacheFlag#MESSAGE CacheFlag.MESSAGE} to be enabled.
+     *
+     * @return The cached message, or null if the message was not cached
+     */
+    @Nullable
+    public Message getCachedMessage()
+    {
+        return message;
     }
 }
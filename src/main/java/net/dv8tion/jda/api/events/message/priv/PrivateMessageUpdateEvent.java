@@ -20,6 +20,7 @@ import net.dv8tion.jda.api.entities.Message;
 import net.dv8tion.jda.api.entities.User;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 /**
  * Indicates that a Message was edited in a {@link net.dv8tion.jda.api.entities.PrivateChannel PrivateChannel}.
@@ -29,11 +30,30 @@ import javax.annotation.Nonnull;
 public class PrivateMessageUpdateEvent extends GenericPrivateMessageEvent
 {
     private final Message message;
+    private final Message oldMessage;
 
     public PrivateMessageUpdateEvent(@Nonnull JDA api, long responseNumber, @Nonnull Message message)
+    {
+        this(api, responseNumber, message, null);
+    }
+
+    public PrivateMessageUpdateEvent(@Nonnull JDA api, long responseNumber, @Nonnull Message message, @Nullable Message oldMessage)
     {
         super(api, responseNumber, message.getIdLong(), message.getPrivateChannel());
         this.message = message;
+        this.oldMessage = oldMessage;
+    }
+
+    /**
+     * The {@link net.dv8tion.jda.api.entities.Message Message} before the update, if it was kept by the message cache.
+     * <br>This requires {@link net.dv8tion.jda.api.utils.cache.CacheFlag#MESSAGE CacheFlag.MESSAGE} to be enabled.
+     *
+     * @return The previous message, or null if the message was not cached
+     */
+    @Nullable
+    public Message getOldMessage()
+    {
+        return oldMessage;
     }
 
     /**
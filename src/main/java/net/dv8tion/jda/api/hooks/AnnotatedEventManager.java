@@ -20,12 +20,13 @@ import net.dv8tion.jda.api.events.GenericEvent;
 import net.dv8tion.jda.internal.JDAImpl;
 
 import javax.annotation.Nonnull;
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Implementation for {@link net.dv8tion.jda.api.hooks.IEventManager IEventManager}
@@ -45,30 +46,37 @@ import java.util.concurrent.CopyOnWriteArrayList;
  * }
  * </code></pre>
  *
+ * <p>The annotated methods are resolved to {@link java.lang.invoke.MethodHandle MethodHandles} when a listener is registered.
+ * The handlers of each event type are collected once and cached until a listener is registered or unregistered.
+ *
  * @see net.dv8tion.jda.api.hooks.InterfacedEventManager
  * @see net.dv8tion.jda.api.hooks.IEventManager
  * @see net.dv8tion.jda.api.hooks.SubscribeEvent
  */
 public class AnnotatedEventManager implements IEventManager
 {
-    private final Set<Object> listeners = ConcurrentHashMap.newKeySet();
-    private final Map<Class<?>, Map<Object, List<Method>>> methods = new ConcurrentHashMap<>();
+    private static final MethodType HANDLER_TYPE = MethodType.methodType(void.class, GenericEvent.class);
+
+    private final Set<Object> listeners = new LinkedHashSet<>();
+    private volatile DispatchTable table = new DispatchTable(Collections.emptyList());
 
     @Override
     public void register(@Nonnull Object listener)
     {
-        if (listeners.add(listener))
+        synchronized (listeners)
         {
-            updateMethods();
+            if (listeners.add(listener))
+                updateMethods();
         }
     }
 
     @Override
     public void unregister(@Nonnull Object listener)
     {
-        if (listeners.remove(listener))
+        synchronized (listeners)
         {
-            updateMethods();
+            if (listeners.remove(listener))
+                updateMethods();
         }
     }
 
@@ -76,46 +84,34 @@ public class AnnotatedEventManager implements IEventManager
     @Override
     public List<Object> getRegisteredListeners()
     {
-        return Collections.unmodifiableList(new ArrayList<>(listeners));
+        synchronized (listeners)
+        {
+            return Collections.unmodifiableList(new ArrayList<>(listeners));
+        }
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public void handle(@Nonnull GenericEvent event)
     {
-        Class<?> eventClass = event.getClass();
-        do
+        for (MethodHandle handler : table.getHandlers(event.getClass()))
         {
-            Map<Object, List<Method>> listeners = methods.get(eventClass);
-            if (listeners != null)
+            try
             {
-                listeners.forEach((key, value) -> value.forEach(method ->
-                {
-                    try
-                    {
-                        method.setAccessible(true);
-                        method.invoke(key, event);
-                    }
-                    catch (IllegalAccessException | InvocationTargetException e1)
-                    {
-                        JDAImpl.LOG.error("Couldn't access annotated EventListener method", e1);
-                    }
-                    catch (Throwable throwable)
-                    {
-                        JDAImpl.LOG.error("One of the EventListeners had an uncaught exception", throwable);
-                        if (throwable instanceof Error)
-                            throw (Error) throwable;
-                    }
-                }));
+                handler.invokeExact(event);
+            }
+            catch (Throwable throwable)
+            {
+                JDAImpl.LOG.error("One of the EventListeners had an uncaught exception", throwable);
+                if (throwable instanceof Error)
+                    throw (Error) throwable;
             }
-            eventClass = eventClass == Event.class ? null : (Class<? extends GenericEvent>) eventClass.getSuperclass();
         }
-        while (eventClass != null);
     }
 
+    // Called with the lock of listeners
     private void updateMethods()
     {
-        methods.clear();
+        List<Handler> handlers = new ArrayList<>();
         for (Object listener : listeners)
         {
             boolean isClass = listener instanceof Class;
@@ -130,20 +126,80 @@ public class AnnotatedEventManager implements IEventManager
                 Class<?>[] pType  = m.getParameterTypes();
                 if (pType.length == 1 && GenericEvent.class.isAssignableFrom(pType[0]))
                 {
-                    Class<?> eventClass = pType[0];
-                    if (!methods.containsKey(eventClass))
-                    {
-                        methods.put(eventClass, new ConcurrentHashMap<>());
-                    }
-
-                    if (!methods.get(eventClass).containsKey(listener))
-                    {
-                        methods.get(eventClass).put(listener, new CopyOnWriteArrayList<>());
-                    }
-
-                    methods.get(eventClass).get(listener).add(m);
+                    MethodHandle handle = toHandle(listener, m);
+                    if (handle != null)
+                        handlers.add(new Handler(pType[0], handle));
+                }
+            }
+        }
+        table = new DispatchTable(handlers);
+    }
+
+    private static MethodHandle toHandle(Object listener, Method method)
+    {
+        try
+        {
+            method.setAccessible(true);
+            MethodHandle handle = MethodHandles.lookup().unreflect(method);
+            if (!Modifier.isStatic(method.getModifiers()))
+                handle = handle.bindTo(listener);
+            // Accepts any event and drops the return value
+            return handle.asType(HANDLER_TYPE);
+        }
+        catch (IllegalAccessException | RuntimeException e)
+        {
+            JDAImpl.LOG.error("Couldn't access annotated EventListener method", e);
+            return null;
+        }
+    }
+
+    private static class Handler
+    {
+        private final Class<?> eventType;
+        private final MethodHandle handle;
+
+        private Handler(Class<?> eventType, MethodHandle handle)
+        {
+            this.eventType = eventType;
+            this.handle = handle;
+        }
+    }
+
+    private static class DispatchTable
+    {
+        private final List<Handler> handlers;
+        // Event type -> Handlers of the event type and its super classes
+        private final Map<Class<?>, MethodHandle[]> dispatch = new ConcurrentHashMap<>();
+
+        private DispatchTable(List<Handler> handlers)
+        {
+            this.handlers = handlers;
+        }
+
+        private MethodHandle[] getHandlers(Class<?> eventType)
+        {
+            MethodHandle[] result = dispatch.get(eventType);
+            if (result == null)
+                result = dispatch.computeIfAbsent(eventType, this::resolve);
+            return result;
+        }
+
+        private MethodHandle[] resolve(Class<?> eventType)
+        {
+            // Handlers of the most specific event type first
+            List<MethodHandle> result = new ArrayList<>();
+            Class<?> type = eventType;
+            do
+            {
+                for (Handler handler : handlers)
+                {
+                    if (handler.eventType == type)
+                        result.add(handler.handle);
                 }
+                type = type == Event.class ? null : type.getSuperclass();
             }
+            while (type != null);
+            return result.toArray(new MethodHandle[0]);
         }
     }
 }
@@ -20,10 +20,10 @@ import net.dv8tion.jda.internal.JDAImpl;
 import net.dv8tion.jda.internal.utils.JDALogger;
 
 import javax.annotation.Nonnull;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * An {@link net.dv8tion.jda.api.hooks.IEventManager IEventManager} implementation
@@ -34,6 +34,10 @@ import java.util.concurrent.CopyOnWriteArrayList;
  * <br>An adapter implementation is {@link net.dv8tion.jda.api.hooks.ListenerAdapter ListenerAdapter} which
  * provides methods for each individual {@link net.dv8tion.jda.api.events.Event}.
  *
+ * <p>Events are only passed to listeners which can handle them. For a {@link ListenerAdapter} this means that one of the
+ * overridden methods accepts the event, other listeners receive every event.
+ * The listeners of each event type are resolved once and cached until a listener is registered or unregistered.
+ *
  * <p><b>This is the default IEventManager used by JDA</b>
  *
  * @see net.dv8tion.jda.api.hooks.AnnotatedEventManager
@@ -41,7 +45,17 @@ import java.util.concurrent.CopyOnWriteArrayList;
  */
 public class InterfacedEventManager implements IEventManager
 {
-    private final CopyOnWriteArrayList<EventListener> listeners = new CopyOnWriteArrayList<>();
+    // The event types handled by a listener class, null if the listener handles all events
+    private static final ClassValue<Class<?>[]> HANDLED_EVENTS = new ClassValue<Class<?>[]>()
+    {
+        @Override
+        protected Class<?>[] computeValue(Class<?> type)
+        {
+            return findHandledEvents(type);
+        }
+    };
+
+    private volatile DispatchTable table = new DispatchTable(new EventListener[0]);
 
     public InterfacedEventManager()
     {
@@ -61,7 +75,13 @@ public class InterfacedEventManager implements IEventManager
         {
             throw new IllegalArgumentException("Listener must implement EventListener");
         }
-        listeners.add((EventListener) listener);
+        synchronized (this)
+        {
+            EventListener[] listeners = table.listeners;
+            EventListener[] updated = Arrays.copyOf(listeners, listeners.length + 1);
+            updated[listeners.length] = (EventListener) listener;
+            table = new DispatchTable(updated);
+        }
     }
 
     @Override
@@ -75,21 +95,26 @@ public class InterfacedEventManager implements IEventManager
                     listener == null ? "null" : listener.getClass().getName());
         }
 
-        //noinspection SuspiciousMethodCalls
-        listeners.remove(listener);
+        synchronized (this)
+        {
+            List<EventListener> listeners = new ArrayList<>(Arrays.asList(table.listeners));
+            //noinspection SuspiciousMethodCalls
+            if (listeners.remove(listener))
+                table = new DispatchTable(listeners.toArray(new EventListener[0]));
+        }
     }
 
     @Nonnull
     @Override
     public List<Object> getRegisteredListeners()
     {
-        return Collections.unmodifiableList(new ArrayList<>(listeners));
+        return Collections.unmodifiableList(Arrays.asList(table.listeners.clone()));
     }
 
     @Override
     public void handle(@Nonnull GenericEvent event)
     {
-        for (EventListener listener : listeners)
+        for (EventListener listener : table.getListeners(event.getClass()))
         {
             try
             {
@@ -103,4 +128,85 @@ public class InterfacedEventManager implements IEventManager
             }
         }
     }
+
+    private static Class<?>[] findHandledEvents(Class<?> type)
+    {
+        if (!ListenerAdapter.class.isAssignableFrom(type))
+            return null;
+        Set<Class<?>> events = new HashSet<>();
+        try
+        {
+            for (Class<?> c = type; c != ListenerAdapter.class; c = c.getSuperclass())
+            {
+                for (Method method : c.getDeclaredMethods())
+                {
+                    Class<?>[] parameters = method.getParameterTypes();
+                    if (Modifier.isStatic(method.getModifiers()) || parameters.length != 1 || !isAdapterMethod(method.getName(), parameters[0]))
+                        continue;
+                    if (parameters[0] == GenericEvent.class) // onGenericEvent
+                        return null;
+                    events.add(parameters[0]);
+                }
+            }
+        }
+        catch (SecurityException | LinkageError e)
+        {
+            // We cannot tell which methods are overridden, so the listener receives all events
+            JDALogger.getLog(InterfacedEventManager.class).debug("Could not inspect listener class {}", type.getName(), e);
+            return null;
+        }
+        return events.toArray(new Class<?>[0]);
+    }
+
+    private static boolean isAdapterMethod(String name, Class<?> parameter)
+    {
+        try
+        {
+            return ListenerAdapter.class.getMethod(name, parameter).getDeclaringClass() == ListenerAdapter.class;
+        }
+        catch (NoSuchMethodException e)
+        {
+            return false;
+        }
+    }
+
+    private static boolean isHandled(EventListener listener, Class<?> eventType)
+    {
+        Class<?>[] handled = HANDLED_EVENTS.get(listener.getClass());
+        if (handled == null)
+            return true;
+        for (Class<?> type : handled)
+        {
+            if (type.isAssignableFrom(eventType))
+                return true;
+        }
+        return false;
+    }
+
+    private static class DispatchTable
+    {
+        private final EventListener[] listeners;
+        // Event type -> Listeners in order of registration
+        private final Map<Class<?>, EventListener[]> dispatch = new ConcurrentHashMap<>();
+
+        private DispatchTable(EventListener[] listeners)
+        {
+            this.listeners = listeners;
+        }
+
+        private EventListener[] getListeners(Class<?> eventType)
+        {
+            EventListener[] result = dispatch.get(eventType);
+            if (result == null)
+                result = dispatch.computeIfAbsent(eventType, this::resolve);
+            return result;
+        }
+
+        private EventListener[] resolve(Class<?> eventType)
+        {
+            return Arrays.stream(listeners)
+                    .filter(listener -> isHandled(listener, eventType))
+                    .toArray(EventListener[]::new);
+        }
+    }
 }
@@ -31,6 +31,7 @@ import net.dv8tion.jda.internal.entities.SelfUserImpl;
 import net.dv8tion.jda.internal.managers.PresenceImpl;
 import net.dv8tion.jda.internal.requests.RestActionImpl;
 import net.dv8tion.jda.internal.requests.Route;
+import net.dv8tion.jda.internal.requests.ratelimit.SharedRateLimiter;
 import net.dv8tion.jda.internal.utils.Checks;
 import net.dv8tion.jda.internal.utils.JDALogger;
 import net.dv8tion.jda.internal.utils.UnlockHook;
@@ -39,6 +40,7 @@ import net.dv8tion.jda.internal.utils.config.AuthorizationConfig;
 import net.dv8tion.jda.internal.utils.config.MetaConfig;
 import net.dv8tion.jda.internal.utils.config.SessionConfig;
 import net.dv8tion.jda.internal.utils.config.ThreadingConfig;
+import net.dv8tion.jda.internal.utils.config.flags.ShardingConfigFlag;
 import net.dv8tion.jda.internal.utils.config.sharding.*;
 import okhttp3.OkHttpClient;
 import org.slf4j.Logger;
@@ -146,6 +148,11 @@ public class DefaultShardManager implements ShardManager
      */
     protected final ChunkingFilter chunkingFilter;
 
+    /**
+     * The rate limiter shared by all shards, or {@code null} if every shard uses its own rate limiter.
+     */
+    protected final SharedRateLimiter rateLimiter;
+
     public DefaultShardManager(@Nonnull String token)
     {
         this(token, null);
@@ -173,6 +180,7 @@ public class DefaultShardManager implements ShardManager
         this.chunkingFilter = chunkingFilter == null ? ChunkingFilter.ALL : chunkingFilter;
         this.executor = createExecutor(this.threadingConfig.getThreadFactory());
         this.shutdownHook = this.metaConfig.isUseShutdownHook() ? new Thread(this::shutdown, "JDA Shutdown Hook") : null;
+        this.rateLimiter = this.sessionConfig.getShardingFlags().contains(ShardingConfigFlag.SHARED_RATE_LIMITER) ? createRateLimiter() : null;
 
         synchronized (queue)
         {
@@ -358,11 +366,15 @@ public class DefaultShardManager implements ShardManager
                     else
                         jda.shutdown();
                 });
+                if (this.rateLimiter != null)
+                    this.rateLimiter.shutdown(shardingConfig.isUseShutdownNow());
                 this.executor.shutdown();
             });
         }
         else
         {
+            if (this.rateLimiter != null)
+                this.rateLimiter.shutdown(true);
             this.executor.shutdown();
         }
     }
@@ -485,7 +497,9 @@ public class DefaultShardManager implements ShardManager
         }
 
         // imagine if we had macros or closures or destructuring :)
-        ExecutorPair<ScheduledExecutorService> rateLimitPair = resolveExecutor(threadingConfig.getRateLimitPoolProvider(), shardId);
+        ExecutorPair<ScheduledExecutorService> rateLimitPair = this.rateLimiter == null
+            ? resolveExecutor(threadingConfig.getRateLimitPoolProvider(), shardId)
+            : new ExecutorPair<>(this.rateLimiter.getRateLimitPool(), false); // shutdown by the shared rate limiter
         ScheduledExecutorService rateLimitPool = rateLimitPair.executor;
         boolean shutdownRateLimitPool = rateLimitPair.automaticShutdown;
 
@@ -501,6 +515,10 @@ public class DefaultShardManager implements ShardManager
         ExecutorService eventPool = eventPair.executor;
         boolean shutdownEventPool = eventPair.automaticShutdown;
 
+        ExecutorPair<ExecutorService> guildSetupPair = resolveExecutor(threadingConfig.getGuildSetupPoolProvider(), shardId);
+        ExecutorService guildSetupPool = guildSetupPair.executor;
+        boolean shutdownGuildSetupPool = guildSetupPair.automaticShutdown;
+
         AuthorizationConfig authConfig = new AuthorizationConfig(token);
         SessionConfig sessionConfig = this.sessionConfig.toSessionConfig(httpClient);
         ThreadingConfig threadingConfig = new ThreadingConfig();
@@ -508,9 +526,16 @@ public class DefaultShardManager implements ShardManager
         threadingConfig.setGatewayPool(gatewayPool, shutdownGatewayPool);
         threadingConfig.setCallbackPool(callbackPool, shutdownCallbackPool);
         threadingConfig.setEventPool(eventPool, shutdownEventPool);
+        threadingConfig.setGuildSetupPool(guildSetupPool, shutdownGuildSetupPool);
         MetaConfig metaConfig = new MetaConfig(this.metaConfig.getMaxBufferSize(), this.metaConfig.getContextMap(shardId), this.metaConfig.getCacheFlags(), this.sessionConfig.getFlags());
         final JDAImpl jda = new JDAImpl(authConfig, sessionConfig, threadingConfig, metaConfig);
         jda.setMemberCachePolicy(shardingConfig.getMemberCachePolicy());
+        jda.setDispatchFilter(shardingConfig.getDispatchFilter());
+        jda.setDecompressionPool(this.metaConfig.getDecompressionPool());
+        jda.setRateLimitBackend(this.metaConfig.getRateLimitBackend());
+        jda.setMessageCacheSize(this.metaConfig.getMessageCacheSize(), this.metaConfig.getMessageCacheTotal());
+        if (this.rateLimiter != null)
+            jda.getRequester().setRateLimiter(this.rateLimiter.forRequester(jda.getRequester()));
         threadingConfig.init(jda::getIdentifierString);
         // We can only do member chunking with the GUILD_MEMBERS intent
         if ((shardingConfig.getIntents() & GatewayIntent.GUILD_MEMBERS.getRawValue()) == 0)
@@ -592,7 +617,7 @@ public class DefaultShardManager implements ShardManager
         jda.setSelfUser(selfUser);
         jda.setStatus(JDA.Status.INITIALIZED); //This is already set by JDA internally, but this is to make sure the listeners catch it.
 
-        final int shardTotal = jda.login(this.gatewayURL, shardInfo, this.metaConfig.getCompression(), false, shardingConfig.getIntents());
+        final int shardTotal = jda.login(this.gatewayURL, shardInfo, this.metaConfig.getCompression(), false, shardingConfig.getIntents(), this.metaConfig.getEncoding());
         if (getShardsTotal() == -1)
             shardingConfig.setShardsTotal(shardTotal);
 
@@ -651,6 +676,25 @@ public class DefaultShardManager implements ShardManager
         return Executors.newSingleThreadScheduledExecutor(factory);
     }
 
+    /**
+     * This method creates the {@link SharedRateLimiter} used by all shards if
+     * {@link DefaultShardManagerBuilder#setSharedRateLimiter(boolean)} is enabled.
+     *
+     * @return A new SharedRateLimiter
+     */
+    protected SharedRateLimiter createRateLimiter()
+    {
+        ExecutorPair<ScheduledExecutorService> pair = resolveExecutor(threadingConfig.getRateLimitPoolProvider(), 0);
+        ScheduledExecutorService pool = pair.executor;
+        if (pool == null)
+            pool = ThreadingConfig.newScheduler(5, () -> "ShardManager", "RateLimit", false);
+        SharedRateLimiter rateLimiter = new SharedRateLimiter(pool, pair.automaticShutdown,
+            sessionConfig.getSessionController(), metaConfig.getRateLimitBackend(),
+            sessionConfig.isRelativeRateLimit(), sessionConfig.isAsyncRequests());
+        rateLimiter.init();
+        return rateLimiter;
+    }
+
     protected static <E extends ExecutorService> ExecutorPair<E> resolveExecutor(ThreadPoolProvider<? extends E> provider, int shardId)
     {
         E executor = null;
@@ -28,7 +28,11 @@ import net.dv8tion.jda.api.requests.GatewayIntent;
 import net.dv8tion.jda.api.requests.RestAction;
 import net.dv8tion.jda.api.utils.ChunkingFilter;
 import net.dv8tion.jda.api.utils.Compression;
+import net.dv8tion.jda.api.utils.DecompressionBufferPool;
+import net.dv8tion.jda.api.utils.GatewayEncoding;
+import net.dv8tion.jda.api.utils.DispatchFilter;
 import net.dv8tion.jda.api.utils.MemberCachePolicy;
+import net.dv8tion.jda.api.utils.RateLimitBackend;
 import net.dv8tion.jda.api.utils.SessionController;
 import net.dv8tion.jda.api.utils.cache.CacheFlag;
 import net.dv8tion.jda.internal.JDAImpl;
@@ -64,10 +68,11 @@ public class  DefaultShardManagerBuilder
     protected final EnumSet<CacheFlag> automaticallyDisabled = EnumSet.noneOf(CacheFlag.class);
     protected SessionController sessionController = null;
     protected VoiceDispatchInterceptor voiceDispatchInterceptor = null;
-    protected EnumSet<CacheFlag> cacheFlags = EnumSet.allOf(CacheFlag.class);
+    protected EnumSet<CacheFlag> cacheFlags = EnumSet.complementOf(EnumSet.of(CacheFlag.MEMBER_INDEX, CacheFlag.MESSAGE));
     protected EnumSet<ConfigFlag> flags = ConfigFlag.getDefault();
     protected EnumSet<ShardingConfigFlag> shardingFlags = ShardingConfigFlag.getDefault();
     protected Compression compression = Compression.ZLIB;
+    protected GatewayEncoding encoding = GatewayEncoding.JSON;
     protected int shardsTotal = -1;
     protected int maxReconnectDelay = 900;
     protected int largeThreshold = 250;
@@ -83,6 +88,7 @@ public class  DefaultShardManagerBuilder
     protected ThreadPoolProvider<? extends ScheduledExecutorService> gatewayPoolProvider = null;
     protected ThreadPoolProvider<? extends ExecutorService> callbackPoolProvider = null;
     protected ThreadPoolProvider<? extends ExecutorService> eventPoolProvider = null;
+    protected ThreadPoolProvider<? extends ExecutorService> guildSetupPoolProvider = null;
     protected Collection<Integer> shards = null;
     protected OkHttpClient.Builder httpClientBuilder = null;
     protected OkHttpClient httpClient = null;
@@ -91,6 +97,11 @@ public class  DefaultShardManagerBuilder
     protected ThreadFactory threadFactory = null;
     protected ChunkingFilter chunkingFilter;
     protected MemberCachePolicy memberCachePolicy = MemberCachePolicy.ALL;
+    protected DispatchFilter dispatchFilter = DispatchFilter.ALL;
+    protected DecompressionBufferPool decompressionPool = null;
+    protected RateLimitBackend rateLimitBackend = null;
+    protected int messageCacheSize = 50;
+    protected int messageCacheTotal = 5000;
 
     /**
      * Creates a completely empty DefaultShardManagerBuilder.
@@ -548,6 +559,109 @@ public class  DefaultShardManagerBuilder
         return setFlag(ConfigFlag.USE_RELATIVE_RATELIMIT, enable);
     }
 
+    /**
+     * Whether REST requests should be executed asynchronously.
+     * <br>By default, each rate-limit worker thread blocks until the response of its current request arrives.
+     * Slow responses can therefore stall the requests of every other rate-limit bucket.
+     *
+     * <p>When enabled, the HTTP call is handed to the {@link okhttp3.Dispatcher Dispatcher} of the {@link okhttp3.OkHttpClient OkHttpClient}
+     * and the bucket continues once the response arrives. This allows a few rate-limit threads to keep many requests of different
+     * buckets in flight. Requests of the same bucket are still executed in order, one at a time.
+     * The amount of concurrent requests is limited by {@link okhttp3.Dispatcher#setMaxRequestsPerHost(int)},
+     * which is 25 for the default client.
+     *
+     * <p>Default: <b>false</b>
+     *
+     * @param  enable
+     *         True, if requests should be executed asynchronously
+     *
+     * @return The DefaultShardManagerBuilder instance. Useful for chaining.
+     *
+     * @since  4.2.0
+     */
+    @Nonnull
+    public DefaultShardManagerBuilder setAsyncRequests(boolean enable)
+    {
+        return setFlag(ConfigFlag.ASYNC_REQUESTS, enable);
+    }
+
+    /**
+     * Whether JDA should deduplicate activities, names, and discriminators of the cached entities.
+     * <br>Many members share identical activities and discriminators, without interning every presence update
+     * retains its own copy of these objects.
+     *
+     * <p>When enabled, equal instances are replaced by an instance that is already in use.
+     * The interners are shared by all JDA instances of the process, have a fixed size,
+     * and only hold weak references to the instances.
+     *
+     * <p>Default: <b>false</b>
+     *
+     * @param  enable
+     *         True, if activities and frequently repeated strings should be interned
+     *
+     * @return The DefaultShardManagerBuilder instance. Useful for chaining.
+     *
+     * @since  4.2.0
+     */
+    @Nonnull
+    public DefaultShardManagerBuilder setInterningEnabled(boolean enable)
+    {
+        return setFlag(ConfigFlag.INTERNING, enable);
+    }
+
+    /**
+     * Whether the member cache of each guild should store the state of the members in arrays.
+     * <br>By default, every cached member is a separate object graph. For millions of cached members,
+     * these objects can dominate the garbage collection pauses.
+     *
+     * <p>When enabled, the nickname, join and boost dates, roles, activities, and online status of the members
+     * are stored in a few large arrays per guild. The {@link net.dv8tion.jda.api.entities.Member Member} instances
+     * are created on demand and always reflect the current state of the member, which makes repeated lookups
+     * slightly slower. Once a member is removed from the cache, the instances which were already returned keep
+     * the last state of the member. The users of the members are still cached as objects.
+     *
+     * <p>Default: <b>false</b>
+     *
+     * @param  enable
+     *         True, if the compact member cache should be used
+     *
+     * @return The DefaultShardManagerBuilder instance. Useful for chaining.
+     *
+     * @since  4.2.0
+     */
+    @Nonnull
+    public DefaultShardManagerBuilder setCompactMemberCache(boolean enable)
+    {
+        return setFlag(ConfigFlag.COMPACT_MEMBER_CACHE, enable);
+    }
+
+    /**
+     * Whether all shards should share a single REST rate limiter.
+     * <br>Discord applies rate limits per bot, not per shard. By default, every shard keeps track of the rate-limit buckets
+     * on its own and uses its own rate-limit worker threads. Shards can therefore exceed a shared bucket without knowing about it,
+     * for instance when they edit the same channel or send direct messages.
+     *
+     * <p>When enabled, the {@link net.dv8tion.jda.api.sharding.ShardManager ShardManager} uses a single bucket table,
+     * global rate limit and set of rate-limit worker threads for all of its shards.
+     * The worker threads are taken from the pool which {@link #setRateLimitPoolProvider(ThreadPoolProvider)} provides for shard 0,
+     * or a new pool with 5 threads if no provider is set. Every shard then uses this pool as its rate-limit pool.
+     * Consider using {@link #setAsyncRequests(boolean)} or a larger pool for a high amount of shards.
+     *
+     * <p>Default: <b>false</b>
+     *
+     * @param  enable
+     *         True, if all shards should share a single rate limiter
+     *
+     * @return The DefaultShardManagerBuilder instance. Useful for chaining.
+     *
+     * @since  4.2.0
+     */
+    @Nonnull
+    public DefaultShardManagerBuilder setSharedRateLimiter(boolean enable)
+    {
+        return setFlag(ShardingConfigFlag.SHARED_RATE_LIMITER, enable);
+    }
+
     /**
      * Flags used to enable parts of the JDA cache to reduce the runtime memory footprint.
      * <br><b>It is highly recommended to use {@link #setDisabledCacheFlags(EnumSet)} instead
@@ -626,6 +740,8 @@ public class  DefaultShardManagerBuilder
     /**
      * Flags used to disable parts of the JDA cache to reduce the runtime memory footprint.
      * <br>Shortcut for {@code setEnabledCacheFlags(EnumSet.complementOf(flags))}
+     * <br>This does not enable {@link CacheFlag#MEMBER_INDEX MEMBER_INDEX} or {@link CacheFlag#MESSAGE MESSAGE},
+     * use {@link #enableCache(CacheFlag, CacheFlag...)} for those.
      *
      * @param  flags
      *         EnumSet containing the flags for cache services that should be <b>disabled</b>
@@ -643,7 +759,12 @@ public class  DefaultShardManagerBuilder
     @DeprecatedSince("4.2.0")
     public DefaultShardManagerBuilder setDisabledCacheFlags(@Nullable EnumSet<CacheFlag> flags)
     {
-        return setEnabledCacheFlags(flags == null ? EnumSet.allOf(CacheFlag.class) : EnumSet.complementOf(flags));
+        EnumSet<CacheFlag> enabled = flags == null ? EnumSet.allOf(CacheFlag.class) : EnumSet.complementOf(flags);
+        // The member index and message cache are opt-in, they stay disabled unless they were enabled before
+        EnumSet<CacheFlag> optIn = EnumSet.of(CacheFlag.MEMBER_INDEX, CacheFlag.MESSAGE);
+        optIn.removeAll(cacheFlags);
+        enabled.removeAll(optIn);
+        return setEnabledCacheFlags(enabled);
     }
 
     /**
@@ -852,6 +973,30 @@ public class  DefaultShardManagerBuilder
         return this;
     }
 
+    /**
+     * Sets the encoding used for payloads of the gateway connection.
+     * <br>{@link GatewayEncoding#ETF ETF} is a binary format which is smaller and cheaper to decode than JSON,
+     * outgoing payloads are then sent as binary messages.
+     * <br><b>Default: {@link GatewayEncoding#JSON}</b>
+     *
+     * @param  encoding
+     *         The encoding to use with the gateway connection
+     *
+     * @throws java.lang.IllegalArgumentException
+     *         If provided with null
+     *
+     * @return The DefaultShardManagerBuilder instance. Useful for chaining
+     *
+     * @see    <a href="https://discord.com/developers/docs/topics/gateway#etfjson" target="_blank">Official Discord Documentation - ETF/JSON</a>
+     */
+    @Nonnull
+    public DefaultShardManagerBuilder setGatewayEncoding(@Nonnull GatewayEncoding encoding)
+    {
+        Checks.notNull(encoding, "Encoding");
+        this.encoding = encoding;
+        return this;
+    }
+
     /**
      * Adds all provided listeners to the list of listeners that will be used to populate the {@link DefaultShardManager DefaultShardManager} object.
      * <br>This uses the {@link net.dv8tion.jda.api.hooks.InterfacedEventManager InterfacedEventListener} by default.
@@ -1617,6 +1762,72 @@ public class  DefaultShardManagerBuilder
         return this;
     }
 
+    /**
+     * Sets the {@link ExecutorService ExecutorService} that should be used to build the guild entities
+     * once their setup is complete. By default this is done on the gateway thread of each shard, which handles one guild at a time.
+     * <br>With an executor the guilds are built concurrently, the same executor can be shared by all shards.
+     *
+     * <p>Events for a guild received while it is built are held back and handled once it is available, in the order they were received.
+     * The ready events for the guild, such as {@link net.dv8tion.jda.api.events.guild.GuildReadyEvent GuildReadyEvent},
+     * are fired on the thread of the executor.
+     *
+     * <p>The executor will not be shutdown automatically when the shard is shutdown.
+     * To shut it down automatically use {@link #setGuildSetupPool(ExecutorService, boolean)}.
+     *
+     * @param  executor
+     *         The executor for guild setup, or null to use the gateway thread
+     *
+     * @return The DefaultShardManagerBuilder instance. Useful for chaining.
+     *
+     * @since  4.2.0
+     */
+    @Nonnull
+    public DefaultShardManagerBuilder setGuildSetupPool(@Nullable ExecutorService executor)
+    {
+        return setGuildSetupPool(executor, executor == null);
+    }
+
+    /**
+     * Sets the {@link ExecutorService ExecutorService} that should be used to build the guild entities
+     * once their setup is complete. By default this is done on the gateway thread of each shard.
+     *
+     * @param  executor
+     *         The executor for guild setup, or null to use the gateway thread
+     * @param  automaticShutdown
+     *         True, if the executor should be shutdown when JDA shuts down
+     *
+     * @return The DefaultShardManagerBuilder instance. Useful for chaining.
+     *
+     * @see    #setGuildSetupPool(ExecutorService)
+     *
+     * @since  4.2.0
+     */
+    @Nonnull
+    public DefaultShardManagerBuilder setGuildSetupPool(@Nullable ExecutorService executor, boolean automaticShutdown)
+    {
+        return setGuildSetupPoolProvider(executor == null ? null : new ThreadPoolProviderImpl<>(executor, automaticShutdown));
+    }
+
+    /**
+     * Sets the {@link ThreadPoolProvider ThreadPoolProvider} for the executors used to build the guild entities
+     * once their setup is complete. By default this is done on the gateway thread of each shard.
+     *
+     * @param  provider
+     *         The thread-pool provider to use for guild setup
+     *
+     * @return The DefaultShardManagerBuilder instance. Useful for chaining.
+     *
+     * @see    #setGuildSetupPool(ExecutorService)
+     *
+     * @since  4.2.0
+     */
+    @Nonnull
+    public DefaultShardManagerBuilder setGuildSetupPoolProvider(@Nullable ThreadPoolProvider<? extends ExecutorService> provider)
+    {
+        this.guildSetupPoolProvider = provider;
+        return this;
+    }
+
     /**
      * Sets the maximum amount of time that JDA will back off to wait when attempting to reconnect the MainWebsocket.
      * <br>Provided value must be 32 or greater.
@@ -1854,6 +2065,31 @@ public class  DefaultShardManagerBuilder
         return this;
     }
 
+    /**
+     * The {@link DispatchFilter} to decide which gateway dispatches should be handled.
+     * <br>By default this uses {@link DispatchFilter#ALL}.
+     *
+     * <p>Dispatches rejected by this filter are discarded before their payload is parsed,
+     * no cache updates or events will happen for them.
+     * This can greatly reduce the processing cost of high-traffic dispatches such as {@code TYPING_START} or {@code PRESENCE_UPDATE}.
+     *
+     * @param  filter
+     *         The filter to apply, or null to use {@link DispatchFilter#ALL}
+     *
+     * @return The DefaultShardManagerBuilder instance. Useful for chaining.
+     *
+     * @since  4.2.0
+     *
+     * @see    DispatchFilter#include(String...)
+     * @see    DispatchFilter#exclude(String...)
+     */
+    @Nonnull
+    public DefaultShardManagerBuilder setDispatchFilter(@Nullable DispatchFilter filter)
+    {
+        this.dispatchFilter = filter == null ? DispatchFilter.ALL : filter;
+        return this;
+    }
+
     /**
      * Enable typing and presence update events.
      * <br>These events cover the majority of traffic happening on the gateway and thus cause a lot
@@ -2168,6 +2404,82 @@ public class  DefaultShardManagerBuilder
         return this;
     }
 
+    /**
+     * Sets the {@link DecompressionBufferPool} used for {@link Compression#ZLIB ZLIB} decompression of gateway payloads.
+     * <br>The pool is shared by all shards of the resulting shard manager and keeps track of the decompressed bytes
+     * and how often buffers were reused.
+     * If no pool is set, each shard uses its own buffer limited by {@link #setMaxBufferSize(int)}.
+     *
+     * <p>Default: {@code null}
+     *
+     * @param  pool
+     *         The pool to use, or null to use a buffer per shard
+     *
+     * @return The DefaultShardManagerBuilder instance. Useful for chaining.
+     *
+     * @since  4.2.0
+     */
+    @Nonnull
+    public DefaultShardManagerBuilder setDecompressionBufferPool(@Nullable DecompressionBufferPool pool)
+    {
+        this.decompressionPool = pool;
+        return this;
+    }
+
+    /**
+     * Sets the {@link RateLimitBackend} which stores the REST rate limits of all shards.
+     * <br>This can be used to share the rate limits of a bot with shards running in other processes.
+     * If a backend is set, the global rate limit of the {@link #setSessionController(SessionController) SessionController} is not used.
+     *
+     * <p>Default: {@code null}
+     *
+     * @param  backend
+     *         The backend to use, or null to keep the rate limits in memory
+     *
+     * @return The DefaultShardManagerBuilder instance. Useful for chaining.
+     *
+     * @see    net.dv8tion.jda.api.utils.LocalRateLimitBackend LocalRateLimitBackend
+     *
+     * @since  4.2.0
+     */
+    @Nonnull
+    public DefaultShardManagerBuilder setRateLimitBackend(@Nullable RateLimitBackend backend)
+    {
+        this.rateLimitBackend = backend;
+        return this;
+    }
+
+    /**
+     * The amount of messages kept by the message cache, which is enabled by {@link CacheFlag#MESSAGE CacheFlag.MESSAGE}.
+     * <br>Every {@link net.dv8tion.jda.api.entities.TextChannel TextChannel} and {@link net.dv8tion.jda.api.entities.PrivateChannel PrivateChannel}
+     * keeps up to {@code perChannel} of its latest messages. Once {@code total} messages are cached, the oldest messages of the
+     * least active channels are dropped first.
+     * <br>Every shard has its own message cache with these limits.
+     *
+     * <p>Default: {@code 50} per channel, {@code 5000} in total
+     *
+     * @param  perChannel
+     *         The maximum amount of messages per channel
+     * @param  total
+     *         The maximum amount of messages in all channels
+     *
+     * @throws IllegalArgumentException
+     *         If either size is not positive
+     *
+     * @return The DefaultShardManagerBuilder instance. Useful for chaining.
+     *
+     * @since  4.2.0
+     */
+    @Nonnull
+    public DefaultShardManagerBuilder setMessageCacheSize(int perChannel, int total)
+    {
+        Checks.positive(perChannel, "Messages per channel");
+        Checks.positive(total, "Total messages");
+        this.messageCacheSize = perChannel;
+        this.messageCacheTotal = total;
+        return this;
+    }
+
     /**
      * Builds a new {@link net.dv8tion.jda.api.sharding.ShardManager ShardManager} instance and uses the provided token to start the login process.
      * <br>The login process runs in a different thread, so while this will return immediately, {@link net.dv8tion.jda.api.sharding.ShardManager ShardManager} has not
@@ -2190,7 +2502,7 @@ public class  DefaultShardManagerBuilder
     {
         checkIntents();
         boolean useShutdownNow = shardingFlags.contains(ShardingConfigFlag.SHUTDOWN_NOW);
-        final ShardingConfig shardingConfig = new ShardingConfig(shardsTotal, useShutdownNow, intents, memberCachePolicy);
+        final ShardingConfig shardingConfig = new ShardingConfig(shardsTotal, useShutdownNow, intents, memberCachePolicy, dispatchFilter);
         final EventConfig eventConfig = new EventConfig(eventManagerProvider);
         listeners.forEach(eventConfig::addEventListener);
         listenerProviders.forEach(eventConfig::addEventListenerProvider);
@@ -2198,9 +2510,9 @@ public class  DefaultShardManagerBuilder
         presenceConfig.setActivityProvider(activityProvider);
         presenceConfig.setStatusProvider(statusProvider);
         presenceConfig.setIdleProvider(idleProvider);
-        final ThreadingProviderConfig threadingConfig = new ThreadingProviderConfig(rateLimitPoolProvider, gatewayPoolProvider, callbackPoolProvider, eventPoolProvider, threadFactory);
+        final ThreadingProviderConfig threadingConfig = new ThreadingProviderConfig(rateLimitPoolProvider, gatewayPoolProvider, callbackPoolProvider, eventPoolProvider, guildSetupPoolProvider, threadFactory);
         final ShardingSessionConfig sessionConfig = new ShardingSessionConfig(sessionController, voiceDispatchInterceptor, httpClient, httpClientBuilder, wsFactory, audioSendFactory, flags, shardingFlags, maxReconnectDelay, largeThreshold);
-        final ShardingMetaConfig metaConfig = new ShardingMetaConfig(maxBufferSize, contextProvider, cacheFlags, flags, compression);
+        final ShardingMetaConfig metaConfig = new ShardingMetaConfig(maxBufferSize, contextProvider, cacheFlags, flags, compression, decompressionPool, encoding, rateLimitBackend, messageCacheSize, messageCacheTotal);
         final DefaultShardManager manager = new DefaultShardManager(this.token, this.shards, shardingConfig, eventConfig, presenceConfig, threadingConfig, sessionConfig, metaConfig, chunkingFilter);
 
         manager.login();
@@ -24,6 +24,7 @@ import net.dv8tion.jda.api.entities.*;
 import net.dv8tion.jda.api.requests.GatewayIntent;
 import net.dv8tion.jda.api.requests.RestAction;
 import net.dv8tion.jda.api.utils.MiscUtil;
+import net.dv8tion.jda.api.utils.cache.CacheStatistics;
 import net.dv8tion.jda.api.utils.cache.CacheView;
 import net.dv8tion.jda.api.utils.cache.ShardCacheView;
 import net.dv8tion.jda.api.utils.cache.SnowflakeCacheView;
@@ -226,6 +227,24 @@ public interface ShardManager
                 .orElse(-1D);
     }
 
+    /**
+     * Takes a snapshot of the size of the entity caches of all shards.
+     * <br>Entities which are cached by multiple shards, such as users, are counted once per shard.
+     *
+     * @return The combined {@link net.dv8tion.jda.api.utils.cache.CacheStatistics CacheStatistics}
+     *
+     * @see    JDA#getCacheStatistics()
+     *
+     * @since  4.2.0
+     */
+    @Nonnull
+    default CacheStatistics getCacheStatistics()
+    {
+        return CacheStatistics.combine(this.getShardCache().applyStream(stream ->
+            stream.map(JDA::getCacheStatistics).collect(Collectors.toList())
+        ));
+    }
+
     /**
      * Gets all {@link net.dv8tion.jda.api.entities.Category Categories} visible to the currently logged in account.
      *
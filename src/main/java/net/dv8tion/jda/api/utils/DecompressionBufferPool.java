@@ -0,0 +1,220 @@
+/*
+ * Copyright 2015-2020 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.api.utils;
+
+import net.dv8tion.jda.internal.utils.Checks;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pool of buffers used for {@link Compression#ZLIB ZLIB} transport decompression.
+ * <br>A single pool can be shared by any number of JDA sessions, for instance all shards of a
+ * {@link net.dv8tion.jda.api.sharding.DefaultShardManager DefaultShardManager}.
+ * No pool is used unless one is set on the builder, by default each session uses its own buffer.
+ *
+ * <p>Buffers are grouped in size classes of powers of two, starting at {@value #MIN_BUFFER_SIZE} bytes
+ * up to the configured maximum buffer size. Each size class retains a fixed number of buffers,
+ * buffers above the maximum size are never retained. Unlike the default per-session buffer,
+ * pooled buffers are strongly referenced and are not reclaimed by the garbage collector under memory pressure.
+ *
+ * <p>This pool also keeps track of the amount of processed bytes and how often buffers were reused,
+ * which can be used for monitoring.
+ *
+ * @since 4.2.0
+ *
+ * @see   net.dv8tion.jda.api.JDABuilder#setDecompressionBufferPool(DecompressionBufferPool) JDABuilder.setDecompressionBufferPool(DecompressionBufferPool)
+ * @see   net.dv8tion.jda.api.sharding.DefaultShardManagerBuilder#setDecompressionBufferPool(DecompressionBufferPool) DefaultShardManagerBuilder.setDecompressionBufferPool(DecompressionBufferPool)
+ */
+public class DecompressionBufferPool
+{
+    /** The size of the smallest size class */
+    public static final int MIN_BUFFER_SIZE = 1024;
+    /** The size of the largest possible size class */
+    public static final int MAX_POOLED_SIZE = 1 << 30;
+
+    private final BlockingQueue<byte[]>[] sizeClasses;
+    private final int maxBufferSize;
+    private final LongAdder bytesIn = new LongAdder();
+    private final LongAdder bytesOut = new LongAdder();
+    private final LongAdder allocated = new LongAdder();
+    private final LongAdder reused = new LongAdder();
+
+    /**
+     * Creates a new pool which retains up to 16 buffers of each size class up to 1 MiB.
+     */
+    public DecompressionBufferPool()
+    {
+        this(1 << 20, 16);
+    }
+
+    /**
+     * Creates a new pool.
+     *
+     * @param  maxBufferSize
+     *         The maximum size, in bytes, of buffers which should be retained by this pool.
+     *         This is rounded up to the next power of two and may not exceed {@value #MAX_POOLED_SIZE}.
+     * @param  buffersPerSize
+     *         The maximum amount of buffers retained for each size class
+     *
+     * @throws IllegalArgumentException
+     *         If either of the provided values is not positive or the maximum buffer size is too large
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"}) // Generic arrays can only be created raw, every element is a BlockingQueue<byte[]>
+    public DecompressionBufferPool(int maxBufferSize, int buffersPerSize)
+    {
+        Checks.positive(maxBufferSize, "Max buffer size");
+        Checks.positive(buffersPerSize, "Buffers per size");
+        Checks.check(maxBufferSize <= MAX_POOLED_SIZE, "Max buffer size may not exceed %d", MAX_POOLED_SIZE);
+        int classes = sizeClass(maxBufferSize) + 1;
+        this.maxBufferSize = MIN_BUFFER_SIZE << (classes - 1);
+        this.sizeClasses = new BlockingQueue[classes];
+        for (int i = 0; i < classes; i++)
+            this.sizeClasses[i] = new ArrayBlockingQueue<>(buffersPerSize);
+    }
+
+    /**
+     * Acquires a buffer with at least the specified size.
+     * <br>The buffer should be returned using {@link #release(byte[])} once it is no longer used.
+     *
+     * @param  minSize
+     *         The minimum size of the buffer
+     *
+     * @return The buffer
+     */
+    @Nonnull
+    public byte[] acquire(int minSize)
+    {
+        if (minSize > maxBufferSize)
+        {
+            allocated.increment();
+            return new byte[minSize];
+        }
+
+        int sizeClass = sizeClass(minSize);
+        byte[] buffer = sizeClasses[sizeClass].poll();
+        if (buffer == null)
+        {
+            allocated.increment();
+            return new byte[MIN_BUFFER_SIZE << sizeClass];
+        }
+        reused.increment();
+        return buffer;
+    }
+
+    /**
+     * Returns a buffer which was previously acquired by {@link #acquire(int)}.
+     * <br>The buffer is discarded if it exceeds the maximum buffer size or its size class is already full.
+     *
+     * @param  buffer
+     *         The buffer to return
+     */
+    public void release(@Nonnull byte[] buffer)
+    {
+        int length = buffer.length;
+        // Only retain buffers that exactly fit a size class
+        if (length > maxBufferSize || length < MIN_BUFFER_SIZE || Integer.bitCount(length) != 1)
+            return;
+        sizeClasses[sizeClass(length)].offer(buffer);
+    }
+
+    /**
+     * Records a decompressed payload for monitoring.
+     *
+     * @param  compressed
+     *         The amount of compressed bytes
+     * @param  decompressed
+     *         The amount of decompressed bytes
+     */
+    public void record(int compressed, int decompressed)
+    {
+        bytesIn.add(compressed);
+        bytesOut.add(decompressed);
+    }
+
+    /**
+     * The maximum size of buffers which are retained by this pool.
+     *
+     * @return The maximum buffer size
+     */
+    public int getMaxBufferSize()
+    {
+        return maxBufferSize;
+    }
+
+    /**
+     * The total amount of compressed bytes received.
+     *
+     * @return The amount of compressed bytes
+     */
+    public long getBytesIn()
+    {
+        return bytesIn.sum();
+    }
+
+    /**
+     * The total amount of bytes produced by decompression.
+     *
+     * @return The amount of decompressed bytes
+     */
+    public long getBytesOut()
+    {
+        return bytesOut.sum();
+    }
+
+    /**
+     * The amount of buffers that had to be allocated because no pooled buffer was available.
+     *
+     * @return The amount of allocated buffers
+     */
+    public long getAllocatedCount()
+    {
+        return allocated.sum();
+    }
+
+    /**
+     * The amount of buffers that were served from the pool.
+     *
+     * @return The amount of reused buffers
+     */
+    public long getReusedCount()
+    {
+        return reused.sum();
+    }
+
+    /**
+     * The ratio of buffer requests which were served from the pool, in {@code [0, 1]}.
+     *
+     * @return The reuse ratio, or {@code 0} if no buffers were requested yet
+     */
+    public double getReuseRatio()
+    {
+        long reused = getReusedCount();
+        long total = reused + getAllocatedCount();
+        return total == 0 ? 0 : (double) reused / total;
+    }
+
+    private static int sizeClass(int size)
+    {
+        if (size <= MIN_BUFFER_SIZE)
+            return 0;
+        // Index of the next power of two relative to MIN_BUFFER_SIZE
+        return 32 - Integer.numberOfLeadingZeros(size - 1) - Integer.numberOfTrailingZeros(MIN_BUFFER_SIZE);
+    }
+}
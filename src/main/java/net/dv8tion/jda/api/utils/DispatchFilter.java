@@ -0,0 +1,106 @@
+/*
+ * Copyright 2015-2020 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.api.utils;
+
+import net.dv8tion.jda.internal.utils.Checks;
+
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Filter function for gateway dispatches.
+ * <br>The filter decides based on the dispatch type (for example {@code "TYPING_START"}) whether
+ * the payload should be handled at all. Dispatches that are rejected by this filter are discarded
+ * before the payload body is parsed, which means neither the cache is updated nor any events are fired for them.
+ *
+ * <p>This is useful to drop high-traffic dispatches like {@code TYPING_START} or {@code PRESENCE_UPDATE}
+ * which are ignored by the bot anyway. Note that dropping dispatches that update the cache,
+ * such as {@code GUILD_MEMBER_UPDATE}, will leave the cache in an outdated state.
+ *
+ * <p>Dispatches required for the session lifecycle ({@code READY}, {@code RESUMED}, {@code GUILD_CREATE},
+ * {@code GUILD_DELETE} and {@code GUILD_MEMBERS_CHUNK}) are never passed to this filter and will always be handled.
+ *
+ * @since 4.2.0
+ *
+ * @see   #ALL
+ * @see   #include(String...)
+ * @see   #exclude(String...)
+ *
+ * @see   net.dv8tion.jda.api.JDABuilder#setDispatchFilter(DispatchFilter) JDABuilder.setDispatchFilter(DispatchFilter)
+ * @see   net.dv8tion.jda.api.sharding.DefaultShardManagerBuilder#setDispatchFilter(DispatchFilter) DefaultShardManagerBuilder.setDispatchFilter(DispatchFilter)
+ * @see   <a href="https://discord.com/developers/docs/topics/gateway#commands-and-events-gateway-events" target="_blank">Discord Documentation: Gateway Events</a>
+ */
+@FunctionalInterface
+public interface DispatchFilter
+{
+    /** Handle all dispatches (default) */
+    DispatchFilter ALL = (x) -> true;
+
+    /**
+     * Decide whether the dispatch of the specified type should be handled.
+     *
+     * @param  type
+     *         The dispatch type, for example {@code "MESSAGE_CREATE"}
+     *
+     * @return True, if this dispatch should be handled
+     */
+    boolean filter(@Nonnull String type);
+
+    /**
+     * Factory method to only handle a whitelist of dispatch types.
+     * <br>All dispatches that are not mentioned will be discarded, except for the lifecycle dispatches.
+     *
+     * @param  types
+     *         The dispatch types that should be handled
+     *
+     * @throws IllegalArgumentException
+     *         If null is provided
+     *
+     * @return The resulting filter
+     */
+    @Nonnull
+    static DispatchFilter include(@Nonnull String... types)
+    {
+        Checks.noneNull(types, "Types");
+        Set<String> set = new HashSet<>(Arrays.asList(types));
+        return set::contains;
+    }
+
+    /**
+     * Factory method to discard a blacklist of dispatch types.
+     * <br>All dispatches that are not mentioned will be handled.
+     *
+     * @param  types
+     *         The dispatch types that should be discarded
+     *
+     * @throws IllegalArgumentException
+     *         If null is provided
+     *
+     * @return The resulting filter
+     */
+    @Nonnull
+    static DispatchFilter exclude(@Nonnull String... types)
+    {
+        Checks.noneNull(types, "Types");
+        if (types.length == 0)
+            return ALL;
+        Set<String> set = new HashSet<>(Arrays.asList(types));
+        return (type) -> !set.contains(type);
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2015-2020 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.api.utils;
+
+/**
+ * Encodings that can be used for the gateway connection.
+ *
+ * @since 4.2.0
+ *
+ * @see net.dv8tion.jda.api.JDABuilder#setGatewayEncoding(GatewayEncoding)
+ * @see net.dv8tion.jda.api.sharding.DefaultShardManagerBuilder#setGatewayEncoding(GatewayEncoding)
+ * @see <a href="https://discord.com/developers/docs/topics/gateway#etfjson" target="_blank">Official Discord Documentation - ETF/JSON</a>
+ */
+public enum GatewayEncoding
+{
+    /** Use JSON text payloads (default) */
+    JSON("json"),
+    /**
+     * Use the binary Erlang External Term Format.
+     * <br>This format is smaller and cheaper to decode, snowflakes are sent as integers instead of strings.
+     *
+     * @see net.dv8tion.jda.api.utils.data.etf.ExTermDecoder
+     */
+    ETF("etf");
+
+    private final String key;
+
+    GatewayEncoding(String key)
+    {
+        this.key = key;
+    }
+
+    /**
+     * The key used for the gateway query to enable this encoding
+     *
+     * @return The query key
+     */
+    public String getKey()
+    {
+        return key;
+    }
+}
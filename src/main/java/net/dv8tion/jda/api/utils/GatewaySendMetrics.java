@@ -0,0 +1,107 @@
+/*
+ * Copyright 2015-2020 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.api.utils;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Metrics of the commands JDA sends over the gateway connection.
+ * <br>Commands are sent in order of their {@link Priority}, chunk requests first, then voice state updates and finally
+ * all other commands such as presence updates.
+ *
+ * <p>Discord limits each session to 120 commands per minute, commands which exceed this limit are queued
+ * until the limit allows sending them. The time-to-send of a command is the time between queueing
+ * the command and writing it to the connection.
+ *
+ * @since 4.2.0
+ *
+ * @see   net.dv8tion.jda.api.JDA#getGatewaySendMetrics()
+ */
+public interface GatewaySendMetrics
+{
+    /**
+     * The amount of commands which are currently queued with the provided priority.
+     *
+     * @param  priority
+     *         The priority
+     *
+     * @throws IllegalArgumentException
+     *         If the provided priority is null
+     *
+     * @return The current queue depth
+     */
+    int getQueueSize(@Nonnull Priority priority);
+
+    /**
+     * The amount of commands with the provided priority that have been sent.
+     *
+     * @param  priority
+     *         The priority
+     *
+     * @throws IllegalArgumentException
+     *         If the provided priority is null
+     *
+     * @return The amount of sent commands
+     */
+    long getSentCount(@Nonnull Priority priority);
+
+    /**
+     * The average time-to-send, in milliseconds, of commands with the provided priority.
+     *
+     * @param  priority
+     *         The priority
+     *
+     * @throws IllegalArgumentException
+     *         If the provided priority is null
+     *
+     * @return The average time-to-send, or {@code 0} if no command has been sent yet
+     */
+    double getAverageTimeToSend(@Nonnull Priority priority);
+
+    /**
+     * The highest time-to-send, in milliseconds, of commands with the provided priority.
+     *
+     * @param  priority
+     *         The priority
+     *
+     * @throws IllegalArgumentException
+     *         If the provided priority is null
+     *
+     * @return The highest time-to-send
+     */
+    long getMaxTimeToSend(@Nonnull Priority priority);
+
+    /**
+     * The amount of queued commands that can currently be sent without waiting for the rate-limit.
+     *
+     * @return The remaining commands in the current rate-limit window
+     */
+    int getRemainingCommands();
+
+    /**
+     * The priorities of queued gateway commands, in the order they are sent.
+     */
+    enum Priority
+    {
+        /** Requests for guild members */
+        CHUNK,
+        /** Voice state updates used to connect, move or disconnect an audio connection */
+        AUDIO,
+        /** All other commands, such as presence updates */
+        NORMAL
+    }
+}
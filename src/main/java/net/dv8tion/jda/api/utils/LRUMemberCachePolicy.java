@@ -0,0 +1,328 @@
+/*
+ * Copyright 2015-2020 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.api.utils;
+
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.internal.entities.GuildImpl;
+import net.dv8tion.jda.internal.entities.MemberImpl;
+import net.dv8tion.jda.internal.utils.Checks;
+import net.dv8tion.jda.internal.utils.JDALogger;
+import net.dv8tion.jda.internal.utils.cache.MemberCacheViewImpl;
+import org.slf4j.Logger;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Member cache policy which bounds the member cache by size and idle time.
+ * <br>Every new member is cached, and once a limit is reached the least recently accessed members are unloaded
+ * through {@link Guild#unloadMember(long)}.
+ *
+ * <p>A member is accessed when it is loaded into the cache, and every time it is retrieved by id through the
+ * {@link net.dv8tion.jda.api.utils.cache.MemberCacheView MemberCacheView}, for instance with {@link Guild#getMemberById(long)}
+ * or {@link Guild#getMember(net.dv8tion.jda.api.entities.User)}. Updates from the gateway do not count as an access.
+ * The access time is recorded without locking, and only for guilds that have been seen by this policy.
+ *
+ * <p>Limits are not enforced on every access. When a limit is exceeded, the oldest members are evicted in a batch
+ * which leaves some room below the limit, so the cost of finding the oldest members is shared by many insertions.
+ * Idle members are evicted when they are updated or pruned with {@link Guild#pruneMemberCache()}, and by a periodic sweep
+ * which runs when new members are cached.
+ *
+ * <p>One instance can be shared by all shards of a {@link net.dv8tion.jda.api.sharding.ShardManager ShardManager},
+ * the {@link #setShardLimit(int) shard limit} applies to every shard individually.
+ * The configuration should not be changed after the policy has been passed to the builder.
+ *
+ * <h2>Example</h2>
+ * <pre>{@code
+ * MemberCachePolicy policy = MemberCachePolicy.lru(1000) // At most 1000 members per guild
+ *     .setShardLimit(100000)                             // At most 100000 members per shard
+ *     .setIdleTimeout(30, TimeUnit.MINUTES)              // Evict members which have not been accessed for 30 minutes
+ *     .unloadUnless(MemberCachePolicy.VOICE)             // Never evict members connected to a voice channel
+ *     .setEvictionListener(member -> cache.remove(member.getIdLong()));
+ * }</pre>
+ *
+ * @since 4.2.0
+ *
+ * @see   MemberCachePolicy#lru(int)
+ */
+public class LRUMemberCachePolicy implements MemberCachePolicy
+{
+    private static final Logger LOG = JDALogger.getLog(LRUMemberCachePolicy.class);
+
+    private final Map<JDA, ShardState> shards = Collections.synchronizedMap(new WeakHashMap<>());
+    private int guildLimit, shardLimit;
+    private long idleTimeout;
+    private MemberCachePolicy retained = MemberCachePolicy.NONE;
+    private Consumer<? super Member> evictionListener;
+
+    /**
+     * The maximum amount of members cached for each guild.
+     *
+     * @param  limit
+     *         The limit, or {@code 0} to disable
+     *
+     * @throws IllegalArgumentException
+     *         If the limit is negative
+     *
+     * @return The current policy instance, useful for chaining
+     */
+    @Nonnull
+    public LRUMemberCachePolicy setGuildLimit(int limit)
+    {
+        Checks.notNegative(limit, "Limit");
+        this.guildLimit = limit;
+        return this;
+    }
+
+    /**
+     * The maximum amount of members cached for all guilds of a shard.
+     * <br>Members which are cached in multiple guilds are counted for every guild.
+     *
+     * @param  limit
+     *         The limit, or {@code 0} to disable
+     *
+     * @throws IllegalArgumentException
+     *         If the limit is negative
+     *
+     * @return The current policy instance, useful for chaining
+     */
+    @Nonnull
+    public LRUMemberCachePolicy setShardLimit(int limit)
+    {
+        Checks.notNegative(limit, "Limit");
+        this.shardLimit = limit;
+        return this;
+    }
+
+    /**
+     * The time after which members, that have not been accessed, are evicted.
+     *
+     * @param  time
+     *         The idle time, or {@code 0} to disable
+     * @param  unit
+     *         The time unit
+     *
+     * @throws IllegalArgumentException
+     *         If the time is negative or the unit is null
+     *
+     * @return The current policy instance, useful for chaining
+     */
+    @Nonnull
+    public LRUMemberCachePolicy setIdleTimeout(long time, @Nonnull TimeUnit unit)
+    {
+        Checks.notNegative(time, "Time");
+        Checks.notNull(unit, "Unit");
+        this.idleTimeout = unit.toMillis(time);
+        return this;
+    }
+
+    /**
+     * Members which are cached by the provided policy are never evicted, but still count towards the limits.
+     * <br>This should be used instead of {@link #or(MemberCachePolicy)}, which would still allow this policy to evict those members.
+     *
+     * @param  policy
+     *         The policy deciding which members to keep, for instance {@link MemberCachePolicy#VOICE}
+     *
+     * @throws IllegalArgumentException
+     *         If the policy is null
+     *
+     * @return The current policy instance, useful for chaining
+     */
+    @Nonnull
+    public LRUMemberCachePolicy unloadUnless(@Nonnull MemberCachePolicy policy)
+    {
+        Checks.notNull(policy, "Policy");
+        this.retained = policy;
+        return this;
+    }
+
+    /**
+     * Listener which is called for every member evicted by this policy.
+     * <br>The member has already been removed from the cache when the listener is called, its id, user, and guild can
+     * be used to update other data. The listener is called on the thread which caused the eviction, usually the
+     * gateway thread of the shard, and should not block.
+     *
+     * <p>Members removed by other means, for instance when they leave the guild, are not passed to this listener.
+     *
+     * @param  listener
+     *         The listener, or null to remove the current listener
+     *
+     * @return The current policy instance, useful for chaining
+     */
+    @Nonnull
+    public LRUMemberCachePolicy setEvictionListener(@Nullable Consumer<? super Member> listener)
+    {
+        this.evictionListener = listener;
+        return this;
+    }
+
+    @Override
+    public boolean cacheMember(@Nonnull Member member)
+    {
+        if (retained.cacheMember(member))
+            return true;
+
+        GuildImpl guild = (GuildImpl) member.getGuild();
+        MemberCacheViewImpl view = guild.getMembersView();
+        if (!view.isAccessTracking())
+            view.setAccessTracking(true);
+        long now = System.currentTimeMillis();
+
+        // Re-evaluation of a cached member, after an update or by pruneMemberCache
+        MemberImpl cached = (MemberImpl) view.get(member.getIdLong());
+        if (cached != null)
+        {
+            if (idleTimeout > 0 && now - cached.getLastAccess() >= idleTimeout)
+            {
+                evict(cached);
+                return false;
+            }
+            return true;
+        }
+
+        ShardState shard = shards.computeIfAbsent(guild.getJDA(), k -> new ShardState());
+        long estimate = shard.estimate.incrementAndGet();
+        // Another thread is already evicting members, which might hold locks of the member caches
+        if (!shard.lock.tryLock())
+            return true;
+        try
+        {
+            if (idleTimeout > 0 && now >= shard.nextSweep)
+            {
+                shard.nextSweep = now + Math.max(1000, idleTimeout / 4);
+                sweep(guild.getJDA(), now);
+            }
+
+            if (guildLimit > 0 && view.size() >= guildLimit)
+                shrink(Collections.singletonList(guild), view.size() + 1 - guildLimit + guildLimit / 32);
+
+            // The estimate is an upper bound of the cached members, members are only counted again once it reaches the limit
+            if (shardLimit > 0 && estimate > shardLimit)
+            {
+                List<Guild> guilds = guild.getJDA().getGuildCache().asList();
+                long total = count(guilds);
+                if (total >= shardLimit)
+                    shrink(guilds, total + 1 - shardLimit + shardLimit / 32);
+                shard.estimate.set(count(guilds) + 1);
+            }
+        }
+        finally
+        {
+            shard.lock.unlock();
+        }
+        return true;
+    }
+
+    private void sweep(JDA api, long now)
+    {
+        for (Guild guild : api.getGuildCache().asList())
+        {
+            for (MemberImpl member : getCandidates(guild))
+            {
+                if (now - member.getLastAccess() >= idleTimeout)
+                    evict(member);
+            }
+        }
+    }
+
+    private void shrink(List<Guild> guilds, long amount)
+    {
+        List<MemberImpl> candidates = new ArrayList<>();
+        for (Guild guild : guilds)
+            candidates.addAll(getCandidates(guild));
+        if (candidates.isEmpty())
+            return;
+
+        // Evict every member accessed before the n-th oldest member, then members accessed at the same time
+        long[] times = new long[candidates.size()];
+        for (int i = 0; i < times.length; i++)
+            times[i] = candidates.get(i).getLastAccess();
+        long[] sorted = times.clone();
+        Arrays.sort(sorted);
+        long threshold = sorted[(int) Math.min(amount, sorted.length) - 1];
+
+        for (int i = 0; i < times.length; i++)
+        {
+            if (times[i] < threshold)
+            {
+                evict(candidates.get(i));
+                amount--;
+            }
+        }
+        for (int i = 0; i < times.length && amount > 0; i++)
+        {
+            if (times[i] == threshold)
+            {
+                evict(candidates.get(i));
+                amount--;
+            }
+        }
+    }
+
+    private List<MemberImpl> getCandidates(Guild guild)
+    {
+        long selfId = guild.getJDA().getSelfUser().getIdLong();
+        List<MemberImpl> candidates = new ArrayList<>();
+        // Evaluate the retained policy on a copy, since it might read the state of the members
+        for (Member member : ((GuildImpl) guild).getMembersView().asList())
+        {
+            if (member.getIdLong() != selfId && !retained.cacheMember(member))
+                candidates.add((MemberImpl) member);
+        }
+        return candidates;
+    }
+
+    private long count(List<Guild> guilds)
+    {
+        long total = 0;
+        for (Guild guild : guilds)
+            total += ((GuildImpl) guild).getMembersView().size();
+        return total;
+    }
+
+    private void evict(MemberImpl member)
+    {
+        if (!member.getGuild().unloadMember(member.getIdLong()))
+            return;
+        LOG.trace("Evicted member {}", member);
+        Consumer<? super Member> listener = evictionListener;
+        if (listener == null)
+            return;
+        try
+        {
+            listener.accept(member);
+        }
+        catch (Exception e)
+        {
+            LOG.error("Uncaught exception from eviction listener", e);
+        }
+    }
+
+    private static class ShardState
+    {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final AtomicLong estimate = new AtomicLong();
+        private long nextSweep;
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2015-2020 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.api.utils;
+
+import javax.annotation.Nonnull;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory implementation of {@link RateLimitBackend}.
+ * <br>This can be shared by multiple JDA instances of the same process, or serve as the state of an external
+ * coordinator which forwards the calls of other processes.
+ */
+public class LocalRateLimitBackend implements RateLimitBackend
+{
+    private final Map<String, State> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong globalRateLimit = new AtomicLong(Long.MIN_VALUE);
+
+    @Override
+    public long getRateLimit(@Nonnull String bucket)
+    {
+        State state = buckets.get(bucket);
+        if (state == null)
+            return 0;
+        synchronized (state)
+        {
+            long now = getNow();
+            return state.remaining < 1 && state.reset > now ? state.reset - now : 0;
+        }
+    }
+
+    @Override
+    public long tryAcquire(@Nonnull String bucket)
+    {
+        State state = buckets.get(bucket);
+        if (state == null)
+            return 0;
+        synchronized (state)
+        {
+            long now = getNow();
+            if (state.reset <= now)
+            {
+                // Start a new window, the reset will be updated by the next response
+                state.remaining = state.limit;
+                state.reset = now + state.window;
+            }
+            if (state.remaining < 1)
+                return state.reset - now;
+            state.remaining--;
+            return 0;
+        }
+    }
+
+    @Override
+    public void update(@Nonnull String bucket, int limit, int remaining, long reset)
+    {
+        State state = buckets.computeIfAbsent(bucket, k -> new State(limit, remaining, reset));
+        synchronized (state)
+        {
+            long now = getNow();
+            state.limit = limit;
+            // Requests reserved by other rate limiters are not yet included in the headers of this response
+            if (state.reset <= now)
+                state.remaining = remaining;
+            else
+                state.remaining = Math.min(state.remaining, remaining);
+            state.reset = reset;
+            state.window = Math.max(state.window, reset - now);
+        }
+    }
+
+    @Override
+    public long getGlobalRateLimit()
+    {
+        return globalRateLimit.get();
+    }
+
+    @Override
+    public void setGlobalRateLimit(long timestamp)
+    {
+        globalRateLimit.set(timestamp);
+    }
+
+    @Override
+    public void cleanup()
+    {
+        long now = getNow();
+        buckets.values().removeIf(state -> {
+            synchronized (state)
+            {
+                return state.reset <= now;
+            }
+        });
+    }
+
+    /**
+     * The amount of buckets currently tracked by this backend.
+     *
+     * @return The amount of buckets
+     */
+    public int size()
+    {
+        return buckets.size();
+    }
+
+    protected long getNow()
+    {
+        return System.currentTimeMillis();
+    }
+
+    private static class State
+    {
+        private int limit;
+        private int remaining;
+        private long reset;
+        // The longest observed window, used until the first response of a new window arrives
+        private long window = 1;
+
+        private State(int limit, int remaining, long reset)
+        {
+            this.limit = limit;
+            this.remaining = remaining;
+            this.reset = reset;
+        }
+    }
+}
@@ -48,6 +48,7 @@ import javax.annotation.Nonnull;
  * @see #and(MemberCachePolicy)
  * @see #any(MemberCachePolicy, MemberCachePolicy...)
  * @see #all(MemberCachePolicy, MemberCachePolicy...)
+ * @see #lru(int)
  *
  * @since 4.2.0
  */
@@ -142,6 +143,28 @@ public interface MemberCachePolicy
         return (member) -> cacheMember(member) && policy.cacheMember(member);
     }
 
+    /**
+     * Creates a policy which caches up to the provided amount of members per guild,
+     * the least recently accessed members are evicted once the limit is reached.
+     * <br>This is identical to {@code new LRUMemberCachePolicy().setGuildLimit(maxMembers)}.
+     *
+     * @param  maxMembers
+     *         The maximum amount of members cached per guild
+     *
+     * @throws IllegalArgumentException
+     *         If the provided limit is not positive
+     *
+     * @return {@link LRUMemberCachePolicy} which can be configured further
+     *
+     * @see    LRUMemberCachePolicy
+     */
+    @Nonnull
+    static LRUMemberCachePolicy lru(int maxMembers)
+    {
+        Checks.positive(maxMembers, "Max members");
+        return new LRUMemberCachePolicy().setGuildLimit(maxMembers);
+    }
+
     /**
      * Composes a policy by concatenating multiple other policies.
      * <br>This is logically identical to {@code policy1 || policy2 || policy3 || ... || policyN}.
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2015-2020 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.api.utils;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Storage for the REST rate-limit state of a bot.
+ * <br>By default, every JDA instance (or {@link net.dv8tion.jda.api.sharding.ShardManager ShardManager}
+ * with a shared rate limiter) keeps this state in memory. When a bot is sharded over multiple processes,
+ * an implementation of this interface can move the state to an external coordinator so that all processes
+ * respect the same buckets and global rate limit.
+ *
+ * <p>JDA still queues the requests locally and executes requests of the same bucket in order.
+ * Before each request of a bucket is executed, the worker reserves a request through {@link #tryAcquire(String)},
+ * and once the response arrives the bucket is updated with the rate-limit headers through {@link #update(String, int, int, long)}.
+ * Requests of buckets without a rate limit do not use this backend.
+ *
+ * <p>Implementations are used concurrently by all rate-limit worker threads and must be thread-safe.
+ * All timestamps are epoch milliseconds, as returned by {@link System#currentTimeMillis()}.
+ * The {@link LocalRateLimitBackend} provides an in-memory implementation.
+ *
+ * <h2>Buckets</h2>
+ * A bucket is identified by the hash Discord provides for the route and the major parameters of the request,
+ * for instance {@code "abcd1234:guild_id=125227483518861312:webhook_id"}. The same bucket has the same id in every process.
+ *
+ * @since 4.2.0
+ *
+ * @see   net.dv8tion.jda.api.JDABuilder#setRateLimitBackend(RateLimitBackend) JDABuilder.setRateLimitBackend(RateLimitBackend)
+ * @see   net.dv8tion.jda.api.sharding.DefaultShardManagerBuilder#setRateLimitBackend(RateLimitBackend) DefaultShardManagerBuilder.setRateLimitBackend(RateLimitBackend)
+ */
+public interface RateLimitBackend
+{
+    /**
+     * The time in milliseconds until a request can be made for the bucket, without reserving it.
+     *
+     * @param  bucket
+     *         The bucket id
+     *
+     * @return The delay in milliseconds, or {@code 0} if the bucket has remaining requests
+     */
+    long getRateLimit(@Nonnull String bucket);
+
+    /**
+     * Reserves one request of the bucket, if any requests are remaining.
+     * <br>Unknown buckets should allow the request, since their limits are only known after the first response.
+     *
+     * @param  bucket
+     *         The bucket id
+     *
+     * @return {@code 0} if the request was reserved, otherwise the delay in milliseconds until the bucket resets
+     */
+    long tryAcquire(@Nonnull String bucket);
+
+    /**
+     * Updates the bucket with the rate-limit headers of a response.
+     * <br>Responses of other processes may arrive in any order, implementations should not increase the remaining
+     * requests of the current window with outdated information.
+     *
+     * @param  bucket
+     *         The bucket id
+     * @param  limit
+     *         The maximum amount of requests per window
+     * @param  remaining
+     *         The remaining requests of the current window, {@code 0} after hitting a rate limit
+     * @param  reset
+     *         The timestamp at which the window resets
+     */
+    void update(@Nonnull String bucket, int limit, int remaining, long reset);
+
+    /**
+     * The timestamp until which the global rate limit applies.
+     * <br>This replaces the global rate limit of the {@link SessionController}.
+     *
+     * @return The timestamp of the global rate limit, which is in the past if no global rate limit applies
+     */
+    long getGlobalRateLimit();
+
+    /**
+     * Called when a request hit the global rate limit.
+     *
+     * @param  timestamp
+     *         The timestamp until which no requests should be made
+     */
+    void setGlobalRateLimit(long timestamp);
+
+    /**
+     * Called periodically by every rate limiter using this backend.
+     * <br>This can be used to remove buckets whose window has expired.
+     */
+    default void cleanup() {}
+}
@@ -19,6 +19,7 @@ package net.dv8tion.jda.api.utils.cache;
 import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.entities.GuildChannel;
 import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.Role;
 import net.dv8tion.jda.api.requests.GatewayIntent;
 
 import javax.annotation.Nullable;
@@ -58,6 +59,27 @@ public enum CacheFlag
      * Enables cache for {@link GuildChannel#getMemberPermissionOverrides()}
      */
     MEMBER_OVERRIDES(null),
+    /**
+     * Maintains indexes of the cached members by role, username, and nickname.
+     * <br>This speeds up {@link Guild#getMembersWithRoles(Role...)}, {@link Guild#getMembersByName(String, boolean)},
+     * and {@link Guild#getMembersByNickname(String, boolean)} for large guilds, at the cost of additional memory per member.
+     *
+     * <p>This flag is disabled by default and has to be enabled explicitly.
+     */
+    MEMBER_INDEX(null),
+    /**
+     * Keeps the latest received messages of every {@link net.dv8tion.jda.api.entities.TextChannel TextChannel}
+     * and {@link net.dv8tion.jda.api.entities.PrivateChannel PrivateChannel}.
+     * <br>Cached messages are provided by {@link net.dv8tion.jda.api.entities.MessageChannel#getCachedMessageById(long)}
+     * and by the message update and delete events. The size of the cache can be configured with
+     * {@link net.dv8tion.jda.api.JDABuilder#setMessageCacheSize(int, int) JDABuilder.setMessageCacheSize(int, int)}.
+     *
+     * <p>Requires {@link net.dv8tion.jda.api.requests.GatewayIntent#GUILD_MESSAGES GUILD_MESSAGES} or
+     * {@link net.dv8tion.jda.api.requests.GatewayIntent#DIRECT_MESSAGES DIRECT_MESSAGES} intent to receive messages.
+     *
+     * <p>This flag is disabled by default and has to be enabled explicitly.
+     */
+    MESSAGE(null),
     ;
     private final GatewayIntent requiredIntent;
 
@@ -0,0 +1,275 @@
+/*
+ * Copyright 2015-2020 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.api.utils.cache;
+
+import net.dv8tion.jda.api.utils.data.DataArray;
+import net.dv8tion.jda.api.utils.data.DataObject;
+import net.dv8tion.jda.api.utils.data.SerializableData;
+import net.dv8tion.jda.internal.utils.Checks;
+
+import javax.annotation.Nonnull;
+import java.util.*;
+
+/**
+ * Snapshot of the size of the entity caches, provided by {@link net.dv8tion.jda.api.JDA#getCacheStatistics() JDA.getCacheStatistics()}
+ * and {@link net.dv8tion.jda.api.sharding.ShardManager#getCacheStatistics() ShardManager.getCacheStatistics()}.
+ *
+ * <p>The memory of each cache is estimated from a sample of its entities, counting the entity itself and the strings and
+ * primitive arrays it holds. Entities and caches referenced by an entity are not included, they are reported by their own cache.
+ * The estimate assumes a 64-bit JVM with compressed references and should only be used to compare caches and observe trends.
+ *
+ * <p>This snapshot can be exported with {@link #toData()}, the totals use the name of each {@link Type} as key.
+ *
+ * @since 4.2.0
+ */
+public class CacheStatistics implements SerializableData
+{
+    private final long timestamp;
+    private final Map<Type, Entry> totals;
+    private final Map<Long, Map<Type, Entry>> guilds;
+
+    public CacheStatistics(long timestamp, @Nonnull Map<Type, Entry> totals, @Nonnull Map<Long, Map<Type, Entry>> guilds)
+    {
+        Checks.notNull(totals, "Totals");
+        Checks.notNull(guilds, "Guilds");
+        this.timestamp = timestamp;
+        this.totals = Collections.unmodifiableMap(totals);
+        this.guilds = Collections.unmodifiableMap(guilds);
+    }
+
+    /**
+     * Combines the statistics of multiple shards.
+     *
+     * @param  statistics
+     *         The statistics to combine
+     *
+     * @throws IllegalArgumentException
+     *         If null is provided
+     *
+     * @return The combined statistics, with the timestamp of the oldest snapshot
+     */
+    @Nonnull
+    public static CacheStatistics combine(@Nonnull Collection<CacheStatistics> statistics)
+    {
+        Checks.noneNull(statistics, "Statistics");
+        long timestamp = Long.MAX_VALUE;
+        Map<Type, Entry> totals = new EnumMap<>(Type.class);
+        Map<Long, Map<Type, Entry>> guilds = new HashMap<>();
+        for (CacheStatistics stats : statistics)
+        {
+            timestamp = Math.min(timestamp, stats.timestamp);
+            stats.totals.forEach((type, entry) -> totals.merge(type, entry, Entry::add));
+            guilds.putAll(stats.guilds);
+        }
+        return new CacheStatistics(statistics.isEmpty() ? System.currentTimeMillis() : timestamp, totals, guilds);
+    }
+
+    /**
+     * The time at which this snapshot was taken, in milliseconds since the epoch.
+     *
+     * @return The timestamp
+     */
+    public long getTimestamp()
+    {
+        return timestamp;
+    }
+
+    /**
+     * The statistics of all entities of the provided type.
+     *
+     * @param  type
+     *         The cache type
+     *
+     * @throws IllegalArgumentException
+     *         If the type is null
+     *
+     * @return The {@link Entry}, empty if the type was not measured
+     */
+    @Nonnull
+    public Entry getTotal(@Nonnull Type type)
+    {
+        Checks.notNull(type, "Type");
+        return totals.getOrDefault(type, Entry.EMPTY);
+    }
+
+    /**
+     * The statistics of all entities, by type.
+     *
+     * @return Immutable map of the totals
+     */
+    @Nonnull
+    public Map<Type, Entry> getTotals()
+    {
+        return totals;
+    }
+
+    /**
+     * The estimated memory of all caches combined.
+     *
+     * @return The estimated bytes
+     */
+    public long getEstimatedBytes()
+    {
+        long sum = 0;
+        for (Entry entry : totals.values())
+            sum += entry.getEstimatedBytes();
+        return sum;
+    }
+
+    /**
+     * The ids of the guilds included in this snapshot.
+     *
+     * @return Immutable set of guild ids
+     */
+    @Nonnull
+    public Set<Long> getGuildIds()
+    {
+        return guilds.keySet();
+    }
+
+    /**
+     * The statistics of the caches of a single guild, by type.
+     * <br>This only includes the types which are cached per guild, such as {@link Type#MEMBER} and {@link Type#ROLE}.
+     *
+     * @param  guildId
+     *         The guild id
+     *
+     * @return Immutable map of the entries, empty if the guild is not included
+     */
+    @Nonnull
+    public Map<Type, Entry> getGuildEntries(long guildId)
+    {
+        return guilds.getOrDefault(guildId, Collections.emptyMap());
+    }
+
+    @Nonnull
+    @Override
+    public DataObject toData()
+    {
+        DataObject data = DataObject.empty()
+                .put("timestamp", timestamp)
+                .put("estimated_bytes", getEstimatedBytes())
+                .put("totals", toData(totals));
+        DataArray guildArray = DataArray.empty();
+        guilds.forEach((id, entries) ->
+            guildArray.add(toData(entries).put("id", Long.toUnsignedString(id)))
+        );
+        return data.put("guilds", guildArray);
+    }
+
+    private static DataObject toData(Map<Type, Entry> entries)
+    {
+        DataObject data = DataObject.empty();
+        entries.forEach((type, entry) -> data.put(type.name().toLowerCase(Locale.ROOT), entry.toData()));
+        return data;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "CacheStatistics(" + totals + ")";
+    }
+
+    /**
+     * The measured caches.
+     */
+    public enum Type
+    {
+        GUILD, USER, PRIVATE_CHANNEL,
+        // Cached per guild
+        MEMBER, ROLE, EMOTE, TEXT_CHANNEL, VOICE_CHANNEL, CATEGORY, STORE_CHANNEL
+    }
+
+    /**
+     * The statistics of a single cache, or the sum of several caches.
+     */
+    public static class Entry implements SerializableData
+    {
+        public static final Entry EMPTY = new Entry(0, 0, 0);
+
+        private final long size;
+        private final long estimatedBytes;
+        private final long contendedLocks;
+
+        public Entry(long size, long estimatedBytes, long contendedLocks)
+        {
+            this.size = size;
+            this.estimatedBytes = estimatedBytes;
+            this.contendedLocks = contendedLocks;
+        }
+
+        /**
+         * The amount of cached entities.
+         *
+         * @return The size of the cache
+         */
+        public long getSize()
+        {
+            return size;
+        }
+
+        /**
+         * The estimated memory used by the cached entities and the cache itself.
+         *
+         * @return The estimated bytes
+         */
+        public long getEstimatedBytes()
+        {
+            return estimatedBytes;
+        }
+
+        /**
+         * The amount of times a thread had to wait for the lock of the cache, since the cache was created.
+         *
+         * @return The amount of contended lock acquisitions
+         */
+        public long getContendedLocks()
+        {
+            return contendedLocks;
+        }
+
+        /**
+         * Sums this entry and the provided entry.
+         *
+         * @param  other
+         *         The other entry
+         *
+         * @return The sum of both entries
+         */
+        @Nonnull
+        public Entry add(@Nonnull Entry other)
+        {
+            return new Entry(size + other.size, estimatedBytes + other.estimatedBytes, contendedLocks + other.contendedLocks);
+        }
+
+        @Nonnull
+        @Override
+        public DataObject toData()
+        {
+            return DataObject.empty()
+                    .put("size", size)
+                    .put("estimated_bytes", estimatedBytes)
+                    .put("contended_locks", contendedLocks);
+        }
+
+        @Override
+        public String toString()
+        {
+            return "Entry(size=" + size + ", bytes=" + estimatedBytes + ", contended=" + contendedLocks + ")";
+        }
+    }
+}
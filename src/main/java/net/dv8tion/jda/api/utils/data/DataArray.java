@@ -21,6 +21,9 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.module.SimpleModule;
 import com.fasterxml.jackson.databind.type.CollectionType;
 import net.dv8tion.jda.api.exceptions.ParsingException;
+import net.dv8tion.jda.api.utils.data.etf.ExTermDecoder;
+import net.dv8tion.jda.api.utils.data.etf.ExTermEncoder;
+import net.dv8tion.jda.internal.utils.Checks;
 import org.jetbrains.annotations.Contract;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -32,6 +35,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
 import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
 import java.util.*;
 import java.util.function.Function;
 import java.util.function.UnaryOperator;
@@ -168,6 +172,56 @@ public class DataArray implements Iterable<Object>
         }
     }
 
+    /**
+     * Parses using {@link ExTermDecoder}.
+     * The provided data must start with the correct version header (131).
+     *
+     * @param  data
+     *         The data to decode
+     *
+     * @throws IllegalArgumentException
+     *         If the provided data is null
+     * @throws net.dv8tion.jda.api.exceptions.ParsingException
+     *         If the provided ETF payload is incorrectly formatted
+     *
+     * @return A DataArray instance for the provided payload
+     */
+    @Nonnull
+    public static DataArray fromETF(@Nonnull byte[] data)
+    {
+        Checks.notNull(data, "Data");
+        return fromETF(ByteBuffer.wrap(data));
+    }
+
+    /**
+     * Parses using {@link ExTermDecoder}.
+     * The provided data must start with the correct version header (131).
+     *
+     * @param  buffer
+     *         The buffer to decode, starting at its current position
+     *
+     * @throws IllegalArgumentException
+     *         If the provided buffer is null
+     * @throws net.dv8tion.jda.api.exceptions.ParsingException
+     *         If the provided ETF payload is incorrectly formatted
+     *
+     * @return A DataArray instance for the provided payload
+     */
+    @Nonnull
+    public static DataArray fromETF(@Nonnull ByteBuffer buffer)
+    {
+        Checks.notNull(buffer, "Buffer");
+        try
+        {
+            List<Object> list = ExTermDecoder.unpackList(buffer);
+            return new DataArray(list);
+        }
+        catch (Exception ex)
+        {
+            throw new ParsingException(ex);
+        }
+    }
+
     /**
      * Whether the value at the specified index is null.
      *
@@ -604,6 +658,21 @@ public class DataArray implements Iterable<Object>
         return this;
     }
 
+    /**
+     * Serializes this DataArray into ETF.
+     *
+     * @throws UnsupportedOperationException
+     *         If this DataArray contains values that cannot be encoded
+     *
+     * @return byte array containing the ETF representation of this DataArray
+     */
+    @Nonnull
+    public byte[] toETF()
+    {
+        ByteBuffer buffer = ExTermEncoder.pack(toList());
+        return Arrays.copyOfRange(buffer.array(), buffer.arrayOffset(), buffer.arrayOffset() + buffer.limit());
+    }
+
     /**
      * Serialize this object as JSON.
      *
@@ -21,6 +21,9 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.module.SimpleModule;
 import com.fasterxml.jackson.databind.type.MapType;
 import net.dv8tion.jda.api.exceptions.ParsingException;
+import net.dv8tion.jda.api.utils.data.etf.ExTermDecoder;
+import net.dv8tion.jda.api.utils.data.etf.ExTermEncoder;
+import net.dv8tion.jda.internal.utils.Checks;
 import org.jetbrains.annotations.Contract;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -32,6 +35,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
 import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
 import java.util.*;
 import java.util.function.Function;
 import java.util.function.UnaryOperator;
@@ -181,6 +185,56 @@ public class DataObject implements SerializableData
         }
     }
 
+    /**
+     * Parses using {@link ExTermDecoder}.
+     * The provided data must start with the correct version header (131).
+     *
+     * @param  data
+     *         The data to decode
+     *
+     * @throws IllegalArgumentException
+     *         If the provided data is null
+     * @throws net.dv8tion.jda.api.exceptions.ParsingException
+     *         If the provided ETF payload is incorrectly formatted
+     *
+     * @return A DataObject instance for the provided payload
+     */
+    @Nonnull
+    public static DataObject fromETF(@Nonnull byte[] data)
+    {
+        Checks.notNull(data, "Data");
+        return fromETF(ByteBuffer.wrap(data));
+    }
+
+    /**
+     * Parses using {@link ExTermDecoder}.
+     * The provided data must start with the correct version header (131).
+     *
+     * @param  buffer
+     *         The buffer to decode, starting at its current position
+     *
+     * @throws IllegalArgumentException
+     *         If the provided buffer is null
+     * @throws net.dv8tion.jda.api.exceptions.ParsingException
+     *         If the provided ETF payload is incorrectly formatted
+     *
+     * @return A DataObject instance for the provided payload
+     */
+    @Nonnull
+    public static DataObject fromETF(@Nonnull ByteBuffer buffer)
+    {
+        Checks.notNull(buffer, "Buffer");
+        try
+        {
+            Map<String, Object> map = ExTermDecoder.unpackMap(buffer);
+            return new DataObject(map);
+        }
+        catch (Exception ex)
+        {
+            throw new ParsingException(ex);
+        }
+    }
+
     /**
      * Whether the specified key is present.
      *
@@ -647,6 +701,21 @@ public class DataObject implements SerializableData
         return data.keySet();
     }
 
+    /**
+     * Serializes this DataObject into ETF.
+     *
+     * @throws UnsupportedOperationException
+     *         If this DataObject contains values that cannot be encoded
+     *
+     * @return byte array containing the ETF representation of this DataObject
+     */
+    @Nonnull
+    public byte[] toETF()
+    {
+        ByteBuffer buffer = ExTermEncoder.pack(toMap());
+        return Arrays.copyOfRange(buffer.array(), buffer.arrayOffset(), buffer.arrayOffset() + buffer.limit());
+    }
+
     /**
      * Serialize this object as JSON.
      *
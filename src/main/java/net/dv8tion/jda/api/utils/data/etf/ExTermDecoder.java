@@ -0,0 +1,420 @@
+/*
+ * Copyright 2015-2020 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.api.utils.data.etf;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import static net.dv8tion.jda.api.utils.data.etf.ExTermTag.*;
+
+/**
+ * Decodes an ETF encoded payload to a java object representation.
+ *
+ * <p>The decoded values map to the same types a JSON payload would produce:
+ * <ul>
+ *     <li>Maps are decoded to {@link java.util.Map Map&lt;String, Object&gt;}</li>
+ *     <li>Lists and tuples are decoded to {@link java.util.List List&lt;Object&gt;}</li>
+ *     <li>Binaries are decoded to UTF-8 {@link java.lang.String Strings}</li>
+ *     <li>The atoms {@code nil}, {@code true} and {@code false} are decoded to {@code null} and {@link java.lang.Boolean Booleans},
+ *         other atoms are decoded to {@link java.lang.String Strings}</li>
+ *     <li>Integers are decoded to {@link java.lang.Integer Integer} or {@link java.lang.Long Long}, depending on their size</li>
+ *     <li>Floats are decoded to {@link java.lang.Double Double}</li>
+ * </ul>
+ *
+ * <p>Snowflakes are usually sent as integers with this format,
+ * which means they do not have to be parsed from strings.
+ *
+ * @see #unpack(ByteBuffer)
+ * @see #unpackMap(ByteBuffer)
+ * @see #unpackList(ByteBuffer)
+ */
+public class ExTermDecoder
+{
+    /**
+     * Unpacks the provided term into a java object.
+     *
+     * @param  buffer
+     *         The {@link ByteBuffer} containing the encoded term, starting with the version byte
+     *
+     * @throws IllegalArgumentException
+     *         If the buffer does not start with the version byte {@code 131} or contains an unsupported tag
+     *
+     * @return The unpacked java object
+     */
+    @Nullable
+    public static Object unpack(@Nonnull ByteBuffer buffer)
+    {
+        readVersion(buffer);
+        return unpack0(buffer);
+    }
+
+    /**
+     * Unpacks the provided term into a java {@link Map}.
+     *
+     * @param  buffer
+     *         The {@link ByteBuffer} containing the encoded term, starting with the version byte
+     *
+     * @throws IllegalArgumentException
+     *         If the buffer does not start with a version byte {@code 131}, contains an unsupported tag, or is not a map
+     *
+     * @return The unpacked {@link Map}
+     */
+    @Nonnull
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> unpackMap(@Nonnull ByteBuffer buffer)
+    {
+        Object value = unpack(buffer);
+        if (!(value instanceof Map))
+            throw new IllegalArgumentException("Cannot unpack map from term of type " + typeName(value));
+        return (Map<String, Object>) value;
+    }
+
+    /**
+     * Unpacks the provided term into a java {@link List}.
+     *
+     * @param  buffer
+     *         The {@link ByteBuffer} containing the encoded term, starting with the version byte
+     *
+     * @throws IllegalArgumentException
+     *         If the buffer does not start with a version byte {@code 131}, contains an unsupported tag, or is not a list
+     *
+     * @return The unpacked {@link List}
+     */
+    @Nonnull
+    @SuppressWarnings("unchecked")
+    public static List<Object> unpackList(@Nonnull ByteBuffer buffer)
+    {
+        Object value = unpack(buffer);
+        if (!(value instanceof List))
+            throw new IllegalArgumentException("Cannot unpack list from term of type " + typeName(value));
+        return (List<Object>) value;
+    }
+
+    /**
+     * Reads the version byte at the current position of the buffer.
+     *
+     * @param  buffer
+     *         The {@link ByteBuffer}
+     *
+     * @throws IllegalArgumentException
+     *         If the next byte is not the version byte {@code 131}
+     */
+    public static void readVersion(@Nonnull ByteBuffer buffer)
+    {
+        byte version = buffer.get();
+        if (version != ETF_VERSION)
+            throw new IllegalArgumentException("Unknown ETF version " + Byte.toUnsignedInt(version));
+    }
+
+    /**
+     * Reads the arity of the map at the current position of the buffer, without the version byte.
+     * <br>The buffer will be positioned at the first key of the map.
+     *
+     * @param  buffer
+     *         The {@link ByteBuffer}
+     *
+     * @throws IllegalArgumentException
+     *         If the next term is not a map
+     *
+     * @return The number of key-value pairs in the map
+     */
+    public static int readMapHeader(@Nonnull ByteBuffer buffer)
+    {
+        byte tag = buffer.get();
+        if (tag != MAP)
+            throw new IllegalArgumentException("Expected map but got tag " + tag);
+        return buffer.getInt();
+    }
+
+    /**
+     * Unpacks the next term at the current position of the buffer, without the version byte.
+     *
+     * @param  buffer
+     *         The {@link ByteBuffer}
+     *
+     * @throws IllegalArgumentException
+     *         If the term has an unsupported tag
+     *
+     * @return The unpacked java object
+     */
+    @Nullable
+    public static Object unpackTerm(@Nonnull ByteBuffer buffer)
+    {
+        return unpack0(buffer);
+    }
+
+    /**
+     * Skips the next term at the current position of the buffer, without the version byte.
+     * <br>This does not allocate any objects for the skipped term, except for compressed terms.
+     *
+     * @param  buffer
+     *         The {@link ByteBuffer}
+     *
+     * @throws IllegalArgumentException
+     *         If the term has an unsupported tag
+     */
+    public static void skipTerm(@Nonnull ByteBuffer buffer)
+    {
+        byte tag = buffer.get();
+        switch (tag)
+        {
+            case SMALL_INT:
+                skip(buffer, 1);
+                break;
+            case INT:
+                skip(buffer, 4);
+                break;
+            case NEW_FLOAT:
+                skip(buffer, 8);
+                break;
+            case FLOAT:
+                skip(buffer, 31);
+                break;
+            case NIL:
+                break;
+            case ATOM:
+            case ATOM_UTF8:
+            case STRING:
+                skip(buffer, Short.toUnsignedInt(buffer.getShort()));
+                break;
+            case SMALL_ATOM:
+            case SMALL_ATOM_UTF8:
+                skip(buffer, Byte.toUnsignedInt(buffer.get()));
+                break;
+            case BINARY:
+                skip(buffer, buffer.getInt());
+                break;
+            case SMALL_BIG:
+                skip(buffer, Byte.toUnsignedInt(buffer.get()) + 1);
+                break;
+            case LARGE_BIG:
+                skip(buffer, buffer.getInt() + 1);
+                break;
+            case SMALL_TUPLE:
+                skipTerms(buffer, Byte.toUnsignedInt(buffer.get()));
+                break;
+            case LARGE_TUPLE:
+                skipTerms(buffer, buffer.getInt());
+                break;
+            case LIST:
+                skipTerms(buffer, buffer.getInt() + 1); // includes the tail
+                break;
+            case MAP:
+                skipTerms(buffer, buffer.getInt() * 2);
+                break;
+            case COMPRESSED:
+                unpackCompressed(buffer);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown tag " + tag);
+        }
+    }
+
+    private static void skip(ByteBuffer buffer, int length)
+    {
+        buffer.position(buffer.position() + length);
+    }
+
+    private static void skipTerms(ByteBuffer buffer, int count)
+    {
+        for (int i = 0; i < count; i++)
+            skipTerm(buffer);
+    }
+
+    private static Object unpack0(ByteBuffer buffer)
+    {
+        byte tag = buffer.get();
+        switch (tag)
+        {
+            case SMALL_INT:
+                return Byte.toUnsignedInt(buffer.get());
+            case INT:
+                return buffer.getInt();
+            case NEW_FLOAT:
+                return buffer.getDouble();
+            case FLOAT:
+                return unpackOldFloat(buffer);
+            case NIL:
+                return new ArrayList<>(0);
+            case ATOM:
+            case ATOM_UTF8:
+                return unpackAtom(buffer, Short.toUnsignedInt(buffer.getShort()));
+            case SMALL_ATOM:
+            case SMALL_ATOM_UTF8:
+                return unpackAtom(buffer, Byte.toUnsignedInt(buffer.get()));
+            case STRING:
+                return unpackString(buffer);
+            case BINARY:
+                return unpackBinary(buffer);
+            case SMALL_BIG:
+                return unpackBig(buffer, Byte.toUnsignedInt(buffer.get()));
+            case LARGE_BIG:
+                return unpackBig(buffer, buffer.getInt());
+            case SMALL_TUPLE:
+                return unpackList0(buffer, Byte.toUnsignedInt(buffer.get()), false);
+            case LARGE_TUPLE:
+                return unpackList0(buffer, buffer.getInt(), false);
+            case LIST:
+                return unpackList0(buffer, buffer.getInt(), true);
+            case MAP:
+                return unpackMap0(buffer);
+            case COMPRESSED:
+                return unpack0(unpackCompressed(buffer));
+            default:
+                throw new IllegalArgumentException("Unknown tag " + tag);
+        }
+    }
+
+    private static Object unpackAtom(ByteBuffer buffer, int length)
+    {
+        String atom = unpackUtf8(buffer, length);
+        switch (atom)
+        {
+            case "nil":
+            case "null":
+                return null;
+            case "true":
+                return true;
+            case "false":
+                return false;
+            default:
+                return atom;
+        }
+    }
+
+    private static String unpackBinary(ByteBuffer buffer)
+    {
+        return unpackUtf8(buffer, buffer.getInt());
+    }
+
+    private static String unpackUtf8(ByteBuffer buffer, int length)
+    {
+        String value;
+        if (buffer.hasArray())
+        {
+            value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+            skip(buffer, length);
+        }
+        else
+        {
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return value;
+    }
+
+    private static List<Object> unpackString(ByteBuffer buffer)
+    {
+        // Erlang encodes lists of small integers as strings
+        int length = Short.toUnsignedInt(buffer.getShort());
+        List<Object> list = new ArrayList<>(length);
+        for (int i = 0; i < length; i++)
+            list.add(Byte.toUnsignedInt(buffer.get()));
+        return list;
+    }
+
+    private static Object unpackBig(ByteBuffer buffer, int length)
+    {
+        boolean negative = buffer.get() != 0;
+        if (length <= 8)
+        {
+            // Snowflakes use this representation, they fit into a long
+            long value = 0;
+            for (int i = 0; i < length; i++)
+                value |= (long) Byte.toUnsignedInt(buffer.get()) << (i * 8);
+            return negative ? -value : value;
+        }
+
+        byte[] magnitude = new byte[length];
+        for (int i = length - 1; i >= 0; i--) // little-endian to big-endian
+            magnitude[i] = buffer.get();
+        BigInteger value = new BigInteger(1, magnitude);
+        return negative ? value.negate() : value;
+    }
+
+    private static Double unpackOldFloat(ByteBuffer buffer)
+    {
+        byte[] bytes = new byte[31];
+        buffer.get(bytes);
+        return Double.parseDouble(new String(bytes, StandardCharsets.ISO_8859_1).trim());
+    }
+
+    private static List<Object> unpackList0(ByteBuffer buffer, int length, boolean hasTail)
+    {
+        List<Object> list = new ArrayList<>(length);
+        for (int i = 0; i < length; i++)
+            list.add(unpack0(buffer));
+        if (hasTail)
+        {
+            // proper lists end with NIL, improper lists have a different tail which we just append
+            if (buffer.get(buffer.position()) == NIL)
+                buffer.get();
+            else
+                list.add(unpack0(buffer));
+        }
+        return list;
+    }
+
+    private static Map<String, Object> unpackMap0(ByteBuffer buffer)
+    {
+        int arity = buffer.getInt();
+        Map<String, Object> map = new HashMap<>(Math.max(4, (int) (arity / 0.75f) + 1));
+        for (int i = 0; i < arity; i++)
+        {
+            Object key = unpack0(buffer);
+            map.put(String.valueOf(key), unpack0(buffer));
+        }
+        return map;
+    }
+
+    private static ByteBuffer unpackCompressed(ByteBuffer buffer)
+    {
+        int size = buffer.getInt();
+        byte[] compressed = new byte[buffer.remaining()];
+        buffer.get(compressed);
+        byte[] decompressed = new byte[size];
+        Inflater inflater = new Inflater();
+        try
+        {
+            inflater.setInput(compressed);
+            inflater.inflate(decompressed);
+            // Return unused bytes to the outer buffer
+            skip(buffer, -inflater.getRemaining());
+        }
+        catch (DataFormatException e)
+        {
+            throw new IllegalArgumentException("Malformed compressed term", e);
+        }
+        finally
+        {
+            inflater.end();
+        }
+        return ByteBuffer.wrap(decompressed);
+    }
+
+    private static String typeName(Object value)
+    {
+        return value == null ? "null" : value.getClass().getSimpleName();
+    }
+}
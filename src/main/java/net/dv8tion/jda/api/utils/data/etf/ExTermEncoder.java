@@ -0,0 +1,193 @@
+/*
+ * Copyright 2015-2020 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.api.utils.data.etf;
+
+import net.dv8tion.jda.api.utils.data.DataArray;
+import net.dv8tion.jda.api.utils.data.SerializableData;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+
+import static net.dv8tion.jda.api.utils.data.etf.ExTermTag.*;
+
+/**
+ * Encodes java objects to ETF.
+ *
+ * <p>Supported types are {@link java.util.Map Map}, {@link java.util.Collection Collection},
+ * {@link SerializableData}, {@link DataArray}, {@link java.lang.String String}, {@link java.lang.Number Number},
+ * {@link java.lang.Boolean Boolean} and {@code null}. Map keys are encoded as strings.
+ *
+ * @see #pack(Object)
+ */
+public class ExTermEncoder
+{
+    private static final byte[] NIL_ATOM = "nil".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TRUE_ATOM = "true".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] FALSE_ATOM = "false".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * Packs the provided object into a {@link ByteBuffer}.
+     *
+     * @param  data
+     *         The object to pack
+     *
+     * @throws UnsupportedOperationException
+     *         If the object, or one of its nested values, has an unsupported type
+     *
+     * @return The {@link ByteBuffer} with the encoded term, flipped for reading
+     */
+    @Nonnull
+    public static ByteBuffer pack(@Nullable Object data)
+    {
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        buffer.put(ETF_VERSION);
+        buffer = pack(buffer, data);
+        buffer.flip();
+        return buffer;
+    }
+
+    private static ByteBuffer pack(ByteBuffer buffer, Object value)
+    {
+        if (value == null)
+            return packAtom(buffer, NIL_ATOM);
+        if (value instanceof Boolean)
+            return packAtom(buffer, (Boolean) value ? TRUE_ATOM : FALSE_ATOM);
+        if (value instanceof String)
+            return packBinary(buffer, (String) value);
+        if (value instanceof Long)
+            return packLong(buffer, (Long) value);
+        if (value instanceof Integer || value instanceof Short || value instanceof Byte)
+            return packInt(buffer, ((Number) value).intValue());
+        if (value instanceof Double || value instanceof Float)
+            return packFloat(buffer, ((Number) value).doubleValue());
+        if (value instanceof Map)
+            return packMap(buffer, (Map<?, ?>) value);
+        if (value instanceof Collection)
+            return packList(buffer, (Collection<?>) value);
+        if (value instanceof SerializableData)
+            return packMap(buffer, ((SerializableData) value).toData().toMap());
+        if (value instanceof DataArray)
+            return packList(buffer, ((DataArray) value).toList());
+        throw new UnsupportedOperationException("Cannot pack value of type " + value.getClass().getName());
+    }
+
+    private static ByteBuffer ensure(ByteBuffer buffer, int length)
+    {
+        if (buffer.remaining() >= length)
+            return buffer;
+        ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + length));
+        buffer.flip();
+        larger.put(buffer);
+        return larger;
+    }
+
+    private static ByteBuffer packAtom(ByteBuffer buffer, byte[] atom)
+    {
+        buffer = ensure(buffer, atom.length + 2);
+        buffer.put(SMALL_ATOM_UTF8);
+        buffer.put((byte) atom.length);
+        buffer.put(atom);
+        return buffer;
+    }
+
+    private static ByteBuffer packBinary(ByteBuffer buffer, String value)
+    {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer = ensure(buffer, bytes.length + 5);
+        buffer.put(BINARY);
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+        return buffer;
+    }
+
+    private static ByteBuffer packInt(ByteBuffer buffer, int value)
+    {
+        buffer = ensure(buffer, 5);
+        if (value >= 0 && value <= 255)
+        {
+            buffer.put(SMALL_INT);
+            buffer.put((byte) value);
+        }
+        else
+        {
+            buffer.put(INT);
+            buffer.putInt(value);
+        }
+        return buffer;
+    }
+
+    private static ByteBuffer packLong(ByteBuffer buffer, long value)
+    {
+        if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE)
+            return packInt(buffer, (int) value);
+
+        buffer = ensure(buffer, 11);
+        boolean negative = value < 0;
+        long magnitude = negative ? -value : value;
+        int length = 8 - Long.numberOfLeadingZeros(magnitude) / 8;
+        buffer.put(SMALL_BIG);
+        buffer.put((byte) length);
+        buffer.put((byte) (negative ? 1 : 0));
+        for (int i = 0; i < length; i++) // little-endian
+            buffer.put((byte) (magnitude >>> (i * 8)));
+        return buffer;
+    }
+
+    private static ByteBuffer packFloat(ByteBuffer buffer, double value)
+    {
+        buffer = ensure(buffer, 9);
+        buffer.put(NEW_FLOAT);
+        buffer.putDouble(value);
+        return buffer;
+    }
+
+    private static ByteBuffer packMap(ByteBuffer buffer, Map<?, ?> map)
+    {
+        buffer = ensure(buffer, 5);
+        buffer.put(MAP);
+        buffer.putInt(map.size());
+        for (Map.Entry<?, ?> entry : map.entrySet())
+        {
+            buffer = packBinary(buffer, String.valueOf(entry.getKey()));
+            buffer = pack(buffer, entry.getValue());
+        }
+        return buffer;
+    }
+
+    private static ByteBuffer packList(ByteBuffer buffer, Collection<?> list)
+    {
+        if (list.isEmpty())
+        {
+            buffer = ensure(buffer, 1);
+            buffer.put(NIL);
+            return buffer;
+        }
+
+        buffer = ensure(buffer, 5);
+        buffer.put(LIST);
+        buffer.putInt(list.size());
+        for (Object element : list)
+            buffer = pack(buffer, element);
+        buffer = ensure(buffer, 1);
+        buffer.put(NIL); // proper list tail
+        return buffer;
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2015-2020 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.api.utils.data.etf;
+
+/**
+ * Tags used for the Erlang External Term Format.
+ *
+ * @see <a href="https://erlang.org/doc/apps/erts/erl_ext_dist.html" target="_blank">Erlang External Term Format</a>
+ */
+public class ExTermTag
+{
+    /** The version prefix of every encoded term */
+    public static final byte ETF_VERSION = (byte) 131;
+
+    public static final byte NEW_FLOAT = 70;
+    public static final byte COMPRESSED = 80;
+    public static final byte SMALL_INT = 97;
+    public static final byte INT = 98;
+    public static final byte FLOAT = 99;
+    public static final byte ATOM = 100;
+    public static final byte SMALL_TUPLE = 104;
+    public static final byte LARGE_TUPLE = 105;
+    public static final byte NIL = 106;
+    public static final byte STRING = 107;
+    public static final byte LIST = 108;
+    public static final byte BINARY = 109;
+    public static final byte SMALL_BIG = 110;
+    public static final byte LARGE_BIG = 111;
+    public static final byte SMALL_ATOM = 115;
+    public static final byte MAP = 116;
+    public static final byte ATOM_UTF8 = 118;
+    public static final byte SMALL_ATOM_UTF8 = 119;
+
+    private ExTermTag() {}
+}
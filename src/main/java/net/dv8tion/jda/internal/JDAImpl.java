@@ -43,10 +43,12 @@ import net.dv8tion.jda.api.requests.RestAction;
 import net.dv8tion.jda.api.sharding.ShardManager;
 import net.dv8tion.jda.api.utils.*;
 import net.dv8tion.jda.api.utils.cache.CacheFlag;
+import net.dv8tion.jda.api.utils.cache.CacheStatistics;
 import net.dv8tion.jda.api.utils.cache.CacheView;
 import net.dv8tion.jda.api.utils.cache.SnowflakeCacheView;
 import net.dv8tion.jda.api.utils.data.DataObject;
 import net.dv8tion.jda.internal.entities.EntityBuilder;
+import net.dv8tion.jda.internal.entities.GuildImpl;
 import net.dv8tion.jda.internal.entities.UserImpl;
 import net.dv8tion.jda.internal.handle.EventCache;
 import net.dv8tion.jda.internal.handle.GuildSetupController;
@@ -60,6 +62,7 @@ import net.dv8tion.jda.internal.utils.Checks;
 import net.dv8tion.jda.internal.utils.JDALogger;
 import net.dv8tion.jda.internal.utils.UnlockHook;
 import net.dv8tion.jda.internal.utils.cache.AbstractCacheView;
+import net.dv8tion.jda.internal.utils.cache.MessageCache;
 import net.dv8tion.jda.internal.utils.cache.SnowflakeCacheViewImpl;
 import net.dv8tion.jda.internal.utils.config.AuthorizationConfig;
 import net.dv8tion.jda.internal.utils.config.MetaConfig;
@@ -70,6 +73,7 @@ import org.slf4j.Logger;
 import org.slf4j.MDC;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.security.auth.login.LoginException;
 import java.util.*;
 import java.util.concurrent.*;
@@ -119,6 +123,10 @@ public class JDAImpl implements JDA
     protected long gatewayPing = -1;
     protected String gatewayUrl;
     protected ChunkingFilter chunkingFilter;
+    protected DispatchFilter dispatchFilter = DispatchFilter.ALL;
+    protected DecompressionBufferPool decompressionPool = null;
+    protected RateLimitBackend rateLimitBackend = null;
+    protected MessageCache messageCache = null;
 
     protected String clientId = null;
     protected ShardManager shardManager = null;
@@ -162,6 +170,21 @@ public class JDAImpl implements JDA
         return sessionConfig.isRelativeRateLimit();
     }
 
+    public boolean isAsyncRequests()
+    {
+        return sessionConfig.isAsyncRequests();
+    }
+
+    public boolean isInterning()
+    {
+        return sessionConfig.isInterning();
+    }
+
+    public boolean isCompactMemberCache()
+    {
+        return metaConfig.isCompactMemberCache();
+    }
+
     public boolean isCacheFlagSet(CacheFlag flag)
     {
         return metaConfig.getCacheFlags().contains(flag);
@@ -188,6 +211,37 @@ public class JDAImpl implements JDA
         return metaConfig.getMaxBufferSize();
     }
 
+    public DecompressionBufferPool getDecompressionPool()
+    {
+        return decompressionPool;
+    }
+
+    public void setDecompressionPool(DecompressionBufferPool pool)
+    {
+        this.decompressionPool = pool;
+    }
+
+    public RateLimitBackend getRateLimitBackend()
+    {
+        return rateLimitBackend;
+    }
+
+    public void setRateLimitBackend(RateLimitBackend backend)
+    {
+        this.rateLimitBackend = backend;
+    }
+
+    // Only present with CacheFlag.MESSAGE
+    public MessageCache getMessageCache()
+    {
+        return messageCache;
+    }
+
+    public void setMessageCacheSize(int channelLimit, int totalLimit)
+    {
+        this.messageCache = isCacheFlagSet(CacheFlag.MESSAGE) ? new MessageCache(channelLimit, totalLimit) : null;
+    }
+
     public boolean chunkGuild(long id)
     {
         try
@@ -206,6 +260,29 @@ public class JDAImpl implements JDA
         this.chunkingFilter = filter;
     }
 
+    public boolean handleDispatch(String type)
+    {
+        try
+        {
+            return dispatchFilter.filter(type);
+        }
+        catch (Exception e)
+        {
+            LOG.error("Uncaught exception from dispatch filter", e);
+            return true;
+        }
+    }
+
+    public boolean isDispatchFiltered()
+    {
+        return dispatchFilter != DispatchFilter.ALL;
+    }
+
+    public void setDispatchFilter(DispatchFilter filter)
+    {
+        this.dispatchFilter = filter;
+    }
+
     public boolean cacheMember(Member member)
     {
         try
@@ -243,15 +320,15 @@ public class JDAImpl implements JDA
 
     public int login() throws LoginException
     {
-        return login(null, null, Compression.ZLIB, true, GatewayIntent.ALL_INTENTS);
+        return login(null, null, Compression.ZLIB, true, GatewayIntent.ALL_INTENTS, GatewayEncoding.JSON);
     }
 
-    public int login(ShardInfo shardInfo, Compression compression, boolean validateToken, int intents) throws LoginException
+    public int login(ShardInfo shardInfo, Compression compression, boolean validateToken, int intents, GatewayEncoding encoding) throws LoginException
     {
-        return login(null, shardInfo, compression, validateToken, intents);
+        return login(null, shardInfo, compression, validateToken, intents, encoding);
     }
 
-    public int login(String gatewayUrl, ShardInfo shardInfo, Compression compression, boolean validateToken, int intents) throws LoginException
+    public int login(String gatewayUrl, ShardInfo shardInfo, Compression compression, boolean validateToken, int intents, GatewayEncoding encoding) throws LoginException
     {
         this.shardInfo = shardInfo;
         threadConfig.init(this::getIdentifierString);
@@ -285,7 +362,7 @@ public class JDAImpl implements JDA
             LOG.info("Login Successful!");
         }
 
-        client = new WebSocketClient(this, compression, intents);
+        client = new WebSocketClient(this, compression, intents, encoding);
         // remove our MDC metadata when we exit our code
         if (previousContext != null)
             previousContext.forEach(MDC::put);
@@ -453,6 +530,14 @@ public class JDAImpl implements JDA
         return gatewayPing;
     }
 
+    @Nonnull
+    @Override
+    public GatewaySendMetrics getGatewaySendMetrics()
+    {
+        WebSocketClient client = getClient();
+        return client == null ? GatewaySendMetricsImpl.EMPTY : client.getSendMetrics();
+    }
+
     @Nonnull
     @Override
     public JDA awaitStatus(@Nonnull Status status, @Nonnull Status... failOn) throws InterruptedException
@@ -501,6 +586,12 @@ public class JDAImpl implements JDA
         return threadConfig.getCallbackPool();
     }
 
+    @Nullable
+    public ExecutorService getGuildSetupPool()
+    {
+        return threadConfig.getGuildSetupPool();
+    }
+
     @Nonnull
     @Override
     @SuppressWarnings("ConstantConditions") // this can't really happen unless you pass bad configs
@@ -569,6 +660,49 @@ public class JDAImpl implements JDA
         return audioManagers;
     }
 
+    @Nonnull
+    @Override
+    public CacheStatistics getCacheStatistics()
+    {
+        Map<CacheStatistics.Type, CacheStatistics.Entry> totals = new EnumMap<>(CacheStatistics.Type.class);
+        totals.put(CacheStatistics.Type.GUILD, getStatistics(guildCache));
+        totals.put(CacheStatistics.Type.USER, getStatistics(userCache));
+        totals.put(CacheStatistics.Type.PRIVATE_CHANNEL, getStatistics(privateChannelCache));
+        totals.put(CacheStatistics.Type.TEXT_CHANNEL, getStatistics(textChannelCache));
+        totals.put(CacheStatistics.Type.VOICE_CHANNEL, getStatistics(voiceChannelCache));
+        totals.put(CacheStatistics.Type.CATEGORY, getStatistics(categories));
+        totals.put(CacheStatistics.Type.STORE_CHANNEL, getStatistics(storeChannelCache));
+
+        Map<Long, Map<CacheStatistics.Type, CacheStatistics.Entry>> guilds = new HashMap<>();
+        guildCache.forEachUnordered(it ->
+        {
+            GuildImpl guild = (GuildImpl) it;
+            Map<CacheStatistics.Type, CacheStatistics.Entry> entries = new EnumMap<>(CacheStatistics.Type.class);
+            entries.put(CacheStatistics.Type.MEMBER, getStatistics(guild.getMembersView()));
+            entries.put(CacheStatistics.Type.ROLE, getStatistics(guild.getRolesView()));
+            entries.put(CacheStatistics.Type.EMOTE, getStatistics(guild.getEmotesView()));
+            entries.put(CacheStatistics.Type.TEXT_CHANNEL, getStatistics(guild.getTextChannelsView()));
+            entries.put(CacheStatistics.Type.VOICE_CHANNEL, getStatistics(guild.getVoiceChannelsView()));
+            entries.put(CacheStatistics.Type.CATEGORY, getStatistics(guild.getCategoriesView()));
+            entries.put(CacheStatistics.Type.STORE_CHANNEL, getStatistics(guild.getStoreChannelView()));
+            guilds.put(guild.getIdLong(), entries);
+
+            entries.forEach((type, entry) ->
+            {
+                // Channels are also in the caches of this session, which already count their size
+                if (totals.containsKey(type))
+                    entry = new CacheStatistics.Entry(0, 0, entry.getContendedLocks());
+                totals.merge(type, entry, CacheStatistics.Entry::add);
+            });
+        });
+        return new CacheStatistics(System.currentTimeMillis(), totals, guilds);
+    }
+
+    private static CacheStatistics.Entry getStatistics(AbstractCacheView<?> view)
+    {
+        return new CacheStatistics.Entry(view.size(), view.estimateMemory(), view.getContendedLocks());
+    }
+
     @Nonnull
     @Override
     public SnowflakeCacheView<Guild> getGuildCache()
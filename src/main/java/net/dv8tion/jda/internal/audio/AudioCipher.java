@@ -0,0 +1,69 @@
+/*
+ * Copyright 2015-2020 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.internal.audio;
+
+/**
+ * XSalsa20-Poly1305 authenticated encryption used for voice packets, compatible with NaCl's {@code crypto_secretbox}.
+ * <br>A cipher is created for one secret key by an {@link AudioCryptoProvider}, and is only used by one thread at a time.
+ */
+public interface AudioCipher
+{
+    int NONCE_LENGTH = 24;
+    int OVERHEAD_LENGTH = 16;
+
+    /**
+     * Encrypts and authenticates the message, writing the 16 byte authenticator followed by the encrypted message.
+     * <br>The output range must not overlap the message.
+     *
+     * @param  message
+     *         The array containing the message
+     * @param  moff
+     *         The offset of the message
+     * @param  mlen
+     *         The length of the message
+     * @param  nonce
+     *         The 24 byte nonce
+     * @param  out
+     *         The output array, with at least {@code mlen + 16} bytes after the offset
+     * @param  outoff
+     *         The offset in the output array
+     *
+     * @return The amount of bytes written, or -1 if the arguments are invalid
+     */
+    int seal(byte[] message, int moff, int mlen, byte[] nonce, byte[] out, int outoff);
+
+    /**
+     * Verifies and decrypts a box created by {@link #seal(byte[], int, int, byte[], byte[], int)}.
+     * <br>The output range must not overlap the box.
+     *
+     * @param  box
+     *         The array containing the box
+     * @param  boxoff
+     *         The offset of the box
+     * @param  boxlen
+     *         The length of the box, including the authenticator
+     * @param  nonce
+     *         The 24 byte nonce
+     * @param  out
+     *         The output array, with at least {@code boxlen - 16} bytes after the offset
+     * @param  outoff
+     *         The offset in the output array
+     *
+     * @return The length of the decrypted message, or -1 if the box could not be authenticated or the arguments are invalid
+     */
+    int open(byte[] box, int boxoff, int boxlen, byte[] nonce, byte[] out, int outoff);
+}
@@ -16,7 +16,6 @@
 
 package net.dv8tion.jda.internal.audio;
 
-import com.iwebpp.crypto.TweetNaclFast;
 import com.neovisionaries.ws.client.WebSocket;
 import com.sun.jna.ptr.PointerByReference;
 import gnu.trove.map.TIntLongMap;
@@ -64,7 +63,7 @@ public class AudioConnection
 
     private final TIntLongMap ssrcMap = new TIntLongHashMap();
     private final TIntObjectMap<Decoder> opusDecoders = new TIntObjectHashMap<>();
-    private final HashMap<User, Queue<AudioData>> combinedQueue = new HashMap<>();
+    private final CombinedAudioMixer combinedMixer = new CombinedAudioMixer();
     private final String threadIdentifier;
     private final AudioWebSocket webSocket;
     private final JDAImpl api;
@@ -74,10 +73,20 @@ public class AudioConnection
     private ScheduledExecutorService combinedAudioExecutor;
     private IAudioSendSystem sendSystem;
     private Thread receiveThread;
+    private AudioReactor.Registration receiveRegistration;
     private long queueTimeout;
     private boolean sentSilenceOnConnect = false;
     private int speakingDelay = 10;
 
+    // Buffers of the receiving thread, reused for every packet
+    private final byte[] receiveNonce = new byte[AudioCipher.NONCE_LENGTH];
+    private final byte[] decryptBuffer = new byte[1920];
+    private AudioCipher receiveCipher;
+    private byte[] receiveKey;
+    // Buffers of the sending thread
+    private ShortBuffer opusInput = ShortBuffer.allocate(OpusPacket.OPUS_FRAME_SIZE * OpusPacket.OPUS_CHANNEL_COUNT);
+    private final ByteBuffer opusOutput = ByteBuffer.allocate(4096);
+
     private volatile AudioSendHandler sendHandler = null;
     private volatile AudioReceiveHandler receiveHandler = null;
 
@@ -177,16 +186,7 @@ public class AudioConnection
             sendSystem.shutdown();
             sendSystem = null;
         }
-        if (receiveThread != null)
-        {
-            receiveThread.interrupt();
-            receiveThread = null;
-        }
-        if (combinedAudioExecutor != null)
-        {
-            combinedAudioExecutor.shutdownNow();
-            combinedAudioExecutor = null;
-        }
+        stopReceiving();
         if (opusEncoder != null)
         {
             Opus.INSTANCE.opus_encoder_destroy(opusEncoder);
@@ -264,6 +264,7 @@ public class AudioConnection
         final Decoder decoder = opusDecoders.remove(ssrcRef.get());
         if (decoder != null) // cleanup decoder
             decoder.close();
+        combinedMixer.remove(ssrcRef.get());
     }
 
     protected void updateUserSSRC(int ssrc, long userId)
@@ -284,7 +285,7 @@ public class AudioConnection
             ssrcMap.put(ssrc, userId);
 
             //Only create a decoder if we are actively handling received audio.
-            if (receiveThread != null && AudioNatives.ensureOpus())
+            if (isReceiving() && AudioNatives.ensureOpus())
                 opusDecoders.put(ssrc, new Decoder(ssrc));
         }
     }
@@ -296,7 +297,7 @@ public class AudioConnection
         if (udpSocket != null && !udpSocket.isClosed() && sendHandler != null && sendSystem == null)
         {
             IAudioSendFactory factory = getJDA().getAudioSendFactory();
-            sendSystem = factory.createSendSystem(new PacketProvider(new TweetNaclFast.SecretBox(webSocket.getSecretKey())));
+            sendSystem = factory.createSendSystem(new PacketProvider(AudioCryptoProvider.getProvider().createCipher(webSocket.getSecretKey())));
             sendSystem.setContextMap(getJDA().getContextMap());
             sendSystem.start();
         }
@@ -315,33 +316,83 @@ public class AudioConnection
 
     private synchronized void setupReceiveSystem()
     {
-        if (udpSocket != null && !udpSocket.isClosed() && receiveHandler != null && receiveThread == null)
+        if (udpSocket != null && !udpSocket.isClosed() && receiveHandler != null && !isReceiving())
         {
             setupReceiveThread();
         }
-        else if (receiveHandler == null && receiveThread != null)
+        else if (receiveHandler == null && isReceiving())
         {
-            receiveThread.interrupt();
-            receiveThread = null;
+            stopReceiving();
 
+            opusDecoders.valueCollection().forEach(Decoder::close);
+            opusDecoders.clear();
+        }
+        else if (receiveHandler != null && !receiveHandler.canReceiveCombined())
+        {
             if (combinedAudioExecutor != null)
             {
                 combinedAudioExecutor.shutdownNow();
                 combinedAudioExecutor = null;
             }
+            if (receiveRegistration != null)
+                receiveRegistration.setMixer(null);
+        }
+    }
 
-            opusDecoders.valueCollection().forEach(Decoder::close);
-            opusDecoders.clear();
+    private boolean isReceiving()
+    {
+        return receiveThread != null || receiveRegistration != null;
+    }
+
+    private synchronized void stopReceiving()
+    {
+        if (receiveThread != null)
+        {
+            receiveThread.interrupt();
+            receiveThread = null;
         }
-        else if (receiveHandler != null && !receiveHandler.canReceiveCombined() && combinedAudioExecutor != null)
+        if (receiveRegistration != null)
+        {
+            receiveRegistration.setReceiver(null);
+            receiveRegistration.setMixer(null);
+            receiveRegistration = null;
+        }
+        if (combinedAudioExecutor != null)
         {
             combinedAudioExecutor.shutdownNow();
             combinedAudioExecutor = null;
         }
+        combinedMixer.clear();
+    }
+
+    private AudioReactor getReactor()
+    {
+        // The receiving uses the same threads as a ReactorAudioSendFactory
+        return udpSocket.getChannel() != null ? AudioReactor.of(getJDA().getAudioSendFactory()) : null;
     }
 
     private synchronized void setupReceiveThread()
     {
+        AudioReactor reactor = getReactor();
+        if (reactor != null)
+        {
+            if (receiveRegistration == null)
+            {
+                // The reactor reuses the buffer for the next packet, the audio is copied while decrypting
+                receiveRegistration = reactor.register(udpSocket.getChannel());
+                receiveRegistration.setContextMap(getJDA().getContextMap());
+                final AudioReactor.Registration registration = receiveRegistration;
+                receiveRegistration.setReceiver((buffer) ->
+                {
+                    if (!handlePacket(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining()))
+                        registration.setReceiver(null);
+                });
+            }
+            if (receiveHandler.canReceiveCombined())
+                receiveRegistration.setMixer(this::mixCombinedAudio);
+            return;
+        }
+
         if (receiveThread == null)
         {
             receiveThread = new Thread(() ->
@@ -355,91 +406,17 @@ public class AudioConnection
                 {
                     LOG.error("Couldn't set SO_TIMEOUT for UDP socket", e);
                 }
+                // Reused for every packet, the audio is copied while decrypting
+                byte[] receiveBuffer = new byte[1920];
+                DatagramPacket receivedPacket = new DatagramPacket(receiveBuffer, receiveBuffer.length);
                 while (!udpSocket.isClosed() && !Thread.currentThread().isInterrupted())
                 {
-                    DatagramPacket receivedPacket = new DatagramPacket(new byte[1920], 1920);
                     try
                     {
+                        receivedPacket.setLength(receiveBuffer.length);
                         udpSocket.receive(receivedPacket);
-
-                        boolean shouldDecode = receiveHandler != null && (receiveHandler.canReceiveUser() || receiveHandler.canReceiveCombined());
-                        boolean canReceive = receiveHandler != null && (receiveHandler.canReceiveUser() || receiveHandler.canReceiveCombined() || receiveHandler.canReceiveEncoded());
-                        if (canReceive && webSocket.getSecretKey() != null)
-                        {
-                            if (!couldReceive)
-                            {
-                                couldReceive = true;
-                                sendSilentPackets();
-                            }
-                            AudioPacket decryptedPacket = AudioPacket.decryptAudioPacket(webSocket.encryption, receivedPacket, webSocket.getSecretKey());
-                            if (decryptedPacket == null)
-                                continue;
-
-                            int ssrc = decryptedPacket.getSSRC();
-                            final long userId = ssrcMap.get(ssrc);
-                            Decoder decoder = opusDecoders.get(ssrc);
-                            if (userId == ssrcMap.getNoEntryValue())
-                            {
-                                ByteBuffer audio = decryptedPacket.getEncodedAudio();
-
-                                //If the bytes are silence, then this was caused by a User joining the voice channel,
-                                // and as such, we haven't yet received information to pair the SSRC with the UserId.
-                                if (!audio.equals(silenceBytes))
-                                    LOG.debug("Received audio data with an unknown SSRC id. Ignoring");
-
-                                continue;
-                            }
-                            if (decoder == null)
-                            {
-                                if (AudioNatives.ensureOpus())
-                                {
-                                    opusDecoders.put(ssrc, decoder = new Decoder(ssrc));
-                                }
-                                else if (!receiveHandler.canReceiveEncoded())
-                                {
-                                    LOG.error("Unable to decode audio due to missing opus binaries!");
-                                    break;
-                                }
-                            }
-                            OpusPacket opusPacket = new OpusPacket(decryptedPacket, userId, decoder);
-                            if (receiveHandler.canReceiveEncoded())
-                                receiveHandler.handleEncodedAudio(opusPacket);
-                            if (!shouldDecode || !opusPacket.canDecode())
-                                continue;
-
-                            User user = getJDA().getUserById(userId);
-                            if (user == null)
-                            {
-                                LOG.warn("Received audio data with a known SSRC, but the userId associate with the SSRC is unknown to JDA!");
-                                continue;
-                            }
-                            short[] decodedAudio = opusPacket.decode();
-                            //If decodedAudio is null, then the Opus decode failed, so throw away the packet.
-                            if (decodedAudio == null)
-                            {
-                                //decoder error logged in method
-                                continue;
-                            }
-                            if (receiveHandler.canReceiveUser())
-                            {
-                                receiveHandler.handleUserAudio(new UserAudio(user, decodedAudio));
-                            }
-                            if (receiveHandler.canReceiveCombined() && receiveHandler.includeUserInCombinedAudio(user))
-                            {
-                                Queue<AudioData> queue = combinedQueue.get(user);
-                                if (queue == null)
-                                {
-                                    queue = new ConcurrentLinkedQueue<>();
-                                    combinedQueue.put(user, queue);
-                                }
-                                queue.add(new AudioData(decodedAudio));
-                            }
-                        }
-                        else if (couldReceive)
-                        {
-                            couldReceive = false;
-                            sendSilentPackets();
-                        }
+                        if (!handlePacket(receiveBuffer, 0, receivedPacket.getLength()))
+                            break;
                     }
                     catch (SocketTimeoutException e)
                     {
@@ -474,6 +451,96 @@ public class AudioConnection
         }
     }
 
+    // Returns false if no further packets can be handled
+    private boolean handlePacket(byte[] data, int offset, int length)
+    {
+        boolean shouldDecode = receiveHandler != null && (receiveHandler.canReceiveUser() || receiveHandler.canReceiveCombined());
+        boolean canReceive = receiveHandler != null && (receiveHandler.canReceiveUser() || receiveHandler.canReceiveCombined() || receiveHandler.canReceiveEncoded());
+        if (canReceive && webSocket.getSecretKey() != null)
+        {
+            if (!couldReceive)
+            {
+                couldReceive = true;
+                sendSilentPackets();
+            }
+            AudioPacket decryptedPacket = AudioPacket.decryptAudioPacket(webSocket.encryption, getReceiveCipher(), data, offset, length, receiveNonce, decryptBuffer);
+            if (decryptedPacket == null)
+                return true;
+
+            int ssrc = decryptedPacket.getSSRC();
+            final long userId = ssrcMap.get(ssrc);
+            Decoder decoder = opusDecoders.get(ssrc);
+            if (userId == ssrcMap.getNoEntryValue())
+            {
+                ByteBuffer audio = decryptedPacket.getEncodedAudio();
+
+                //If the bytes are silence, then this was caused by a User joining the voice channel,
+                // and as such, we haven't yet received information to pair the SSRC with the UserId.
+                if (!audio.equals(silenceBytes))
+                    LOG.debug("Received audio data with an unknown SSRC id. Ignoring");
+
+                return true;
+            }
+            if (decoder == null)
+            {
+                if (AudioNatives.ensureOpus())
+                {
+                    opusDecoders.put(ssrc, decoder = new Decoder(ssrc));
+                }
+                else if (!receiveHandler.canReceiveEncoded())
+                {
+                    LOG.error("Unable to decode audio due to missing opus binaries!");
+                    return false;
+                }
+            }
+            OpusPacket opusPacket = new OpusPacket(decryptedPacket, userId, decoder);
+            if (receiveHandler.canReceiveEncoded())
+                receiveHandler.handleEncodedAudio(opusPacket);
+            if (!shouldDecode || !opusPacket.canDecode())
+                return true;
+
+            User user = getJDA().getUserById(userId);
+            if (user == null)
+            {
+                LOG.warn("Received audio data with a known SSRC, but the userId associate with the SSRC is unknown to JDA!");
+                return true;
+            }
+            short[] decodedAudio = opusPacket.decode();
+            //If decodedAudio is null, then the Opus decode failed, so throw away the packet.
+            if (decodedAudio == null)
+            {
+                //decoder error logged in method
+                return true;
+            }
+            if (receiveHandler.canReceiveUser())
+            {
+                receiveHandler.handleUserAudio(new UserAudio(user, decodedAudio));
+            }
+            if (receiveHandler.canReceiveCombined() && receiveHandler.includeUserInCombinedAudio(user))
+            {
+                combinedMixer.add(ssrc, user, decryptedPacket.getSequence(), decodedAudio, System.currentTimeMillis());
+            }
+        }
+        else if (couldReceive)
+        {
+            couldReceive = false;
+            sendSilentPackets();
+        }
+        return true;
+    }
+
+    // Only used by the receiving thread
+    private AudioCipher getReceiveCipher()
+    {
+        byte[] secretKey = webSocket.getSecretKey();
+        if (receiveCipher == null || receiveKey != secretKey)
+        {
+            receiveCipher = AudioCryptoProvider.getProvider().createCipher(secretKey);
+            receiveKey = secretKey;
+        }
+        return receiveCipher;
+    }
+
     private synchronized void setupCombinedExecutor()
     {
         if (combinedAudioExecutor == null)
@@ -493,81 +560,32 @@ public class AudioConnection
             combinedAudioExecutor.scheduleAtFixedRate(() ->
             {
                 getJDA().setContext();
-                try
-                {
-                    List<User> users = new LinkedList<>();
-                    List<short[]> audioParts = new LinkedList<>();
-                    if (receiveHandler != null && receiveHandler.canReceiveCombined())
-                    {
-                        long currentTime = System.currentTimeMillis();
-                        for (Map.Entry<User, Queue<AudioData>> entry : combinedQueue.entrySet())
-                        {
-                            User user = entry.getKey();
-                            Queue<AudioData> queue = entry.getValue();
-
-                            if (queue.isEmpty())
-                                continue;
-
-                            AudioData audioData = queue.poll();
-                            //Make sure the audio packet is younger than 100ms
-                            while (audioData != null && currentTime - audioData.time > queueTimeout)
-                            {
-                                audioData = queue.poll();
-                            }
-
-                            //If none of the audio packets were younger than 100ms, then there is nothing to add.
-                            if (audioData == null)
-                            {
-                                continue;
-                            }
-                            users.add(user);
-                            audioParts.add(audioData.data);
-                        }
-
-                        if (!audioParts.isEmpty())
-                        {
-                            int audioLength = audioParts.stream().mapToInt(it -> it.length).max().getAsInt();
-                            short[] mix = new short[1920];  //960 PCM samples for each channel
-                            int sample;
-                            for (int i = 0; i < audioLength; i++)
-                            {
-                                sample = 0;
-                                for (Iterator<short[]> iterator = audioParts.iterator(); iterator.hasNext(); )
-                                {
-                                    short[] audio = iterator.next();
-                                    if (i < audio.length)
-                                        sample += audio[i];
-                                    else
-                                        iterator.remove();
-                                }
-                                if (sample > Short.MAX_VALUE)
-                                    mix[i] = Short.MAX_VALUE;
-                                else if (sample < Short.MIN_VALUE)
-                                    mix[i] = Short.MIN_VALUE;
-                                else
-                                    mix[i] = (short) sample;
-                            }
-                            receiveHandler.handleCombinedAudio(new CombinedAudio(users, mix));
-                        }
-                        else
-                        {
-                            //No audio to mix, provide 20 MS of silence. (960 PCM samples for each channel)
-                            receiveHandler.handleCombinedAudio(new CombinedAudio(Collections.emptyList(), new short[1920]));
-                        }
-                    }
-                }
-                catch (Exception e)
-                {
-                    LOG.error("There was some unexpected exception in the combinedAudioExecutor!", e);
-                }
+                mixCombinedAudio();
             }, 0, 20, TimeUnit.MILLISECONDS);
         }
     }
 
+    private void mixCombinedAudio()
+    {
+        try
+        {
+            if (receiveHandler != null && receiveHandler.canReceiveCombined())
+                receiveHandler.handleCombinedAudio(combinedMixer.mix(System.currentTimeMillis(), queueTimeout));
+        }
+        catch (Exception e)
+        {
+            LOG.error("There was some unexpected exception in the combinedAudioExecutor!", e);
+        }
+    }
+
     private ByteBuffer encodeToOpus(ByteBuffer rawAudio)
     {
-        ShortBuffer nonEncodedBuffer = ShortBuffer.allocate(rawAudio.remaining() / 2);
-        ByteBuffer encoded = ByteBuffer.allocate(4096);
+        if (opusInput.capacity() < rawAudio.remaining() / 2)
+            opusInput = ShortBuffer.allocate(rawAudio.remaining() / 2);
+        ShortBuffer nonEncodedBuffer = opusInput;
+        ByteBuffer encoded = opusOutput;
+        ((Buffer) nonEncodedBuffer).clear();
+        ((Buffer) encoded).clear();
         for (int i = rawAudio.position(); i < rawAudio.limit(); i += 2)
         {
             int firstByte =  (0x000000FF & rawAudio.get(i));      //Promotes to int and handles the fact that it was unsigned.
@@ -617,15 +635,16 @@ public class AudioConnection
     {
         private char seq = 0;           //Sequence of audio packets. Used to determine the order of the packets.
         private int timestamp = 0;      //Used to sync up our packets within the same timeframe of other people talking.
-        private TweetNaclFast.SecretBox boxer;
+        private final AudioCipher cipher;
         private long nonce = 0;
         private ByteBuffer buffer = ByteBuffer.allocate(512);
-        private ByteBuffer encryptionBuffer = ByteBuffer.allocate(512);
-        private final byte[] nonceBuffer = new byte[TweetNaclFast.SecretBox.nonceLength];
+        private final byte[] nonceBuffer = new byte[AudioCipher.NONCE_LENGTH];
+        private final byte[] headerNonce = new byte[AudioCipher.NONCE_LENGTH];
+        private DatagramPacket packet;
 
-        public PacketProvider(TweetNaclFast.SecretBox boxer)
+        public PacketProvider(AudioCipher cipher)
         {
-            this.boxer = boxer;
+            this.cipher = cipher;
         }
 
         @Nonnull
@@ -764,17 +783,27 @@ public class AudioConnection
             byte[] data = b.array();
             int offset = b.arrayOffset() + b.position();
             int length = b.remaining();
-            return new DatagramPacket(data, offset, length, webSocket.getAddress());
+            // The packet wraps the reused buffer, it is only valid until the next packet is requested
+            if (packet == null)
+            {
+                packet = new DatagramPacket(data, offset, length, webSocket.getAddress());
+            }
+            else
+            {
+                packet.setData(data, offset, length);
+                packet.setSocketAddress(webSocket.getAddress());
+            }
+            return packet;
         }
 
         private ByteBuffer getPacketData(ByteBuffer rawAudio)
         {
-            ensureEncryptionBuffer(rawAudio);
-            AudioPacket packet = new AudioPacket(encryptionBuffer, seq, timestamp, webSocket.getSSRC(), rawAudio);
+            byte[] packetNonce = nonceBuffer;
             int nlen;
             switch (webSocket.encryption)
             {
                 case XSALSA20_POLY1305:
+                    packetNonce = headerNonce;
                     nlen = 0;
                     break;
                 case XSALSA20_POLY1305_LITE:
@@ -786,21 +815,12 @@ public class AudioConnection
                     break;
                 case XSALSA20_POLY1305_SUFFIX:
                     ThreadLocalRandom.current().nextBytes(nonceBuffer);
-                    nlen = TweetNaclFast.SecretBox.nonceLength;
+                    nlen = AudioCipher.NONCE_LENGTH;
                     break;
                 default:
                     throw new IllegalStateException("Encryption mode [" + webSocket.encryption + "] is not supported!");
             }
-            return buffer = packet.asEncryptedPacket(boxer, buffer, nonceBuffer, nlen);
-        }
-
-        private void ensureEncryptionBuffer(ByteBuffer data)
-        {
-            ((Buffer) encryptionBuffer).clear();
-            int currentCapacity = encryptionBuffer.remaining();
-            int requiredCapacity = AudioPacket.RTP_HEADER_BYTE_LENGTH + data.remaining();
-            if (currentCapacity < requiredCapacity)
-                encryptionBuffer = ByteBuffer.allocate(requiredCapacity);
+            return buffer = AudioPacket.encryptPacket(cipher, buffer, seq, timestamp, webSocket.getSSRC(), rawAudio, packetNonce, nlen);
         }
 
         private void loadNextNonce(long nonce)
@@ -825,16 +845,4 @@ public class AudioConnection
             webSocket.close(ConnectionStatus.ERROR_LOST_CONNECTION);
         }
     }
-
-    private static class AudioData
-    {
-        private final long time;
-        private final short[] data;
-
-        public AudioData(short[] data)
-        {
-            this.time = System.currentTimeMillis();
-            this.data = data;
-        }
-    }
 }
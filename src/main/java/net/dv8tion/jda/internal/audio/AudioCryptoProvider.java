@@ -0,0 +1,178 @@
+/*
+ * Copyright 2015-2020 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.internal.audio;
+
+import net.dv8tion.jda.internal.utils.Checks;
+import net.dv8tion.jda.internal.utils.JDALogger;
+import org.slf4j.Logger;
+
+import java.lang.reflect.Constructor;
+import java.util.Arrays;
+import java.util.function.Function;
+
+/**
+ * Creates the {@link AudioCipher AudioCiphers} of the voice connections.
+ *
+ * <p>The provider is selected once, with the system property {@value #PROPERTY}:
+ * <ul>
+ *     <li>{@code xsalsa20} - The optimized {@link XSalsa20Poly1305Cipher} (default)</li>
+ *     <li>{@code tweetnacl} - The {@link TweetNaclCipher}</li>
+ *     <li>The name of a class implementing {@link AudioCipher} with a public constructor accepting the secret key,
+ *         for instance a binding to a native library</li>
+ * </ul>
+ * Every provider other than TweetNaCl has to produce the same packets as TweetNaCl, otherwise TweetNaCl is used instead.
+ */
+public final class AudioCryptoProvider
+{
+    public static final Logger LOG = JDALogger.getLog(AudioCryptoProvider.class);
+    public static final String PROPERTY = "jda.audio.crypto";
+
+    public static final AudioCryptoProvider TWEETNACL = new AudioCryptoProvider("tweetnacl", TweetNaclCipher::new);
+    public static final AudioCryptoProvider XSALSA20 = new AudioCryptoProvider("xsalsa20", XSalsa20Poly1305Cipher::new);
+
+    private static volatile AudioCryptoProvider provider;
+
+    private final String name;
+    private final Function<byte[], AudioCipher> factory;
+
+    public AudioCryptoProvider(String name, Function<byte[], AudioCipher> factory)
+    {
+        Checks.notNull(name, "Name");
+        Checks.notNull(factory, "Factory");
+        this.name = name;
+        this.factory = factory;
+    }
+
+    public static AudioCryptoProvider getProvider()
+    {
+        AudioCryptoProvider current = provider;
+        if (current == null)
+        {
+            synchronized (AudioCryptoProvider.class)
+            {
+                current = provider;
+                if (current == null)
+                    provider = current = select(System.getProperty(PROPERTY, XSALSA20.name));
+            }
+        }
+        return current;
+    }
+
+    public static void setProvider(AudioCryptoProvider provider)
+    {
+        Checks.notNull(provider, "Provider");
+        AudioCryptoProvider.provider = provider;
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    public AudioCipher createCipher(byte[] secretKey)
+    {
+        return factory.apply(secretKey);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "AudioCryptoProvider(" + name + ")";
+    }
+
+    private static AudioCryptoProvider select(String name)
+    {
+        AudioCryptoProvider selected;
+        if (TWEETNACL.name.equalsIgnoreCase(name))
+            return TWEETNACL;
+        else if (XSALSA20.name.equalsIgnoreCase(name))
+            selected = XSALSA20;
+        else
+            selected = load(name);
+
+        if (selected == null || !isCompatible(selected))
+            return TWEETNACL;
+        LOG.debug("Using {} for audio encryption", selected.name);
+        return selected;
+    }
+
+    private static AudioCryptoProvider load(String className)
+    {
+        try
+        {
+            Class<? extends AudioCipher> type = Class.forName(className).asSubclass(AudioCipher.class);
+            Constructor<? extends AudioCipher> constructor = type.getConstructor(byte[].class);
+            return new AudioCryptoProvider(className, (key) ->
+            {
+                try
+                {
+                    return constructor.newInstance((Object) key);
+                }
+                catch (ReflectiveOperationException e)
+                {
+                    throw new IllegalStateException("Could not create audio cipher", e);
+                }
+            });
+        }
+        catch (ReflectiveOperationException | ClassCastException e)
+        {
+            LOG.warn("Could not load audio crypto provider {}, falling back to TweetNaCl", className, e);
+            return null;
+        }
+    }
+
+    // Compares the provider to TweetNaCl, using every block size of the last keystream and Poly1305 block
+    private static boolean isCompatible(AudioCryptoProvider candidate)
+    {
+        try
+        {
+            byte[] key = new byte[32];
+            byte[] nonce = new byte[AudioCipher.NONCE_LENGTH];
+            for (int i = 0; i < key.length; i++)
+                key[i] = (byte) (i * 31 + 7);
+            for (int i = 0; i < nonce.length; i++)
+                nonce[i] = (byte) (i * 17 + 3);
+
+            AudioCipher expected = TWEETNACL.createCipher(key);
+            AudioCipher actual = candidate.createCipher(key);
+            for (int length = 0; length <= 160; length += 7)
+            {
+                byte[] message = new byte[length];
+                for (int i = 0; i < length; i++)
+                    message[i] = (byte) (i * 13 + length);
+                byte[] expectedBox = new byte[length + AudioCipher.OVERHEAD_LENGTH];
+                byte[] actualBox = new byte[length + AudioCipher.OVERHEAD_LENGTH];
+                expected.seal(message, 0, length, nonce, expectedBox, 0);
+                int sealed = actual.seal(message, 0, length, nonce, actualBox, 0);
+
+                byte[] opened = new byte[length];
+                int openedLength = actual.open(expectedBox, 0, expectedBox.length, nonce, opened, 0);
+                if (sealed != actualBox.length || !Arrays.equals(expectedBox, actualBox) || openedLength != length || !Arrays.equals(message, opened))
+                {
+                    LOG.warn("Audio crypto provider {} does not match TweetNaCl, falling back to TweetNaCl", candidate.name);
+                    return false;
+                }
+            }
+            return true;
+        }
+        catch (RuntimeException | LinkageError e)
+        {
+            LOG.warn("Audio crypto provider {} failed, falling back to TweetNaCl", candidate.name, e);
+            return false;
+        }
+    }
+}
@@ -16,7 +16,6 @@
 
 package net.dv8tion.jda.internal.audio;
 
-import com.iwebpp.crypto.TweetNaclFast;
 import net.dv8tion.jda.internal.utils.IOUtil;
 
 import java.net.DatagramPacket;
@@ -80,20 +79,9 @@ public class AudioPacket
         this.ssrc = buffer.getInt(SSRC_INDEX);
         this.type = buffer.get(PT_INDEX);
 
-        final byte profile = buffer.get(0);
-        final byte[] data = buffer.array();
-        final boolean hasExtension = (profile & 0x10) != 0; // extension bit is at 000X
-        final byte cc = (byte) (profile & 0x0f);            // CSRC count - we ignore this for now
-        final int csrcLength = cc * 4;                      // defines count of 4-byte words
-        // it seems as if extensions only exist without a csrc list being present
-        final short extension = hasExtension ? IOUtil.getShortBigEndian(data, RTP_HEADER_BYTE_LENGTH + csrcLength) : 0;
-
-        int offset = RTP_HEADER_BYTE_LENGTH + csrcLength;
-        if (hasExtension && extension == RTP_DISCORD_EXTENSION)
-            offset = getPayloadOffset(data, csrcLength);
-
-        this.encodedAudio = ByteBuffer.allocate(data.length - offset);
-        this.encodedAudio.put(data, offset, encodedAudio.capacity());
+        final int offset = getPayloadOffset(rawPacket, 0, rawPacket.length);
+        this.encodedAudio = ByteBuffer.allocate(rawPacket.length - offset);
+        this.encodedAudio.put(rawPacket, offset, encodedAudio.capacity());
         ((Buffer) this.encodedAudio).flip();
     }
 
@@ -107,17 +95,29 @@ public class AudioPacket
         this.rawPacket = generateRawPacket(buffer, seq, timestamp, ssrc, encodedAudio);
     }
 
-    private int getPayloadOffset(byte[] data, int csrcLength)
+    // Index of the payload of the packet between offset and end
+    private static int getPayloadOffset(byte[] data, int offset, int end)
     {
+        final byte profile = data[offset];
+        final boolean hasExtension = (profile & 0x10) != 0; // extension bit is at 000X
+        final byte cc = (byte) (profile & 0x0f);            // CSRC count - we ignore this for now
+        final int csrcLength = cc * 4;                      // defines count of 4-byte words
+        // it seems as if extensions only exist without a csrc list being present
+        final short extension = hasExtension ? IOUtil.getShortBigEndian(data, offset + RTP_HEADER_BYTE_LENGTH + csrcLength) : 0;
+
+        if (!hasExtension || extension != RTP_DISCORD_EXTENSION)
+            return offset + RTP_HEADER_BYTE_LENGTH + csrcLength;
+
         // headerLength defines number of 4-byte words in the extension
-        final short headerLength = IOUtil.getShortBigEndian(data, RTP_HEADER_BYTE_LENGTH + 2 + csrcLength);
-        int i = RTP_HEADER_BYTE_LENGTH // RTP header = 12 bytes
+        final short headerLength = IOUtil.getShortBigEndian(data, offset + RTP_HEADER_BYTE_LENGTH + 2 + csrcLength);
+        int i = offset
+                + RTP_HEADER_BYTE_LENGTH // RTP header = 12 bytes
                 + 4                    // header which defines a profile and length each 2-bytes = 4 bytes
                 + csrcLength           // length of CSRC list (this seems to be always 0 when an extension exists)
                 + headerLength * 4;    // number of 4-byte words in extension = len * 4 bytes
 
         // strip excess 0 bytes
-        while (data[i] == 0)
+        while (i < end && data[i] == 0)
             i++;
         return i;
     }
@@ -131,7 +131,7 @@ public class AudioPacket
 
     public byte[] getNoncePadded()
     {
-        byte[] nonce = new byte[TweetNaclFast.SecretBox.nonceLength];
+        byte[] nonce = new byte[AudioCipher.NONCE_LENGTH];
         //The first 12 bytes are the rawPacket are the RTP Discord Nonce.
         System.arraycopy(rawPacket, 0, nonce, 0, RTP_HEADER_BYTE_LENGTH);
         return nonce;
@@ -162,26 +162,47 @@ public class AudioPacket
         return timestamp;
     }
 
-    protected ByteBuffer asEncryptedPacket(TweetNaclFast.SecretBox boxer, ByteBuffer buffer, byte[] nonce, int nlen)
+    /**
+     * Writes the encrypted packet to the buffer, without allocating if the buffer is large enough.
+     *
+     * @param  cipher
+     *         The cipher for the secret key of this connection
+     * @param  buffer
+     *         The buffer to write to, replaced by a new buffer if it is too small
+     * @param  encodedAudio
+     *         The opus audio, backed by an array
+     * @param  nonce
+     *         The 24 byte nonce, only the first nlen bytes are appended to the packet
+     * @param  nlen
+     *         The length of the nonce appended to the packet, 0 if the header is used as nonce
+     *
+     * @return The buffer containing the packet
+     */
+    protected static ByteBuffer encryptPacket(AudioCipher cipher, ByteBuffer buffer, char seq, int timestamp, int ssrc,
+                                              ByteBuffer encodedAudio, byte[] nonce, int nlen)
     {
-        //Xsalsa20's Nonce is 24 bytes long, however RTP (and consequently Discord)'s nonce is a different length
-        // so we need to create a 24 byte array, and copy the nonce into it.
-        // we will leave the extra bytes as nulls. (Java sets non-populated bytes as 0).
-        byte[] extendedNonce = nonce;
-        if (nlen == 0) // this means the header is the nonce!
-            extendedNonce = getNoncePadded();
-
-        //Create our SecretBox encoder with the secretKey provided by Discord.
-        byte[] array = encodedAudio.array();
-        int offset = encodedAudio.arrayOffset() + encodedAudio.position();
         int length = encodedAudio.remaining();
-        byte[] encryptedAudio = boxer.box(array, offset, length, extendedNonce);
-
-        ((Buffer) buffer).clear();
-        int capacity = RTP_HEADER_BYTE_LENGTH + encryptedAudio.length + nlen;
-        if (capacity > buffer.remaining())
+        int capacity = RTP_HEADER_BYTE_LENGTH + length + AudioCipher.OVERHEAD_LENGTH + nlen;
+        if (capacity > buffer.capacity())
             buffer = ByteBuffer.allocate(capacity);
-        populateBuffer(seq, timestamp, ssrc, ByteBuffer.wrap(encryptedAudio), buffer);
+        ((Buffer) buffer).clear();
+        buffer.put(RTP_VERSION_PAD_EXTEND);
+        buffer.put(RTP_PAYLOAD_TYPE);
+        buffer.putChar(seq);
+        buffer.putInt(timestamp);
+        buffer.putInt(ssrc);
+
+        byte[] array = buffer.array();
+        int offset = buffer.arrayOffset();
+        if (nlen == 0) // this means the header is the nonce!
+        {
+            System.arraycopy(array, offset, nonce, 0, RTP_HEADER_BYTE_LENGTH);
+            Arrays.fill(nonce, RTP_HEADER_BYTE_LENGTH, nonce.length, (byte) 0);
+        }
+
+        int audioOffset = encodedAudio.arrayOffset() + encodedAudio.position();
+        int encryptedLength = cipher.seal(encodedAudio.array(), audioOffset, length, nonce, array, offset + RTP_HEADER_BYTE_LENGTH);
+        ((Buffer) buffer).position(RTP_HEADER_BYTE_LENGTH + encryptedLength);
         if (nlen > 0) // this means we append the nonce to the payload
             buffer.put(nonce, 0, nlen);
 
@@ -189,66 +210,65 @@ public class AudioPacket
         return buffer;
     }
 
-    protected static AudioPacket decryptAudioPacket(AudioEncryption encryption, DatagramPacket packet, byte[] secretKey)
+    /**
+     * Decrypts a received packet, only the returned packet is allocated.
+     *
+     * @param  encryption
+     *         The encryption mode of the connection
+     * @param  cipher
+     *         The cipher for the secret key of this connection
+     * @param  data
+     *         The array containing the received packet
+     * @param  offset
+     *         The start of the packet
+     * @param  length
+     *         The length of the packet
+     * @param  nonce
+     *         A 24 byte array used for the nonce
+     * @param  buffer
+     *         A buffer large enough for the decrypted packet, used to decrypt before copying the result
+     *
+     * @return The decrypted packet, or null if the packet is not an audio packet or could not be decrypted
+     */
+    protected static AudioPacket decryptAudioPacket(AudioEncryption encryption, AudioCipher cipher, byte[] data, int offset, int length,
+                                                    byte[] nonce, byte[] buffer)
     {
-        TweetNaclFast.SecretBox boxer = new TweetNaclFast.SecretBox(secretKey);
-        AudioPacket encryptedPacket = new AudioPacket(packet);
-        if (encryptedPacket.type != RTP_PAYLOAD_TYPE)
+        if (length < RTP_HEADER_BYTE_LENGTH || data[offset + PT_INDEX] != RTP_PAYLOAD_TYPE)
             return null;
 
-        byte[] extendedNonce;
-        byte[] rawPacket = encryptedPacket.getRawPacket();
+        int end = offset + length;
         switch (encryption)
         {
             case XSALSA20_POLY1305:
-                extendedNonce = encryptedPacket.getNoncePadded();
+                System.arraycopy(data, offset, nonce, 0, RTP_HEADER_BYTE_LENGTH);
+                Arrays.fill(nonce, RTP_HEADER_BYTE_LENGTH, nonce.length, (byte) 0);
                 break;
             case XSALSA20_POLY1305_SUFFIX:
-                extendedNonce = new byte[TweetNaclFast.SecretBox.nonceLength];
-                System.arraycopy(rawPacket, rawPacket.length - extendedNonce.length, extendedNonce, 0, extendedNonce.length);
+                end -= AudioCipher.NONCE_LENGTH;
+                System.arraycopy(data, end, nonce, 0, AudioCipher.NONCE_LENGTH);
                 break;
             case XSALSA20_POLY1305_LITE:
-                extendedNonce = new byte[TweetNaclFast.SecretBox.nonceLength];
-                System.arraycopy(rawPacket, rawPacket.length - 4, extendedNonce, 0, 4);
+                end -= 4;
+                System.arraycopy(data, end, nonce, 0, 4);
+                Arrays.fill(nonce, 4, nonce.length, (byte) 0);
                 break;
             default:
                 AudioConnection.LOG.debug("Failed to decrypt audio packet, unsupported encryption mode!");
                 return null;
         }
 
-        ByteBuffer encodedAudio = encryptedPacket.encodedAudio;
-        int length = encodedAudio.remaining();
-        int offset = encodedAudio.arrayOffset() + encodedAudio.position();
-        switch (encryption)
-        {
-            case XSALSA20_POLY1305:
-//                length = encodedAudio.remaining();
-                break;
-            case XSALSA20_POLY1305_LITE:
-                length -= 4;
-                break;
-            case XSALSA20_POLY1305_SUFFIX:
-                length -= TweetNaclFast.SecretBox.nonceLength;
-                break;
-            default:
-                AudioConnection.LOG.debug("Failed to decrypt audio packet, unsupported encryption mode!");
-                return null;
-        }
-
-        final byte[] decryptedAudio = boxer.open(encodedAudio.array(), offset, length, extendedNonce);
-        if (decryptedAudio == null)
+        //first 12 bytes of the decrypted packet are the RTP header
+        //the rest is the audio data we decrypt
+        int payloadOffset = getPayloadOffset(data, offset, end);
+        System.arraycopy(data, offset, buffer, 0, RTP_HEADER_BYTE_LENGTH);
+        int decryptedLength = cipher.open(data, payloadOffset, end - payloadOffset, nonce, buffer, RTP_HEADER_BYTE_LENGTH);
+        if (decryptedLength < 0)
         {
             AudioConnection.LOG.trace("Failed to decrypt audio packet");
             return null;
         }
-        final byte[] decryptedRawPacket = new byte[RTP_HEADER_BYTE_LENGTH + decryptedAudio.length];
-
-        //first 12 bytes of rawPacket are the RTP header
-        //the rest is the audio data we just decrypted
-        System.arraycopy(encryptedPacket.rawPacket, 0, decryptedRawPacket, 0, RTP_HEADER_BYTE_LENGTH);
-        System.arraycopy(decryptedAudio, 0, decryptedRawPacket, RTP_HEADER_BYTE_LENGTH, decryptedAudio.length);
 
-        return new AudioPacket(decryptedRawPacket);
+        return new AudioPacket(Arrays.copyOf(buffer, RTP_HEADER_BYTE_LENGTH + decryptedLength));
     }
 
     private static byte[] generateRawPacket(ByteBuffer buffer, char seq, int timestamp, int ssrc, ByteBuffer data)
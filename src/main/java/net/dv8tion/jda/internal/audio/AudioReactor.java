@@ -0,0 +1,468 @@
+/*
+ * Copyright 2015-2020 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.internal.audio;
+
+import net.dv8tion.jda.api.audio.factory.IAudioSendFactory;
+import net.dv8tion.jda.api.audio.factory.IPacketProvider;
+import net.dv8tion.jda.internal.utils.JDALogger;
+import org.slf4j.Logger;
+import org.slf4j.MDC;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.net.NoRouteToHostException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static net.dv8tion.jda.api.audio.OpusPacket.OPUS_FRAME_TIME_AMOUNT;
+
+/**
+ * Drives the UDP traffic of many audio connections with a fixed amount of threads.
+ *
+ * <p>Every thread owns a {@link Selector} for the received packets of its connections, and a timer wheel with one slot
+ * per millisecond of a 20 ms frame. Each connection is placed in the least occupied slot, so the frames of all connections
+ * are spread over the whole frame instead of being sent at once. The frames are scheduled by absolute time, a late
+ * thread catches up instead of drifting.
+ *
+ * <p>All handlers of a connection are called on the same thread, handlers that block delay every connection of that thread.
+ */
+public class AudioReactor
+{
+    public static final Logger LOG = JDALogger.getLog(AudioReactor.class);
+
+    private static final int SLOTS = OPUS_FRAME_TIME_AMOUNT;
+    private static final long SLOT_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    // Same limit as the DefaultSendSystem, frames are skipped once a thread is more than 3 frames behind
+    private static final long MAX_DELAY = TimeUnit.MILLISECONDS.toNanos(OPUS_FRAME_TIME_AMOUNT * 3);
+    private static final int MAX_READS = 16;
+
+    // The reactors of all ReactorAudioSendFactory instances, which do not expose them in the public api
+    private static final Map<IAudioSendFactory, AudioReactor> FACTORY_REACTORS = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final ConcurrentMap<DatagramChannel, Registration> registrations = new ConcurrentHashMap<>();
+    private final Worker[] workers;
+    private volatile boolean shutdown;
+
+    public AudioReactor(int threads, String baseName)
+    {
+        this.workers = new Worker[threads];
+        for (int i = 0; i < threads; i++)
+            workers[i] = new Worker(baseName + " " + (i + 1));
+        for (Worker worker : workers)
+            worker.thread.start();
+    }
+
+    public static AudioReactor create(IAudioSendFactory factory, int threads, String baseName)
+    {
+        AudioReactor reactor = new AudioReactor(threads, baseName);
+        FACTORY_REACTORS.put(factory, reactor);
+        return reactor;
+    }
+
+    @Nullable
+    public static AudioReactor of(IAudioSendFactory factory)
+    {
+        return FACTORY_REACTORS.get(factory);
+    }
+
+    public Registration register(DatagramChannel channel)
+    {
+        if (shutdown)
+            throw new IllegalStateException("Audio reactor has been shut down");
+        return registrations.computeIfAbsent(channel, k ->
+        {
+            Worker worker = getLeastLoaded();
+            Registration registration = new Registration(k, worker);
+            worker.load.incrementAndGet();
+            worker.submit(() -> worker.add(registration));
+            return registration;
+        });
+    }
+
+    private Worker getLeastLoaded()
+    {
+        Worker worker = workers[0];
+        for (Worker w : workers)
+        {
+            if (w.load.get() < worker.load.get())
+                worker = w;
+        }
+        return worker;
+    }
+
+    public int getConnectionCount()
+    {
+        return registrations.size();
+    }
+
+    public void shutdown()
+    {
+        shutdown = true;
+        for (Worker worker : workers)
+            worker.selector.wakeup();
+    }
+
+    public class Registration
+    {
+        private final DatagramChannel channel;
+        private final Worker worker;
+        private final ByteBuffer readBuffer = ByteBuffer.allocate(1920);
+        private volatile IPacketProvider sender;
+        private volatile Consumer<ByteBuffer> receiver;
+        private volatile Runnable mixer;
+        private volatile Map<String, String> contextMap;
+        // Set once a handler was provided, a new registration is not removed before its handlers are set
+        private volatile boolean active;
+        private SelectionKey key;
+        private int slot = -1;
+        private boolean sentPacket = true;
+
+        private Registration(DatagramChannel channel, Worker worker)
+        {
+            this.channel = channel;
+            this.worker = worker;
+        }
+
+        public void setContextMap(Map<String, String> contextMap)
+        {
+            this.contextMap = contextMap;
+        }
+
+        /**
+         * Sends the packets of the provider every 20 ms.
+         */
+        public void setSender(IPacketProvider sender)
+        {
+            this.sender = sender;
+            this.active = true;
+            update();
+        }
+
+        /**
+         * Handles every received packet, the buffer is reused for the next packet.
+         */
+        public void setReceiver(Consumer<ByteBuffer> receiver)
+        {
+            this.receiver = receiver;
+            this.active = true;
+            update();
+        }
+
+        /**
+         * Called every 20 ms, after the packet of the sender has been sent.
+         */
+        public void setMixer(Runnable mixer)
+        {
+            this.mixer = mixer;
+            this.active = true;
+            update();
+        }
+
+        public void close()
+        {
+            sender = null;
+            receiver = null;
+            mixer = null;
+            active = true;
+            update();
+        }
+
+        private void update()
+        {
+            if (isUnused())
+                registrations.remove(channel, this);
+            worker.submit(() -> worker.update(this));
+        }
+
+        private boolean isUnused()
+        {
+            return active && sender == null && receiver == null && mixer == null || !channel.isOpen();
+        }
+
+        // The threads are shared by many connections, the context only applies to the handlers of this connection
+        private boolean setContext()
+        {
+            Map<String, String> context = contextMap;
+            if (context == null)
+                return false;
+            MDC.setContextMap(context);
+            return true;
+        }
+
+        private void onFrame()
+        {
+            boolean hasContext = setContext();
+            try
+            {
+                IPacketProvider provider = sender;
+                if (provider != null)
+                    send(provider);
+                Runnable mix = mixer;
+                if (mix != null)
+                {
+                    try
+                    {
+                        mix.run();
+                    }
+                    catch (Exception e)
+                    {
+                        LOG.error("Uncaught exception in combined audio mixer", e);
+                    }
+                }
+            }
+            finally
+            {
+                if (hasContext)
+                    MDC.clear();
+            }
+        }
+
+        private void send(IPacketProvider provider)
+        {
+            try
+            {
+                // Equivalent to the DefaultSendSystem, which only changes the talking indicator after two missing packets
+                ByteBuffer packet = provider.getNextPacketRaw(!sentPacket);
+                sentPacket = packet != null;
+                // A full socket buffer discards the packet, sending it later would only increase the delay
+                if (sentPacket)
+                    channel.send(packet, provider.getSocketAddress());
+            }
+            catch (NoRouteToHostException e)
+            {
+                provider.onConnectionLost();
+            }
+            catch (ClosedChannelException ignored)
+            {
+                // The connection is being closed, the registration is removed by the worker
+            }
+            catch (Exception e)
+            {
+                LOG.error("Error while sending udp audio data", e);
+            }
+        }
+
+        private void onReadable()
+        {
+            boolean hasContext = setContext();
+            try
+            {
+                receive();
+            }
+            finally
+            {
+                if (hasContext)
+                    MDC.clear();
+            }
+        }
+
+        private void receive()
+        {
+            for (int i = 0; i < MAX_READS; i++)
+            {
+                readBuffer.clear();
+                try
+                {
+                    if (channel.receive(readBuffer) == null)
+                        return;
+                }
+                catch (IOException e)
+                {
+                    if (channel.isOpen())
+                        LOG.error("There was some random exception while waiting for udp packets", e);
+                    return;
+                }
+
+                readBuffer.flip();
+                Consumer<ByteBuffer> handler = receiver;
+                if (handler == null)
+                    continue;
+                try
+                {
+                    handler.accept(readBuffer);
+                }
+                catch (Exception e)
+                {
+                    LOG.error("Uncaught exception while handling received audio", e);
+                }
+            }
+        }
+    }
+
+    private class Worker implements Runnable
+    {
+        private final Thread thread;
+        private final Selector selector;
+        private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        private final List<List<Registration>> wheel = new ArrayList<>(SLOTS);
+        // Only an estimate for balancing, updated when registering and removing
+        private final AtomicInteger load = new AtomicInteger();
+
+        private Worker(String name)
+        {
+            try
+            {
+                this.selector = Selector.open();
+            }
+            catch (IOException e)
+            {
+                throw new IllegalStateException("Could not open selector for audio reactor", e);
+            }
+            for (int i = 0; i < SLOTS; i++)
+                wheel.add(new ArrayList<>());
+            this.thread = new Thread(this, name);
+            thread.setDaemon(true);
+            thread.setPriority((Thread.NORM_PRIORITY + Thread.MAX_PRIORITY) / 2);
+            thread.setUncaughtExceptionHandler((t, e) -> LOG.error("Uncaught exception in audio reactor", e));
+        }
+
+        private void submit(Runnable task)
+        {
+            tasks.add(task);
+            selector.wakeup();
+        }
+
+        @Override
+        public void run()
+        {
+            long nextTick = System.nanoTime();
+            int slot = 0;
+            while (!shutdown)
+            {
+                try
+                {
+                    long wait = nextTick - System.nanoTime();
+                    // Rounded up, the selector only supports milliseconds and a timeout of 0 would block indefinitely
+                    int ready = wait > 0 ? selector.select(Math.max(1, TimeUnit.NANOSECONDS.toMillis(wait + SLOT_NANOS - 1))) : selector.selectNow();
+                    if (ready > 0)
+                        handleSelected();
+                    for (Runnable task = tasks.poll(); task != null; task = tasks.poll())
+                        task.run();
+
+                    long now = System.nanoTime();
+                    if (now - nextTick > MAX_DELAY)
+                        nextTick = now;
+                    while (now - nextTick >= 0)
+                    {
+                        tick(slot);
+                        slot = (slot + 1) % SLOTS;
+                        nextTick += SLOT_NANOS;
+                    }
+                }
+                catch (Exception e)
+                {
+                    LOG.error("Uncaught exception in audio reactor", e);
+                }
+            }
+
+            for (List<Registration> registrations : wheel)
+                registrations.clear();
+            try
+            {
+                selector.close();
+            }
+            catch (IOException ignored) {}
+        }
+
+        private void handleSelected()
+        {
+            Set<SelectionKey> keys = selector.selectedKeys();
+            for (SelectionKey key : keys)
+            {
+                if (key.isValid() && key.isReadable())
+                    ((Registration) key.attachment()).onReadable();
+            }
+            keys.clear();
+        }
+
+        private void tick(int slot)
+        {
+            List<Registration> registrations = wheel.get(slot);
+            // Backwards, unused registrations are removed from the slot while iterating
+            for (int i = registrations.size() - 1; i >= 0; i--)
+            {
+                Registration registration = registrations.get(i);
+                if (registration.isUnused())
+                    update(registration);
+                else
+                    registration.onFrame();
+            }
+        }
+
+        private void add(Registration registration)
+        {
+            int slot = 0;
+            for (int i = 1; i < SLOTS; i++)
+            {
+                if (wheel.get(i).size() < wheel.get(slot).size())
+                    slot = i;
+            }
+            registration.slot = slot;
+            wheel.get(slot).add(registration);
+            update(registration);
+        }
+
+        // Applies the current state of the registration, called on this thread only
+        private void update(Registration registration)
+        {
+            if (registration.slot < 0)
+                return;
+            if (registration.isUnused())
+            {
+                if (registration.key != null)
+                    registration.key.cancel();
+                wheel.get(registration.slot).remove(registration);
+                registration.slot = -1;
+                registrations.remove(registration.channel, registration);
+                load.decrementAndGet();
+                return;
+            }
+
+            int ops = registration.receiver == null ? 0 : SelectionKey.OP_READ;
+            try
+            {
+                if (registration.key == null)
+                {
+                    registration.channel.configureBlocking(false);
+                    // The key of a previous registration of this channel is only deregistered by the next select
+                    SelectionKey cancelled = registration.channel.keyFor(selector);
+                    if (cancelled != null && !cancelled.isValid() && selector.selectNow() > 0)
+                        handleSelected();
+                    registration.key = registration.channel.register(selector, ops, registration);
+                }
+                else if (registration.key.interestOps() != ops)
+                {
+                    registration.key.interestOps(ops);
+                }
+            }
+            catch (IOException | RuntimeException e)
+            {
+                LOG.error("Failed to register audio connection with the reactor", e);
+            }
+        }
+    }
+}
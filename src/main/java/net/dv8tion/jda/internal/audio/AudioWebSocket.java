@@ -19,6 +19,7 @@ package net.dv8tion.jda.internal.audio;
 import com.neovisionaries.ws.client.*;
 import net.dv8tion.jda.api.JDAInfo;
 import net.dv8tion.jda.api.audio.SpeakingMode;
+import net.dv8tion.jda.api.audio.factory.ReactorAudioSendFactory;
 import net.dv8tion.jda.api.audio.hooks.ConnectionListener;
 import net.dv8tion.jda.api.audio.hooks.ConnectionStatus;
 import net.dv8tion.jda.api.entities.Guild;
@@ -37,6 +38,7 @@ import org.slf4j.Logger;
 import java.io.IOException;
 import java.net.*;
 import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
 import java.nio.charset.StandardCharsets;
 import java.util.EnumSet;
 import java.util.List;
@@ -580,7 +582,11 @@ class AudioWebSocket extends WebSocketAdapter
             if (audioConnection.udpSocket != null)
                 audioConnection.udpSocket.close();
             //Create new UDP socket for communication
-            audioConnection.udpSocket = new DatagramSocket();
+            // The reactor requires a channel, the discovery still uses the blocking socket
+            if (getJDA().getAudioSendFactory() instanceof ReactorAudioSendFactory)
+                audioConnection.udpSocket = DatagramChannel.open().socket();
+            else
+                audioConnection.udpSocket = new DatagramSocket();
 
             //Create a byte array of length 70 containing our ssrc.
             ByteBuffer buffer = ByteBuffer.allocate(70);    //70 taken from documentation
@@ -666,8 +672,17 @@ class AudioWebSocket extends WebSocketAdapter
             {
                 try
                 {
-                    DatagramPacket keepAlivePacket = new DatagramPacket(UDP_KEEP_ALIVE, UDP_KEEP_ALIVE.length, address);
-                    audioConnection.udpSocket.send(keepAlivePacket);
+                    // Sockets of a channel cannot send directly once the channel is registered with a selector
+                    DatagramChannel channel = audioConnection.udpSocket.getChannel();
+                    if (channel != null)
+                    {
+                        channel.send(ByteBuffer.wrap(UDP_KEEP_ALIVE), address);
+                    }
+                    else
+                    {
+                        DatagramPacket keepAlivePacket = new DatagramPacket(UDP_KEEP_ALIVE, UDP_KEEP_ALIVE.length, address);
+                        audioConnection.udpSocket.send(keepAlivePacket);
+                    }
                 }
                 catch (NoRouteToHostException e)
                 {
@@ -0,0 +1,226 @@
+/*
+ * Copyright 2015-2020 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.internal.audio;
+
+import gnu.trove.map.TIntObjectMap;
+import gnu.trove.map.hash.TIntObjectHashMap;
+import net.dv8tion.jda.api.audio.CombinedAudio;
+import net.dv8tion.jda.api.audio.OpusPacket;
+import net.dv8tion.jda.api.entities.User;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Mixes the decoded audio of every ssrc into one {@link CombinedAudio} per 20 milliseconds.
+ *
+ * <p>Each ssrc has a small jitter buffer which orders its frames by sequence number,
+ * so packets which arrive out of order are still played in order. A missing frame is waited for
+ * during one mix before it is considered lost, and frames which were buffered for longer than the
+ * queue timeout are dropped. The frames are summed into a preallocated int accumulator and clamped once per sample.
+ *
+ * <p>Frames are added by the receiving thread and mixed by the combined audio thread.
+ */
+public class CombinedAudioMixer
+{
+    // 960 PCM samples for each channel
+    public static final int FRAME_SAMPLES = OpusPacket.OPUS_FRAME_SIZE * OpusPacket.OPUS_CHANNEL_COUNT;
+    // Must be a power of 2, frames further ahead than this push the oldest frames out of the buffer
+    private static final int BUFFER_FRAMES = 8;
+
+    private final TIntObjectMap<JitterBuffer> buffers = new TIntObjectHashMap<>();
+    private final List<JitterBuffer> bufferList = new ArrayList<>();
+    private final int[] accumulator = new int[FRAME_SAMPLES];
+
+    public synchronized void add(int ssrc, User user, char sequence, short[] audio, long time)
+    {
+        JitterBuffer buffer = buffers.get(ssrc);
+        if (buffer == null)
+        {
+            buffer = new JitterBuffer();
+            buffers.put(ssrc, buffer);
+            bufferList.add(buffer);
+        }
+        buffer.user = user;
+        buffer.add(sequence, audio, time);
+    }
+
+    public synchronized void remove(int ssrc)
+    {
+        JitterBuffer buffer = buffers.remove(ssrc);
+        if (buffer != null)
+            bufferList.remove(buffer);
+    }
+
+    public synchronized void clear()
+    {
+        buffers.clear();
+        bufferList.clear();
+    }
+
+    /**
+     * Mixes the next frame of every buffer.
+     *
+     * @param  time
+     *         The current time in milliseconds
+     * @param  timeout
+     *         The time in milliseconds after which buffered frames are dropped
+     *
+     * @return The combined audio, silent if none of the buffers had a frame to play
+     */
+    public synchronized CombinedAudio mix(long time, long timeout)
+    {
+        final int[] accumulator = this.accumulator;
+        List<User> users = null;
+        int length = 0;
+        for (int i = 0; i < bufferList.size(); i++)
+        {
+            JitterBuffer buffer = bufferList.get(i);
+            short[] audio = buffer.poll(time, timeout);
+            if (audio == null)
+                continue;
+            if (users == null)
+                users = new ArrayList<>();
+            users.add(buffer.user);
+
+            int samples = Math.min(audio.length, FRAME_SAMPLES);
+            for (int j = 0; j < samples; j++)
+                accumulator[j] += audio[j];
+            length = Math.max(length, samples);
+        }
+
+        short[] mix = new short[FRAME_SAMPLES];
+        if (users == null)
+            return new CombinedAudio(Collections.emptyList(), mix);
+        for (int i = 0; i < length; i++)
+        {
+            int sample = accumulator[i];
+            accumulator[i] = 0;
+            mix[i] = (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, sample));
+        }
+        return new CombinedAudio(users, mix);
+    }
+
+    private static class JitterBuffer
+    {
+        private final short[][] frames = new short[BUFFER_FRAMES][];
+        private final char[] sequences = new char[BUFFER_FRAMES];
+        private final long[] times = new long[BUFFER_FRAMES];
+        private User user;
+        private int size;
+        private char next;         // The sequence of the next frame to play
+        private boolean started;   // Whether next has been set by the first frame
+        private boolean waited;    // Whether the next frame was already missing during the previous mix
+        private long lastTime;     // The time the last frame was added
+
+        private void add(char sequence, short[] audio, long time)
+        {
+            if (!started)
+            {
+                started = true;
+                next = sequence;
+            }
+
+            int distance = (char) (sequence - next);
+            if (distance >= 0x8000)
+                return; // The frame was already played or skipped
+            if (distance >= BUFFER_FRAMES)
+                skipTo((char) (sequence - BUFFER_FRAMES + 1));
+
+            int slot = sequence & (BUFFER_FRAMES - 1);
+            if (frames[slot] == null)
+                size++;
+            frames[slot] = audio;
+            sequences[slot] = sequence;
+            times[slot] = time;
+            lastTime = time;
+        }
+
+        private short[] poll(long time, long timeout)
+        {
+            if (size == 0)
+            {
+                // After a pause the sequence may continue anywhere, for instance when the user reconnected
+                if (time - lastTime > timeout)
+                    started = false;
+                return null;
+            }
+            boolean expired = false;
+            for (int i = 0; i < BUFFER_FRAMES; i++)
+            {
+                if (frames[i] != null && time - times[i] > timeout)
+                {
+                    drop(i);
+                    expired = true;
+                }
+            }
+            if (size == 0)
+                return null;
+            // Frames which waited too long are lost as well, no need to wait for them again
+            if (expired)
+                skipTo(earliest());
+
+            int slot = next & (BUFFER_FRAMES - 1);
+            if (frames[slot] == null)
+            {
+                // Give a late frame one more mix to arrive, then continue with the earliest buffered frame
+                if (!waited)
+                {
+                    waited = true;
+                    return null;
+                }
+                skipTo(earliest());
+                slot = next & (BUFFER_FRAMES - 1);
+            }
+
+            short[] audio = frames[slot];
+            drop(slot);
+            waited = false;
+            next++;
+            return audio;
+        }
+
+        private char earliest()
+        {
+            int min = Integer.MAX_VALUE;
+            for (int i = 0; i < BUFFER_FRAMES; i++)
+            {
+                if (frames[i] != null)
+                    min = Math.min(min, (char) (sequences[i] - next));
+            }
+            return (char) (next + min);
+        }
+
+        private void skipTo(char sequence)
+        {
+            for (int i = 0; i < BUFFER_FRAMES; i++)
+            {
+                if (frames[i] != null && (char) (sequences[i] - sequence) >= 0x8000)
+                    drop(i);
+            }
+            next = sequence;
+            waited = false;
+        }
+
+        private void drop(int slot)
+        {
+            frames[slot] = null;
+            size--;
+        }
+    }
+}
@@ -26,6 +26,7 @@ public class ConnectionRequest
     protected long nextAttemptEpoch;
     protected ConnectionStage stage;
     protected long channelId;
+    protected long queueTime = System.nanoTime();
 
     public ConnectionRequest(Guild guild)
     {
@@ -44,11 +45,18 @@ public class ConnectionRequest
     public void setStage(ConnectionStage stage)
     {
         this.stage = stage;
+        markQueued();
     }
 
     public void setChannel(VoiceChannel channel)
     {
         this.channelId = channel.getIdLong();
+        markQueued();
+    }
+
+    public void setQueueTime(long nanoTime)
+    {
+        this.queueTime = nanoTime;
     }
 
     public void setNextAttemptEpoch(long epochMillis)
@@ -81,6 +89,18 @@ public class ConnectionRequest
         return guildId;
     }
 
+    public long getQueueTime()
+    {
+        return queueTime;
+    }
+
+    private void markQueued()
+    {
+        // The request has to be sent again, keep the time of the first pending change
+        if (queueTime == 0)
+            queueTime = System.nanoTime();
+    }
+
     @Override
     public String toString()
     {
@@ -20,6 +20,7 @@ import com.sun.jna.ptr.PointerByReference;
 import net.dv8tion.jda.api.audio.OpusPacket;
 import tomp2p.opuswrapper.Opus;
 
+import java.nio.Buffer;
 import java.nio.ByteBuffer;
 import java.nio.IntBuffer;
 import java.nio.ShortBuffer;
@@ -29,17 +30,30 @@ import java.nio.ShortBuffer;
  */
 public class Decoder
 {
+    // Gaps of up to 5 lost frames (100 ms) are concealed, the decoder starts over after longer gaps
+    private static final int MAX_CONCEALED_FRAMES = 5;
+
     protected int ssrc;
     protected char lastSeq;
     protected int lastTimestamp;
     protected PointerByReference opusDecoder;
+    // Reused by every decode, decoding is synchronized since packets may be decoded lazily by other threads
+    private final ShortBuffer decoded = ShortBuffer.allocate(4096);
+    private byte[] input = new byte[0];
+    private boolean closed;
 
     protected Decoder(int ssrc)
     {
         this.ssrc = ssrc;
         this.lastSeq = (char) -1;
         this.lastTimestamp = -1;
+    }
 
+    // The native decoder is only created once audio of this ssrc is decoded
+    private void ensureDecoder()
+    {
+        if (opusDecoder != null)
+            return;
         IntBuffer error = IntBuffer.allocate(1);
         opusDecoder = Opus.INSTANCE.opus_decoder_create(OpusPacket.OPUS_SAMPLE_RATE, OpusPacket.OPUS_CHANNEL_COUNT, error);
         if (error.get() != Opus.OPUS_OK && opusDecoder == null)
@@ -56,10 +70,14 @@ public class Decoder
         return newSeq > lastSeq + 1;
     }
 
-    public short[] decodeFromOpus(AudioPacket decryptedPacket)
+    public synchronized short[] decodeFromOpus(AudioPacket decryptedPacket)
     {
+        if (closed)
+            return null;
+        ensureDecoder();
+
         int result;
-        ShortBuffer decoded = ShortBuffer.allocate(4096);
+        ((Buffer) decoded).clear();
         if (decryptedPacket == null)    //Flag for packet-loss
         {
             result = Opus.INSTANCE.opus_decode(opusDecoder, null, 0, decoded, OpusPacket.OPUS_FRAME_SIZE, 0);
@@ -68,16 +86,30 @@ public class Decoder
         }
         else
         {
-            this.lastSeq = decryptedPacket.getSequence();
-            this.lastTimestamp = decryptedPacket.getTimestamp();
-
+            char seq = decryptedPacket.getSequence();
             ByteBuffer encodedAudio = decryptedPacket.getEncodedAudio();
             int length = encodedAudio.remaining();
             int offset = encodedAudio.arrayOffset() + encodedAudio.position();
-            byte[] buf = new byte[length];
             byte[] data = encodedAudio.array();
-            System.arraycopy(data, offset, buf, 0, length);
-            result = Opus.INSTANCE.opus_decode(opusDecoder, buf, buf.length, decoded, OpusPacket.OPUS_FRAME_SIZE, 0);
+            if (offset != 0)
+            {
+                if (input.length < length)
+                    input = new byte[length];
+                System.arraycopy(data, offset, input, 0, length);
+                data = input;
+            }
+
+            // Late and reordered packets are decoded without touching the state of the newer packets
+            if (isInOrder(seq))
+            {
+                // Packets are only decoded on demand, so the previous decoded packet may be several frames old
+                int gap = (char) (seq - lastSeq);
+                if (lastSeq != (char) -1 && gap < 0x8000)
+                    conceal(gap - 1, data, length);
+                this.lastSeq = seq;
+                this.lastTimestamp = decryptedPacket.getTimestamp();
+            }
+            result = Opus.INSTANCE.opus_decode(opusDecoder, data, length, decoded, OpusPacket.OPUS_FRAME_SIZE, 0);
         }
 
         //If we get a result that is less than 0, then there was an error. Return null as a signifier.
@@ -92,6 +124,39 @@ public class Decoder
         return audio;
     }
 
+    // Advances the decoder over the lost frames before the provided packet, so the packet continues the concealed audio
+    private void conceal(int lost, byte[] data, int length)
+    {
+        if (lost <= 0)
+            return;
+        if (lost > MAX_CONCEALED_FRAMES)
+        {
+            // Concealing a longer gap would only fade out the old audio, the new audio starts without the old state instead
+            destroy();
+            ensureDecoder();
+            return;
+        }
+
+        for (int i = 1; i < lost; i++)
+        {
+            ((Buffer) decoded).clear();
+            Opus.INSTANCE.opus_decode(opusDecoder, null, 0, decoded, OpusPacket.OPUS_FRAME_SIZE, 0);
+        }
+        // The last lost frame is recovered from the forward error correction of the packet, if it has any
+        ((Buffer) decoded).clear();
+        Opus.INSTANCE.opus_decode(opusDecoder, data, length, decoded, OpusPacket.OPUS_FRAME_SIZE, 1);
+        ((Buffer) decoded).clear();
+    }
+
+    private void destroy()
+    {
+        if (opusDecoder != null)
+        {
+            Opus.INSTANCE.opus_decoder_destroy(opusDecoder);
+            opusDecoder = null;
+        }
+    }
+
     private void handleDecodeError(int result)
     {
         StringBuilder b = new StringBuilder("Decoder failed to decode audio from user with code ");
@@ -126,11 +191,8 @@ public class Decoder
 
     protected synchronized void close()
     {
-        if (opusDecoder != null)
-        {
-            Opus.INSTANCE.opus_decoder_destroy(opusDecoder);
-            opusDecoder = null;
-        }
+        closed = true;
+        destroy();
     }
 
     @Override
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2015-2020 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.internal.audio;
+
+import com.iwebpp.crypto.TweetNaclFast;
+
+/**
+ * {@link AudioCipher} using the {@link TweetNaclFast.SecretBox SecretBox} of TweetNaCl.
+ */
+public class TweetNaclCipher implements AudioCipher
+{
+    private final TweetNaclFast.SecretBox boxer;
+
+    public TweetNaclCipher(byte[] secretKey)
+    {
+        this.boxer = new TweetNaclFast.SecretBox(secretKey);
+    }
+
+    @Override
+    public int seal(byte[] message, int moff, int mlen, byte[] nonce, byte[] out, int outoff)
+    {
+        return boxer.box(message, moff, mlen, nonce, out, outoff);
+    }
+
+    @Override
+    public int open(byte[] box, int boxoff, int boxlen, byte[] nonce, byte[] out, int outoff)
+    {
+        return boxer.open(box, boxoff, boxlen, nonce, out, outoff);
+    }
+}
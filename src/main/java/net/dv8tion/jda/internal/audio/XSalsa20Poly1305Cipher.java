@@ -0,0 +1,328 @@
+/*
+ * Copyright 2015-2020 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.internal.audio;
+
+/**
+ * Pure Java {@link AudioCipher} optimized for the small packets of voice connections.
+ *
+ * <p>The Salsa20 core keeps its state in local ints with unrolled rounds, and every keystream block is applied
+ * directly to the output. Poly1305 uses 26-bit limbs and reads the message in place.
+ * Unlike TweetNaCl, no intermediate arrays are created for a packet.
+ *
+ * @see <a href="https://cr.yp.to/snuffle/xsalsa-20110204.pdf" target="_blank">Extending the Salsa20 nonce</a>
+ * @see <a href="https://cr.yp.to/mac/poly1305-20050329.pdf" target="_blank">The Poly1305-AES message-authentication code</a>
+ */
+public class XSalsa20Poly1305Cipher implements AudioCipher
+{
+    // "expand 32-byte k"
+    private static final int SIGMA_0 = 0x61707865;
+    private static final int SIGMA_1 = 0x3320646e;
+    private static final int SIGMA_2 = 0x79622d32;
+    private static final int SIGMA_3 = 0x6b206574;
+    private static final int LIMB_MASK = 0x3ffffff;
+
+    private final int[] key = new int[8];
+    // Salsa20 input of the current message and the current keystream block
+    private final int[] state = new int[16];
+    private final int[] block = new int[16];
+    // The first 32 bytes of the first keystream block, used as one-time key for Poly1305
+    private final int[] polyKey = new int[8];
+    private final int[] tag = new int[4];
+    private final byte[] lastBlock = new byte[16];
+
+    public XSalsa20Poly1305Cipher(byte[] secretKey)
+    {
+        if (secretKey == null || secretKey.length != 32)
+            throw new IllegalArgumentException("Secret key must be 32 bytes");
+        for (int i = 0; i < 8; i++)
+            key[i] = readInt(secretKey, i * 4);
+    }
+
+    @Override
+    public int seal(byte[] message, int moff, int mlen, byte[] nonce, byte[] out, int outoff)
+    {
+        if (message == null || moff < 0 || mlen < 0 || message.length < moff + mlen
+            || nonce == null || nonce.length != NONCE_LENGTH
+            || out == null || outoff < 0 || out.length < outoff + mlen + OVERHEAD_LENGTH)
+            return -1;
+
+        init(nonce);
+        xor(message, moff, out, outoff + OVERHEAD_LENGTH, mlen);
+        poly1305(out, outoff + OVERHEAD_LENGTH, mlen);
+        for (int i = 0; i < 4; i++)
+            writeInt(out, outoff + i * 4, tag[i]);
+        return mlen + OVERHEAD_LENGTH;
+    }
+
+    @Override
+    public int open(byte[] box, int boxoff, int boxlen, byte[] nonce, byte[] out, int outoff)
+    {
+        if (box == null || boxoff < 0 || boxlen < OVERHEAD_LENGTH || box.length < boxoff + boxlen
+            || nonce == null || nonce.length != NONCE_LENGTH
+            || out == null || outoff < 0 || out.length < outoff + boxlen - OVERHEAD_LENGTH)
+            return -1;
+
+        int mlen = boxlen - OVERHEAD_LENGTH;
+        init(nonce);
+        poly1305(box, boxoff + OVERHEAD_LENGTH, mlen);
+        // Constant time comparison of the authenticator
+        int diff = 0;
+        for (int i = 0; i < 4; i++)
+            diff |= tag[i] ^ readInt(box, boxoff + i * 4);
+        if (diff != 0)
+            return -1;
+
+        xor(box, boxoff + OVERHEAD_LENGTH, out, outoff, mlen);
+        return mlen;
+    }
+
+    // Derives the XSalsa20 subkey and computes the first keystream block
+    private void init(byte[] nonce)
+    {
+        int[] state = this.state;
+        state[0] = SIGMA_0;
+        state[5] = SIGMA_1;
+        state[10] = SIGMA_2;
+        state[15] = SIGMA_3;
+        System.arraycopy(key, 0, state, 1, 4);
+        System.arraycopy(key, 4, state, 11, 4);
+        for (int i = 0; i < 4; i++)
+            state[6 + i] = readInt(nonce, i * 4);
+
+        // HSalsa20, the subkey replaces the key of the state
+        salsa20(state, block, false);
+        state[1] = block[0];
+        state[2] = block[5];
+        state[3] = block[10];
+        state[4] = block[15];
+        state[11] = block[6];
+        state[12] = block[7];
+        state[13] = block[8];
+        state[14] = block[9];
+        state[6] = readInt(nonce, 16);
+        state[7] = readInt(nonce, 20);
+        state[8] = 0;
+        state[9] = 0;
+
+        salsa20(state, block, true);
+        System.arraycopy(block, 0, polyKey, 0, 8);
+    }
+
+    private void nextBlock()
+    {
+        if (++state[8] == 0)
+            state[9]++;
+        salsa20(state, block, true);
+    }
+
+    private void xor(byte[] in, int inoff, byte[] out, int outoff, int len)
+    {
+        int[] block = this.block;
+        // The remaining 8 words of the first block are used for the message
+        int word = 8;
+        int i = 0;
+        while (i < len)
+        {
+            if (word == 16)
+            {
+                nextBlock();
+                word = 0;
+            }
+            int k = block[word++];
+            if (len - i >= 4)
+            {
+                out[outoff + i]     = (byte) (in[inoff + i]     ^ k);
+                out[outoff + i + 1] = (byte) (in[inoff + i + 1] ^ (k >>> 8));
+                out[outoff + i + 2] = (byte) (in[inoff + i + 2] ^ (k >>> 16));
+                out[outoff + i + 3] = (byte) (in[inoff + i + 3] ^ (k >>> 24));
+                i += 4;
+            }
+            else
+            {
+                for (; i < len; i++, k >>>= 8)
+                    out[outoff + i] = (byte) (in[inoff + i] ^ k);
+            }
+        }
+    }
+
+    // Authenticates the message with the current one-time key, the result is stored in the tag
+    private void poly1305(byte[] m, int off, int len)
+    {
+        final int[] k = polyKey;
+        // r is clamped and split into 26-bit limbs
+        final int r0 = k[0] & 0x3ffffff;
+        final int r1 = ((k[0] >>> 26) | (k[1] << 6)) & 0x3ffff03;
+        final int r2 = ((k[1] >>> 20) | (k[2] << 12)) & 0x3ffc0ff;
+        final int r3 = ((k[2] >>> 14) | (k[3] << 18)) & 0x3f03fff;
+        final int r4 = (k[3] >>> 8) & 0x00fffff;
+        final int s1 = r1 * 5, s2 = r2 * 5, s3 = r3 * 5, s4 = r4 * 5;
+
+        int h0 = 0, h1 = 0, h2 = 0, h3 = 0, h4 = 0;
+        int end = off + len;
+        while (off < end)
+        {
+            byte[] data = m;
+            int pos = off;
+            int hibit = 1 << 24;
+            if (end - off < 16)
+            {
+                // The last partial block is padded with a single 1 byte
+                int remaining = end - off;
+                System.arraycopy(m, off, lastBlock, 0, remaining);
+                lastBlock[remaining] = 1;
+                for (int i = remaining + 1; i < 16; i++)
+                    lastBlock[i] = 0;
+                data = lastBlock;
+                pos = 0;
+                hibit = 0;
+            }
+            int m0 = readInt(data, pos), m1 = readInt(data, pos + 4), m2 = readInt(data, pos + 8), m3 = readInt(data, pos + 12);
+            h0 += m0 & LIMB_MASK;
+            h1 += ((m0 >>> 26) | (m1 << 6)) & LIMB_MASK;
+            h2 += ((m1 >>> 20) | (m2 << 12)) & LIMB_MASK;
+            h3 += ((m2 >>> 14) | (m3 << 18)) & LIMB_MASK;
+            h4 += (m3 >>> 8) | hibit;
+
+            long d0 = (long) h0 * r0 + (long) h1 * s4 + (long) h2 * s3 + (long) h3 * s2 + (long) h4 * s1;
+            long d1 = (long) h0 * r1 + (long) h1 * r0 + (long) h2 * s4 + (long) h3 * s3 + (long) h4 * s2;
+            long d2 = (long) h0 * r2 + (long) h1 * r1 + (long) h2 * r0 + (long) h3 * s4 + (long) h4 * s3;
+            long d3 = (long) h0 * r3 + (long) h1 * r2 + (long) h2 * r1 + (long) h3 * r0 + (long) h4 * s4;
+            long d4 = (long) h0 * r4 + (long) h1 * r3 + (long) h2 * r2 + (long) h3 * r1 + (long) h4 * r0;
+
+            h0 = (int) d0 & LIMB_MASK;
+            d1 += d0 >>> 26;
+            h1 = (int) d1 & LIMB_MASK;
+            d2 += d1 >>> 26;
+            h2 = (int) d2 & LIMB_MASK;
+            d3 += d2 >>> 26;
+            h3 = (int) d3 & LIMB_MASK;
+            d4 += d3 >>> 26;
+            h4 = (int) d4 & LIMB_MASK;
+            long c = h0 + (d4 >>> 26) * 5;
+            h0 = (int) c & LIMB_MASK;
+            h1 += (int) (c >>> 26);
+
+            off += 16;
+        }
+
+        // Fully carry h and compute h - p
+        int c;
+        c = h1 >>> 26; h1 &= LIMB_MASK; h2 += c;
+        c = h2 >>> 26; h2 &= LIMB_MASK; h3 += c;
+        c = h3 >>> 26; h3 &= LIMB_MASK; h4 += c;
+        c = h4 >>> 26; h4 &= LIMB_MASK; h0 += c * 5;
+        c = h0 >>> 26; h0 &= LIMB_MASK; h1 += c;
+
+        int g0 = h0 + 5;  c = g0 >>> 26; g0 &= LIMB_MASK;
+        int g1 = h1 + c;  c = g1 >>> 26; g1 &= LIMB_MASK;
+        int g2 = h2 + c;  c = g2 >>> 26; g2 &= LIMB_MASK;
+        int g3 = h3 + c;  c = g3 >>> 26; g3 &= LIMB_MASK;
+        int g4 = h4 + c - (1 << 26);
+
+        // Select h if h < p, otherwise h - p
+        int mask = (g4 >>> 31) - 1;
+        h0 = (h0 & ~mask) | (g0 & mask);
+        h1 = (h1 & ~mask) | (g1 & mask);
+        h2 = (h2 & ~mask) | (g2 & mask);
+        h3 = (h3 & ~mask) | (g3 & mask);
+        h4 = (h4 & ~mask) | (g4 & mask);
+
+        // h + s mod 2^128
+        long f;
+        f = ((h0 | (h1 << 26)) & 0xffffffffL) + (k[4] & 0xffffffffL);
+        tag[0] = (int) f;
+        f = (((h1 >>> 6) | (h2 << 20)) & 0xffffffffL) + (k[5] & 0xffffffffL) + (f >>> 32);
+        tag[1] = (int) f;
+        f = (((h2 >>> 12) | (h3 << 14)) & 0xffffffffL) + (k[6] & 0xffffffffL) + (f >>> 32);
+        tag[2] = (int) f;
+        f = (((h3 >>> 18) | (h4 << 8)) & 0xffffffffL) + (k[7] & 0xffffffffL) + (f >>> 32);
+        tag[3] = (int) f;
+    }
+
+    // Salsa20/20 core, HSalsa20 if the input is not added to the output
+    private static void salsa20(int[] in, int[] out, boolean add)
+    {
+        int x0 = in[0], x1 = in[1], x2 = in[2], x3 = in[3];
+        int x4 = in[4], x5 = in[5], x6 = in[6], x7 = in[7];
+        int x8 = in[8], x9 = in[9], x10 = in[10], x11 = in[11];
+        int x12 = in[12], x13 = in[13], x14 = in[14], x15 = in[15];
+
+        for (int i = 0; i < 10; i++)
+        {
+            // Column round
+            x4  ^= Integer.rotateLeft(x0  + x12, 7);
+            x8  ^= Integer.rotateLeft(x4  + x0,  9);
+            x12 ^= Integer.rotateLeft(x8  + x4,  13);
+            x0  ^= Integer.rotateLeft(x12 + x8,  18);
+            x9  ^= Integer.rotateLeft(x5  + x1,  7);
+            x13 ^= Integer.rotateLeft(x9  + x5,  9);
+            x1  ^= Integer.rotateLeft(x13 + x9,  13);
+            x5  ^= Integer.rotateLeft(x1  + x13, 18);
+            x14 ^= Integer.rotateLeft(x10 + x6,  7);
+            x2  ^= Integer.rotateLeft(x14 + x10, 9);
+            x6  ^= Integer.rotateLeft(x2  + x14, 13);
+            x10 ^= Integer.rotateLeft(x6  + x2,  18);
+            x3  ^= Integer.rotateLeft(x15 + x11, 7);
+            x7  ^= Integer.rotateLeft(x3  + x15, 9);
+            x11 ^= Integer.rotateLeft(x7  + x3,  13);
+            x15 ^= Integer.rotateLeft(x11 + x7,  18);
+
+            // Row round
+            x1  ^= Integer.rotateLeft(x0  + x3,  7);
+            x2  ^= Integer.rotateLeft(x1  + x0,  9);
+            x3  ^= Integer.rotateLeft(x2  + x1,  13);
+            x0  ^= Integer.rotateLeft(x3  + x2,  18);
+            x6  ^= Integer.rotateLeft(x5  + x4,  7);
+            x7  ^= Integer.rotateLeft(x6  + x5,  9);
+            x4  ^= Integer.rotateLeft(x7  + x6,  13);
+            x5  ^= Integer.rotateLeft(x4  + x7,  18);
+            x11 ^= Integer.rotateLeft(x10 + x9,  7);
+            x8  ^= Integer.rotateLeft(x11 + x10, 9);
+            x9  ^= Integer.rotateLeft(x8  + x11, 13);
+            x10 ^= Integer.rotateLeft(x9  + x8,  18);
+            x12 ^= Integer.rotateLeft(x15 + x14, 7);
+            x13 ^= Integer.rotateLeft(x12 + x15, 9);
+            x14 ^= Integer.rotateLeft(x13 + x12, 13);
+            x15 ^= Integer.rotateLeft(x14 + x13, 18);
+        }
+
+        if (add)
+        {
+            x0 += in[0]; x1 += in[1]; x2 += in[2]; x3 += in[3];
+            x4 += in[4]; x5 += in[5]; x6 += in[6]; x7 += in[7];
+            x8 += in[8]; x9 += in[9]; x10 += in[10]; x11 += in[11];
+            x12 += in[12]; x13 += in[13]; x14 += in[14]; x15 += in[15];
+        }
+        out[0] = x0; out[1] = x1; out[2] = x2; out[3] = x3;
+        out[4] = x4; out[5] = x5; out[6] = x6; out[7] = x7;
+        out[8] = x8; out[9] = x9; out[10] = x10; out[11] = x11;
+        out[12] = x12; out[13] = x13; out[14] = x14; out[15] = x15;
+    }
+
+    private static int readInt(byte[] b, int off)
+    {
+        return (b[off] & 0xff) | (b[off + 1] & 0xff) << 8 | (b[off + 2] & 0xff) << 16 | b[off + 3] << 24;
+    }
+
+    private static void writeInt(byte[] b, int off, int value)
+    {
+        b[off]     = (byte) value;
+        b[off + 1] = (byte) (value >>> 8);
+        b[off + 2] = (byte) (value >>> 16);
+        b[off + 3] = (byte) (value >>> 24);
+    }
+}
@@ -41,8 +41,10 @@ import net.dv8tion.jda.api.utils.data.DataArray;
 import net.dv8tion.jda.api.utils.data.DataObject;
 import net.dv8tion.jda.internal.JDAImpl;
 import net.dv8tion.jda.internal.handle.EventCache;
+import net.dv8tion.jda.internal.handle.SetupMember;
 import net.dv8tion.jda.internal.utils.JDALogger;
 import net.dv8tion.jda.internal.utils.UnlockHook;
+import net.dv8tion.jda.internal.utils.cache.Interner;
 import net.dv8tion.jda.internal.utils.cache.MemberCacheViewImpl;
 import net.dv8tion.jda.internal.utils.cache.SnowflakeCacheViewImpl;
 import org.apache.commons.collections4.CollectionUtils;
@@ -55,6 +57,7 @@ import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.TemporalAccessor;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.ToLongFunction;
 import java.util.function.UnaryOperator;
@@ -82,6 +85,13 @@ public class EntityBuilder
         richGameFields = Collections.unmodifiableSet(tmp);
     }
 
+    // Shared by all JDA instances, only used when interning is enabled
+    private static final Interner<String> nameInterner = new Interner<>(1 << 15);
+    private static final Interner<String> discriminatorInterner = new Interner<>(1 << 14);
+    private static final Interner<Activity> activityInterner = new Interner<>(1 << 12,
+        // The emoji is not part of Activity#equals
+        (a, b) -> a.getClass() == b.getClass() && a.equals(b) && Objects.equals(a.getEmoji(), b.getEmoji()));
+
     protected final JDAImpl api;
 
     public EntityBuilder(JDA api)
@@ -94,6 +104,21 @@ public class EntityBuilder
         return api;
     }
 
+    public String internName(String name)
+    {
+        return getJDA().isInterning() ? nameInterner.intern(name) : name;
+    }
+
+    public String internDiscriminator(String discriminator)
+    {
+        return getJDA().isInterning() ? discriminatorInterner.intern(discriminator) : discriminator;
+    }
+
+    public Activity internActivity(Activity activity)
+    {
+        return getJDA().isInterning() ? activityInterner.intern(activity) : activity;
+    }
+
     public SelfUser createSelfUser(DataObject self)
     {
         SelfUserImpl selfUser = (SelfUserImpl) (getJDA().hasSelfUser() ? getJDA().getSelfUser() : null);
@@ -160,7 +185,7 @@ public class EntityBuilder
         return map;
     }
 
-    public GuildImpl createGuild(long guildId, DataObject guildJson, TLongObjectMap<DataObject> members, int memberCount)
+    public GuildImpl createGuild(long guildId, DataObject guildJson, TLongObjectMap<SetupMember> members, int memberCount)
     {
         final GuildImpl guildObj = new GuildImpl(getJDA(), guildId);
         final String name = guildJson.getString("name", "");
@@ -228,7 +253,7 @@ public class EntityBuilder
             for (int i = 0; i < roleArray.length(); i++)
             {
                 DataObject obj = roleArray.getObject(i);
-                Role role = createRole(guildObj, obj, guildId);
+                Role role = createRole(guildObj, obj, guildId, false);
                 map.put(role.getIdLong(), role);
                 if (role.getIdLong() == guildObj.getIdLong())
                     guildObj.setPublicRole(role);
@@ -243,18 +268,32 @@ public class EntityBuilder
 
         TLongObjectMap<DataObject> voiceStates = convertToUserMap((o) -> o.getUnsignedLong("user_id", 0L), voiceStateArray);
         TLongObjectMap<DataObject> presences = presencesArray.map(o1 -> convertToUserMap(o2 -> o2.getObject("user").getUnsignedLong("id"), o1)).orElseGet(TLongObjectHashMap::new);
-        try (UnlockHook h1 = guildObj.getMembersView().writeLock();
-             UnlockHook h2 = getJDA().getUsersView().writeLock())
+        // Users, the member cache policy, and the event cache are shared with the gateway thread,
+        // guilds built on the guild setup pool only update them while the gateway is not handling events
+        synchronized (getJDA().getGuildSetupController().getDispatchLock())
         {
-            //Add members to cache when subscriptions are disabled when they appear here
-            // this is done because we can still keep track of members in voice channels
-            for (DataObject memberJson : members.valueCollection())
+            try (UnlockHook h1 = guildObj.getMembersView().writeLock();
+                 UnlockHook h2 = getJDA().getUsersView().writeLock())
             {
-                long userId = memberJson.getObject("user").getUnsignedLong("id");
-                DataObject voiceState = voiceStates.get(userId);
-                DataObject presence = presences.get(userId);
-                updateMemberCache(createMember(guildObj, memberJson, voiceState, presence));
+                //Add members to cache when subscriptions are disabled when they appear here
+                // this is done because we can still keep track of members in voice channels
+                for (SetupMember setupMember : members.valueCollection())
+                {
+                    long userId = setupMember.getUserId();
+                    DataObject voiceState = voiceStates.get(userId);
+                    DataObject presence = presences.get(userId);
+                    updateMemberCache(createMember(guildObj, setupMember, voiceState, presence));
+                }
             }
+
+            // The events cached for the roles and channels of this guild are replayed here instead of on creation
+            EventCache eventCache = getJDA().getEventCache();
+            guildObj.getRolesView().forEachUnordered(role -> eventCache.playbackCache(EventCache.Type.ROLE, role.getIdLong()));
+            Consumer<GuildChannel> playbackChannel = channel -> eventCache.playbackCache(EventCache.Type.CHANNEL, channel.getIdLong());
+            guildObj.getCategoriesView().forEachUnordered(playbackChannel);
+            guildObj.getTextChannelsView().forEachUnordered(playbackChannel);
+            guildObj.getVoiceChannelsView().forEachUnordered(playbackChannel);
+            guildObj.getStoreChannelView().forEachUnordered(playbackChannel);
         }
 
         if (guildObj.getOwner() == null)
@@ -275,16 +314,16 @@ public class EntityBuilder
         switch (channelType)
         {
         case TEXT:
-            createTextChannel(guildObj, channelData, guildObj.getIdLong());
+            createTextChannel(guildObj, channelData, guildObj.getIdLong(), false);
             break;
         case VOICE:
-            createVoiceChannel(guildObj, channelData, guildObj.getIdLong());
+            createVoiceChannel(guildObj, channelData, guildObj.getIdLong(), false);
             break;
         case CATEGORY:
-            createCategory(guildObj, channelData, guildObj.getIdLong());
+            createCategory(guildObj, channelData, guildObj.getIdLong(), false);
             break;
         case STORE:
-            createStoreChannel(guildObj, channelData, guildObj.getIdLong());
+            createStoreChannel(guildObj, channelData, guildObj.getIdLong(), false);
             break;
         default:
             LOG.debug("Cannot create channel for type " + channelData.getInt("type"));
@@ -294,9 +333,14 @@ public class EntityBuilder
     public UserImpl createFakeUser(DataObject user) { return createUser(user, true); }
     public UserImpl createUser(DataObject user)     { return createUser(user, false); }
     private UserImpl createUser(DataObject user, boolean fake)
+    {
+        return createUser(user.getLong("id"), user.getString("username"), user.get("discriminator").toString(),
+                          user.getString("avatar", null), user.getBoolean("bot"), user.getInt("public_flags", 0), fake);
+    }
+
+    private UserImpl createUser(long id, String name, String discriminator, String avatarId, boolean bot, int flags, boolean fake)
     {
         boolean newUser = false;
-        final long id = user.getLong("id");
         UserImpl userObj;
 
         SnowflakeCacheViewImpl<User> userView = getJDA().getUsersView();
@@ -317,37 +361,41 @@ public class EntityBuilder
         if (newUser || userObj.isFake())
         {
             // Initial creation
-            userObj.setName(user.getString("username"))
-                   .setDiscriminator(user.get("discriminator").toString())
-                   .setAvatarId(user.getString("avatar", null))
-                   .setBot(user.getBoolean("bot"))
-                   .setFlags(user.getInt("public_flags", 0));
+            userObj.setName(internName(name))
+                   .setDiscriminator(internDiscriminator(discriminator))
+                   .setAvatarId(avatarId)
+                   .setBot(bot)
+                   .setFlags(flags);
         }
         else if (!userObj.isFake())
         {
             // Fire update events
-            updateUser(userObj, user);
+            updateUser(userObj, name, discriminator, avatarId, flags);
         }
 
         return userObj;
     }
 
     public void updateUser(UserImpl userObj, DataObject user)
+    {
+        updateUser(userObj, user.getString("username"), user.get("discriminator").toString(),
+                   user.getString("avatar", null), user.getInt("public_flags", 0));
+    }
+
+    private void updateUser(UserImpl userObj, String newName, String newDiscriminator, String newAvatar, int newFlags)
     {
         String oldName = userObj.getName();
-        String newName = user.getString("username");
         String oldDiscriminator = userObj.getDiscriminator();
-        String newDiscriminator = user.get("discriminator").toString();
         String oldAvatar = userObj.getAvatarId();
-        String newAvatar = user.getString("avatar", null);
         int oldFlags = userObj.getFlagsRaw();
-        int newFlags = user.getInt("public_flags", 0);
 
         JDAImpl jda = getJDA();
         long responseNumber = jda.getResponseTotal();
         if (!oldName.equals(newName))
         {
-            userObj.setName(newName);
+            userObj.setName(internName(newName));
+            if (jda.isCacheFlagSet(CacheFlag.MEMBER_INDEX))
+                jda.getGuildsView().forEach(guild -> ((GuildImpl) guild).getMembersView().reindex(userObj.getIdLong()));
             jda.handleEvent(
                 new UserUpdateNameEvent(
                     jda, responseNumber,
@@ -356,7 +404,7 @@ public class EntityBuilder
 
         if (!oldDiscriminator.equals(newDiscriminator))
         {
-            userObj.setDiscriminator(newDiscriminator);
+            userObj.setDiscriminator(internDiscriminator(newDiscriminator));
             jda.handleEvent(
                 new UserUpdateDiscriminatorEvent(
                     jda, responseNumber,
@@ -394,7 +442,9 @@ public class EntityBuilder
         MemberCacheViewImpl membersView = guild.getMembersView();
         if (forceRemove || !getJDA().cacheMember(member))
         {
-            if (membersView.remove(member.getIdLong()) == null)
+            // The compact member cache drops the voice state on removal and only keeps it on the removed copy
+            MemberImpl removed = (MemberImpl) membersView.remove(member.getIdLong());
+            if (removed == null)
                 return false;
             LOG.trace("Unloading member {}", member);
             if (!user.isFake() && user.getMutualGuilds().isEmpty())
@@ -411,18 +461,18 @@ public class EntityBuilder
                 }
             }
 
-            GuildVoiceStateImpl voiceState = (GuildVoiceStateImpl) member.getVoiceState();
+            GuildVoiceStateImpl voiceState = (GuildVoiceStateImpl) removed.getVoiceState();
             if (voiceState != null)
             {
                 VoiceChannelImpl connectedChannel = (VoiceChannelImpl) voiceState.getChannel();
                 if (connectedChannel != null)
-                    connectedChannel.getConnectedMembersMap().remove(member.getIdLong());
+                    connectedChannel.getConnectedMembersMap().remove(removed.getIdLong());
                 voiceState.setConnectedChannel(null);
             }
 
             return false;
         }
-        else if (guild.getMemberById(member.getIdLong()) != null)
+        else if (membersView.get(member.getIdLong()) != null)
         {
             // Member should be added to cache but already is cached -> do nothing
             return true;
@@ -452,7 +502,7 @@ public class EntityBuilder
 
         try (UnlockHook hook = membersView.writeLock())
         {
-            membersView.getMap().put(member.getIdLong(), member);
+            membersView.put(member);
             if (member.isOwner())
                 guild.setOwner(member);
         }
@@ -473,12 +523,12 @@ public class EntityBuilder
         boolean playbackCache = false;
         User user = createUser(memberJson.getObject("user"));
         DataArray roleArray = memberJson.getArray("roles");
-        MemberImpl member = (MemberImpl) guild.getMember(user);
+        MemberImpl member = (MemberImpl) guild.getMembersView().get(user.getIdLong());
         if (member == null)
         {
             // Create a brand new member
             member = new MemberImpl(guild, user);
-            member.setNickname(memberJson.getString("nick", null));
+            member.setNickname(internName(memberJson.getString("nick", null)));
             long epoch = 0;
             if (!memberJson.isNull("premium_since"))
             {
@@ -486,14 +536,10 @@ public class EntityBuilder
                 epoch = Instant.from(date).toEpochMilli();
             }
             member.setBoostDate(epoch);
-            Set<Role> roles = member.getRoleSet();
-            for (int i = 0; i < roleArray.length(); i++)
-            {
-                long roleId = roleArray.getUnsignedLong(i);
-                Role role = guild.getRoleById(roleId);
-                if (role != null)
-                    roles.add(role);
-            }
+            long[] roleIds = new long[roleArray.length()];
+            for (int i = 0; i < roleIds.length; i++)
+                roleIds[i] = roleArray.getUnsignedLong(i);
+            member.setRoleIds(getCachedRoleIds(guild, roleIds));
         }
         else
         {
@@ -526,6 +572,37 @@ public class EntityBuilder
         return member;
     }
 
+    // Used for the members of a new guild, which cannot be cached yet
+    private MemberImpl createMember(GuildImpl guild, SetupMember setupMember, DataObject voiceStateJson, DataObject presence)
+    {
+        User user = createUser(setupMember.getUserId(), setupMember.getName(), setupMember.getDiscriminator(),
+                               setupMember.getAvatarId(), setupMember.isBot(), setupMember.getFlags(), false);
+        MemberImpl member = new MemberImpl(guild, user);
+        member.setNickname(internName(setupMember.getNickname()));
+        member.setBoostDate(setupMember.getBoostDate());
+        member.setJoinDate(setupMember.getJoinDate());
+        member.setRoleIds(getCachedRoleIds(guild, setupMember.getRoleIds()));
+
+        if (voiceStateJson != null && member.getVoiceState() != null)
+            createVoiceState(guild, voiceStateJson, user, member);
+        if (presence != null)
+            createPresence(member, presence);
+        return member;
+    }
+
+    // Copies the ids of the roles which are cached in the guild
+    private static long[] getCachedRoleIds(GuildImpl guild, long[] roleIds)
+    {
+        long[] roles = new long[roleIds.length];
+        int count = 0;
+        for (long roleId : roleIds)
+        {
+            if (guild.getRolesView().get(roleId) != null)
+                roles[count++] = roleId;
+        }
+        return count == roles.length ? roles : Arrays.copyOf(roles, count);
+    }
+
     private void createVoiceState(GuildImpl guild, DataObject voiceStateJson, User user, MemberImpl member)
     {
         GuildVoiceStateImpl voiceState = (GuildVoiceStateImpl) member.getVoiceState();
@@ -564,7 +641,8 @@ public class EntityBuilder
             String newNick = content.getString("nick", null);
             if (!Objects.equals(oldNick, newNick))
             {
-                member.setNickname(newNick);
+                member.setNickname(internName(newNick));
+                guild.getMembersView().reindex(member.getIdLong());
                 getJDA().handleEvent(
                     new GuildMemberUpdateNicknameEvent(
                         getJDA(), responseNumber,
@@ -604,28 +682,30 @@ public class EntityBuilder
 
     private void updateMemberRoles(MemberImpl member, List<Role> newRoles, long responseNumber)
     {
-        Set<Role> currentRoles = member.getRoleSet();
+        long[] roleIds = new long[newRoles.size()];
+        int i = 0;
+        for (Role role : newRoles)
+            roleIds[i++] = role.getIdLong();
+        Arrays.sort(roleIds);
+
         //Find the roles removed.
         List<Role> removedRoles = new LinkedList<>();
-        each:
-        for (Role role : currentRoles)
+        for (long roleId : member.getRoleIds())
         {
-            for (Iterator<Role> it = newRoles.iterator(); it.hasNext(); )
-            {
-                Role r = it.next();
-                if (role.equals(r))
-                {
-                    it.remove();
-                    continue each;
-                }
-            }
-            removedRoles.add(role);
+            if (Arrays.binarySearch(roleIds, roleId) >= 0)
+                continue;
+            Role role = member.getGuild().getRolesView().get(roleId);
+            if (role != null)
+                removedRoles.add(role);
         }
+        newRoles.removeIf(role -> member.hasRole(role.getIdLong()));
 
-        if (removedRoles.size() > 0)
-            currentRoles.removeAll(removedRoles);
-        if (newRoles.size() > 0)
-            currentRoles.addAll(newRoles);
+        // Swap the entire array, readers never observe a partial update
+        if (removedRoles.size() > 0 || newRoles.size() > 0)
+        {
+            member.setRoleIds(roleIds);
+            member.getGuild().getMembersView().reindex(member.getIdLong());
+        }
 
         if (removedRoles.size() > 0)
         {
@@ -662,7 +742,7 @@ public class EntityBuilder
             {
                 try
                 {
-                    activities.add(createActivity(activityArray.getObject(i)));
+                    activities.add(internActivity(createActivity(activityArray.getObject(i))));
                     parsedActivity = true;
                 }
                 catch (Exception ex)
@@ -814,6 +894,11 @@ public class EntityBuilder
     }
 
     public Category createCategory(GuildImpl guild, DataObject json, long guildId)
+    {
+        return createCategory(guild, json, guildId, true);
+    }
+
+    private Category createCategory(GuildImpl guild, DataObject json, long guildId, boolean playback)
     {
         boolean playbackCache = false;
         final long id = json.getLong("id");
@@ -840,7 +925,7 @@ public class EntityBuilder
             .setPosition(json.getInt("position"));
 
         createOverridesPass(channel, json.getArray("permission_overwrites"));
-        if (playbackCache)
+        if (playback && playbackCache)
             getJDA().getEventCache().playbackCache(EventCache.Type.CHANNEL, id);
         return channel;
     }
@@ -851,6 +936,11 @@ public class EntityBuilder
     }
 
     public StoreChannel createStoreChannel(GuildImpl guild, DataObject json, long guildId)
+    {
+        return createStoreChannel(guild, json, guildId, true);
+    }
+
+    private StoreChannel createStoreChannel(GuildImpl guild, DataObject json, long guildId, boolean playback)
     {
         boolean playbackCache = false;
         final long id = json.getLong("id");
@@ -878,7 +968,7 @@ public class EntityBuilder
             .setPosition(json.getInt("position"));
 
         createOverridesPass(channel, json.getArray("permission_overwrites"));
-        if (playbackCache)
+        if (playback && playbackCache)
             getJDA().getEventCache().playbackCache(EventCache.Type.CHANNEL, id);
         return channel;
     }
@@ -890,6 +980,11 @@ public class EntityBuilder
     }
 
     public TextChannel createTextChannel(GuildImpl guildObj, DataObject json, long guildId)
+    {
+        return createTextChannel(guildObj, json, guildId, true);
+    }
+
+    private TextChannel createTextChannel(GuildImpl guildObj, DataObject json, long guildId, boolean playback)
     {
         boolean playbackCache = false;
         final long id = json.getLong("id");
@@ -921,7 +1016,7 @@ public class EntityBuilder
             .setSlowmode(json.getInt("rate_limit_per_user", 0));
 
         createOverridesPass(channel, json.getArray("permission_overwrites"));
-        if (playbackCache)
+        if (playback && playbackCache)
             getJDA().getEventCache().playbackCache(EventCache.Type.CHANNEL, id);
         return channel;
     }
@@ -932,6 +1027,11 @@ public class EntityBuilder
     }
 
     public VoiceChannel createVoiceChannel(GuildImpl guild, DataObject json, long guildId)
+    {
+        return createVoiceChannel(guild, json, guildId, true);
+    }
+
+    private VoiceChannel createVoiceChannel(GuildImpl guild, DataObject json, long guildId, boolean playback)
     {
         boolean playbackCache = false;
         final long id = json.getLong("id");
@@ -961,7 +1061,7 @@ public class EntityBuilder
             .setBitrate(json.getInt("bitrate"));
 
         createOverridesPass(channel, json.getArray("permission_overwrites"));
-        if (playbackCache)
+        if (playback && playbackCache)
             getJDA().getEventCache().playbackCache(EventCache.Type.CHANNEL, id);
         return channel;
     }
@@ -1036,6 +1136,11 @@ public class EntityBuilder
     }
 
     public Role createRole(GuildImpl guild, DataObject roleJson, long guildId)
+    {
+        return createRole(guild, roleJson, guildId, true);
+    }
+
+    private Role createRole(GuildImpl guild, DataObject roleJson, long guildId, boolean playback)
     {
         boolean playbackCache = false;
         final long id = roleJson.getLong("id");
@@ -1059,7 +1164,7 @@ public class EntityBuilder
             .setHoisted(roleJson.getBoolean("hoist"))
             .setColor(color == 0 ? Role.DEFAULT_COLOR_RAW : color)
             .setMentionable(roleJson.getBoolean("mentionable"));
-        if (playbackCache)
+        if (playback && playbackCache)
             getJDA().getEventCache().playbackCache(EventCache.Type.ROLE, id);
         return role;
     }
@@ -36,6 +36,7 @@ import net.dv8tion.jda.api.requests.restaction.order.ChannelOrderAction;
 import net.dv8tion.jda.api.requests.restaction.order.RoleOrderAction;
 import net.dv8tion.jda.api.requests.restaction.pagination.AuditLogPaginationAction;
 import net.dv8tion.jda.api.utils.MiscUtil;
+import net.dv8tion.jda.api.utils.cache.CacheFlag;
 import net.dv8tion.jda.api.utils.cache.MemberCacheView;
 import net.dv8tion.jda.api.utils.cache.SnowflakeCacheView;
 import net.dv8tion.jda.api.utils.cache.SortedSnowflakeCacheView;
@@ -56,6 +57,7 @@ import net.dv8tion.jda.internal.requests.restaction.order.RoleOrderActionImpl;
 import net.dv8tion.jda.internal.requests.restaction.pagination.AuditLogPaginationActionImpl;
 import net.dv8tion.jda.internal.utils.*;
 import net.dv8tion.jda.internal.utils.cache.AbstractCacheView;
+import net.dv8tion.jda.internal.utils.cache.CompactMemberCacheViewImpl;
 import net.dv8tion.jda.internal.utils.cache.MemberCacheViewImpl;
 import net.dv8tion.jda.internal.utils.cache.SnowflakeCacheViewImpl;
 import net.dv8tion.jda.internal.utils.cache.SortedSnowflakeCacheViewImpl;
@@ -87,7 +89,7 @@ public class GuildImpl implements Guild
     private final SortedSnowflakeCacheViewImpl<TextChannel> textChannelCache = new SortedSnowflakeCacheViewImpl<>(TextChannel.class, GuildChannel::getName, Comparator.naturalOrder());
     private final SortedSnowflakeCacheViewImpl<Role> roleCache = new SortedSnowflakeCacheViewImpl<>(Role.class, Role::getName, Comparator.reverseOrder());
     private final SnowflakeCacheViewImpl<Emote> emoteCache = new SnowflakeCacheViewImpl<>(Emote.class, Emote::getName);
-    private final MemberCacheViewImpl memberCache = new MemberCacheViewImpl();
+    private final MemberCacheViewImpl memberCache;
 
     private final ReentrantLock mngLock = new ReentrantLock();
     private volatile GuildManager manager;
@@ -119,6 +121,8 @@ public class GuildImpl implements Guild
     {
         this.id = id;
         this.api = api;
+        boolean indexed = api.isCacheFlagSet(CacheFlag.MEMBER_INDEX);
+        this.memberCache = api.isCompactMemberCache() ? new CompactMemberCacheViewImpl(this, indexed) : new MemberCacheViewImpl(indexed);
     }
 
     @Nonnull
@@ -180,7 +184,7 @@ public class GuildImpl implements Guild
     {
         if (userId == api.getSelfUser().getIdLong())
             return false;
-        MemberImpl member = (MemberImpl) getMemberById(userId);
+        MemberImpl member = (MemberImpl) memberCache.get(userId);
         if (member == null)
             return false;
         api.getEntityBuilder().updateMemberCache(member, true);
@@ -830,7 +834,7 @@ public class GuildImpl implements Guild
         task.onSuccess((members) -> {
             try (UnlockHook hook = memberCache.writeLock())
             {
-                members.forEach((it) -> memberCache.getMap().put(it.getIdLong(), it));
+                members.forEach((it) -> memberCache.put((MemberImpl) it));
             }
             future.complete(null);
         });
@@ -1224,7 +1228,7 @@ public class GuildImpl implements Guild
         Checks.notNull(member, "Member");
         checkGuild(member.getGuild(), "Member");
         checkPermission(Permission.MANAGE_ROLES);
-        Set<Role> currentRoles = new HashSet<>(((MemberImpl) member).getRoleSet());
+        Set<Role> currentRoles = new HashSet<>(member.getRoles());
         if (rolesToAdd != null)
         {
             checkRoles(rolesToAdd, "add", "to");
@@ -24,7 +24,9 @@ import net.dv8tion.jda.api.utils.cache.CacheFlag;
 import net.dv8tion.jda.internal.JDAImpl;
 import net.dv8tion.jda.internal.utils.Checks;
 import net.dv8tion.jda.internal.utils.PermissionUtil;
+import net.dv8tion.jda.internal.utils.cache.CompactMemberCacheViewImpl;
 import net.dv8tion.jda.internal.utils.cache.SnowflakeReference;
+import net.dv8tion.jda.internal.utils.cache.SortedSnowflakeCacheViewImpl;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -34,20 +36,27 @@ import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.util.List;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 
 public class MemberImpl implements Member
 {
     private static final ZoneOffset OFFSET = ZoneOffset.of("+00:00");
+    private static final long[] EMPTY_ROLES = new long[0];
     private final SnowflakeReference<Guild> guild;
     private final JDAImpl api;
-    private final Set<Role> roles = ConcurrentHashMap.newKeySet();
-    private final GuildVoiceState voiceState;
-    private final Map<ClientType, OnlineStatus> clientStatus;
+    private GuildVoiceState voiceState;
+    private Map<ClientType, OnlineStatus> clientStatus;
+    // Set when this member is stored in a compact member cache, the state is then read from and written to that cache
+    private volatile CompactMemberCacheViewImpl store;
+    // Shared by all instances of the cached member, provides the last state once the member is removed from the cache
+    private volatile CompactMemberCacheViewImpl.Handle handle;
 
     private User user;
     private String nickname;
     private long joinDate, boostDate;
+    // Time of the last lookup through the member cache, written without synchronization
+    private long lastAccess;
+    // Sorted ids of the roles, replaced as a whole on updates and resolved through the role cache of the guild
+    private volatile long[] roles = EMPTY_ROLES;
     private List<Activity> activities = null;
     private OnlineStatus onlineStatus = OnlineStatus.OFFLINE;
 
@@ -63,6 +72,15 @@ public class MemberImpl implements Member
         this.clientStatus = cacheOnline ? Collections.synchronizedMap(new EnumMap<>(ClientType.class)) : null;
     }
 
+    public MemberImpl(GuildImpl guild, User user, CompactMemberCacheViewImpl store, CompactMemberCacheViewImpl.Handle handle)
+    {
+        this.api = (JDAImpl) user.getJDA();
+        this.guild = new SnowflakeReference<>(guild, api::getGuildById);
+        this.user = user;
+        this.handle = handle;
+        this.store = store;
+    }
+
     private void updateUser()
     {
         // Load user from cache if one exists, ideally two members with the same id should wrap the same user object
@@ -98,33 +116,37 @@ public class MemberImpl implements Member
     public OffsetDateTime getTimeJoined()
     {
         if (hasTimeJoined())
-            return OffsetDateTime.ofInstant(Instant.ofEpochMilli(joinDate), OFFSET);
+            return OffsetDateTime.ofInstant(Instant.ofEpochMilli(getJoinDateRaw()), OFFSET);
         return getGuild().getTimeCreated();
     }
 
     @Override
     public boolean hasTimeJoined()
     {
-        return joinDate != 0;
+        return getJoinDateRaw() != 0;
     }
 
     @Nullable
     @Override
     public OffsetDateTime getTimeBoosted()
     {
+        long boostDate = getBoostDateRaw();
         return boostDate != 0 ? OffsetDateTime.ofInstant(Instant.ofEpochMilli(boostDate), OFFSET) : null;
     }
 
     @Override
     public GuildVoiceState getVoiceState()
     {
-        return voiceState;
+        CompactMemberCacheViewImpl store = getStore();
+        return store != null ? store.getVoiceState(this) : voiceState;
     }
 
     @Nonnull
     @Override
     public List<Activity> getActivities()
     {
+        CompactMemberCacheViewImpl store = getStore();
+        List<Activity> activities = store != null ? store.getActivities(getIdLong()) : this.activities;
         return activities == null || activities.isEmpty() ? Collections.emptyList() : activities;
     }
 
@@ -132,7 +154,8 @@ public class MemberImpl implements Member
     @Override
     public OnlineStatus getOnlineStatus()
     {
-        return onlineStatus;
+        CompactMemberCacheViewImpl store = getStore();
+        return store != null ? store.getOnlineStatus(getIdLong()) : onlineStatus;
     }
 
     @Nonnull
@@ -140,6 +163,9 @@ public class MemberImpl implements Member
     public OnlineStatus getOnlineStatus(@Nonnull ClientType type)
     {
         Checks.notNull(type, "Type");
+        CompactMemberCacheViewImpl store = getStore();
+        if (store != null)
+            return store.getOnlineStatus(getIdLong(), type);
         if (this.clientStatus == null || this.clientStatus.isEmpty())
             return OnlineStatus.OFFLINE;
         OnlineStatus status = this.clientStatus.get(type);
@@ -150,6 +176,9 @@ public class MemberImpl implements Member
     @Override
     public EnumSet<ClientType> getActiveClients()
     {
+        CompactMemberCacheViewImpl store = getStore();
+        if (store != null)
+            return store.getActiveClients(getIdLong());
         if (clientStatus == null || clientStatus.isEmpty())
             return EnumSet.noneOf(ClientType.class);
         return EnumSet.copyOf(clientStatus.keySet());
@@ -158,13 +187,15 @@ public class MemberImpl implements Member
     @Override
     public String getNickname()
     {
-        return nickname;
+        CompactMemberCacheViewImpl store = getStore();
+        return store != null ? store.getNickname(getIdLong()) : nickname;
     }
 
     @Nonnull
     @Override
     public String getEffectiveName()
     {
+        String nickname = getNickname();
         return nickname != null ? nickname : getUser().getName();
     }
 
@@ -172,7 +203,17 @@ public class MemberImpl implements Member
     @Override
     public List<Role> getRoles()
     {
-        List<Role> roleList = new ArrayList<>(roles);
+        long[] ids = getRoleIds();
+        if (ids.length == 0)
+            return Collections.emptyList();
+        SortedSnowflakeCacheViewImpl<Role> roleCache = getGuild().getRolesView();
+        List<Role> roleList = new ArrayList<>(ids.length);
+        for (long id : ids)
+        {
+            Role role = roleCache.get(id);
+            if (role != null)
+                roleList.add(role);
+        }
         roleList.sort(Comparator.reverseOrder());
 
         return Collections.unmodifiableList(roleList);
@@ -295,30 +336,60 @@ public class MemberImpl implements Member
 
     public MemberImpl setNickname(String nickname)
     {
-        this.nickname = nickname;
+        CompactMemberCacheViewImpl store = getStore();
+        if (store != null)
+            store.setNickname(getIdLong(), nickname);
+        else
+            this.nickname = nickname;
         return this;
     }
 
     public MemberImpl setJoinDate(long joinDate)
     {
-        this.joinDate = joinDate;
+        CompactMemberCacheViewImpl store = getStore();
+        if (store != null)
+            store.setJoinDate(getIdLong(), joinDate);
+        else
+            this.joinDate = joinDate;
         return this;
     }
 
     public MemberImpl setBoostDate(long boostDate)
     {
-        this.boostDate = boostDate;
+        CompactMemberCacheViewImpl store = getStore();
+        if (store != null)
+            store.setBoostDate(getIdLong(), boostDate);
+        else
+            this.boostDate = boostDate;
         return this;
     }
 
     public MemberImpl setActivities(List<Activity> activities)
     {
-        this.activities = Collections.unmodifiableList(activities);
+        // Most members have no more than one activity
+        if (activities.isEmpty())
+            activities = Collections.emptyList();
+        else if (activities.size() == 1)
+            activities = Collections.singletonList(activities.get(0));
+        else
+            activities = Collections.unmodifiableList(activities);
+
+        CompactMemberCacheViewImpl store = getStore();
+        if (store != null)
+            store.setActivities(getIdLong(), activities);
+        else
+            this.activities = activities;
         return this;
     }
 
     public MemberImpl setOnlineStatus(ClientType type, OnlineStatus status)
     {
+        CompactMemberCacheViewImpl store = getStore();
+        if (store != null)
+        {
+            store.setOnlineStatus(getIdLong(), type, status);
+            return this;
+        }
         if (this.clientStatus == null || type == ClientType.UNKNOWN || type == null)
             return this;
         if (status == null || status == OnlineStatus.UNKNOWN || status == OnlineStatus.OFFLINE)
@@ -330,18 +401,123 @@ public class MemberImpl implements Member
 
     public MemberImpl setOnlineStatus(OnlineStatus onlineStatus)
     {
-        this.onlineStatus = onlineStatus;
+        CompactMemberCacheViewImpl store = getStore();
+        if (store != null)
+            store.setOnlineStatus(getIdLong(), onlineStatus);
+        else
+            this.onlineStatus = onlineStatus;
+        return this;
+    }
+
+    public MemberImpl setRoleIds(long[] ids)
+    {
+        long[] sorted = ids.length == 0 ? EMPTY_ROLES : ids.clone();
+        Arrays.sort(sorted);
+        CompactMemberCacheViewImpl store = getStore();
+        if (store != null)
+            store.setRoleIds(getIdLong(), sorted);
+        else
+            this.roles = sorted;
+        return this;
+    }
+
+    public MemberImpl setLastAccess(long lastAccess)
+    {
+        CompactMemberCacheViewImpl store = getStore();
+        if (store != null)
+            store.setLastAccess(getIdLong(), lastAccess);
+        else
+            this.lastAccess = lastAccess;
+        return this;
+    }
+
+    public MemberImpl setVoiceState(GuildVoiceState voiceState)
+    {
+        this.voiceState = voiceState;
         return this;
     }
 
-    public Set<Role> getRoleSet()
+    // The returned array must not be modified
+    public long[] getRoleIds()
+    {
+        CompactMemberCacheViewImpl store = getStore();
+        return store != null ? store.getRoleIds(getIdLong()) : roles;
+    }
+
+    public boolean hasRole(long roleId)
     {
-        return roles;
+        CompactMemberCacheViewImpl store = getStore();
+        return store != null ? store.hasRole(getIdLong(), roleId) : Arrays.binarySearch(roles, roleId) >= 0;
+    }
+
+    public long getJoinDateRaw()
+    {
+        CompactMemberCacheViewImpl store = getStore();
+        return store != null ? store.getJoinDate(getIdLong()) : joinDate;
     }
 
     public long getBoostDateRaw()
     {
-        return boostDate;
+        CompactMemberCacheViewImpl store = getStore();
+        return store != null ? store.getBoostDate(getIdLong()) : boostDate;
+    }
+
+    public long getLastAccess()
+    {
+        CompactMemberCacheViewImpl store = getStore();
+        return store != null ? store.getLastAccess(getIdLong()) : lastAccess;
+    }
+
+    public boolean isAttached()
+    {
+        return getStore() != null;
+    }
+
+    // Moves the state of this member to the store, every other instance of this member reads the same state
+    public MemberImpl attach(CompactMemberCacheViewImpl store, CompactMemberCacheViewImpl.Handle handle)
+    {
+        this.handle = handle;
+        this.store = store;
+        this.nickname = null;
+        this.roles = EMPTY_ROLES;
+        this.activities = null;
+        this.voiceState = null;
+        this.clientStatus = null;
+        return this;
+    }
+
+    // Returns null once the member was removed from the store, this instance then keeps the last state of the member
+    private CompactMemberCacheViewImpl getStore()
+    {
+        CompactMemberCacheViewImpl store = this.store;
+        if (store == null)
+            return null;
+        MemberImpl detached = handle.getDetached();
+        if (detached == null)
+            return store;
+        detach(detached);
+        return null;
+    }
+
+    private void detach(MemberImpl detached)
+    {
+        this.nickname = detached.getNickname();
+        this.joinDate = detached.getJoinDateRaw();
+        this.boostDate = detached.getBoostDateRaw();
+        this.lastAccess = detached.getLastAccess();
+        this.roles = detached.getRoleIds();
+        this.activities = detached.getActivities();
+        this.onlineStatus = detached.getOnlineStatus();
+        this.voiceState = detached.getVoiceState();
+        if (api.isCacheFlagSet(CacheFlag.CLIENT_STATUS))
+        {
+            Map<ClientType, OnlineStatus> clientStatus = Collections.synchronizedMap(new EnumMap<>(ClientType.class));
+            for (ClientType type : detached.getActiveClients())
+                clientStatus.put(type, detached.getOnlineStatus(type));
+            this.clientStatus = clientStatus;
+        }
+        // Written last, other threads which see the store as null also see the state above
+        this.store = null;
     }
 
     @Override
@@ -373,7 +549,7 @@ public class MemberImpl implements Member
     @Override
     public String getAsMention()
     {
-        return (nickname == null ? "<@" : "<@!") + user.getId() + '>';
+        return (getNickname() == null ? "<@" : "<@!") + user.getId() + '>';
     }
 
     @Nullable
@@ -80,6 +80,8 @@ public class ChannelDeleteHandler extends SocketHandler
                 }
 
                 guild.getTextChannelsView().remove(channel.getIdLong());
+                if (getJDA().getMessageCache() != null)
+                    getJDA().getMessageCache().removeChannel(channelId);
                 getJDA().handleEvent(
                     new TextChannelDeleteEvent(
                         getJDA(), responseNumber,
@@ -146,6 +148,8 @@ public class ChannelDeleteHandler extends SocketHandler
                 if (channel.getUser().isFake())
                     getJDA().getFakeUserMap().remove(channel.getUser().getIdLong());
                 ((UserImpl) channel.getUser()).setPrivateChannel(null);
+                if (getJDA().getMessageCache() != null)
+                    getJDA().getMessageCache().removeChannel(channelId);
                 getJDA().handleEvent(
                     new PrivateChannelDeleteEvent(
                         getJDA(), responseNumber,
@@ -31,6 +31,7 @@ import net.dv8tion.jda.internal.managers.AudioManagerImpl;
 import net.dv8tion.jda.internal.requests.WebSocketClient;
 import net.dv8tion.jda.internal.utils.UnlockHook;
 import net.dv8tion.jda.internal.utils.cache.AbstractCacheView;
+import net.dv8tion.jda.internal.utils.cache.MessageCache;
 import net.dv8tion.jda.internal.utils.cache.SnowflakeCacheViewImpl;
 
 public class GuildDeleteHandler extends SocketHandler
@@ -81,6 +82,9 @@ public class GuildDeleteHandler extends SocketHandler
             guild.getTextChannelCache()
                  .forEachUnordered(chan -> textView.getMap().remove(chan.getIdLong()));
         }
+        MessageCache messageCache = getJDA().getMessageCache();
+        if (messageCache != null)
+            guild.getTextChannelCache().forEachUnordered(chan -> messageCache.removeChannel(chan.getIdLong()));
         try (UnlockHook hook = voiceView.writeLock())
         {
             guild.getVoiceChannelCache()
@@ -22,7 +22,6 @@ import net.dv8tion.jda.api.utils.data.DataObject;
 import net.dv8tion.jda.internal.JDAImpl;
 import net.dv8tion.jda.internal.entities.EmoteImpl;
 import net.dv8tion.jda.internal.entities.GuildImpl;
-import net.dv8tion.jda.internal.entities.MemberImpl;
 import net.dv8tion.jda.internal.requests.WebSocketClient;
 
 public class GuildRoleDeleteHandler extends SocketHandler
@@ -57,11 +56,7 @@ public class GuildRoleDeleteHandler extends SocketHandler
         }
 
         //Now that the role is removed from the Guild, remove it from all users and emotes.
-        guild.getMembersView().forEach(m ->
-        {
-            MemberImpl member = (MemberImpl) m;
-            member.getRoleSet().remove(removedRole);
-        });
+        guild.getMembersView().removeRole(roleId);
 
         for (Emote emote : guild.getEmoteCache())
         {
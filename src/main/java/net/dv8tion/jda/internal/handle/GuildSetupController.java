@@ -48,6 +48,8 @@ public class GuildSetupController
     protected static final Logger log = JDALogger.getLog(GuildSetupController.class);
 
     private final JDAImpl api;
+    // Held while handling dispatches, guilds built on the setup pool are completed while holding it
+    private final Object dispatchLock = new Object();
     private final TLongObjectMap<GuildSetupNode> setupNodes = new TLongObjectHashMap<>();
     private final TLongSet chunkingGuilds = new TLongHashSet();
     private final TLongLongMap pendingChunks = new TLongLongHashMap();
@@ -253,6 +255,17 @@ public class GuildSetupController
         return setupNodes.containsKey(id);
     }
 
+    public boolean isBuilding(long id)
+    {
+        GuildSetupNode node = setupNodes.get(id);
+        return node != null && node.status == Status.BUILDING;
+    }
+
+    public Object getDispatchLock()
+    {
+        return dispatchLock;
+    }
+
     public boolean isUnavailable(long id)
     {
         return unavailableGuilds.contains(id);
@@ -42,13 +42,15 @@ import javax.annotation.Nullable;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 
 public class GuildSetupNode
 {
     private final long id;
     private final GuildSetupController controller;
     private final List<DataObject> cachedEvents = new LinkedList<>();
-    private TLongObjectMap<DataObject> members;
+    private TLongObjectMap<SetupMember> members;
     private TLongSet removedMembers;
     private DataObject partialGuild;
     private int expectedMemberCount = 1;
@@ -256,9 +258,8 @@ public class GuildSetupNode
         }
         for (int index = 0; index < arr.length(); index++)
         {
-            DataObject obj = arr.getObject(index);
-            long id = obj.getObject("user").getLong("id");
-            members.put(id, obj);
+            SetupMember member = SetupMember.fromJson(arr.getObject(index));
+            members.put(member.getUserId(), member);
         }
 
         if (last || members.size() >= expectedMemberCount || !getController().getJDA().chunkGuild(id))
@@ -274,8 +275,9 @@ public class GuildSetupNode
         if (members == null || removedMembers == null)
             return;
         expectedMemberCount++;
-        long userId = member.getObject("user").getLong("id");
-        members.put(userId, member);
+        SetupMember setupMember = SetupMember.fromJson(member);
+        long userId = setupMember.getUserId();
+        members.put(userId, setupMember);
         removedMembers.remove(userId);
     }
 
@@ -346,7 +348,7 @@ public class GuildSetupNode
 
         if (members != null)
         {
-            for (TLongObjectIterator<DataObject> it = members.iterator(); it.hasNext();)
+            for (TLongObjectIterator<SetupMember> it = members.iterator(); it.hasNext();)
             {
                 it.advance();
                 long userId = it.key();
@@ -363,7 +365,79 @@ public class GuildSetupNode
         for (TLongIterator it = removedMembers.iterator(); it.hasNext(); )
             members.remove(it.next());
         removedMembers.clear();
-        GuildImpl guild = api.getEntityBuilder().createGuild(id, partialGuild, members, expectedMemberCount);
+        ExecutorService pool = api.getGuildSetupPool();
+        if (pool != null)
+        {
+            try
+            {
+                // The gateway caches all events of this guild until it is completed, this preserves their order
+                pool.execute(() -> buildGuild(api));
+                return;
+            }
+            catch (RejectedExecutionException e)
+            {
+                GuildSetupController.log.debug("Guild setup pool rejected guild {}, building on the gateway thread", id);
+            }
+        }
+        finishSetup(api.getEntityBuilder().createGuild(id, partialGuild, members, expectedMemberCount));
+    }
+
+    private void buildGuild(JDAImpl api)
+    {
+        GuildImpl guild = null;
+        try
+        {
+            guild = api.getEntityBuilder().createGuild(id, partialGuild, members, expectedMemberCount);
+        }
+        catch (Exception e)
+        {
+            GuildSetupController.log.error("Failed to build guild {}", id, e);
+        }
+
+        synchronized (getController().getDispatchLock())
+        {
+            if (getController().getSetupNodeById(id) != this)
+            {
+                // The cache was invalidated while this guild was built
+                GuildSetupController.log.debug("Discarding outdated guild {}", id);
+                if (guild != null && api.getGuildsView().get(id) == guild)
+                    api.getGuildsView().remove(id);
+                return;
+            }
+            if (guild == null)
+                failSetup(api);
+            else
+                finishSetup(guild);
+        }
+    }
+
+    private void failSetup(JDAImpl api)
+    {
+        // Remove the partially built guild and complete the node without firing any events for it
+        api.getGuildsView().remove(id);
+        switch (type)
+        {
+        case AVAILABLE:
+            getController().remove(id);
+            break;
+        case JOIN:
+            if (requestedChunk)
+                getController().ready(id);
+            else
+                getController().remove(id);
+            break;
+        default:
+            getController().ready(id);
+            break;
+        }
+        updateStatus(GuildSetupController.Status.READY);
+        GuildSetupController.log.warn("Dropping {} cached events of guild {} which could not be built", cachedEvents.size(), id);
+        cachedEvents.clear();
+    }
+
+    private void finishSetup(GuildImpl guild)
+    {
+        JDAImpl api = getController().getJDA();
         updateAudioManagerReference(guild);
         switch (type)
         {
@@ -394,7 +468,9 @@ public class GuildSetupNode
         expectedMemberCount = partialGuild.getInt("member_count");
         members = new TLongObjectHashMap<>(expectedMemberCount);
         removedMembers = new TLongHashSet();
-        DataArray memberArray = partialGuild.getArray("members");
+        // The members are only kept in their compact form, the payload is not needed anymore
+        DataArray memberArray = partialGuild.optArray("members").orElseGet(DataArray::empty);
+        partialGuild.remove("members");
         if (!getController().getJDA().chunkGuild(id))
         {
             handleMemberChunk(true, memberArray);
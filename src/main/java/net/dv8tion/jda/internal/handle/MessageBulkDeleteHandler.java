@@ -16,12 +16,17 @@
 
 package net.dv8tion.jda.internal.handle;
 
+import net.dv8tion.jda.api.entities.Message;
 import net.dv8tion.jda.api.entities.TextChannel;
 import net.dv8tion.jda.api.events.message.MessageBulkDeleteEvent;
+import net.dv8tion.jda.api.utils.MiscUtil;
 import net.dv8tion.jda.api.utils.data.DataObject;
 import net.dv8tion.jda.internal.JDAImpl;
+import net.dv8tion.jda.internal.utils.cache.MessageCache;
 
+import java.util.ArrayList;
 import java.util.LinkedList;
+import java.util.List;
 
 public class MessageBulkDeleteHandler extends SocketHandler
 {
@@ -70,10 +75,21 @@ public class MessageBulkDeleteHandler extends SocketHandler
 
             LinkedList<String> msgIds = new LinkedList<>();
             content.getArray("ids").forEach(id -> msgIds.add((String) id));
+            List<Message> cachedMessages = new ArrayList<>();
+            MessageCache cache = getJDA().getMessageCache();
+            if (cache != null)
+            {
+                for (String id : msgIds)
+                {
+                    Message message = cache.remove(channelId, MiscUtil.parseSnowflake(id));
+                    if (message != null)
+                        cachedMessages.add(message);
+                }
+            }
             getJDA().handleEvent(
                     new MessageBulkDeleteEvent(
                             getJDA(), responseNumber,
-                            channel, msgIds));
+                            channel, msgIds, cachedMessages));
         }
         return null;
     }
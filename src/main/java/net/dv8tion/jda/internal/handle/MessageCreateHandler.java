@@ -94,6 +94,8 @@ public class MessageCreateHandler extends SocketHandler
                 if (jda.getGuildSetupController().isLocked(channel.getGuild().getIdLong()))
                     return channel.getGuild().getIdLong();
                 channel.setLastMessageId(message.getIdLong());
+                if (jda.getMessageCache() != null)
+                    jda.getMessageCache().put(message);
                 jda.handleEvent(
                     new GuildMessageReceivedEvent(
                         jda, responseNumber,
@@ -104,6 +106,8 @@ public class MessageCreateHandler extends SocketHandler
             {
                 PrivateChannelImpl channel = (PrivateChannelImpl) message.getPrivateChannel();
                 channel.setLastMessageId(message.getIdLong());
+                if (jda.getMessageCache() != null)
+                    jda.getMessageCache().put(message);
                 jda.handleEvent(
                     new PrivateMessageReceivedEvent(
                         jda, responseNumber,
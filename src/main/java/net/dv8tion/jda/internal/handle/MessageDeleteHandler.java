@@ -15,6 +15,7 @@
  */
 package net.dv8tion.jda.internal.handle;
 
+import net.dv8tion.jda.api.entities.Message;
 import net.dv8tion.jda.api.entities.MessageChannel;
 import net.dv8tion.jda.api.entities.TextChannel;
 import net.dv8tion.jda.api.events.message.MessageDeleteEvent;
@@ -24,6 +25,7 @@ import net.dv8tion.jda.api.utils.data.DataObject;
 import net.dv8tion.jda.internal.JDAImpl;
 import net.dv8tion.jda.internal.entities.PrivateChannelImpl;
 import net.dv8tion.jda.internal.entities.TextChannelImpl;
+import net.dv8tion.jda.internal.utils.cache.MessageCache;
 
 public class MessageDeleteHandler extends SocketHandler
 {
@@ -55,6 +57,8 @@ public class MessageDeleteHandler extends SocketHandler
             return null;
         }
 
+        MessageCache cache = getJDA().getMessageCache();
+        Message message = null;
         if (channel instanceof TextChannel)
         {
             TextChannelImpl tChan = (TextChannelImpl) channel;
@@ -62,27 +66,31 @@ public class MessageDeleteHandler extends SocketHandler
                 return tChan.getGuild().getIdLong();
             if (tChan.hasLatestMessage() && messageId == channel.getLatestMessageIdLong())
                 tChan.setLastMessageId(0); // Reset latest message id as it was deleted.
+            if (cache != null)
+                message = cache.remove(channelId, messageId);
             getJDA().handleEvent(
                     new GuildMessageDeleteEvent(
                             getJDA(), responseNumber,
-                            messageId, tChan));
+                            messageId, tChan, message));
         }
         else
         {
             PrivateChannelImpl pChan = (PrivateChannelImpl) channel;
             if (channel.hasLatestMessage() && messageId == channel.getLatestMessageIdLong())
                 pChan.setLastMessageId(0); // Reset latest message id as it was deleted.
+            if (cache != null)
+                message = cache.remove(channelId, messageId);
             getJDA().handleEvent(
                     new PrivateMessageDeleteEvent(
                             getJDA(), responseNumber,
-                            messageId, pChan));
+                            messageId, pChan, message));
         }
 
         //Combo event
         getJDA().handleEvent(
                 new MessageDeleteEvent(
                         getJDA(), responseNumber,
-                        messageId, channel));
+                        messageId, channel, message));
         return null;
     }
 }
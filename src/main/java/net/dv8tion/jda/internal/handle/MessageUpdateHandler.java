@@ -27,6 +27,7 @@ import net.dv8tion.jda.api.utils.data.DataObject;
 import net.dv8tion.jda.internal.JDAImpl;
 import net.dv8tion.jda.internal.entities.EntityBuilder;
 import net.dv8tion.jda.internal.requests.WebSocketClient;
+import net.dv8tion.jda.internal.utils.cache.MessageCache;
 
 import java.util.LinkedList;
 
@@ -110,6 +111,8 @@ public class MessageUpdateHandler extends SocketHandler
             }
         }
 
+        MessageCache cache = getJDA().getMessageCache();
+        Message oldMessage = null;
         switch (message.getChannelType())
         {
             case TEXT:
@@ -117,18 +120,20 @@ public class MessageUpdateHandler extends SocketHandler
                 TextChannel channel = message.getTextChannel();
                 if (getJDA().getGuildSetupController().isLocked(channel.getGuild().getIdLong()))
                     return channel.getGuild().getIdLong();
+                oldMessage = cache == null ? null : cache.replace(message);
                 getJDA().handleEvent(
                         new GuildMessageUpdateEvent(
                                 getJDA(), responseNumber,
-                                message));
+                                message, oldMessage));
                 break;
             }
             case PRIVATE:
             {
+                oldMessage = cache == null ? null : cache.replace(message);
                 getJDA().handleEvent(
                         new PrivateMessageUpdateEvent(
                                 getJDA(), responseNumber,
-                                message));
+                                message, oldMessage));
                 break;
             }
             case GROUP:
@@ -146,7 +151,7 @@ public class MessageUpdateHandler extends SocketHandler
         getJDA().handleEvent(
                 new MessageUpdateEvent(
                         getJDA(), responseNumber,
-                        message));
+                        message, oldMessage));
         return null;
     }
 
@@ -97,7 +97,7 @@ public class PresenceUpdateHandler extends SocketHandler
         List<Activity> newActivities = new ArrayList<>();
         boolean parsedActivity = parseActivities(userId, activityArray, newActivities);
 
-        MemberImpl member = (MemberImpl) guild.getMember(user);
+        MemberImpl member = (MemberImpl) guild.getMembersView().get(user.getIdLong());
         //Create member from presence if not offline
         if (member == null)
         {
@@ -139,7 +139,7 @@ public class PresenceUpdateHandler extends SocketHandler
             if (activityArray != null)
             {
                 for (int i = 0; i < activityArray.length(); i++)
-                    newActivities.add(EntityBuilder.createActivity(activityArray.getObject(i)));
+                    newActivities.add(getJDA().getEntityBuilder().internActivity(EntityBuilder.createActivity(activityArray.getObject(i))));
                 parsedActivity = true;
             }
         }
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2015-2020 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.internal.handle;
+
+import net.dv8tion.jda.api.utils.data.DataArray;
+import net.dv8tion.jda.api.utils.data.DataObject;
+
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * The fields of a member payload used to create the member once its guild is built.
+ * <br>The {@link GuildSetupNode} keeps these instead of the payloads, which hold every field as a boxed object.
+ */
+public final class SetupMember
+{
+    private final long userId;
+    private final String name;
+    private final String discriminator;
+    private final String avatarId;
+    private final boolean bot;
+    private final int flags;
+    private final String nickname;
+    private final long boostDate;
+    private final long joinDate;
+    private final long[] roleIds;
+
+    private SetupMember(DataObject json)
+    {
+        DataObject user = json.getObject("user");
+        this.userId = user.getUnsignedLong("id");
+        this.name = user.getString("username");
+        this.discriminator = user.get("discriminator").toString();
+        this.avatarId = user.getString("avatar", null);
+        this.bot = user.getBoolean("bot");
+        this.flags = user.getInt("public_flags", 0);
+        this.nickname = json.getString("nick", null);
+        this.boostDate = parseDate(json, "premium_since");
+        this.joinDate = parseDate(json, "joined_at");
+
+        DataArray roles = json.getArray("roles");
+        this.roleIds = new long[roles.length()];
+        for (int i = 0; i < roleIds.length; i++)
+            roleIds[i] = roles.getUnsignedLong(i);
+    }
+
+    public static SetupMember fromJson(DataObject json)
+    {
+        return new SetupMember(json);
+    }
+
+    private static long parseDate(DataObject json, String key)
+    {
+        if (json.isNull(key))
+            return 0;
+        return Instant.from(DateTimeFormatter.ISO_OFFSET_DATE_TIME.parse(json.getString(key))).toEpochMilli();
+    }
+
+    public long getUserId()
+    {
+        return userId;
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    public String getDiscriminator()
+    {
+        return discriminator;
+    }
+
+    public String getAvatarId()
+    {
+        return avatarId;
+    }
+
+    public boolean isBot()
+    {
+        return bot;
+    }
+
+    public int getFlags()
+    {
+        return flags;
+    }
+
+    public String getNickname()
+    {
+        return nickname;
+    }
+
+    public long getBoostDate()
+    {
+        return boostDate;
+    }
+
+    // 0 if the payload did not include the join date
+    public long getJoinDate()
+    {
+        return joinDate;
+    }
+
+    public long[] getRoleIds()
+    {
+        return roleIds;
+    }
+}
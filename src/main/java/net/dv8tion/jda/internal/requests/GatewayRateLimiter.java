@@ -0,0 +1,97 @@
+/*
+ * Copyright 2015-2020 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.internal.requests;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rate-limiter for commands sent over the gateway connection.
+ * <br>Every command uses up one of {@value #LIMIT} tokens, the token becomes available again
+ * once the command left the 60 second window. This guarantees the limit is never exceeded in any window,
+ * regardless of how the commands are spread out.
+ *
+ * <p>Commands sent by the queue may only use up to {@value #QUEUE_LIMIT} tokens, the remaining tokens
+ * are reserved for heartbeats and session handshakes.
+ */
+class GatewayRateLimiter
+{
+    static final int LIMIT = 120;
+    static final int QUEUE_LIMIT = 116; // technically we could go to 120, but we aren't going to chance it
+    private static final long WINDOW = TimeUnit.MINUTES.toNanos(1);
+
+    // Ring buffer with the send times of the commands in the current window, oldest first
+    private final long[] sent = new long[LIMIT];
+    private int head = 0;
+    private int count = 0;
+
+    /**
+     * Tries to take a token.
+     *
+     * @param  skipQueue
+     *         Whether the reserved tokens may be used
+     *
+     * @return 0 if a token was taken, otherwise the time in nanoseconds until the next token is available
+     */
+    synchronized long tryAcquire(boolean skipQueue)
+    {
+        long now = System.nanoTime();
+        long delay = getDelay(now, skipQueue ? LIMIT : QUEUE_LIMIT);
+        if (delay == 0)
+            sent[(head + count++) % LIMIT] = now;
+        return delay;
+    }
+
+    /**
+     * The time until a token is available for queued commands.
+     *
+     * @return The time in nanoseconds, 0 if a token is available right now
+     */
+    synchronized long getDelay()
+    {
+        return getDelay(System.nanoTime(), QUEUE_LIMIT);
+    }
+
+    synchronized int getRemaining()
+    {
+        expire(System.nanoTime());
+        return Math.max(0, QUEUE_LIMIT - count);
+    }
+
+    synchronized void reset()
+    {
+        head = count = 0;
+    }
+
+    private long getDelay(long now, int limit)
+    {
+        expire(now);
+        if (count < limit)
+            return 0;
+        // We have to wait until enough commands left the window to get below the limit
+        long last = sent[(head + count - limit) % LIMIT];
+        return Math.max(1, last + WINDOW - now);
+    }
+
+    private void expire(long now)
+    {
+        while (count > 0 && now - sent[head] >= WINDOW)
+        {
+            head = (head + 1) % LIMIT;
+            count--;
+        }
+    }
+}
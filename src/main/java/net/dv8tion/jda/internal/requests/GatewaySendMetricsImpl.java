@@ -0,0 +1,102 @@
+/*
+ * Copyright 2015-2020 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.internal.requests;
+
+import net.dv8tion.jda.api.utils.GatewaySendMetrics;
+import net.dv8tion.jda.internal.utils.Checks;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+public class GatewaySendMetricsImpl implements GatewaySendMetrics
+{
+    // Used while there is no client, before login and after shutdown
+    public static final GatewaySendMetrics EMPTY = new GatewaySendMetricsImpl(null);
+
+    private final WebSocketClient client;
+    private final LongAdder[] sent = new LongAdder[Priority.values().length];
+    private final LongAdder[] totalTime = new LongAdder[sent.length];
+    private final AtomicLong[] maxTime = new AtomicLong[sent.length];
+
+    public GatewaySendMetricsImpl(WebSocketClient client)
+    {
+        this.client = client;
+        for (int i = 0; i < sent.length; i++)
+        {
+            sent[i] = new LongAdder();
+            totalTime[i] = new LongAdder();
+            maxTime[i] = new AtomicLong();
+        }
+    }
+
+    public void record(Priority priority, long timeToSendNanos)
+    {
+        int index = priority.ordinal();
+        sent[index].increment();
+        totalTime[index].add(timeToSendNanos);
+        maxTime[index].accumulateAndGet(timeToSendNanos, Math::max);
+    }
+
+    @Override
+    public int getQueueSize(@Nonnull Priority priority)
+    {
+        Checks.notNull(priority, "Priority");
+        if (client == null)
+            return 0;
+        switch (priority)
+        {
+            case CHUNK:
+                return client.chunkSyncQueue.size();
+            case AUDIO:
+                return client.queuedAudioConnections.size();
+            default:
+                return client.ratelimitQueue.size();
+        }
+    }
+
+    @Override
+    public long getSentCount(@Nonnull Priority priority)
+    {
+        Checks.notNull(priority, "Priority");
+        return sent[priority.ordinal()].sum();
+    }
+
+    @Override
+    public double getAverageTimeToSend(@Nonnull Priority priority)
+    {
+        Checks.notNull(priority, "Priority");
+        long count = sent[priority.ordinal()].sum();
+        if (count == 0)
+            return 0;
+        return (double) totalTime[priority.ordinal()].sum() / count / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    @Override
+    public long getMaxTimeToSend(@Nonnull Priority priority)
+    {
+        Checks.notNull(priority, "Priority");
+        return TimeUnit.NANOSECONDS.toMillis(maxTime[priority.ordinal()].get());
+    }
+
+    @Override
+    public int getRemainingCommands()
+    {
+        return client == null ? 0 : client.rateLimiter.getRemaining();
+    }
+}
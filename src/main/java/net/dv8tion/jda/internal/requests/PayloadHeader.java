@@ -0,0 +1,182 @@
+/*
+ * Copyright 2015-2020 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.internal.requests;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import net.dv8tion.jda.api.utils.data.etf.ExTermDecoder;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * The {@code op}, {@code t} and {@code s} fields of a gateway payload.
+ * <br>These are read with a streaming parser without materializing the {@code d} body.
+ */
+public class PayloadHeader
+{
+    private static final JsonFactory factory = new JsonFactory();
+
+    private final int op;
+    private final String type;
+    private final long sequence;
+
+    public PayloadHeader(int op, @Nullable String type, long sequence)
+    {
+        this.op = op;
+        this.type = type;
+        this.sequence = sequence;
+    }
+
+    public int getOp()
+    {
+        return op;
+    }
+
+    @Nullable
+    public String getType()
+    {
+        return type;
+    }
+
+    public long getSequence()
+    {
+        return sequence;
+    }
+
+    public boolean hasSequence()
+    {
+        return sequence >= 0;
+    }
+
+    /**
+     * Reads the header of the provided JSON payload.
+     * <br>Parsing stops as soon as all three header fields are known, other fields are skipped without being materialized.
+     *
+     * @param  data
+     *         The buffer holding the JSON payload
+     * @param  offset
+     *         The offset of the payload in the buffer
+     * @param  length
+     *         The length of the payload
+     *
+     * @return The header, or null if the payload is not a JSON object or is missing an op code
+     */
+    @Nullable
+    public static PayloadHeader fromJson(byte[] data, int offset, int length)
+    {
+        int op = -1;
+        String type = null;
+        long sequence = -1;
+        boolean hasType = false, hasSequence = false;
+        try (JsonParser parser = factory.createParser(data, offset, length))
+        {
+            if (parser.nextToken() != JsonToken.START_OBJECT)
+                return null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME)
+            {
+                String name = parser.getCurrentName();
+                JsonToken token = parser.nextToken();
+                switch (name)
+                {
+                    case "op":
+                        op = parser.getIntValue();
+                        break;
+                    case "t":
+                        hasType = true;
+                        type = token == JsonToken.VALUE_NULL ? null : parser.getText();
+                        break;
+                    case "s":
+                        hasSequence = true;
+                        sequence = token == JsonToken.VALUE_NULL ? -1 : parser.getLongValue();
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+
+                if (op != -1 && hasType && hasSequence)
+                    break;
+            }
+        }
+        catch (IOException | RuntimeException ex)
+        {
+            // Let the full parse report the error
+            return null;
+        }
+        return op == -1 ? null : new PayloadHeader(op, type, sequence);
+    }
+
+    /**
+     * Reads the header of the provided ETF payload.
+     * <br>Decoding stops as soon as all three header fields are known, other fields are skipped without being materialized.
+     *
+     * @param  data
+     *         The buffer holding the ETF payload, starting with the version byte
+     * @param  offset
+     *         The offset of the payload in the buffer
+     * @param  length
+     *         The length of the payload
+     *
+     * @return The header, or null if the payload is not a map or is missing an op code
+     */
+    @Nullable
+    public static PayloadHeader fromEtf(byte[] data, int offset, int length)
+    {
+        int op = -1;
+        String type = null;
+        long sequence = -1;
+        boolean hasType = false, hasSequence = false;
+        try
+        {
+            ByteBuffer buffer = ByteBuffer.wrap(data, offset, length);
+            ExTermDecoder.readVersion(buffer);
+            int arity = ExTermDecoder.readMapHeader(buffer);
+            for (int i = 0; i < arity && (op == -1 || !hasType || !hasSequence); i++)
+            {
+                Object key = ExTermDecoder.unpackTerm(buffer);
+                if ("op".equals(key))
+                {
+                    op = ((Number) ExTermDecoder.unpackTerm(buffer)).intValue();
+                }
+                else if ("t".equals(key))
+                {
+                    hasType = true;
+                    Object value = ExTermDecoder.unpackTerm(buffer);
+                    type = value == null ? null : String.valueOf(value);
+                }
+                else if ("s".equals(key))
+                {
+                    hasSequence = true;
+                    Object value = ExTermDecoder.unpackTerm(buffer);
+                    sequence = value == null ? -1 : ((Number) value).longValue();
+                }
+                else
+                {
+                    ExTermDecoder.skipTerm(buffer);
+                }
+            }
+        }
+        catch (RuntimeException ex)
+        {
+            // Let the full decode report the error
+            return null;
+        }
+        return op == -1 ? null : new PayloadHeader(op, type, sequence);
+    }
+}
@@ -25,6 +25,7 @@ import net.dv8tion.jda.internal.requests.ratelimit.BotRateLimiter;
 import net.dv8tion.jda.internal.utils.JDALogger;
 import net.dv8tion.jda.internal.utils.config.AuthorizationConfig;
 import okhttp3.Call;
+import okhttp3.Callback;
 import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
 import okhttp3.RequestBody;
@@ -32,7 +33,9 @@ import okhttp3.internal.http.HttpMethod;
 import org.slf4j.Logger;
 import org.slf4j.MDC;
 
+import javax.annotation.Nonnull;
 import javax.net.ssl.SSLPeerUnverifiedException;
+import java.io.IOException;
 import java.io.InterruptedIOException;
 import java.net.SocketException;
 import java.net.SocketTimeoutException;
@@ -42,6 +45,8 @@ import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 public class Requester
 {
@@ -54,7 +59,7 @@ public class Requester
 
     protected final JDAImpl api;
     protected final AuthorizationConfig authConfig;
-    private final RateLimiter rateLimiter;
+    private RateLimiter rateLimiter;
 
     private final OkHttpClient httpClient;
 
@@ -150,36 +155,8 @@ public class Requester
             return retryAfter;
         }
 
-        okhttp3.Request.Builder builder = new okhttp3.Request.Builder();
-
         String url = DISCORD_API_PREFIX + route.getCompiledRoute();
-        builder.url(url);
-
-        String method = apiRequest.getRoute().getMethod().toString();
-        RequestBody body = apiRequest.getBody();
-
-        if (body == null && HttpMethod.requiresRequestBody(method))
-            body = EMPTY_BODY;
-
-        builder.method(method, body)
-                .header("X-RateLimit-Precision", "millisecond")
-                .header("user-agent", USER_AGENT)
-                .header("accept-encoding", "gzip");
-
-        //adding token to all requests to the discord api or cdn pages
-        //we can check for startsWith(DISCORD_API_PREFIX) because the cdn endpoints don't need any kind of authorization
-        if (url.startsWith(DISCORD_API_PREFIX))
-            builder.header("authorization", api.getToken());
-
-        // Apply custom headers like X-Audit-Log-Reason
-        // If customHeaders is null this does nothing
-        if (apiRequest.getHeaders() != null)
-        {
-            for (Entry<String, String> header : apiRequest.getHeaders().entrySet())
-                builder.addHeader(header.getKey(), header.getValue());
-        }
-
-        okhttp3.Request request = builder.build();
+        okhttp3.Request request = createRequest(apiRequest, url);
 
         Set<String> rays = new LinkedHashSet<>();
         okhttp3.Response[] responses = new okhttp3.Response[4];
@@ -270,6 +247,76 @@ public class Requester
         }
     }
 
+    /**
+     * Used to execute a Request without blocking the calling thread.
+     * <br>The HTTP call is enqueued with the {@link okhttp3.Dispatcher Dispatcher} of the {@link OkHttpClient},
+     * which also limits how many calls can be in flight at the same time.
+     *
+     * @param  apiRequest
+     *         The API request that needs to be sent
+     * @param  whenDone
+     *         Called exactly once when the request is done, with the same value that {@link #execute(Request)} would return
+     */
+    public void execute(Request<?> apiRequest, Consumer<? super Long> whenDone)
+    {
+        Route.CompiledRoute route = apiRequest.getRoute();
+        Long retryAfter = rateLimiter.getRateLimit(route);
+        if (retryAfter != null && retryAfter > 0)
+        {
+            whenDone.accept(retryAfter);
+            return;
+        }
+
+        String url = DISCORD_API_PREFIX + route.getCompiledRoute();
+        okhttp3.Request request;
+        try
+        {
+            request = createRequest(apiRequest, url);
+        }
+        catch (Exception e)
+        {
+            LOG.error("There was an exception while executing a REST request", e);
+            apiRequest.handleResponse(new Response(null, e, Collections.emptySet()));
+            whenDone.accept(null);
+            return;
+        }
+
+        LOG.trace("Executing request {} {}", apiRequest.getRoute().getMethod(), url);
+        new AsyncCall(apiRequest, request, whenDone).enqueue();
+    }
+
+    private okhttp3.Request createRequest(Request<?> apiRequest, String url)
+    {
+        okhttp3.Request.Builder builder = new okhttp3.Request.Builder();
+        builder.url(url);
+
+        String method = apiRequest.getRoute().getMethod().toString();
+        RequestBody body = apiRequest.getBody();
+
+        if (body == null && HttpMethod.requiresRequestBody(method))
+            body = EMPTY_BODY;
+
+        builder.method(method, body)
+                .header("X-RateLimit-Precision", "millisecond")
+                .header("user-agent", USER_AGENT)
+                .header("accept-encoding", "gzip");
+
+        //adding token to all requests to the discord api or cdn pages
+        //we can check for startsWith(DISCORD_API_PREFIX) because the cdn endpoints don't need any kind of authorization
+        if (url.startsWith(DISCORD_API_PREFIX))
+            builder.header("authorization", api.getToken());
+
+        // Apply custom headers like X-Audit-Log-Reason
+        // If customHeaders is null this does nothing
+        if (apiRequest.getHeaders() != null)
+        {
+            for (Entry<String, String> header : apiRequest.getHeaders().entrySet())
+                builder.addHeader(header.getKey(), header.getValue());
+        }
+
+        return builder.build();
+    }
+
     private void applyBody(Request<?> apiRequest, okhttp3.Request.Builder builder)
     {
         String method = apiRequest.getRoute().getMethod().toString();
@@ -311,6 +358,11 @@ public class Requester
         return rateLimiter;
     }
 
+    public void setRateLimiter(RateLimiter rateLimiter)
+    {
+        this.rateLimiter = rateLimiter;
+    }
+
     public void setRetryOnTimeout(boolean retryOnTimeout)
     {
         this.retryOnTimeout = retryOnTimeout;
@@ -326,4 +378,133 @@ public class Requester
         rateLimiter.shutdown();
     }
 
+    // Same procedure as the blocking execute, but every attempt continues in the callback of the previous one
+    private class AsyncCall implements Callback
+    {
+        private final Request<?> apiRequest;
+        private final okhttp3.Request request;
+        private final Consumer<? super Long> whenDone;
+        private final Set<String> rays = new LinkedHashSet<>();
+        private int attempt = 0;
+        private boolean retried = false;
+
+        private AsyncCall(Request<?> apiRequest, okhttp3.Request request, Consumer<? super Long> whenDone)
+        {
+            this.apiRequest = apiRequest;
+            this.request = request;
+            this.whenDone = whenDone;
+        }
+
+        private void enqueue()
+        {
+            if (apiRequest.isSkipped())
+            {
+                whenDone.accept(null);
+                return;
+            }
+            httpClient.newCall(request).enqueue(this);
+        }
+
+        private void retry(long delay)
+        {
+            try
+            {
+                api.getRateLimitPool().schedule(this::enqueue, delay, TimeUnit.MILLISECONDS);
+            }
+            catch (RejectedExecutionException e)
+            {
+                LOG.debug("Could not retry request after shutdown of the rate-limit pool");
+                whenDone.accept(null);
+            }
+        }
+
+        @Override
+        public void onResponse(@Nonnull Call call, @Nonnull okhttp3.Response lastResponse)
+        {
+            setContext();
+            Long retryAfter = null;
+            boolean done = true;
+            try
+            {
+                String cfRay = lastResponse.header("CF-RAY");
+                if (cfRay != null)
+                    rays.add(cfRay);
+
+                if (lastResponse.code() >= 500 && attempt < 3)
+                {
+                    attempt++;
+                    LOG.debug("Requesting {} -> {} returned status {}... retrying (attempt {})",
+                            apiRequest.getRoute().getMethod(),
+                            request.url(), lastResponse.code(), attempt);
+                    done = false;
+                    retry(50 * attempt);
+                    return;
+                }
+
+                LOG.trace("Finished Request {} {} with code {}", apiRequest.getRoute().getMethod(), lastResponse.request().url(), lastResponse.code());
+
+                if (lastResponse.code() >= 500)
+                {
+                    //Epic failure from other end. Attempted 4 times.
+                    Response response = new Response(lastResponse, -1, rays);
+                    apiRequest.handleResponse(response);
+                }
+                else
+                {
+                    retryAfter = rateLimiter.handleResponse(apiRequest.getRoute(), lastResponse);
+                    if (!rays.isEmpty())
+                        LOG.debug("Received response with following cf-rays: {}", rays);
+
+                    if (retryAfter == null)
+                        apiRequest.handleResponse(new Response(lastResponse, -1, rays));
+                }
+            }
+            catch (Exception e)
+            {
+                LOG.error("There was an exception while executing a REST request", e);
+                apiRequest.handleResponse(new Response(lastResponse, e, rays));
+            }
+            finally
+            {
+                lastResponse.close();
+                // The bucket waits for this, even if a callback failed
+                if (done)
+                    whenDone.accept(retryAfter);
+            }
+        }
+
+        @Override
+        public void onFailure(@Nonnull Call call, @Nonnull IOException e)
+        {
+            setContext();
+            if (retryOnTimeout && !retried && isRetry(e))
+            {
+                retried = true;
+                enqueue();
+                return;
+            }
+
+            try
+            {
+                if (e instanceof SocketTimeoutException)
+                {
+                    LOG.error("Requester timed out while executing a request", e);
+                    apiRequest.handleResponse(new Response(null, e, rays));
+                }
+                else if (e instanceof InterruptedIOException)
+                {
+                    LOG.warn("Got interrupted while executing request", e);
+                }
+                else
+                {
+                    LOG.error("There was an exception while executing a REST request", e); //This originally only printed on DEBUG in 2.x
+                    apiRequest.handleResponse(new Response(null, e, rays));
+                }
+            }
+            finally
+            {
+                whenDone.accept(null);
+            }
+        }
+    }
 }
@@ -32,6 +32,9 @@ import net.dv8tion.jda.api.exceptions.ParsingException;
 import net.dv8tion.jda.api.managers.AudioManager;
 import net.dv8tion.jda.api.requests.CloseCode;
 import net.dv8tion.jda.api.utils.Compression;
+import net.dv8tion.jda.api.utils.DecompressionBufferPool;
+import net.dv8tion.jda.api.utils.GatewayEncoding;
+import net.dv8tion.jda.api.utils.GatewaySendMetrics;
 import net.dv8tion.jda.api.utils.MiscUtil;
 import net.dv8tion.jda.api.utils.SessionController;
 import net.dv8tion.jda.api.utils.data.DataArray;
@@ -49,22 +52,24 @@ import net.dv8tion.jda.internal.utils.JDALogger;
 import net.dv8tion.jda.internal.utils.UnlockHook;
 import net.dv8tion.jda.internal.utils.cache.AbstractCacheView;
 import net.dv8tion.jda.internal.utils.compress.Decompressor;
+import net.dv8tion.jda.internal.utils.compress.PooledZlibDecompressor;
 import net.dv8tion.jda.internal.utils.compress.ZlibDecompressor;
 import org.slf4j.Logger;
 import org.slf4j.MDC;
 
 import javax.annotation.Nonnull;
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.lang.ref.SoftReference;
 import java.net.Socket;
 import java.net.SocketException;
 import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.time.OffsetDateTime;
 import java.util.*;
 import java.util.concurrent.*;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -78,12 +83,16 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
     public static final int ZLIB_SUFFIX = 0x0000FFFF;
 
     protected static final String INVALIDATE_REASON = "INVALIDATE_SESSION";
+    // These dispatches drive the session lifecycle and the guild setup, they cannot be discarded by the dispatch filter
+    protected static final Set<String> LIFECYCLE_DISPATCHES = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            "READY", "RESUMED", "GUILD_CREATE", "GUILD_DELETE", "GUILD_MEMBERS_CHUNK")));
     protected static final long IDENTIFY_BACKOFF = TimeUnit.SECONDS.toMillis(SessionController.IDENTIFY_DELAY); // same as 1000 * IDENTIFY_DELAY
 
     protected final JDAImpl api;
     protected final JDA.ShardInfo shardInfo;
     protected final Map<String, SocketHandler> handlers = new HashMap<>();
     protected final Compression compression;
+    protected final GatewayEncoding encoding;
     protected final int gatewayIntents;
     protected final MemberChunkManager chunkManager;
 
@@ -94,7 +103,7 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
 
     protected final ReentrantLock queueLock = new ReentrantLock();
     protected final ScheduledExecutorService executor;
-    protected WebSocketSendingThread ratelimitThread;
+    protected volatile WebSocketSendingThread ratelimitThread;
     protected volatile Future<?> keepAliveThread;
 
     protected boolean initiating;
@@ -105,11 +114,11 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
     protected long identifyTime = 0;
 
     protected final TLongObjectMap<ConnectionRequest> queuedAudioConnections = MiscUtil.newLongMap();
-    protected final Queue<DataObject> chunkSyncQueue = new ConcurrentLinkedQueue<>();
-    protected final Queue<String> ratelimitQueue = new ConcurrentLinkedQueue<>();
+    protected final Queue<QueuedPayload> chunkSyncQueue = new ConcurrentLinkedQueue<>();
+    protected final Queue<QueuedPayload> ratelimitQueue = new ConcurrentLinkedQueue<>();
 
-    protected volatile long ratelimitResetTime;
-    protected final AtomicInteger messagesSent = new AtomicInteger(0);
+    protected final GatewayRateLimiter rateLimiter = new GatewayRateLimiter();
+    protected final GatewaySendMetricsImpl sendMetrics = new GatewaySendMetricsImpl(this);
 
     protected volatile boolean shutdown = false;
     protected boolean shouldReconnect;
@@ -123,12 +132,13 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
 
     protected volatile ConnectNode connectNode;
 
-    public WebSocketClient(JDAImpl api, Compression compression, int gatewayIntents)
+    public WebSocketClient(JDAImpl api, Compression compression, int gatewayIntents, GatewayEncoding encoding)
     {
         this.api = api;
         this.executor = api.getGatewayPool();
         this.shardInfo = api.getShardInfo();
         this.compression = compression;
+        this.encoding = encoding;
         this.gatewayIntents = gatewayIntents;
         this.chunkManager = new MemberChunkManager(this);
         this.shouldReconnect = api.isAutoReconnect();
@@ -227,40 +237,41 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
 
     public void send(String message)
     {
-        locked("Interrupted while trying to add request to queue", () -> ratelimitQueue.add(message));
+        send(DataObject.fromJson(message));
+    }
+
+    public void send(DataObject message)
+    {
+        locked("Interrupted while trying to add request to queue", () -> ratelimitQueue.add(new QueuedPayload(message)));
+        wakeSendingThread();
     }
 
     public void cancelChunkRequest(String nonce)
     {
         locked("Interrupted while trying to cancel chunk request",
-            () -> chunkSyncQueue.removeIf(it -> it.getString("nonce", "").equals(nonce)));
+            () -> chunkSyncQueue.removeIf(it -> it.getPayload().getString("nonce", "").equals(nonce)));
     }
 
     public void sendChunkRequest(DataObject request)
     {
-        locked("Interrupted while trying to add chunk request", () -> chunkSyncQueue.add(request));
+        locked("Interrupted while trying to add chunk request", () -> chunkSyncQueue.add(new QueuedPayload(request)));
+        wakeSendingThread();
     }
 
-    protected boolean send(String message, boolean skipQueue)
+    protected boolean send(DataObject message, boolean skipQueue)
     {
         if (!connected)
             return false;
 
-        long now = System.currentTimeMillis();
-
-        if (this.ratelimitResetTime <= now)
-        {
-            this.messagesSent.set(0);
-            this.ratelimitResetTime = now + 60000;//60 seconds
-            this.printedRateLimitMessage = false;
-        }
-
-        //Allows 115 messages to be sent before limiting.
-        if (this.messagesSent.get() <= 115 || (skipQueue && this.messagesSent.get() <= 119))   //technically we could go to 120, but we aren't going to chance it
+        //Queued messages leave a few commands for heartbeats and the session handshake
+        if (rateLimiter.tryAcquire(skipQueue) == 0)
         {
             LOG.trace("<- {}", message);
-            socket.sendText(message);
-            this.messagesSent.getAndIncrement();
+            if (encoding == GatewayEncoding.ETF)
+                socket.sendBinary(message.toETF());
+            else
+                socket.sendText(message.toString());
+            this.printedRateLimitMessage = false;
             return true;
         }
         else
@@ -281,6 +292,19 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
         ratelimitThread.start();
     }
 
+    protected void wakeSendingThread()
+    {
+        WebSocketSendingThread thread = ratelimitThread;
+        if (thread != null)
+            thread.wake();
+    }
+
+    @Nonnull
+    public GatewaySendMetrics getSendMetrics()
+    {
+        return sendMetrics;
+    }
+
     private void prepareClose()
     {
         try
@@ -337,7 +361,7 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
             throw new RejectedExecutionException("JDA is shutdown!");
         initiating = true;
 
-        String url = api.getGatewayUrl() + "?encoding=json&v=" + JDAInfo.DISCORD_GATEWAY_VERSION;
+        String url = api.getGatewayUrl() + "?encoding=" + encoding.getKey() + "&v=" + JDAInfo.DISCORD_GATEWAY_VERSION;
         if (compression != Compression.NONE)
         {
             url += "&compress=" + compression.getKey();
@@ -345,7 +369,10 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
             {
                 case ZLIB:
                     if (decompressor == null || decompressor.getType() != Compression.ZLIB)
-                        decompressor = new ZlibDecompressor(api.getMaxBufferSize());
+                    {
+                        DecompressionBufferPool pool = api.getDecompressionPool();
+                        decompressor = pool == null ? new ZlibDecompressor(api.getMaxBufferSize()) : new PooledZlibDecompressor(pool);
+                    }
                     break;
                 default:
                     throw new IllegalStateException("Unknown compression");
@@ -404,8 +431,7 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
         }
         connected = true;
         //reconnectTimeoutS = 2; We will reset this when the session was started successfully (ready/resume)
-        messagesSent.set(0);
-        ratelimitResetTime = System.currentTimeMillis() + 60000;
+        rateLimiter.reset();
         if (sessionId == null)
             sendIdentify();
         else
@@ -666,11 +692,11 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
 
     protected void sendKeepAlive()
     {
-        String keepAlivePacket =
+        DataObject keepAlivePacket =
                 DataObject.empty()
                     .put("op", WebSocketCode.HEARTBEAT)
                     .put("d", api.getResponseTotal()
-                ).toString();
+                );
 
         if (missedHeartbeats >= 2)
         {
@@ -718,10 +744,11 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
                     .add(shardInfo.getShardId())
                     .add(shardInfo.getShardTotal()));
         }
-        send(identify.toString(), true);
+        send(identify, true);
         handleIdentifyRateLimit = true;
         identifyTime = System.currentTimeMillis();
         sentAuthInfo = true;
+        wakeSendingThread();
         api.setStatus(JDA.Status.AWAITING_LOGIN_CONFIRMATION);
     }
 
@@ -734,7 +761,7 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
                 .put("session_id", sessionId)
                 .put("token", getToken())
                 .put("seq", api.getResponseTotal()));
-        send(resume.toString(), true);
+        send(resume, true);
         //sentAuthInfo = true; set on RESUMED response as this could fail
         api.setStatus(JDA.Status.AWAITING_LOGIN_CONFIRMATION);
     }
@@ -756,6 +783,8 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
         api.getFakeUserMap().clear();
         api.getFakePrivateChannelMap().clear();
         api.getEventCache().clear();
+        if (api.getMessageCache() != null)
+            api.getMessageCache().clear();
         api.getGuildSetupController().clearCache();
         chunkManager.clear();
     }
@@ -880,6 +909,14 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
     }
 
     protected void onDispatch(DataObject raw)
+    {
+        synchronized (api.getGuildSetupController().getDispatchLock())
+        {
+            handleDispatch(raw);
+        }
+    }
+
+    protected void handleDispatch(DataObject raw)
     {
         String type = raw.getString("t");
         long responseTotal = api.getResponseTotal();
@@ -927,10 +964,13 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
                     // otherwise the audio connection requests that are currently pending might be removed in the process
                     handlers.get("READY").handle(responseTotal, raw);
                     sessionId = content.getString("session_id");
+                    // pending audio connections can be handled now
+                    wakeSendingThread();
                     break;
                 case "RESUMED":
                     reconnectTimeoutS = 2;
                     sentAuthInfo = true;
+                    wakeSendingThread();
                     if (!processingReady)
                     {
                         initiating = false;
@@ -949,6 +989,13 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
                         LOG.debug("Ignoring {} for unavailable guild with id {}. JSON: {}", type, guildId, content);
                         break;
                     }
+                    // Guilds built on the setup pool are still locked, all their events are handled once they are available
+                    long setupId = guildId == 0 && type.startsWith("GUILD_") ? content.getUnsignedLong("id", 0L) : guildId;
+                    if (api.getGuildSetupPool() != null && api.getGuildSetupController().isBuilding(setupId))
+                    {
+                        api.getGuildSetupController().cacheEvent(setupId, raw);
+                        break;
+                    }
                     SocketHandler handler = handlers.get(type);
                     if (handler != null)
                         handler.handle(responseTotal, raw);
@@ -973,10 +1020,34 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
             jda.getEventCache().timeout(responseTotal);
     }
 
+    protected boolean isDiscarded(byte[] data, int offset, int length)
+    {
+        if (!api.isDispatchFiltered())
+            return false;
+        PayloadHeader header = encoding == GatewayEncoding.ETF
+                ? PayloadHeader.fromEtf(data, offset, length)
+                : PayloadHeader.fromJson(data, offset, length);
+        if (header == null || header.getOp() != WebSocketCode.DISPATCH)
+            return false;
+        String type = header.getType();
+        if (type == null || LIFECYCLE_DISPATCHES.contains(type) || api.handleDispatch(type))
+            return false;
+
+        // The sequence still has to advance, otherwise we would resume from an outdated position
+        if (header.hasSequence())
+            api.setResponseTotal((int) header.getSequence());
+        LOG.trace("Discarding {} dispatch due to dispatch filter", type);
+        long responseTotal = api.getResponseTotal();
+        if (responseTotal % EventCache.TIMEOUT_AMOUNT == 0)
+            api.getEventCache().timeout(responseTotal);
+        return true;
+    }
+
     @Override
     public void onTextMessage(WebSocket websocket, byte[] data)
     {
-        handleEvent(DataObject.fromJson(data));
+        if (!isDiscarded(data, 0, data.length))
+            handleEvent(DataObject.fromJson(data));
     }
 
     @Override
@@ -994,36 +1065,56 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
 
     protected DataObject handleBinary(byte[] binary) throws DataFormatException
     {
+        ByteBuffer data;
         if (decompressor == null)
-            throw new IllegalStateException("Cannot decompress binary message due to unknown compression algorithm: " + compression);
-        // Scoping allows us to print the json that possibly failed parsing
-        byte[] jsonData;
-        try
         {
-            jsonData = decompressor.decompress(binary);
-            if (jsonData == null)
-                return null;
+            // Without compression we only receive binary messages for the ETF encoding
+            if (encoding != GatewayEncoding.ETF)
+                throw new IllegalStateException("Cannot decompress binary message due to unknown compression algorithm: " + compression);
+            data = ByteBuffer.wrap(binary);
         }
-        catch (DataFormatException e)
+        else
         {
-            close(4900, "MALFORMED_PACKAGE");
-            throw e;
+            try
+            {
+                // This buffer is owned by the decompressor and only valid until the next call
+                data = decompressor.decompressBuffer(binary);
+                if (data == null)
+                    return null;
+            }
+            catch (DataFormatException e)
+            {
+                close(4900, "MALFORMED_PACKAGE");
+                throw e;
+            }
         }
 
+        // Scoping allows us to print the payload that possibly failed parsing
+        byte[] array = data.array();
+        int offset = data.arrayOffset() + data.position();
+        int length = data.remaining();
+        if (isDiscarded(array, offset, length))
+            return null;
         try
         {
-            return DataObject.fromJson(jsonData);
+            // Parse directly from the decompression buffer instead of copying the payload first
+            if (encoding == GatewayEncoding.ETF)
+                return DataObject.fromETF(ByteBuffer.wrap(array, offset, length));
+            return DataObject.fromJson(new ByteArrayInputStream(array, offset, length));
         }
         catch (ParsingException e)
         {
-            String jsonString = "malformed";
+            String payload = "malformed";
             try
             {
-                jsonString = new String(jsonData, StandardCharsets.UTF_8);
+                if (encoding == GatewayEncoding.ETF)
+                    payload = Arrays.toString(Arrays.copyOfRange(array, offset, offset + length));
+                else
+                    payload = new String(array, offset, length, StandardCharsets.UTF_8);
             }
             catch (Exception ignored) {}
-            // Print the string that could not be parsed and re-throw the exception
-            LOG.error("Failed to parse json: {}", jsonString);
+            // Print the payload that could not be parsed and re-throw the exception
+            LOG.error("Failed to parse {}: {}", encoding == GatewayEncoding.ETF ? "etf" : "json", payload);
             throw e;
         }
     }
@@ -1131,6 +1222,7 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
             // in all cases, update to this channel
             request.setChannel(channel);
         });
+        wakeSendingThread();
     }
 
     public void queueAudioConnect(VoiceChannel channel)
@@ -1155,6 +1247,7 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
             // in all cases, update to this channel
             request.setChannel(channel);
         });
+        wakeSendingThread();
     }
 
     public void queueAudioDisconnect(Guild guild)
@@ -1175,6 +1268,7 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
                 request.setStage(ConnectionStage.DISCONNECT);
             }
         });
+        wakeSendingThread();
     }
 
     public ConnectionRequest removeAudioConnection(long guildId)
@@ -1213,6 +1307,7 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
                 case RECONNECT:
                     request.setStage(ConnectionStage.CONNECT);
                     request.setNextAttemptEpoch(System.currentTimeMillis());
+                    wakeSendingThread();
                 default:
                     return null;
             }
@@ -1461,4 +1556,25 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
             return node.getJDA().equals(getJDA());
         }
     }
+
+    protected static class QueuedPayload
+    {
+        private final DataObject payload;
+        private final long queueTime = System.nanoTime();
+
+        protected QueuedPayload(DataObject payload)
+        {
+            this.payload = payload;
+        }
+
+        public DataObject getPayload()
+        {
+            return payload;
+        }
+
+        public long getQueueTime()
+        {
+            return queueTime;
+        }
+    }
 }
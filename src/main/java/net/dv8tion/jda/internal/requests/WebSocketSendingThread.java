@@ -20,6 +20,7 @@ import gnu.trove.map.TLongObjectMap;
 import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.entities.GuildVoiceState;
 import net.dv8tion.jda.api.managers.AudioManager;
+import net.dv8tion.jda.api.utils.GatewaySendMetrics.Priority;
 import net.dv8tion.jda.api.utils.data.DataObject;
 import net.dv8tion.jda.internal.JDAImpl;
 import net.dv8tion.jda.internal.audio.ConnectionRequest;
@@ -34,22 +35,32 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
 
 //Helper class delegated to WebSocketClient
+// This only runs when it is woken up by a new request or when the rate-limit allows sending the next request
 class WebSocketSendingThread implements Runnable
 {
     private static final Logger LOG = WebSocketClient.LOG;
+    private static final long NONE = Long.MAX_VALUE;
+    private static final long RETRY_DELAY = TimeUnit.MILLISECONDS.toNanos(500);
+    private static final int MAX_BATCH = 10;
 
     private final WebSocketClient client;
     private final JDAImpl api;
     private final ReentrantLock queueLock;
-    private final Queue<DataObject> chunkQueue;
-    private final Queue<String> ratelimitQueue;
+    private final Queue<WebSocketClient.QueuedPayload> chunkQueue;
+    private final Queue<WebSocketClient.QueuedPayload> ratelimitQueue;
     private final TLongObjectMap<ConnectionRequest> queuedAudioConnections;
+    private final GatewayRateLimiter rateLimiter;
+    private final GatewaySendMetricsImpl metrics;
     private final ScheduledExecutorService executor;
+
+    // Guarded by this
     private Future<?> handle;
+    private long deadline = NONE;
+    private boolean running = false;
+    private volatile boolean shutdown = false;
 
     private boolean needRateLimit = false;
     private boolean attemptedToSend = false;
-    private boolean shutdown = false;
 
     WebSocketSendingThread(WebSocketClient client)
     {
@@ -59,58 +70,121 @@ class WebSocketSendingThread implements Runnable
         this.chunkQueue = client.chunkSyncQueue;
         this.ratelimitQueue = client.ratelimitQueue;
         this.queuedAudioConnections = client.queuedAudioConnections;
+        this.rateLimiter = client.rateLimiter;
+        this.metrics = client.sendMetrics;
         this.executor = client.executor;
     }
 
-    public void shutdown()
+    public synchronized void shutdown()
     {
         shutdown = true;
+        deadline = NONE;
         if (handle != null)
             handle.cancel(false);
+        handle = null;
     }
 
     public void start()
     {
         shutdown = false;
-        handle = executor.submit(this);
+        wake();
     }
 
-    private void scheduleIdle()
+    public void wake()
     {
-        if (shutdown)
-            return;
-        handle = executor.schedule(this, 500, TimeUnit.MILLISECONDS);
+        schedule(0);
     }
 
-    private void scheduleSentMessage()
+    private synchronized void schedule(long delayNanos)
     {
-        if (shutdown)
+        if (shutdown || delayNanos == NONE)
             return;
-        handle = executor.schedule(this, 10, TimeUnit.MILLISECONDS);
+        long time = System.nanoTime() + delayNanos;
+        if (deadline != NONE && deadline - time <= 0)
+            return; // we already run before that
+        deadline = time;
+        if (running)
+            return; // rescheduled once the current run is done
+        if (handle != null)
+            handle.cancel(false);
+        try
+        {
+            handle = executor.schedule(this, delayNanos, TimeUnit.NANOSECONDS);
+        }
+        catch (RejectedExecutionException ex)
+        {
+            LOG.error("Was unable to schedule next packet due to rejected execution by threadpool", ex);
+        }
     }
 
-    private void scheduleRateLimit()
+    @Override
+    public void run()
     {
-        if (shutdown)
-            return;
-        handle = executor.schedule(this, 1, TimeUnit.MINUTES);
+        synchronized (this)
+        {
+            if (shutdown)
+                return;
+            if (running)
+            {
+                // A cancelled run might have already started, let the current run continue instead
+                deadline = System.nanoTime();
+                return;
+            }
+            running = true;
+            deadline = NONE;
+            handle = null;
+        }
+
+        long delay = NONE;
+        try
+        {
+            api.setContext();
+            delay = process();
+        }
+        finally
+        {
+            long requested;
+            synchronized (this)
+            {
+                running = false;
+                requested = deadline;
+                deadline = NONE;
+            }
+            // Someone woke us up while we were busy
+            if (requested != NONE)
+                delay = Math.min(delay, Math.max(0, requested - System.nanoTime()));
+            schedule(delay);
+        }
     }
 
-    @Override
-    public void run()
+    // returns the time until the next run, or NONE if we should wait to be woken up
+    private long process()
     {
         //Make sure that we don't send any packets before sending auth info.
-        if (!client.sentAuthInfo)
+        // We are woken up once the session is authenticated
+        if (!client.connected || !client.sentAuthInfo)
+            return NONE;
+
+        for (int i = 0; i < MAX_BATCH; i++)
         {
-            scheduleIdle();
-            return;
+            long delay = rateLimiter.getDelay();
+            if (delay > 0)
+                return hasRequests() ? delay : NONE;
+            delay = sendNext();
+            if (delay != 0)
+                return delay;
         }
+        // Don't block the gateway pool for too long, we continue right away
+        return 0;
+    }
 
+    // returns 0 if a request was sent, otherwise the time until the next request can be sent
+    private long sendNext()
+    {
         ConnectionRequest audioRequest = null;
-        DataObject chunkRequest = null;
+        WebSocketClient.QueuedPayload chunkRequest = null;
         try
         {
-            api.setContext();
             attemptedToSend = false;
             needRateLimit = false;
             // We do this outside of the lock because otherwise we could potentially deadlock here
@@ -122,13 +196,13 @@ class WebSocketSendingThread implements Runnable
                 handleChunkSync(chunkRequest);
             else if (audioRequest != null)
                 handleAudioRequest(audioRequest);
-            else
-                handleNormalRequest();
+            else if (!handleNormalRequest())
+                return getNextAudioDelay();
         }
         catch (InterruptedException ignored)
         {
             LOG.debug("Main WS send thread interrupted. Most likely JDA is disconnecting the websocket.");
-            return;
+            return NONE;
         }
         catch (Throwable ex)
         {
@@ -147,6 +221,7 @@ class WebSocketSendingThread implements Runnable
             // Rethrow if error to kill thread
             if (ex instanceof Error)
                 throw (Error) ex;
+            return RETRY_DELAY;
         }
         finally
         {
@@ -154,38 +229,47 @@ class WebSocketSendingThread implements Runnable
             client.maybeUnlock();
         }
 
-        scheduleNext();
+        if (!needRateLimit)
+            return 0;
+        // We are woken up again once we reconnect
+        if (!client.connected)
+            return NONE;
+        return Math.max(1, rateLimiter.getDelay());
     }
 
-    private void scheduleNext()
+    private boolean hasRequests()
     {
-        try
-        {
-            if (needRateLimit)
-                scheduleRateLimit();
-            else if (!attemptedToSend)
-                scheduleIdle();
-            else
-                scheduleSentMessage();
-        }
-        catch (RejectedExecutionException ex)
-        {
-            LOG.error("Was unable to schedule next packet due to rejected execution by threadpool", ex);
-        }
+        return !chunkQueue.isEmpty() || !ratelimitQueue.isEmpty() || !queuedAudioConnections.isEmpty();
+    }
+
+    // Called with the queue lock
+    private long getNextAudioDelay()
+    {
+        //Audio connections are only handled once the session is ready, we are woken up on READY
+        if (client.sessionId == null || queuedAudioConnections.isEmpty())
+            return NONE;
+        long nextAttempt = Long.MAX_VALUE;
+        for (ConnectionRequest request : queuedAudioConnections.valueCollection())
+            nextAttempt = Math.min(nextAttempt, request.getNextAttemptEpoch());
+        long delay = nextAttempt - System.currentTimeMillis();
+        // Requests that are already due are waiting for their guild to finish loading
+        return delay > 0 ? TimeUnit.MILLISECONDS.toNanos(delay) : RETRY_DELAY;
     }
 
-    private void handleChunkSync(DataObject chunkOrSyncRequest)
+    private void handleChunkSync(WebSocketClient.QueuedPayload chunkOrSyncRequest)
     {
-        LOG.debug("Sending chunk/sync request {}", chunkOrSyncRequest);
+        LOG.debug("Sending chunk/sync request {}", chunkOrSyncRequest.getPayload());
         boolean success = send(
             DataObject.empty()
                 .put("op", WebSocketCode.MEMBER_CHUNK_REQUEST)
-                .put("d", chunkOrSyncRequest)
-                .toString()
+                .put("d", chunkOrSyncRequest.getPayload())
         );
 
         if (success)
+        {
             chunkQueue.remove();
+            metrics.record(Priority.CHUNK, System.nanoTime() - chunkOrSyncRequest.getQueueTime());
+        }
     }
 
     private void handleAudioRequest(ConnectionRequest audioRequest)
@@ -214,12 +298,18 @@ class WebSocketSendingThread implements Runnable
                 packet = newVoiceOpen(audioManager, channelId, guild.getIdLong());
         }
         LOG.debug("Sending voice request {}", packet);
-        if (send(packet.toString()))
+        if (send(packet))
         {
             //If we didn't get RateLimited, Next request attempt will be 2 seconds from now
             // we remove it in VoiceStateUpdateHandler once we hear that it has updated our status
             // in 2 seconds we will attempt again in case we did not receive an update
             audioRequest.setNextAttemptEpoch(System.currentTimeMillis() + 2000);
+            //Retries are not counted as new requests
+            if (audioRequest.getQueueTime() != 0)
+            {
+                metrics.record(Priority.AUDIO, System.nanoTime() - audioRequest.getQueueTime());
+                audioRequest.setQueueTime(0);
+            }
             //If we are already in the correct state according to voice state
             // we will not receive a VOICE_STATE_UPDATE that would remove it
             // thus we update it here
@@ -228,19 +318,22 @@ class WebSocketSendingThread implements Runnable
         }
     }
 
-    private void handleNormalRequest()
+    private boolean handleNormalRequest()
     {
-        String message = ratelimitQueue.peek();
-        if (message != null)
+        WebSocketClient.QueuedPayload message = ratelimitQueue.peek();
+        if (message == null)
+            return false;
+        LOG.debug("Sending normal message {}", message.getPayload());
+        if (send(message.getPayload()))
         {
-            LOG.debug("Sending normal message {}", message);
-            if (send(message))
-                ratelimitQueue.remove();
+            ratelimitQueue.remove();
+            metrics.record(Priority.NORMAL, System.nanoTime() - message.getQueueTime());
         }
+        return true;
     }
 
     //returns true if send was successful
-    private boolean send(String request)
+    private boolean send(DataObject request)
     {
         needRateLimit = !client.send(request, false);
         attemptedToSend = true;
@@ -18,6 +18,8 @@ package net.dv8tion.jda.internal.requests.ratelimit;
 
 import net.dv8tion.jda.api.requests.Request;
 import net.dv8tion.jda.api.utils.MiscUtil;
+import net.dv8tion.jda.api.utils.RateLimitBackend;
+import net.dv8tion.jda.api.utils.SessionController;
 import net.dv8tion.jda.internal.requests.RateLimiter;
 import net.dv8tion.jda.internal.requests.Requester;
 import net.dv8tion.jda.internal.requests.Route;
@@ -28,6 +30,7 @@ import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
 
 /*
 
@@ -64,6 +67,24 @@ This will send 100 messages on startup. At this point we don't yet know the hash
 The bucket iterates the requests in sync and gets the first response. This response provides the hash for this route and we create a bucket for it.
 Once the response is handled we continue with the next request in the unlimited bucket and notice the new bucket. We then move all related requests to this bucket.
 
+** How is it synchronized? **
+
+There is no lock shared between buckets. Hashes and buckets are stored in concurrent maps and buckets are created atomically.
+Each bucket has its own lock which guards its rate limit state and the handoff between the bucket worker and new requests.
+This way requests for different buckets never contend with each other.
+
+** Who executes the requests? **
+
+Each request is executed by the Requester of the JDA instance that created it. By default every Requester has its own BotRateLimiter,
+the SharedRateLimiter subclass instead serves the Requesters of all shards of a ShardManager with a single bucket table.
+
+** Where is the state stored? **
+
+The rate limit state of a bucket is stored in the bucket itself, and the global rate limit in the SessionController.
+If a RateLimitBackend is configured, the bucket workers reserve each request in the backend before executing it and the global rate limit
+is stored in the backend instead. This allows multiple processes to share their rate limits. The local state of the bucket is still updated
+and used for the rate limit checks of the Requester. Unlimited buckets never use the backend.
+
  */
 public class BotRateLimiter extends RateLimiter
 {
@@ -76,7 +97,6 @@ public class BotRateLimiter extends RateLimiter
     private static final String RETRY_AFTER_HEADER = "Retry-After";
     private static final String UNLIMITED_BUCKET = "unlimited"; // we generate an unlimited bucket for every major parameter configuration
 
-    private final ReentrantLock bucketLock = new ReentrantLock();
     // Route -> Should we print warning for 429? AKA did we already hit it once before
     private final Set<Route> hitRatelimit = ConcurrentHashMap.newKeySet(5);
     // Route -> Hash
@@ -98,64 +118,129 @@ public class BotRateLimiter extends RateLimiter
         cleanupWorker = getScheduler().scheduleAtFixedRate(this::cleanup, 30, 30, TimeUnit.SECONDS);
     }
 
-    private ScheduledExecutorService getScheduler()
+    protected ScheduledExecutorService getScheduler()
     {
         return requester.getJDA().getRateLimitPool();
     }
 
+    protected SessionController getSessionController()
+    {
+        return requester.getJDA().getSessionController();
+    }
+
+    protected RateLimitBackend getBackend()
+    {
+        return requester.getJDA().getRateLimitBackend();
+    }
+
+    protected boolean isRelativeRateLimit()
+    {
+        return requester.getJDA().isRelativeRateLimit();
+    }
+
+    protected boolean isAsyncRequests()
+    {
+        return requester.getJDA().isAsyncRequests();
+    }
+
+    protected Requester getRequester(Request<?> request)
+    {
+        return requester;
+    }
+
+    // Called by the bucket workers every time they go idle
+    protected void onBackoff()
+    {
+        if (isStopped && isIdle())
+            requester.getJDA().shutdownRequester();
+    }
+
+    protected boolean isIdle()
+    {
+        return buckets.isEmpty();
+    }
+
+    // Includes the requests which are currently executed by a bucket worker
+    protected boolean hasRequests(Predicate<Request<?>> filter)
+    {
+        for (Bucket bucket : buckets.values())
+        {
+            Request<?> running = bucket.running;
+            if (running != null && filter.test(running))
+                return true;
+            for (Request<?> request : bucket.getRequests())
+            {
+                if (filter.test(request))
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    // Removes the requests without notifying their callbacks
+    protected void dropRequests(Predicate<Request<?>> filter)
+    {
+        buckets.values().forEach(bucket -> bucket.getRequests().removeIf(request -> filter.test(request)));
+    }
+
     @Override
     public int cancelRequests()
     {
-        return MiscUtil.locked(bucketLock, () -> {
-            // Empty buckets will be removed by the cleanup worker, which also checks for rate limit parameters
-            AtomicInteger count = new AtomicInteger(0);
-            buckets.values()
-                .stream()
-                .map(Bucket::getRequests)
-                .flatMap(Collection::stream)
-                .filter(request -> !request.isPriority() && !request.isCancelled())
-                .forEach(request -> {
-                    request.cancel();
-                    count.incrementAndGet();
-                });
+        return cancelRequests(request -> true);
+    }
 
-            int cancelled = count.get();
-            if (cancelled == 1)
-                RateLimiter.log.warn("Cancelled 1 request!");
-            else if (cancelled > 1)
-                RateLimiter.log.warn("Cancelled {} requests!", cancelled);
-            return cancelled;
-        });
+    protected int cancelRequests(Predicate<Request<?>> filter)
+    {
+        // Empty buckets will be removed by the cleanup worker, which also checks for rate limit parameters
+        AtomicInteger count = new AtomicInteger(0);
+        buckets.values()
+            .stream()
+            .map(Bucket::getRequests)
+            .flatMap(Collection::stream)
+            .filter(request -> !request.isPriority() && !request.isCancelled())
+            .filter(request -> filter.test(request))
+            .forEach(request -> {
+                request.cancel();
+                count.incrementAndGet();
+            });
+
+        int cancelled = count.get();
+        if (cancelled == 1)
+            RateLimiter.log.warn("Cancelled 1 request!");
+        else if (cancelled > 1)
+            RateLimiter.log.warn("Cancelled {} requests!", cancelled);
+        return cancelled;
     }
 
     private void cleanup()
     {
         // This will remove buckets that are no longer needed every 30 seconds to avoid memory leakage
         // We will keep the hashes in memory since they are very limited (by the amount of possible routes)
-        MiscUtil.locked(bucketLock, () -> {
-            int size = buckets.size();
-            Iterator<Map.Entry<String, Bucket>> entries = buckets.entrySet().iterator();
+        int size = buckets.size();
+        // This only removes the entry if it still maps to the same bucket
+        buckets.values().removeIf(Bucket::expire);
+        // Log how many buckets were removed
+        size -= buckets.size();
+        if (size > 0)
+            log.debug("Removed {} expired buckets", size);
+        RateLimitBackend backend = getBackend();
+        if (backend != null)
+            backend.cleanup();
+    }
 
-            while (entries.hasNext())
-            {
-                Map.Entry<String, Bucket> entry = entries.next();
-                String key = entry.getKey();
-                Bucket bucket = entry.getValue();
-                // Remove cancelled requests
-                bucket.requests.removeIf(Request::isSkipped);
+    private long getGlobalRateLimit()
+    {
+        RateLimitBackend backend = getBackend();
+        return backend == null ? getSessionController().getGlobalRatelimit() : backend.getGlobalRateLimit();
+    }
 
-                // Check if the bucket is empty
-                if (bucket.isUnlimited() && bucket.requests.isEmpty())
-                    entries.remove(); // remove unlimited if requests are empty
-                // If the requests of the bucket are drained and the reset is expired the bucket has no valuable information
-                else if (bucket.requests.isEmpty() && bucket.reset <= getNow())
-                    entries.remove();
-            }
-            // Log how many buckets were removed
-            size -= buckets.size();
-            if (size > 0)
-                log.debug("Removed {} expired buckets", size);
-        });
+    private void setGlobalRateLimit(long timestamp)
+    {
+        RateLimitBackend backend = getBackend();
+        if (backend == null)
+            getSessionController().setGlobalRatelimit(timestamp);
+        else
+            backend.setGlobalRateLimit(timestamp);
     }
 
     private String getRouteHash(Route route)
@@ -166,28 +251,30 @@ public class BotRateLimiter extends RateLimiter
     @Override
     protected boolean stop()
     {
-        return MiscUtil.locked(bucketLock, () -> {
+        synchronized (this)
+        {
             if (isStopped)
                 return false;
             super.stop();
-            if (cleanupWorker != null)
-                cleanupWorker.cancel(false);
-            cleanup();
-            int size = buckets.size();
-            if (!isShutdown && size > 0) // Tell user about active buckets so they don't get confused by the longer shutdown
-            {
-                int average = (int) Math.ceil(
-                        buckets.values().stream()
-                            .map(Bucket::getRequests)
-                            .mapToInt(Collection::size)
-                            .average().orElse(0)
-                );
-
-                log.info("Waiting for {} bucket(s) to finish. Average queue size of {} requests", size, average);
-            }
-            // No more requests to process?
-            return size < 1;
-        });
+        }
+        if (cleanupWorker != null)
+            cleanupWorker.cancel(false);
+        // Once stopped, the cleanup also removes empty buckets that are still rate limited
+        cleanup();
+        int size = buckets.size();
+        if (!isShutdown && size > 0) // Tell user about active buckets so they don't get confused by the longer shutdown
+        {
+            int average = (int) Math.ceil(
+                    buckets.values().stream()
+                        .map(Bucket::getRequests)
+                        .mapToInt(Collection::size)
+                        .average().orElse(0)
+            );
+
+            log.info("Waiting for {} bucket(s) to finish. Average queue size of {} requests", size, average);
+        }
+        // No more requests to process?
+        return size < 1;
     }
 
     @Override
@@ -202,130 +289,123 @@ public class BotRateLimiter extends RateLimiter
     protected void queueRequest(Request request)
     {
         // Create bucket and enqueue request
-        MiscUtil.locked(bucketLock, () -> {
-            Bucket bucket = getBucket(request.getRoute(), true);
-            bucket.enqueue(request);
-            runBucket(bucket);
-        });
+        // The bucket might be removed by the cleanup worker concurrently, in which case we need a new bucket
+        Bucket bucket;
+        do
+        {
+            bucket = getBucket(request.getRoute(), true);
+        }
+        while (!bucket.enqueue(request));
     }
 
     @Override
     protected Long handleResponse(Route.CompiledRoute route, okhttp3.Response response)
     {
-        return MiscUtil.locked(bucketLock, () -> {
-            long rateLimit = updateBucket(route, response).getRateLimit();
-            if (response.code() == 429)
-                return rateLimit;
-            else
-                return null;
-        });
+        long rateLimit = updateBucket(route, response).getRateLimit();
+        if (response.code() == 429)
+            return rateLimit;
+        else
+            return null;
     }
 
     private Bucket updateBucket(Route.CompiledRoute route, okhttp3.Response response)
     {
-        return MiscUtil.locked(bucketLock, () -> {
-            try
-            {
-                Bucket bucket = getBucket(route, true);
-                Headers headers = response.headers();
+        try
+        {
+            Headers headers = response.headers();
 
-                boolean wasUnlimited = bucket.isUnlimited();
-                boolean global = headers.get(GLOBAL_HEADER) != null;
-                String hash = headers.get(HASH_HEADER);
-                long now = getNow();
+            boolean global = headers.get(GLOBAL_HEADER) != null;
+            String hash = headers.get(HASH_HEADER);
+            long now = getNow();
 
-                // Create a new bucket for the hash if needed
-                Route baseRoute = route.getBaseRoute();
-                if (hash != null)
-                {
-                    if (!this.hashes.containsKey(baseRoute))
-                    {
-                        this.hashes.put(baseRoute, hash);
-                        log.debug("Caching bucket hash {} -> {}", baseRoute, hash);
-                    }
+            // Create a new bucket for the hash if needed
+            Route baseRoute = route.getBaseRoute();
+            if (hash != null && this.hashes.putIfAbsent(baseRoute, hash) == null)
+                log.debug("Caching bucket hash {} -> {}", baseRoute, hash);
 
-                    bucket = getBucket(route, true);
-                }
+            Bucket bucket = getBucket(route, true);
 
-                // Handle global rate limit if necessary
-                if (global)
-                {
-                    String retryAfterHeader = headers.get(RETRY_AFTER_HEADER);
-                    long retryAfter = parseLong(retryAfterHeader);
-                    requester.getJDA().getSessionController().setGlobalRatelimit(now + retryAfter);
-                    log.error("Encountered global rate limit! Retry-After: {} ms", retryAfter);
-                }
-                // Handle hard rate limit, pretty much just log that it happened
-                else if (response.code() == 429)
-                {
-                    boolean firstHit = hitRatelimit.add(baseRoute);
-                    // Update the bucket to the new information
-                    String retryAfterHeader = headers.get(RETRY_AFTER_HEADER);
-                    long retryAfter = parseLong(retryAfterHeader);
+            // Handle global rate limit if necessary
+            if (global)
+            {
+                String retryAfterHeader = headers.get(RETRY_AFTER_HEADER);
+                long retryAfter = parseLong(retryAfterHeader);
+                setGlobalRateLimit(now + retryAfter);
+                log.error("Encountered global rate limit! Retry-After: {} ms", retryAfter);
+            }
+            // Handle hard rate limit, pretty much just log that it happened
+            else if (response.code() == 429)
+            {
+                boolean firstHit = hitRatelimit.add(baseRoute);
+                // Update the bucket to the new information
+                String retryAfterHeader = headers.get(RETRY_AFTER_HEADER);
+                long retryAfter = parseLong(retryAfterHeader);
+                long reset = getNow() + retryAfter;
+                int limit = MiscUtil.locked(bucket.lock, () -> {
                     bucket.remaining = 0;
-                    bucket.reset = getNow() + retryAfter;
-                    // don't log warning if we hit the rate limit for the first time, likely due to initialization of the bucket
-                    if (firstHit)
-                        log.debug("Encountered 429 on route {} with bucket {} Retry-After: {} ms", baseRoute, bucket.bucketId, retryAfter);
-                    else
-                        log.warn("Encountered 429 on route {} with bucket {} Retry-After: {} ms", baseRoute, bucket.bucketId, retryAfter);
-                    return bucket;
-                }
-
-                // If hash is null this means we didn't get enough information to update a bucket
-                if (hash == null)
-                    return bucket;
-
-                // Update the bucket parameters with new information
-                String limitHeader = headers.get(LIMIT_HEADER);
-                String remainingHeader = headers.get(REMAINING_HEADER);
-                String resetAfterHeader = headers.get(RESET_AFTER_HEADER);
-                String resetHeader = headers.get(RESET_HEADER);
-
-                bucket.limit = (int) Math.max(1L, parseLong(limitHeader));
-                bucket.remaining = (int) parseLong(remainingHeader);
-                if (requester.getJDA().isRelativeRateLimit())
-                    bucket.reset = now + parseDouble(resetAfterHeader);
+                    bucket.reset = reset;
+                    return bucket.limit;
+                });
+                bucket.publish(limit, 0, reset);
+                // don't log warning if we hit the rate limit for the first time, likely due to initialization of the bucket
+                if (firstHit)
+                    log.debug("Encountered 429 on route {} with bucket {} Retry-After: {} ms", baseRoute, bucket.bucketId, retryAfter);
                 else
-                    bucket.reset = parseDouble(resetHeader);
-                log.trace("Updated bucket {} to ({}/{}, {})", bucket.bucketId, bucket.remaining, bucket.limit, bucket.reset - now);
+                    log.warn("Encountered 429 on route {} with bucket {} Retry-After: {} ms", baseRoute, bucket.bucketId, retryAfter);
                 return bucket;
             }
-            catch (Exception e)
-            {
-                Bucket bucket = getBucket(route, true);
-                log.error("Encountered Exception while updating a bucket. Route: {} Bucket: {} Code: {} Headers:\n{}",
-                        route.getBaseRoute(), bucket, response.code(), response.headers(), e);
+
+            // If hash is null this means we didn't get enough information to update a bucket
+            if (hash == null)
                 return bucket;
-            }
-        });
+
+            // Update the bucket parameters with new information
+            int limit = (int) Math.max(1L, parseLong(headers.get(LIMIT_HEADER)));
+            int remaining = (int) parseLong(headers.get(REMAINING_HEADER));
+            long reset;
+            if (isRelativeRateLimit())
+                reset = now + parseDouble(headers.get(RESET_AFTER_HEADER));
+            else
+                reset = parseDouble(headers.get(RESET_HEADER));
+
+            MiscUtil.locked(bucket.lock, () -> {
+                bucket.limit = limit;
+                bucket.remaining = remaining;
+                bucket.reset = reset;
+            });
+            bucket.publish(limit, remaining, reset);
+            log.trace("Updated bucket {} to ({}/{}, {})", bucket.bucketId, remaining, limit, reset - now);
+            return bucket;
+        }
+        catch (Exception e)
+        {
+            Bucket bucket = getBucket(route, true);
+            log.error("Encountered Exception while updating a bucket. Route: {} Bucket: {} Code: {} Headers:\n{}",
+                    route.getBaseRoute(), bucket, response.code(), response.headers(), e);
+            return bucket;
+        }
     }
 
     @Contract("_,true->!null")
     private Bucket getBucket(Route.CompiledRoute route, boolean create)
     {
-        return MiscUtil.locked(bucketLock, () ->
-        {
-            // Retrieve the hash via the route
-            String hash = getRouteHash(route.getBaseRoute());
-            // Get or create a bucket for the hash + major parameters
-            String bucketId = hash + ":" + route.getMajorParameters();
-            Bucket bucket = this.buckets.get(bucketId);
-            if (bucket == null && create)
-                this.buckets.put(bucketId, bucket = new Bucket(bucketId));
-
-            return bucket;
-        });
+        // Retrieve the hash via the route
+        String hash = getRouteHash(route.getBaseRoute());
+        // Get or create a bucket for the hash + major parameters
+        String bucketId = hash + ":" + route.getMajorParameters();
+        if (create)
+            return this.buckets.computeIfAbsent(bucketId, Bucket::new);
+        return this.buckets.get(bucketId);
     }
 
+    // Called with the lock of the bucket
     private void runBucket(Bucket bucket)
     {
         if (isShutdown)
             return;
         // Schedule a new bucket worker if no worker is running
-        MiscUtil.locked(bucketLock, () ->
-            rateLimitQueue.computeIfAbsent(bucket,
-                (k) -> getScheduler().schedule(bucket, bucket.getRateLimit(), TimeUnit.MILLISECONDS)));
+        rateLimitQueue.computeIfAbsent(bucket,
+            (k) -> getScheduler().schedule(bucket, bucket.getBackoff(), TimeUnit.MILLISECONDS));
     }
 
     private long parseLong(String input)
@@ -350,19 +430,32 @@ public class BotRateLimiter extends RateLimiter
     {
         private final String bucketId;
         private final Deque<Request> requests = new ConcurrentLinkedDeque<>();
+        private final ReentrantLock lock = new ReentrantLock();
 
+        // Guarded by lock
         private long reset = 0;
         private int remaining = 1;
         private int limit = 1;
+        private boolean removed = false;
+
+        // The request which is currently executed by the worker of this bucket
+        private volatile Request running;
 
         public Bucket(String bucketId)
         {
             this.bucketId = bucketId;
         }
 
-        public void enqueue(Request request)
+        // Returns false if this bucket has been removed and a new one should be used
+        public boolean enqueue(Request request)
         {
-            requests.addLast(request);
+            return MiscUtil.locked(lock, () -> {
+                if (removed)
+                    return false;
+                requests.addLast(request);
+                runBucket(this);
+                return true;
+            });
         }
 
         public void retry(Request request)
@@ -373,20 +466,48 @@ public class BotRateLimiter extends RateLimiter
         public long getRateLimit()
         {
             long now = getNow();
-            long global = requester.getJDA().getSessionController().getGlobalRatelimit();
+            long global = getGlobalRateLimit();
             // Global rate limit is more important to handle
             if (global > now)
                 return global - now;
-            // Check if the bucket reset time has expired
-            if (reset <= now)
-            {
-                // Update the remaining uses to the limit (we don't know better)
-                remaining = limit;
-                return 0L;
-            }
+            return MiscUtil.locked(lock, () -> {
+                // Check if the bucket reset time has expired
+                if (reset <= now)
+                {
+                    // Update the remaining uses to the limit (we don't know better)
+                    remaining = limit;
+                    return 0L;
+                }
+
+                // If there are remaining requests we don't need to do anything, otherwise return backoff in milliseconds
+                return remaining < 1 ? reset - now : 0L;
+            });
+        }
+
+        // Includes the state of the backend, this is the time until the worker can continue
+        private long getBackoff()
+        {
+            long rateLimit = getRateLimit();
+            RateLimitBackend backend = getBackend();
+            if (rateLimit > 0 || backend == null || isUnlimited())
+                return rateLimit;
+            return backend.getRateLimit(bucketId);
+        }
 
-            // If there are remaining requests we don't need to do anything, otherwise return backoff in milliseconds
-            return remaining < 1 ? reset - now : 0L;
+        // Reserves the next request in the backend, returns the backoff if no request is remaining
+        private long acquire()
+        {
+            RateLimitBackend backend = getBackend();
+            if (backend == null || isUnlimited())
+                return 0;
+            return backend.tryAcquire(bucketId);
+        }
+
+        private void publish(int limit, int remaining, long reset)
+        {
+            RateLimitBackend backend = getBackend();
+            if (backend != null && !isUnlimited())
+                backend.update(bucketId, limit, remaining, reset);
         }
 
         public long getReset()
@@ -409,18 +530,39 @@ public class BotRateLimiter extends RateLimiter
             return bucketId.startsWith("unlimited");
         }
 
+        // Returns true if this bucket has no valuable information and can be removed
+        private boolean expire()
+        {
+            return MiscUtil.locked(lock, () -> {
+                // Remove cancelled requests
+                requests.removeIf(Request::isSkipped);
+                // Check if the bucket is empty
+                if (!requests.isEmpty())
+                    return false;
+                // remove unlimited if requests are empty
+                // If the requests of the bucket are drained and the reset is expired the bucket has no valuable information
+                removed = isUnlimited() || isStopped || reset <= getNow();
+                return removed;
+            });
+        }
+
         private void backoff()
         {
             // Schedule backoff if requests are not done
-            MiscUtil.locked(bucketLock, () -> {
+            // New requests are enqueued with the same lock, so either we see them here or they schedule a new worker
+            MiscUtil.locked(lock, () -> {
                 rateLimitQueue.remove(this);
                 if (!requests.isEmpty())
+                {
                     runBucket(this);
+                }
                 else if (isStopped)
-                    buckets.remove(bucketId);
-                if (isStopped && buckets.isEmpty())
-                    requester.getJDA().shutdownRequester();
+                {
+                    removed = true;
+                    buckets.remove(bucketId, this);
+                }
             });
+            onBackoff();
         }
 
         @Override
@@ -429,7 +571,7 @@ public class BotRateLimiter extends RateLimiter
             log.trace("Bucket {} is running {} requests", bucketId, requests.size());
             while (!requests.isEmpty())
             {
-                Long rateLimit = getRateLimit();
+                long rateLimit = getBackoff();
                 if (rateLimit > 0L)
                 {
                     // We need to backoff since we ran out of remaining uses or hit the global rate limit
@@ -442,24 +584,36 @@ public class BotRateLimiter extends RateLimiter
                     continue;
                 if (isUnlimited())
                 {
-                    boolean shouldSkip = MiscUtil.locked(bucketLock, () -> {
-                        // Attempt moving request to correct bucket if it has been created
-                        Bucket bucket = getBucket(request.getRoute(), true);
-                        if (bucket != this)
-                        {
-                            bucket.enqueue(request);
-                            runBucket(bucket);
-                            return true;
-                        }
-                        return false;
-                    });
-                    if (shouldSkip) continue;
+                    // Attempt moving request to correct bucket if it has been created
+                    Bucket bucket = getBucket(request.getRoute(), true);
+                    if (bucket != this)
+                    {
+                        queueRequest(request);
+                        continue;
+                    }
+                }
+
+                rateLimit = acquire();
+                if (rateLimit > 0L)
+                {
+                    // Another rate limiter used the remaining requests in the meantime
+                    log.debug("Backing off {} ms for bucket {}", rateLimit, bucketId);
+                    retry(request);
+                    break;
+                }
+
+                running = request;
+                if (isAsyncRequests())
+                {
+                    // The bucket continues once the response arrives, until then new requests are only queued
+                    executeAsync(request);
+                    return;
                 }
 
                 try
                 {
-                    rateLimit = requester.execute(request);
-                    if (rateLimit != null)
+                    Long retryAfter = getRequester(request).execute(request);
+                    if (retryAfter != null)
                         retry(request); // this means we hit a hard rate limit (429) so the request needs to be retried
                 }
                 catch (Throwable ex)
@@ -469,11 +623,36 @@ public class BotRateLimiter extends RateLimiter
                         throw (Error) ex;
                     break;
                 }
+                finally
+                {
+                    running = null;
+                }
             }
 
             backoff();
         }
 
+        private void executeAsync(Request request)
+        {
+            try
+            {
+                getRequester(request).execute(request, rateLimit -> {
+                    if (rateLimit != null)
+                        retry(request); // this means we hit a hard rate limit (429) so the request needs to be retried
+                    running = null;
+                    backoff();
+                });
+            }
+            catch (Throwable ex)
+            {
+                log.error("Encountered exception trying to execute request", ex);
+                running = null;
+                backoff();
+                if (ex instanceof Error)
+                    throw (Error) ex;
+            }
+        }
+
         @Override
         public Queue<Request> getRequests()
         {
@@ -0,0 +1,232 @@
+/*
+ * Copyright 2015-2020 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.internal.requests.ratelimit;
+
+import net.dv8tion.jda.api.requests.Request;
+import net.dv8tion.jda.api.utils.RateLimitBackend;
+import net.dv8tion.jda.api.utils.SessionController;
+import net.dv8tion.jda.internal.requests.RateLimiter;
+import net.dv8tion.jda.internal.requests.Requester;
+import net.dv8tion.jda.internal.requests.Route;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Rate limiter which is shared by the {@link Requester Requesters} of all shards of a ShardManager.
+ * <br>All shards use the same bucket table, the same global rate limit of the {@link SessionController}
+ * and the same rate limit worker threads. Each request is still executed by the Requester of its own shard.
+ *
+ * <p>Every Requester uses its own view of this rate limiter, acquired via {@link #forRequester(Requester)},
+ * which keeps track of the shutdown of the respective shard.
+ */
+public class SharedRateLimiter extends BotRateLimiter
+{
+    private final ScheduledExecutorService scheduler;
+    private final boolean automaticShutdown;
+    private final SessionController sessionController;
+    private final RateLimitBackend backend;
+    private final boolean relativeRateLimit;
+    private final boolean asyncRequests;
+    // Shards which wait for their remaining requests before shutting down their requester
+    private final Set<ShardRateLimiter> stopping = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean terminated = new AtomicBoolean(false);
+
+    public SharedRateLimiter(
+        ScheduledExecutorService scheduler, boolean automaticShutdown, SessionController sessionController,
+        RateLimitBackend backend, boolean relativeRateLimit, boolean asyncRequests)
+    {
+        super(null);
+        this.scheduler = scheduler;
+        this.automaticShutdown = automaticShutdown;
+        this.sessionController = sessionController;
+        this.backend = backend;
+        this.relativeRateLimit = relativeRateLimit;
+        this.asyncRequests = asyncRequests;
+    }
+
+    public RateLimiter forRequester(Requester requester)
+    {
+        return new ShardRateLimiter(requester);
+    }
+
+    public ScheduledExecutorService getRateLimitPool()
+    {
+        return scheduler;
+    }
+
+    /**
+     * Shuts down this rate limiter once all shards have been shut down.
+     *
+     * @param now
+     *        True, if remaining requests should be dropped instead of being executed first
+     */
+    public void shutdown(boolean now)
+    {
+        if (now)
+        {
+            super.shutdown();
+            terminate(true);
+        }
+        else if (stop())
+        {
+            terminate(false);
+        }
+    }
+
+    private void terminate(boolean now)
+    {
+        if (terminated.getAndSet(true))
+            return;
+        isShutdown = true;
+        if (!automaticShutdown)
+            return;
+        if (now)
+            scheduler.shutdownNow();
+        else
+            scheduler.shutdown();
+    }
+
+    @Override
+    protected ScheduledExecutorService getScheduler()
+    {
+        return scheduler;
+    }
+
+    @Override
+    protected SessionController getSessionController()
+    {
+        return sessionController;
+    }
+
+    @Override
+    protected RateLimitBackend getBackend()
+    {
+        return backend;
+    }
+
+    @Override
+    protected boolean isRelativeRateLimit()
+    {
+        return relativeRateLimit;
+    }
+
+    @Override
+    protected boolean isAsyncRequests()
+    {
+        return asyncRequests;
+    }
+
+    @Override
+    protected Requester getRequester(Request<?> request)
+    {
+        return request.getJDA().getRequester();
+    }
+
+    @Override
+    protected void onBackoff()
+    {
+        for (ShardRateLimiter shard : stopping)
+        {
+            // Only one thread can remove the shard, which makes sure we only shutdown the requester once
+            if (!shard.hasRequests() && stopping.remove(shard))
+                shard.shutdownRequester();
+        }
+
+        if (isStopped && isIdle())
+            terminate(false);
+    }
+
+    private class ShardRateLimiter extends RateLimiter
+    {
+        private ShardRateLimiter(Requester requester)
+        {
+            super(requester);
+        }
+
+        private boolean isOwned(Request<?> request)
+        {
+            return request.getJDA() == requester.getJDA();
+        }
+
+        private boolean hasRequests()
+        {
+            return SharedRateLimiter.this.hasRequests(this::isOwned);
+        }
+
+        private void shutdownRequester()
+        {
+            requester.getJDA().shutdownRequester();
+        }
+
+        @Override
+        public Long getRateLimit(Route.CompiledRoute route)
+        {
+            return SharedRateLimiter.this.getRateLimit(route);
+        }
+
+        @Override
+        @SuppressWarnings("rawtypes")
+        protected void queueRequest(Request request)
+        {
+            SharedRateLimiter.this.queueRequest(request);
+        }
+
+        @Override
+        protected Long handleResponse(Route.CompiledRoute route, okhttp3.Response response)
+        {
+            return SharedRateLimiter.this.handleResponse(route, response);
+        }
+
+        @Override
+        public int cancelRequests()
+        {
+            return SharedRateLimiter.this.cancelRequests(this::isOwned);
+        }
+
+        @Override
+        protected boolean stop()
+        {
+            synchronized (this)
+            {
+                if (isStopped)
+                    return false;
+                super.stop();
+            }
+
+            if (!hasRequests())
+                return true;
+            stopping.add(this);
+            // The last request might have finished before we were added
+            if (!hasRequests() && stopping.remove(this))
+                return true;
+            log.info("Waiting for the remaining requests of this shard to finish");
+            return false;
+        }
+
+        @Override
+        protected void shutdown()
+        {
+            isShutdown = isStopped = true;
+            stopping.remove(this);
+            // The other shards are still using the workers, we only drop the requests of this shard
+            dropRequests(this::isOwned);
+        }
+    }
+}
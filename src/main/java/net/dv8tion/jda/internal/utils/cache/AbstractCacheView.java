@@ -67,6 +67,19 @@ public abstract class AbstractCacheView<T> extends ReadWriteLockCache<T> impleme
 
     public T get(long id)
     {
+        // Try to read without locking first, the map might be modified concurrently which is detected by validate
+        long stamp = optimisticLock.tryOptimisticRead();
+        if (stamp != 0)
+        {
+            try
+            {
+                T element = elements.get(id);
+                if (optimisticLock.validate(stamp))
+                    return element;
+            }
+            catch (RuntimeException ignored) {} // inconsistent read during a resize of the map
+        }
+
         try (UnlockHook hook = readLock())
         {
             return elements.get(id);
@@ -154,6 +167,32 @@ public abstract class AbstractCacheView<T> extends ReadWriteLockCache<T> impleme
         }
     }
 
+    /**
+     * Estimates the memory of this cache and its elements, from a sample of the elements.
+     *
+     * @return The estimated bytes
+     */
+    public long estimateMemory()
+    {
+        long sampled = 0;
+        int count = 0;
+        int size, capacity;
+        try (UnlockHook hook = readLock())
+        {
+            for (T element : elements.valueCollection())
+            {
+                if (count == MemoryEstimator.SAMPLE_SIZE)
+                    break;
+                sampled += MemoryEstimator.sizeOf(element);
+                count++;
+            }
+            size = elements.size();
+            capacity = ((TLongObjectHashMap<T>) elements).capacity();
+        }
+        long bytes = MemoryEstimator.sizeOfHashMap(capacity, 8, 4);
+        return count == 0 ? bytes : bytes + sampled * size / count;
+    }
+
     @Override
     public long size()
     {
@@ -171,12 +210,10 @@ public abstract class AbstractCacheView<T> extends ReadWriteLockCache<T> impleme
     public List<T> getElementsByName(@Nonnull String name, boolean ignoreCase)
     {
         Checks.notEmpty(name, "Name");
-        if (elements.isEmpty())
+        if (isEmpty())
             return Collections.emptyList();
         if (nameMapper == null) // no getName method available
             throw new UnsupportedOperationException("The contained elements are not assigned with names.");
-        if (isEmpty())
-            return Collections.emptyList();
         List<T> list = new ArrayList<>();
         forEach(elem ->
         {
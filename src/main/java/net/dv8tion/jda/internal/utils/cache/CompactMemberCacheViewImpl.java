@@ -0,0 +1,720 @@
+/*
+ * Copyright 2015-2020 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.internal.utils.cache;
+
+import gnu.trove.TCollections;
+import gnu.trove.iterator.TLongIntIterator;
+import gnu.trove.map.TLongIntMap;
+import gnu.trove.map.TLongObjectMap;
+import gnu.trove.map.hash.TLongIntHashMap;
+import gnu.trove.map.hash.TLongObjectHashMap;
+import gnu.trove.set.TLongSet;
+import gnu.trove.set.hash.TLongHashSet;
+import net.dv8tion.jda.api.OnlineStatus;
+import net.dv8tion.jda.api.entities.*;
+import net.dv8tion.jda.api.utils.LockIterator;
+import net.dv8tion.jda.api.utils.cache.CacheFlag;
+import net.dv8tion.jda.internal.JDAImpl;
+import net.dv8tion.jda.internal.entities.GuildImpl;
+import net.dv8tion.jda.internal.entities.GuildVoiceStateImpl;
+import net.dv8tion.jda.internal.entities.MemberImpl;
+import net.dv8tion.jda.internal.entities.UserImpl;
+import net.dv8tion.jda.internal.utils.UnlockHook;
+
+import javax.annotation.Nonnull;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.function.IntToLongFunction;
+
+/**
+ * Member cache which stores the state of the members in arrays instead of one object graph per member.
+ *
+ * <p>Each member is assigned a slot, the columns hold the state of all members at the index of their slot.
+ * The role ids of all members share a single array. The {@link Member} instances returned by this cache are
+ * created on demand and read their state from this cache, which means they always reflect the current state.
+ * Once a member is removed, the instances which were already returned keep the last state of the member,
+ * like the members of the default cache do.
+ * Voice states are only kept for members that are connected to a channel or have been accessed.
+ */
+public class CompactMemberCacheViewImpl extends MemberCacheViewImpl
+{
+    private static final long[] EMPTY_ROLES = new long[0];
+    private static final OnlineStatus[] STATUSES = OnlineStatus.values();
+    private static final ClientType[] CLIENT_TYPES = { ClientType.DESKTOP, ClientType.MOBILE, ClientType.WEB };
+
+    private final GuildImpl guild;
+    private final JDAImpl api;
+    private final boolean cacheClientStatus;
+    private final Map<Long, GuildVoiceStateImpl> voiceStates = new ConcurrentHashMap<>();
+
+    // All of the following state is guarded by the lock of this cache
+    private final TLongIntMap slots = new TLongIntHashMap(16, 0.5f, 0, -1);
+    private int[] freeSlots = new int[16];
+    private int freeCount, slotCount;
+
+    private long[] joinDates = new long[16];
+    private long[] boostDates = new long[16];
+    private long[] accessTimes = new long[16];
+    private String[] nicknames = new String[16];
+    private Object[] activities = new Object[16];
+    private byte[] onlineStatus = new byte[16];
+    // 4 bits for the status of each client type
+    private short[] clientStatus = new short[16];
+    private Handle[] handles = new Handle[16];
+
+    // The sorted role ids of a member are stored at roleOffsets[slot] to roleOffsets[slot] + roleCounts[slot]
+    private int[] roleOffsets = new int[16];
+    private short[] roleCounts = new short[16];
+    private long[] rolePool = new long[64];
+    private int rolePoolSize, roleGarbage;
+
+    public CompactMemberCacheViewImpl(GuildImpl guild, boolean indexed)
+    {
+        super(indexed);
+        this.guild = guild;
+        this.api = guild.getJDA();
+        this.cacheClientStatus = api.isCacheFlagSet(CacheFlag.CLIENT_STATUS);
+    }
+
+    // The members are not stored in a map, this is a read-only copy. Modifications have to use put(MemberImpl) and remove(long)
+    @Override
+    public TLongObjectMap<Member> getMap()
+    {
+        try (UnlockHook hook = readLock())
+        {
+            TLongObjectMap<Member> map = new TLongObjectHashMap<>(slots.size());
+            slots.forEachEntry((id, slot) ->
+            {
+                map.put(id, materialize(id, handles[slot]));
+                return true;
+            });
+            return TCollections.unmodifiableMap(map);
+        }
+    }
+
+    @Override
+    public void put(MemberImpl member)
+    {
+        long id = member.getIdLong();
+        try (UnlockHook hook = writeLock())
+        {
+            if (!member.isAttached())
+            {
+                int slot = slots.get(id);
+                if (slot < 0)
+                {
+                    slot = allocate();
+                    slots.put(id, slot);
+                    handles[slot] = new Handle();
+                }
+
+                joinDates[slot] = member.getJoinDateRaw();
+                boostDates[slot] = member.getBoostDateRaw();
+                accessTimes[slot] = System.currentTimeMillis();
+                nicknames[slot] = member.getNickname();
+                activities[slot] = member.getActivities();
+                onlineStatus[slot] = (byte) member.getOnlineStatus().ordinal();
+                short packed = 0;
+                for (ClientType type : member.getActiveClients())
+                    packed = pack(packed, type, member.getOnlineStatus(type));
+                clientStatus[slot] = packed;
+                setRoles(slot, member.getRoleIds());
+
+                // Voice states of disconnected members are created again when needed
+                GuildVoiceState voiceState = member.getVoiceState();
+                if (voiceState != null && voiceState.getChannel() != null)
+                    voiceStates.put(id, (GuildVoiceStateImpl) voiceState);
+                member.attach(this, handles[slot]);
+            }
+            if (index != null)
+                index.put(member);
+        }
+    }
+
+    @Override
+    public Member get(long id)
+    {
+        long stamp = optimisticLock.tryOptimisticRead();
+        if (stamp != 0)
+        {
+            try
+            {
+                int slot = slots.get(id);
+                Handle handle = slot < 0 ? null : handles[slot];
+                if (optimisticLock.validate(stamp))
+                    return handle == null ? null : materialize(id, handle);
+            }
+            catch (RuntimeException ignored) {} // inconsistent read during a resize of the map
+        }
+
+        try (UnlockHook hook = readLock())
+        {
+            int slot = slots.get(id);
+            return slot < 0 ? null : materialize(id, handles[slot]);
+        }
+    }
+
+    @Override
+    public Member remove(long id)
+    {
+        try (UnlockHook hook = writeLock())
+        {
+            int slot = slots.remove(id);
+            if (slot < 0)
+                return null;
+
+            MemberImpl member = detach(id, slot);
+            free(slot);
+            if (index != null)
+                index.remove(id);
+            return member;
+        }
+    }
+
+    @Override
+    public void clear()
+    {
+        try (UnlockHook hook = writeLock())
+        {
+            super.clear();
+            slots.forEachEntry((id, slot) ->
+            {
+                detach(id, slot);
+                return true;
+            });
+            slots.clear();
+            voiceStates.clear();
+            freeCount = slotCount = 0;
+            Arrays.fill(nicknames, null);
+            Arrays.fill(activities, null);
+            Arrays.fill(handles, null);
+            Arrays.fill(roleCounts, (short) 0);
+            rolePoolSize = roleGarbage = 0;
+        }
+    }
+
+    @Override
+    public TLongSet keySet()
+    {
+        try (UnlockHook hook = readLock())
+        {
+            return new TLongHashSet(slots.keySet());
+        }
+    }
+
+    @Override
+    public void forEach(Consumer<? super Member> action)
+    {
+        Objects.requireNonNull(action);
+        try (UnlockHook hook = readLock())
+        {
+            slots.forEachEntry((id, slot) ->
+            {
+                action.accept(materialize(id, handles[slot]));
+                return true;
+            });
+        }
+    }
+
+    @Nonnull
+    @Override
+    public LockIterator<Member> lockedIterator()
+    {
+        ReentrantReadWriteLock.ReadLock readLock = lock.readLock();
+        readLock.lock();
+        try
+        {
+            TLongIntIterator entries = slots.iterator();
+            Iterator<Member> directIterator = new Iterator<Member>()
+            {
+                @Override
+                public boolean hasNext()
+                {
+                    return entries.hasNext();
+                }
+
+                @Override
+                public Member next()
+                {
+                    entries.advance();
+                    return materialize(entries.key(), handles[entries.value()]);
+                }
+            };
+            return new LockIterator<>(directIterator, readLock);
+        }
+        catch (Throwable t)
+        {
+            readLock.unlock();
+            throw t;
+        }
+    }
+
+    @Nonnull
+    @Override
+    public List<Member> asList()
+    {
+        if (isEmpty())
+            return Collections.emptyList();
+        try (UnlockHook hook = readLock())
+        {
+            List<Member> list = getCachedList();
+            if (list != null)
+                return list;
+            List<Member> members = new ArrayList<>(slots.size());
+            forEach(members::add);
+            return cache(members);
+        }
+    }
+
+    @Nonnull
+    @Override
+    public Set<Member> asSet()
+    {
+        if (isEmpty())
+            return Collections.emptySet();
+        try (UnlockHook hook = readLock())
+        {
+            Set<Member> set = getCachedSet();
+            if (set != null)
+                return set;
+            Set<Member> members = new HashSet<>(slots.size());
+            forEach(members::add);
+            return cache(members);
+        }
+    }
+
+    @Override
+    public long size()
+    {
+        return slots.size();
+    }
+
+    @Override
+    public long estimateMemory()
+    {
+        try (UnlockHook hook = readLock())
+        {
+            long bytes = MemoryEstimator.sizeOfHashMap(((TLongIntHashMap) slots).capacity(), 8, 4)
+                + MemoryEstimator.sizeOfArray(freeSlots.length, 4)
+                + MemoryEstimator.sizeOfArray(joinDates.length, 8)
+                + MemoryEstimator.sizeOfArray(boostDates.length, 8)
+                + MemoryEstimator.sizeOfArray(accessTimes.length, 8)
+                + MemoryEstimator.sizeOfArray(nicknames.length, 4)
+                + MemoryEstimator.sizeOfArray(activities.length, 4)
+                + MemoryEstimator.sizeOfArray(onlineStatus.length, 1)
+                + MemoryEstimator.sizeOfArray(clientStatus.length, 2)
+                + MemoryEstimator.sizeOfArray(handles.length, 4)
+                + slots.size() * MemoryEstimator.sizeOf(new Handle())
+                + MemoryEstimator.sizeOfArray(roleOffsets.length, 4)
+                + MemoryEstimator.sizeOfArray(roleCounts.length, 2)
+                + MemoryEstimator.sizeOfArray(rolePool.length, 8);
+            for (int slot = 0; slot < slotCount; slot++)
+                bytes += MemoryEstimator.sizeOfString(nicknames[slot]);
+            // Voice states are only kept for some members, they are all similar in size
+            Iterator<GuildVoiceStateImpl> it = voiceStates.values().iterator();
+            if (it.hasNext())
+                bytes += voiceStates.size() * MemoryEstimator.sizeOf(it.next());
+            return bytes;
+        }
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return slots.isEmpty();
+    }
+
+    @Override
+    public Spliterator<Member> spliterator()
+    {
+        return Spliterators.spliterator(asList(), Spliterator.IMMUTABLE);
+    }
+
+    @Nonnull
+    @Override
+    public Iterator<Member> iterator()
+    {
+        return asList().iterator();
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return keySet().hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (obj == this)
+            return true;
+        if (!(obj instanceof CompactMemberCacheViewImpl))
+            return false;
+        return keySet().equals(((CompactMemberCacheViewImpl) obj).keySet());
+    }
+
+    // Accessors used by attached members
+
+    public long getJoinDate(long id)
+    {
+        return readLong(id, slot -> joinDates[slot]);
+    }
+
+    public long getBoostDate(long id)
+    {
+        return readLong(id, slot -> boostDates[slot]);
+    }
+
+    public long getLastAccess(long id)
+    {
+        return readLong(id, slot -> accessTimes[slot]);
+    }
+
+    public String getNickname(long id)
+    {
+        return read(id, slot -> nicknames[slot], null);
+    }
+
+    public List<Activity> getActivities(long id)
+    {
+        return read(id, this::activitiesAt, Collections.emptyList());
+    }
+
+    public OnlineStatus getOnlineStatus(long id)
+    {
+        return read(id, slot -> STATUSES[onlineStatus[slot]], OnlineStatus.OFFLINE);
+    }
+
+    public OnlineStatus getOnlineStatus(long id, ClientType type)
+    {
+        if (!cacheClientStatus || type == ClientType.UNKNOWN)
+            return OnlineStatus.OFFLINE;
+        return read(id, slot -> unpack(clientStatus[slot], type), OnlineStatus.OFFLINE);
+    }
+
+    public EnumSet<ClientType> getActiveClients(long id)
+    {
+        EnumSet<ClientType> clients = EnumSet.noneOf(ClientType.class);
+        if (!cacheClientStatus)
+            return clients;
+        short packed = read(id, slot -> clientStatus[slot], (short) 0);
+        for (ClientType type : CLIENT_TYPES)
+        {
+            if (unpack(packed, type) != OnlineStatus.OFFLINE)
+                clients.add(type);
+        }
+        return clients;
+    }
+
+    public long[] getRoleIds(long id)
+    {
+        return read(id, this::rolesAt, EMPTY_ROLES);
+    }
+
+    public boolean hasRole(long id, long roleId)
+    {
+        return read(id, slot ->
+        {
+            int offset = roleOffsets[slot];
+            return Arrays.binarySearch(rolePool, offset, offset + roleCounts[slot], roleId) >= 0;
+        }, false);
+    }
+
+    public GuildVoiceState getVoiceState(MemberImpl member)
+    {
+        long id = member.getIdLong();
+        GuildVoiceStateImpl voiceState = voiceStates.get(id);
+        if (voiceState != null || (!api.isCacheFlagSet(CacheFlag.VOICE_STATE) && id != api.getSelfUser().getIdLong()))
+            return voiceState;
+        // Removing the member requires the write lock, this prevents a voice state from being added after the removal
+        try (UnlockHook hook = readLock())
+        {
+            if (!slots.containsKey(id))
+                return new GuildVoiceStateImpl(member);
+            return voiceStates.computeIfAbsent(id, k -> new GuildVoiceStateImpl(member));
+        }
+    }
+
+    public void setJoinDate(long id, long joinDate)
+    {
+        write(id, slot -> joinDates[slot] = joinDate);
+    }
+
+    public void setBoostDate(long id, long boostDate)
+    {
+        write(id, slot -> boostDates[slot] = boostDate);
+    }
+
+    public void setNickname(long id, String nickname)
+    {
+        write(id, slot -> nicknames[slot] = nickname);
+    }
+
+    public void setActivities(long id, List<Activity> list)
+    {
+        write(id, slot -> activities[slot] = list);
+    }
+
+    public void setOnlineStatus(long id, OnlineStatus status)
+    {
+        write(id, slot -> onlineStatus[slot] = (byte) status.ordinal());
+    }
+
+    public void setOnlineStatus(long id, ClientType type, OnlineStatus status)
+    {
+        if (!cacheClientStatus || type == null || type == ClientType.UNKNOWN)
+            return;
+        write(id, slot -> clientStatus[slot] = pack(clientStatus[slot], type, status));
+    }
+
+    public void setRoleIds(long id, long[] roles)
+    {
+        write(id, slot -> setRoles(slot, roles));
+    }
+
+    public void setLastAccess(long id, long time)
+    {
+        // This is recorded on every lookup, so it avoids the write lock unless a write is in progress.
+        // The access time is only used to pick members for eviction, storing it in a reused slot is harmless.
+        long stamp = optimisticLock.tryOptimisticRead();
+        if (stamp != 0)
+        {
+            try
+            {
+                int slot = slots.get(id);
+                if (slot >= 0)
+                    accessTimes[slot] = time;
+                if (optimisticLock.validate(stamp))
+                    return;
+            }
+            catch (RuntimeException ignored) {} // inconsistent read during a resize
+        }
+
+        write(id, slot -> accessTimes[slot] = time);
+    }
+
+    // Internals, must be called while holding the lock
+
+    private MemberImpl materialize(long id, Handle handle)
+    {
+        return new MemberImpl(guild, getUser(id), this, handle);
+    }
+
+    // Copies the last state of the member, which is kept by the instances that were returned by this cache
+    private MemberImpl detach(long id, int slot)
+    {
+        MemberImpl member = new MemberImpl(guild, getUser(id));
+        member.setJoinDate(joinDates[slot])
+              .setBoostDate(boostDates[slot])
+              .setLastAccess(accessTimes[slot])
+              .setNickname(nicknames[slot])
+              .setOnlineStatus(STATUSES[onlineStatus[slot]])
+              .setRoleIds(rolesAt(slot))
+              .setActivities(activitiesAt(slot));
+        for (ClientType type : CLIENT_TYPES)
+            member.setOnlineStatus(type, unpack(clientStatus[slot], type));
+        GuildVoiceStateImpl voiceState = voiceStates.remove(id);
+        if (voiceState != null)
+            member.setVoiceState(voiceState);
+        handles[slot].detached = member;
+        return member;
+    }
+
+    private User getUser(long id)
+    {
+        User user = api.getUsersView().get(id);
+        if (user == null)
+            user = api.getFakeUserMap().get(id);
+        return user != null ? user : new UserImpl(id, api).setFake(true);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Activity> activitiesAt(int slot)
+    {
+        return (List<Activity>) activities[slot];
+    }
+
+    private long[] rolesAt(int slot)
+    {
+        int count = roleCounts[slot];
+        if (count == 0)
+            return EMPTY_ROLES;
+        int offset = roleOffsets[slot];
+        return Arrays.copyOfRange(rolePool, offset, offset + count);
+    }
+
+    private void setRoles(int slot, long[] roles)
+    {
+        int count = roleCounts[slot];
+        if (roles.length <= count)
+        {
+            // Overwrite the current range, the remainder is unused
+            System.arraycopy(roles, 0, rolePool, roleOffsets[slot], roles.length);
+            roleGarbage += count - roles.length;
+            roleCounts[slot] = (short) roles.length;
+            return;
+        }
+
+        roleGarbage += count;
+        roleCounts[slot] = 0;
+        if (rolePoolSize + roles.length > rolePool.length)
+        {
+            if (roleGarbage > rolePoolSize / 2)
+                compactRoles();
+            if (rolePoolSize + roles.length > rolePool.length)
+                rolePool = Arrays.copyOf(rolePool, Math.max(rolePoolSize + roles.length, rolePool.length + (rolePool.length >> 1)));
+        }
+        System.arraycopy(roles, 0, rolePool, rolePoolSize, roles.length);
+        roleOffsets[slot] = rolePoolSize;
+        roleCounts[slot] = (short) roles.length;
+        rolePoolSize += roles.length;
+    }
+
+    private void compactRoles()
+    {
+        long[] pool = new long[Math.max(64, rolePool.length)];
+        int size = 0;
+        for (int slot : slots.values())
+        {
+            int count = roleCounts[slot];
+            System.arraycopy(rolePool, roleOffsets[slot], pool, size, count);
+            roleOffsets[slot] = size;
+            size += count;
+        }
+        rolePool = pool;
+        rolePoolSize = size;
+        roleGarbage = 0;
+    }
+
+    private int allocate()
+    {
+        if (freeCount > 0)
+            return freeSlots[--freeCount];
+        if (slotCount == joinDates.length)
+        {
+            int capacity = joinDates.length + (joinDates.length >> 1);
+            joinDates = Arrays.copyOf(joinDates, capacity);
+            boostDates = Arrays.copyOf(boostDates, capacity);
+            accessTimes = Arrays.copyOf(accessTimes, capacity);
+            nicknames = Arrays.copyOf(nicknames, capacity);
+            activities = Arrays.copyOf(activities, capacity);
+            onlineStatus = Arrays.copyOf(onlineStatus, capacity);
+            clientStatus = Arrays.copyOf(clientStatus, capacity);
+            handles = Arrays.copyOf(handles, capacity);
+            roleOffsets = Arrays.copyOf(roleOffsets, capacity);
+            roleCounts = Arrays.copyOf(roleCounts, capacity);
+        }
+        return slotCount++;
+    }
+
+    private void free(int slot)
+    {
+        nicknames[slot] = null;
+        activities[slot] = null;
+        handles[slot] = null;
+        roleGarbage += roleCounts[slot];
+        roleCounts[slot] = 0;
+        if (freeCount == freeSlots.length)
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        freeSlots[freeCount++] = slot;
+    }
+
+    private static short pack(short packed, ClientType type, OnlineStatus status)
+    {
+        int shift = type.ordinal() * 4;
+        int value = status == null || status == OnlineStatus.UNKNOWN || status == OnlineStatus.OFFLINE ? 0 : status.ordinal() + 1;
+        return (short) (packed & ~(0xF << shift) | value << shift);
+    }
+
+    private static OnlineStatus unpack(short packed, ClientType type)
+    {
+        int value = (packed >>> type.ordinal() * 4) & 0xF;
+        return value == 0 ? OnlineStatus.OFFLINE : STATUSES[value - 1];
+    }
+
+    // Reads without locking first, the columns might be modified concurrently which is detected by validate
+    private <R> R read(long id, IntFunction<R> column, R absent)
+    {
+        long stamp = optimisticLock.tryOptimisticRead();
+        if (stamp != 0)
+        {
+            try
+            {
+                int slot = slots.get(id);
+                R value = slot < 0 ? absent : column.apply(slot);
+                if (optimisticLock.validate(stamp))
+                    return value;
+            }
+            catch (RuntimeException ignored) {} // inconsistent read during a resize
+        }
+
+        try (UnlockHook hook = readLock())
+        {
+            int slot = slots.get(id);
+            return slot < 0 ? absent : column.apply(slot);
+        }
+    }
+
+    private long readLong(long id, IntToLongFunction column)
+    {
+        long stamp = optimisticLock.tryOptimisticRead();
+        if (stamp != 0)
+        {
+            try
+            {
+                int slot = slots.get(id);
+                long value = slot < 0 ? 0 : column.applyAsLong(slot);
+                if (optimisticLock.validate(stamp))
+                    return value;
+            }
+            catch (RuntimeException ignored) {} // inconsistent read during a resize
+        }
+
+        try (UnlockHook hook = readLock())
+        {
+            int slot = slots.get(id);
+            return slot < 0 ? 0 : column.applyAsLong(slot);
+        }
+    }
+
+    private void write(long id, IntConsumer column)
+    {
+        try (UnlockHook hook = writeLock())
+        {
+            int slot = slots.get(id);
+            if (slot >= 0)
+                column.accept(slot);
+        }
+    }
+
+    /**
+     * Shared by the instances of a cached member, the last state of the member is published here once it is removed.
+     */
+    public static final class Handle
+    {
+        private volatile MemberImpl detached;
+
+        public MemberImpl getDetached()
+        {
+            return detached;
+        }
+    }
+}
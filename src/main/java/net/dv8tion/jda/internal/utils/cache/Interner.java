@@ -0,0 +1,69 @@
+/*
+ * Copyright 2015-2020 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.internal.utils.cache;
+
+import java.lang.ref.WeakReference;
+import java.util.Objects;
+import java.util.function.BiPredicate;
+
+/**
+ * Bounded interner which deduplicates equal instances without keeping them alive.
+ *
+ * <p>Each value maps to a single slot based on its hash, a newer value replaces the previous value of the slot.
+ * This keeps the memory of the interner fixed, values which repeat frequently are likely to stay in their slot.
+ * Unsynchronized access only causes misses, which return the provided value.
+ */
+public class Interner<T>
+{
+    private final WeakReference<T>[] table;
+    private final int mask;
+    private final BiPredicate<T, T> equivalence;
+
+    public Interner(int capacity)
+    {
+        this(capacity, Objects::equals);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"}) // Generic arrays can only be created raw, the slots only ever hold a WeakReference<T>
+    public Interner(int capacity, BiPredicate<T, T> equivalence)
+    {
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.table = new WeakReference[size];
+        this.mask = size - 1;
+        this.equivalence = equivalence;
+    }
+
+    public T intern(T value)
+    {
+        if (value == null)
+            return null;
+        int hash = value.hashCode();
+        int index = (hash ^ (hash >>> 16)) & mask;
+        WeakReference<T> ref = table[index];
+        T existing = ref == null ? null : ref.get();
+        if (existing != null && equivalence.test(existing, value))
+            return existing;
+        table[index] = new WeakReference<>(value);
+        return value;
+    }
+
+    public void clear()
+    {
+        for (int i = 0; i < table.length; i++)
+            table[i] = null;
+    }
+}
@@ -16,26 +16,140 @@
 
 package net.dv8tion.jda.internal.utils.cache;
 
+import gnu.trove.iterator.TLongIterator;
+import gnu.trove.map.TLongObjectMap;
+import gnu.trove.map.hash.TLongObjectHashMap;
+import gnu.trove.set.TLongSet;
+import gnu.trove.set.hash.TLongHashSet;
 import net.dv8tion.jda.api.entities.Member;
 import net.dv8tion.jda.api.entities.Role;
 import net.dv8tion.jda.api.utils.cache.MemberCacheView;
+import net.dv8tion.jda.internal.entities.MemberImpl;
 import net.dv8tion.jda.internal.utils.Checks;
+import net.dv8tion.jda.internal.utils.UnlockHook;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.*;
+import java.util.function.Function;
 
 public class MemberCacheViewImpl extends SnowflakeCacheViewImpl<Member> implements MemberCacheView
 {
+    // Only present with CacheFlag.MEMBER_INDEX, guarded by the lock of this cache
+    protected final Index index;
+    // Enabled by LRUMemberCachePolicy, lookups by id then record the access time of the member
+    protected volatile boolean accessTracking;
+
     public MemberCacheViewImpl()
+    {
+        this(false);
+    }
+
+    public MemberCacheViewImpl(boolean indexed)
     {
         super(Member.class, Member::getEffectiveName);
+        this.index = indexed ? new Index() : null;
+    }
+
+    public boolean isIndexed()
+    {
+        return index != null;
+    }
+
+    public boolean isAccessTracking()
+    {
+        return accessTracking;
+    }
+
+    public void setAccessTracking(boolean accessTracking)
+    {
+        this.accessTracking = accessTracking;
+    }
+
+    public void put(MemberImpl member)
+    {
+        member.setLastAccess(System.currentTimeMillis());
+        try (UnlockHook hook = writeLock())
+        {
+            elements.put(member.getIdLong(), member);
+            if (index != null)
+                index.put(member);
+        }
+    }
+
+    /**
+     * Updates the indexed roles and names of the cached member with the provided id.
+     * <br>This has to be called after every change to the roles, nickname, or username of a cached member.
+     *
+     * @param id
+     *        The member id
+     */
+    public void reindex(long id)
+    {
+        if (index == null)
+            return;
+        try (UnlockHook hook = writeLock())
+        {
+            MemberImpl member = (MemberImpl) get(id);
+            if (member == null)
+                index.remove(id);
+            else
+                index.put(member);
+        }
+    }
+
+    /**
+     * Removes a deleted role from all members and the index.
+     *
+     * @param roleId
+     *        The role id
+     */
+    public void removeRole(long roleId)
+    {
+        try (UnlockHook hook = writeLock())
+        {
+            // Iterate the keys, updating a member is not possible while holding the read lock of forEach
+            for (TLongIterator it = keySet().iterator(); it.hasNext();)
+            {
+                MemberImpl member = (MemberImpl) get(it.next());
+                if (member != null && member.hasRole(roleId))
+                    member.setRoleIds(Arrays.stream(member.getRoleIds()).filter(id -> id != roleId).toArray());
+            }
+            if (index != null)
+                index.roles.remove(roleId);
+        }
+    }
+
+    @Override
+    public void clear()
+    {
+        try (UnlockHook hook = writeLock())
+        {
+            super.clear();
+            if (index != null)
+                index.clear();
+        }
+    }
+
+    @Override
+    public Member remove(long id)
+    {
+        try (UnlockHook hook = writeLock())
+        {
+            Member member = super.remove(id);
+            if (index != null)
+                index.remove(id);
+            return member;
+        }
     }
 
     @Override
     public Member getElementById(long id)
     {
-        return get(id);
+        Member member = get(id);
+        if (accessTracking && member != null)
+            ((MemberImpl) member).setLastAccess(System.currentTimeMillis());
+        return member;
     }
 
     @Nonnull
@@ -45,6 +159,8 @@ public class MemberCacheViewImpl extends SnowflakeCacheViewImpl<Member> implemen
         Checks.notEmpty(name, "Name");
         if (isEmpty())
             return Collections.emptyList();
+        if (index != null)
+            return getIndexedElements(index.usernames, name, ignoreCase, member -> member.getUser().getName());
         List<Member> members = new ArrayList<>();
         forEach(member ->
         {
@@ -61,6 +177,8 @@ public class MemberCacheViewImpl extends SnowflakeCacheViewImpl<Member> implemen
     {
         if (isEmpty())
             return Collections.emptyList();
+        if (index != null && name != null)
+            return getIndexedElements(index.nicknames, name, ignoreCase, Member::getNickname);
         List<Member> members = new ArrayList<>();
         forEach(member ->
         {
@@ -93,12 +211,172 @@ public class MemberCacheViewImpl extends SnowflakeCacheViewImpl<Member> implemen
         Checks.noneNull(roles, "Roles");
         if (isEmpty())
             return Collections.emptyList();
+        if (index != null && !roles.isEmpty())
+            return getIndexedElements(roles);
+        long[] roleIds = roles.stream().mapToLong(Role::getIdLong).toArray();
         List<Member> members = new ArrayList<>();
         forEach(member ->
         {
-            if (member.getRoles().containsAll(roles))
-                members.add(member);
+            MemberImpl impl = (MemberImpl) member;
+            for (long roleId : roleIds)
+            {
+                if (!impl.hasRole(roleId))
+                    return;
+            }
+            members.add(member);
         });
         return members;
     }
+
+    private List<Member> getIndexedElements(Map<String, TLongSet> names, String name, boolean ignoreCase, Function<Member, String> mapper)
+    {
+        try (UnlockHook hook = readLock())
+        {
+            TLongSet ids = names.get(Index.normalize(name));
+            if (ids == null)
+                return Collections.emptyList();
+            List<Member> members = new ArrayList<>(ids.size());
+            ids.forEach(id ->
+            {
+                Member member = get(id);
+                // The index ignores case, the actual name still has to be compared
+                if (member != null && equals(ignoreCase, mapper.apply(member), name))
+                    members.add(member);
+                return true;
+            });
+            return Collections.unmodifiableList(members);
+        }
+    }
+
+    private List<Member> getIndexedElements(Collection<Role> roles)
+    {
+        try (UnlockHook hook = readLock())
+        {
+            // Start with the smallest set of members and check the other roles for each of them
+            TLongSet[] sets = new TLongSet[roles.size()];
+            int smallest = 0, i = 0;
+            for (Role role : roles)
+            {
+                TLongSet ids = index.roles.get(role.getIdLong());
+                if (ids == null)
+                    return new ArrayList<>();
+                sets[i] = ids;
+                if (ids.size() < sets[smallest].size())
+                    smallest = i;
+                i++;
+            }
+
+            List<Member> members = new ArrayList<>(sets[smallest].size());
+            final TLongSet candidates = sets[smallest];
+            candidates.forEach(id ->
+            {
+                for (TLongSet set : sets)
+                {
+                    if (set != candidates && !set.contains(id))
+                        return true;
+                }
+                Member member = get(id);
+                if (member != null)
+                    members.add(member);
+                return true;
+            });
+            return members;
+        }
+    }
+
+    protected static class Index
+    {
+        protected final TLongObjectMap<TLongSet> roles = new TLongObjectHashMap<>();
+        protected final Map<String, TLongSet> usernames = new HashMap<>();
+        protected final Map<String, TLongSet> nicknames = new HashMap<>();
+        // The indexed keys of each member, used to remove outdated entries
+        protected final TLongObjectMap<Entry> entries = new TLongObjectHashMap<>();
+
+        protected void put(MemberImpl member)
+        {
+            long id = member.getIdLong();
+            String username = normalize(member.getUser().getName());
+            String nickname = member.getNickname() == null ? null : normalize(member.getNickname());
+            long[] roleIds = member.getRoleIds();
+
+            Entry entry = entries.get(id);
+            if (entry != null)
+            {
+                if (!entry.username.equals(username))
+                    removeName(usernames, entry.username, id);
+                if (entry.nickname != null && !entry.nickname.equals(nickname))
+                    removeName(nicknames, entry.nickname, id);
+                for (long roleId : entry.roles)
+                    removeRole(roleId, id);
+            }
+
+            usernames.computeIfAbsent(username, k -> new TLongHashSet(4)).add(id);
+            if (nickname != null)
+                nicknames.computeIfAbsent(nickname, k -> new TLongHashSet(4)).add(id);
+            for (long roleId : roleIds)
+            {
+                TLongSet ids = roles.get(roleId);
+                if (ids == null)
+                    roles.put(roleId, ids = new TLongHashSet());
+                ids.add(id);
+            }
+            entries.put(id, new Entry(username, nickname, roleIds));
+        }
+
+        protected void remove(long id)
+        {
+            Entry entry = entries.remove(id);
+            if (entry == null)
+                return;
+            removeName(usernames, entry.username, id);
+            if (entry.nickname != null)
+                removeName(nicknames, entry.nickname, id);
+            for (long roleId : entry.roles)
+                removeRole(roleId, id);
+        }
+
+        protected void clear()
+        {
+            roles.clear();
+            usernames.clear();
+            nicknames.clear();
+            entries.clear();
+        }
+
+        private void removeRole(long roleId, long id)
+        {
+            TLongSet ids = roles.get(roleId);
+            if (ids != null && ids.remove(id) && ids.isEmpty())
+                roles.remove(roleId);
+        }
+
+        private static void removeName(Map<String, TLongSet> names, String name, long id)
+        {
+            TLongSet ids = names.get(name);
+            if (ids != null && ids.remove(id) && ids.isEmpty())
+                names.remove(name);
+        }
+
+        // Two names are equal ignoring case when their normalized forms are equal, see String#equalsIgnoreCase
+        protected static String normalize(String name)
+        {
+            char[] chars = name.toCharArray();
+            for (int i = 0; i < chars.length; i++)
+                chars[i] = Character.toLowerCase(Character.toUpperCase(chars[i]));
+            return new String(chars);
+        }
+    }
+
+    protected static class Entry
+    {
+        protected final String username, nickname;
+        protected final long[] roles;
+
+        protected Entry(String username, String nickname, long[] roles)
+        {
+            this.username = username;
+            this.nickname = nickname;
+            this.roles = roles;
+        }
+    }
 }
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2015-2020 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.internal.utils.cache;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Estimates the memory of cached entities, assuming a 64-bit JVM with compressed references.
+ * <br>An entity is measured with its own fields, and the strings and primitive arrays it references.
+ * Other referenced objects are not included, since they are usually shared or measured by another cache.
+ */
+public final class MemoryEstimator
+{
+    public static final int SAMPLE_SIZE = 16;
+
+    private static final int HEADER = 12;
+    private static final int ARRAY_HEADER = 16;
+    private static final int REFERENCE = 4;
+    // Java 9 stores latin-1 strings with one byte per character
+    private static final int CHAR_SIZE = System.getProperty("java.specification.version", "").startsWith("1.") ? 2 : 1;
+
+    private static final ClassValue<Layout> LAYOUTS = new ClassValue<Layout>()
+    {
+        @Override
+        protected Layout computeValue(Class<?> type)
+        {
+            return new Layout(type);
+        }
+    };
+
+    private MemoryEstimator() {}
+
+    public static long sizeOf(Object obj)
+    {
+        if (obj == null)
+            return 0;
+        if (obj instanceof String)
+            return sizeOfString((String) obj);
+        Class<?> type = obj.getClass();
+        if (type.isArray())
+            return type.getComponentType().isPrimitive() ? sizeOfPrimitiveArray(obj) : sizeOfArray(Array.getLength(obj), REFERENCE);
+
+        Layout layout = LAYOUTS.get(type);
+        long size = layout.shallowSize;
+        for (Field field : layout.ownedFields)
+        {
+            try
+            {
+                Object value = field.get(obj);
+                if (value != null)
+                    size += value instanceof String ? sizeOfString((String) value) : sizeOfPrimitiveArray(value);
+            }
+            catch (IllegalAccessException ignored) {}
+        }
+        return size;
+    }
+
+    public static long sizeOfString(String string)
+    {
+        return string == null ? 0 : align(HEADER + 12) + sizeOfArray(string.length(), CHAR_SIZE);
+    }
+
+    public static long sizeOfArray(long length, int elementSize)
+    {
+        return align(ARRAY_HEADER + length * elementSize);
+    }
+
+    // Used for the primitive collections of trove, which use open addressing with the provided key and value sizes
+    public static long sizeOfHashMap(int capacity, int keySize, int valueSize)
+    {
+        return sizeOfArray(capacity, keySize) + sizeOfArray(capacity, valueSize) + sizeOfArray(capacity, 1);
+    }
+
+    private static long sizeOfPrimitiveArray(Object array)
+    {
+        int length = Array.getLength(array);
+        return sizeOfArray(length, sizeOf(array.getClass().getComponentType()));
+    }
+
+    private static int sizeOf(Class<?> type)
+    {
+        if (type == long.class || type == double.class)
+            return 8;
+        if (type == int.class || type == float.class)
+            return 4;
+        if (type == short.class || type == char.class)
+            return 2;
+        if (type == byte.class || type == boolean.class)
+            return 1;
+        return REFERENCE;
+    }
+
+    private static long align(long size)
+    {
+        return (size + 7) & ~7;
+    }
+
+    private static class Layout
+    {
+        private final long shallowSize;
+        private final List<Field> ownedFields = new ArrayList<>();
+
+        private Layout(Class<?> type)
+        {
+            long size = HEADER;
+            for (Class<?> current = type; current != null; current = current.getSuperclass())
+            {
+                for (Field field : current.getDeclaredFields())
+                {
+                    if (Modifier.isStatic(field.getModifiers()))
+                        continue;
+                    Class<?> fieldType = field.getType();
+                    size += sizeOf(fieldType);
+                    boolean owned = fieldType == String.class || fieldType.isArray() && fieldType.getComponentType().isPrimitive();
+                    if (!owned)
+                        continue;
+                    try
+                    {
+                        field.setAccessible(true);
+                        ownedFields.add(field);
+                    }
+                    catch (RuntimeException ignored) {} // Inaccessible fields of other modules are not measured
+                }
+            }
+            this.shallowSize = align(size);
+        }
+    }
+}
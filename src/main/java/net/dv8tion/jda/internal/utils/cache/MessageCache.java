@@ -0,0 +1,191 @@
+/*
+ * Copyright 2015-2020 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.internal.utils.cache;
+
+import gnu.trove.map.TLongObjectMap;
+import gnu.trove.map.hash.TLongObjectHashMap;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.internal.utils.Checks;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Cache of the latest received messages, used with {@link net.dv8tion.jda.api.utils.cache.CacheFlag#MESSAGE CacheFlag.MESSAGE}.
+ * <br>Every channel keeps the ids of its messages in a ring buffer, the oldest message is dropped once the buffer is full.
+ * When the total limit is reached, the oldest messages of the channel with the least recent message are dropped first.
+ */
+public class MessageCache
+{
+    private final int channelLimit;
+    private final int totalLimit;
+    private final TLongObjectMap<Message> messages = new TLongObjectHashMap<>();
+    // Ordered by the latest put of each channel, the first channel is the least active one
+    // This is not an access ordered map, lookups by remove(long, long) should not count as activity
+    private final LinkedHashMap<Long, Ring> channels = new LinkedHashMap<>();
+
+    public MessageCache(int channelLimit, int totalLimit)
+    {
+        Checks.positive(channelLimit, "Channel limit");
+        Checks.positive(totalLimit, "Total limit");
+        this.channelLimit = channelLimit;
+        this.totalLimit = totalLimit;
+    }
+
+    public int getChannelLimit()
+    {
+        return channelLimit;
+    }
+
+    public int getTotalLimit()
+    {
+        return totalLimit;
+    }
+
+    /**
+     * Adds a new message to the cache.
+     *
+     * @param  message
+     *         The message
+     *
+     * @return The previously cached message with the same id, or null
+     */
+    public synchronized Message put(Message message)
+    {
+        long id = message.getIdLong();
+        Message previous = messages.put(id, message);
+        if (previous != null)
+            return previous;
+
+        // Moves the channel to the end of the order
+        long channelId = message.getChannel().getIdLong();
+        Ring ring = channels.remove(channelId);
+        if (ring == null)
+            ring = new Ring();
+        channels.put(channelId, ring);
+        if (ring.size == channelLimit)
+            messages.remove(ring.poll());
+        ring.add(id);
+
+        while (messages.size() > totalLimit)
+        {
+            Iterator<Ring> it = channels.values().iterator();
+            Ring oldest = it.next();
+            messages.remove(oldest.poll());
+            if (oldest.size == 0)
+                it.remove();
+        }
+        return null;
+    }
+
+    /**
+     * Replaces a cached message with its updated version.
+     * <br>Messages which are not cached are not added, since they are older than the cached messages.
+     *
+     * @param  message
+     *         The updated message
+     *
+     * @return The previously cached message, or null if the message was not cached
+     */
+    public synchronized Message replace(Message message)
+    {
+        long id = message.getIdLong();
+        return messages.containsKey(id) ? messages.put(id, message) : null;
+    }
+
+    public synchronized Message get(long id)
+    {
+        return messages.get(id);
+    }
+
+    public synchronized Message remove(long channelId, long id)
+    {
+        Message message = messages.remove(id);
+        if (message == null)
+            return null;
+        Ring ring = channels.get(channelId);
+        if (ring != null)
+        {
+            ring.remove(id);
+            if (ring.size == 0)
+                channels.remove(channelId);
+        }
+        return message;
+    }
+
+    public synchronized void removeChannel(long channelId)
+    {
+        Ring ring = channels.remove(channelId);
+        if (ring == null)
+            return;
+        while (ring.size > 0)
+            messages.remove(ring.poll());
+    }
+
+    public synchronized int size()
+    {
+        return messages.size();
+    }
+
+    public synchronized void clear()
+    {
+        messages.clear();
+        channels.clear();
+    }
+
+    private class Ring
+    {
+        // Starts small, most channels only have a few cached messages
+        private long[] ids = new long[Math.min(channelLimit, 4)];
+        private int head, size;
+
+        private void add(long id)
+        {
+            if (size == ids.length)
+            {
+                long[] grown = new long[Math.min(channelLimit, ids.length * 2)];
+                for (int i = 0; i < size; i++)
+                    grown[i] = ids[(head + i) % ids.length];
+                ids = grown;
+                head = 0;
+            }
+            ids[(head + size++) % ids.length] = id;
+        }
+
+        private long poll()
+        {
+            long id = ids[head];
+            head = (head + 1) % ids.length;
+            size--;
+            return id;
+        }
+
+        // Deleted messages are usually recent, so this searches from the tail
+        private void remove(long id)
+        {
+            for (int i = size - 1; i >= 0; i--)
+            {
+                if (ids[(head + i) % ids.length] != id)
+                    continue;
+                for (int j = i; j < size - 1; j++)
+                    ids[(head + j) % ids.length] = ids[(head + j + 1) % ids.length];
+                size--;
+                return;
+            }
+        }
+    }
+}
@@ -23,11 +23,21 @@ import java.util.Collections;
 import java.util.List;
 import java.util.NavigableSet;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.StampedLock;
 
 public abstract class ReadWriteLockCache<T>
 {
+    @SuppressWarnings("rawtypes") // Class literals are raw, the field exists for every ReadWriteLockCache<T>
+    private static final AtomicLongFieldUpdater<ReadWriteLockCache> CONTENDED = AtomicLongFieldUpdater.newUpdater(ReadWriteLockCache.class, "contended");
+
     protected final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Held in write mode by the outermost write lock, this allows lookups to use optimistic reads without locking
+    protected final StampedLock optimisticLock = new StampedLock();
+    private long writeStamp;
+    // Amount of lock acquisitions which had to wait for another thread, only updated when that happens
+    private volatile long contended;
     protected WeakReference<List<T>> cachedList;
     protected WeakReference<Set<T>>  cachedSet;
 
@@ -36,20 +46,45 @@ public abstract class ReadWriteLockCache<T>
         if (lock.getReadHoldCount() > 0)
             throw new IllegalStateException("Unable to acquire write-lock while holding read-lock!");
         ReentrantReadWriteLock.WriteLock writeLock = lock.writeLock();
-        writeLock.lock();
+        if (!writeLock.tryLock())
+        {
+            CONTENDED.incrementAndGet(this);
+            writeLock.lock();
+        }
+        // The stamped lock is not reentrant, only the outermost write lock acquires it
+        if (lock.getWriteHoldCount() == 1)
+            writeStamp = optimisticLock.writeLock();
         onAcquireWriteLock();
         clearCachedLists();
-        return new UnlockHook(writeLock);
+        return new UnlockHook(writeLock)
+        {
+            @Override
+            public void close()
+            {
+                if (lock.getWriteHoldCount() == 1)
+                    optimisticLock.unlockWrite(writeStamp);
+                super.close();
+            }
+        };
     }
 
     public UnlockHook readLock()
     {
         ReentrantReadWriteLock.ReadLock readLock = lock.readLock();
-        readLock.lock();
+        if (!readLock.tryLock())
+        {
+            CONTENDED.incrementAndGet(this);
+            readLock.lock();
+        }
         onAcquireReadLock();
         return new UnlockHook(readLock);
     }
 
+    public long getContendedLocks()
+    {
+        return contended;
+    }
+
     public void clearCachedLists()
     {
         cachedList = null;
@@ -21,6 +21,7 @@ import net.dv8tion.jda.internal.utils.JDALogger;
 import org.slf4j.Logger;
 
 import javax.annotation.Nullable;
+import java.nio.ByteBuffer;
 import java.util.zip.DataFormatException;
 
 public interface Decompressor
@@ -34,5 +35,17 @@ public interface Decompressor
     void shutdown();
 
     @Nullable // returns null when the decompression isn't done, for example when no Z_SYNC_FLUSH was present
-    byte[] decompress(byte[] data) throws DataFormatException;
+    default byte[] decompress(byte[] data) throws DataFormatException
+    {
+        ByteBuffer buffer = decompressBuffer(data);
+        if (buffer == null)
+            return null;
+        byte[] copy = new byte[buffer.remaining()];
+        buffer.get(copy);
+        return copy;
+    }
+
+    // The returned buffer is backed by an internal array and is only valid until the next call to this method
+    @Nullable // returns null when the decompression isn't done, for example when no Z_SYNC_FLUSH was present
+    ByteBuffer decompressBuffer(byte[] data) throws DataFormatException;
 }
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2015-2020 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.internal.utils.compress;
+
+import net.dv8tion.jda.api.utils.Compression;
+import net.dv8tion.jda.api.utils.DecompressionBufferPool;
+import net.dv8tion.jda.internal.utils.IOUtil;
+
+import java.nio.ByteBuffer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Zlib-stream decompressor which borrows its buffers from a {@link DecompressionBufferPool}.
+ * <br>The buffer holding the last payload is returned to the pool on the next call.
+ */
+public class PooledZlibDecompressor implements Decompressor
+{
+    private static final int Z_SYNC_FLUSH = 0x0000FFFF;
+
+    private final DecompressionBufferPool pool;
+    private final Inflater inflater = new Inflater();
+    private byte[] flushBuffer = null;
+    private int flushLength = 0;
+    private byte[] decompressBuffer = null;
+
+    public PooledZlibDecompressor(DecompressionBufferPool pool)
+    {
+        this.pool = pool;
+    }
+
+    private boolean isFlush(byte[] data)
+    {
+        if (data.length < 4)
+            return false;
+        int suffix = IOUtil.getIntBigEndian(data, data.length - 4);
+        return suffix == Z_SYNC_FLUSH;
+    }
+
+    private void buffer(byte[] data)
+    {
+        if (flushBuffer == null)
+        {
+            flushBuffer = pool.acquire(data.length * 2);
+        }
+        else if (flushBuffer.length < flushLength + data.length)
+        {
+            //Move to a larger buffer, the old one can be reused by other sessions
+            byte[] larger = pool.acquire((flushLength + data.length) * 2);
+            System.arraycopy(flushBuffer, 0, larger, 0, flushLength);
+            pool.release(flushBuffer);
+            flushBuffer = larger;
+        }
+
+        System.arraycopy(data, 0, flushBuffer, flushLength, data.length);
+        flushLength += data.length;
+    }
+
+    private void releaseBuffers()
+    {
+        if (decompressBuffer != null)
+            pool.release(decompressBuffer);
+        if (flushBuffer != null)
+            pool.release(flushBuffer);
+        decompressBuffer = flushBuffer = null;
+        flushLength = 0;
+    }
+
+    @Override
+    public Compression getType()
+    {
+        return Compression.ZLIB;
+    }
+
+    @Override
+    public void reset()
+    {
+        inflater.reset();
+        releaseBuffers();
+    }
+
+    @Override
+    public void shutdown()
+    {
+        reset();
+    }
+
+    @Override
+    public ByteBuffer decompressBuffer(byte[] data) throws DataFormatException
+    {
+        // The previous payload has been handled at this point
+        if (decompressBuffer != null)
+        {
+            pool.release(decompressBuffer);
+            decompressBuffer = null;
+        }
+
+        //Handle split messages
+        if (!isFlush(data))
+        {
+            //There is no flush suffix so this is not the end of the message
+            LOG.debug("Received incomplete data, writing to buffer. Length: {}", data.length);
+            buffer(data);
+            return null; // signal failure to decompress
+        }
+
+        byte[] input = data;
+        int length = data.length;
+        if (flushBuffer != null)
+        {
+            //This has a flush suffix and we have an incomplete package buffered
+            LOG.debug("Received final part of incomplete data");
+            buffer(data);
+            input = flushBuffer;
+            length = flushLength;
+        }
+
+        inflater.setInput(input, 0, length);
+        // Text usually inflates to a multiple of its compressed size
+        byte[] output = pool.acquire(length * 4);
+        int size = 0;
+        try
+        {
+            int inflated;
+            do
+            {
+                if (size == output.length)
+                {
+                    byte[] larger = pool.acquire(output.length * 2);
+                    System.arraycopy(output, 0, larger, 0, size);
+                    pool.release(output);
+                    output = larger;
+                }
+                inflated = inflater.inflate(output, size, output.length - size);
+                size += inflated;
+            } while (inflated > 0);
+        }
+        catch (DataFormatException e)
+        {
+            pool.release(output);
+            throw e;
+        }
+        finally
+        {
+            if (flushBuffer != null)
+            {
+                pool.release(flushBuffer);
+                flushBuffer = null;
+                flushLength = 0;
+            }
+        }
+
+        pool.record(length, size);
+        decompressBuffer = output;
+        return ByteBuffer.wrap(output, 0, size);
+    }
+}
@@ -36,27 +36,30 @@ public class ZlibDecompressor implements Decompressor
     private final int maxBufferSize;
     private final Inflater inflater = new Inflater();
     private ByteBuffer flushBuffer = null;
-    private SoftReference<ByteArrayOutputStream> decompressBuffer = null;
+    private SoftReference<DecompressBuffer> decompressBuffer = null;
 
     public ZlibDecompressor(int maxBufferSize)
     {
         this.maxBufferSize = maxBufferSize;
     }
 
-    private SoftReference<ByteArrayOutputStream> newDecompressBuffer()
+    private SoftReference<DecompressBuffer> newDecompressBuffer()
     {
-        return new SoftReference<>(new ByteArrayOutputStream(Math.min(1024, maxBufferSize)));
+        return new SoftReference<>(new DecompressBuffer(Math.min(1024, maxBufferSize)));
     }
 
-    private ByteArrayOutputStream getDecompressBuffer()
+    private DecompressBuffer getDecompressBuffer()
     {
         // If no buffer has been allocated yet we do that here (lazy init)
         if (decompressBuffer == null)
             decompressBuffer = newDecompressBuffer();
         // Check if the buffer has been collected by the GC or not
-        ByteArrayOutputStream buffer = decompressBuffer.get();
-        if (buffer == null) // create a ne buffer because the GC got it
-            decompressBuffer = new SoftReference<>(buffer = new ByteArrayOutputStream(Math.min(1024, maxBufferSize)));
+        DecompressBuffer buffer = decompressBuffer.get();
+        // Create a new buffer because the GC got it or the previous payload exceeded the maximum size
+        if (buffer == null || buffer.capacity() > maxBufferSize)
+            decompressBuffer = new SoftReference<>(buffer = new DecompressBuffer(Math.min(1024, maxBufferSize)));
+        else
+            buffer.reset();
         return buffer;
     }
 
@@ -85,9 +88,9 @@ public class ZlibDecompressor implements Decompressor
         flushBuffer.put(data);
     }
 
-    private Object lazy(byte[] data)
+    private Object lazy(byte[] data, int length)
     {
-        return JDALogger.getLazyString(() -> Arrays.toString(data));
+        return JDALogger.getLazyString(() -> Arrays.toString(Arrays.copyOf(data, length)));
     }
 
     @Override
@@ -109,8 +112,9 @@ public class ZlibDecompressor implements Decompressor
     }
 
     @Override
-    public byte[] decompress(byte[] data) throws DataFormatException
+    public ByteBuffer decompressBuffer(byte[] data) throws DataFormatException
     {
+        int length = data.length;
         //Handle split messages
         if (!isFlush(data))
         {
@@ -125,34 +129,44 @@ public class ZlibDecompressor implements Decompressor
             //concatenate the package with the new data and decompress it below
             LOG.debug("Received final part of incomplete data");
             buffer(data);
-            byte[] arr = flushBuffer.array();
-            data = new byte[flushBuffer.position()];
-            System.arraycopy(arr, 0, data, 0, data.length);
+            //Inflate straight from the backing array, there is no need to copy it
+            length = flushBuffer.position();
+            data = flushBuffer.array();
             flushBuffer = null;
         }
-        LOG.trace("Decompressing data {}", lazy(data));
+        LOG.trace("Decompressing data {}", lazy(data, length));
         //Get the compressed message and inflate it
         //We use the same buffer here to optimize gc use
-        ByteArrayOutputStream buffer = getDecompressBuffer();
+        DecompressBuffer buffer = getDecompressBuffer();
         try (InflaterOutputStream decompressor = new InflaterOutputStream(buffer, inflater))
         {
             // This decompressor writes the received data and inflates it
-            decompressor.write(data);
-            // Once decompressed we re-interpret the data as a String which can be used for JSON parsing
-            return buffer.toByteArray();
+            decompressor.write(data, 0, length);
+            // The payload is read directly from our buffer, it is reset on the next call
+            return buffer.view();
         }
         catch (IOException e)
         {
             // Some issue appeared during decompression that caused a failure
             throw (DataFormatException) new DataFormatException("Malformed").initCause(e);
         }
-        finally
+    }
+
+    private static class DecompressBuffer extends ByteArrayOutputStream
+    {
+        private DecompressBuffer(int size)
+        {
+            super(size);
+        }
+
+        private int capacity()
+        {
+            return buf.length;
+        }
+
+        private ByteBuffer view()
         {
-            // When done with decompression we want to reset the buffer so it can be used again later
-            if (buffer.size() > maxBufferSize)
-                decompressBuffer = newDecompressBuffer();
-            else
-                buffer.reset();
+            return ByteBuffer.wrap(buf, 0, count);
         }
     }
 }
@@ -27,11 +27,12 @@ import java.util.concurrent.ConcurrentMap;
 
 public class MetaConfig
 {
-    private static final MetaConfig defaultConfig = new MetaConfig(2048, null, EnumSet.allOf(CacheFlag.class), ConfigFlag.getDefault());
+    private static final MetaConfig defaultConfig = new MetaConfig(2048, null, EnumSet.complementOf(EnumSet.of(CacheFlag.MEMBER_INDEX, CacheFlag.MESSAGE)), ConfigFlag.getDefault());
     private final ConcurrentMap<String, String> mdcContextMap;
     private final EnumSet<CacheFlag> cacheFlags;
     private final boolean enableMDC;
     private final boolean useShutdownHook;
+    private final boolean compactMemberCache;
     private final int maxBufferSize;
 
     public MetaConfig(
@@ -47,6 +48,7 @@ public class MetaConfig
         else
             this.mdcContextMap = null;
         this.useShutdownHook = flags.contains(ConfigFlag.SHUTDOWN_HOOK);
+        this.compactMemberCache = flags.contains(ConfigFlag.COMPACT_MEMBER_CACHE);
     }
 
     @Nullable
@@ -71,6 +73,11 @@ public class MetaConfig
         return useShutdownHook;
     }
 
+    public boolean isCompactMemberCache()
+    {
+        return compactMemberCache;
+    }
+
     public int getMaxBufferSize()
     {
         return maxBufferSize;
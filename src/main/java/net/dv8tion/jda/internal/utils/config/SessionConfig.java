@@ -113,6 +113,16 @@ public class SessionConfig
         return flags.contains(ConfigFlag.USE_RELATIVE_RATELIMIT);
     }
 
+    public boolean isAsyncRequests()
+    {
+        return flags.contains(ConfigFlag.ASYNC_REQUESTS);
+    }
+
+    public boolean isInterning()
+    {
+        return flags.contains(ConfigFlag.INTERNING);
+    }
+
     public int getMaxReconnectDelay()
     {
         return maxReconnectDelay;
@@ -29,11 +29,13 @@ public class ThreadingConfig
     private ScheduledExecutorService gatewayPool;
     private ExecutorService callbackPool;
     private ExecutorService eventPool;
+    private ExecutorService guildSetupPool;
 
     private boolean shutdownRateLimitPool;
     private boolean shutdownGatewayPool;
     private boolean shutdownCallbackPool;
     private boolean shutdownEventPool;
+    private boolean shutdownGuildSetupPool;
 
     public ThreadingConfig()
     {
@@ -68,6 +70,12 @@ public class ThreadingConfig
         this.shutdownEventPool = shutdown;
     }
 
+    public void setGuildSetupPool(@Nullable ExecutorService executor, boolean shutdown)
+    {
+        this.guildSetupPool = executor;
+        this.shutdownGuildSetupPool = shutdown;
+    }
+
     public void init(@Nonnull Supplier<String> identifier)
     {
         if (this.rateLimitPool == null)
@@ -84,6 +92,8 @@ public class ThreadingConfig
             gatewayPool.shutdown();
         if (shutdownEventPool && eventPool != null)
             eventPool.shutdown();
+        if (shutdownGuildSetupPool && guildSetupPool != null)
+            guildSetupPool.shutdown();
         if (shutdownRateLimitPool)
         {
             if (rateLimitPool instanceof ScheduledThreadPoolExecutor)
@@ -115,6 +125,8 @@ public class ThreadingConfig
             rateLimitPool.shutdownNow();
         if (shutdownEventPool && eventPool != null)
             eventPool.shutdownNow();
+        if (shutdownGuildSetupPool && guildSetupPool != null)
+            guildSetupPool.shutdownNow();
     }
 
     @Nonnull
@@ -141,6 +153,12 @@ public class ThreadingConfig
         return eventPool;
     }
 
+    @Nullable
+    public ExecutorService getGuildSetupPool()
+    {
+        return guildSetupPool;
+    }
+
     public boolean isShutdownRateLimitPool()
     {
         return shutdownRateLimitPool;
@@ -161,6 +179,11 @@ public class ThreadingConfig
         return shutdownEventPool;
     }
 
+    public boolean isShutdownGuildSetupPool()
+    {
+        return shutdownGuildSetupPool;
+    }
+
     @Nonnull
     public static ScheduledThreadPoolExecutor newScheduler(int coreSize, Supplier<String> identifier, String baseName)
     {
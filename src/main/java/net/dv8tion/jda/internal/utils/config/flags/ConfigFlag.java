@@ -26,7 +26,10 @@ public enum ConfigFlag
     BULK_DELETE_SPLIT(true),
     SHUTDOWN_HOOK(true),
     MDC_CONTEXT(true),
-    AUTO_RECONNECT(true);
+    AUTO_RECONNECT(true),
+    ASYNC_REQUESTS,
+    INTERNING,
+    COMPACT_MEMBER_CACHE;
 
     private final boolean isDefault;
 
@@ -20,7 +20,8 @@ import java.util.EnumSet;
 
 public enum ShardingConfigFlag
 {
-    SHUTDOWN_NOW;
+    SHUTDOWN_NOW,
+    SHARED_RATE_LIMITER;
 
     public static EnumSet<ShardingConfigFlag> getDefault()
     {
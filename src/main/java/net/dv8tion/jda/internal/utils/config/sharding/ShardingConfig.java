@@ -17,6 +17,7 @@
 package net.dv8tion.jda.internal.utils.config.sharding;
 
 import net.dv8tion.jda.api.requests.GatewayIntent;
+import net.dv8tion.jda.api.utils.DispatchFilter;
 import net.dv8tion.jda.api.utils.MemberCachePolicy;
 
 import javax.annotation.Nonnull;
@@ -26,14 +27,16 @@ public class ShardingConfig
     private int shardsTotal;
     private int intents;
     private MemberCachePolicy memberCachePolicy;
+    private DispatchFilter dispatchFilter;
     private final boolean useShutdownNow;
 
-    public ShardingConfig(int shardsTotal, boolean useShutdownNow, int intents, MemberCachePolicy memberCachePolicy)
+    public ShardingConfig(int shardsTotal, boolean useShutdownNow, int intents, MemberCachePolicy memberCachePolicy, DispatchFilter dispatchFilter)
     {
         this.shardsTotal = shardsTotal;
         this.useShutdownNow = useShutdownNow;
         this.intents = intents;
         this.memberCachePolicy = memberCachePolicy;
+        this.dispatchFilter = dispatchFilter;
     }
 
     public void setShardsTotal(int shardsTotal)
@@ -56,6 +59,11 @@ public class ShardingConfig
         return memberCachePolicy;
     }
 
+    public DispatchFilter getDispatchFilter()
+    {
+        return dispatchFilter;
+    }
+
     public boolean isUseShutdownNow()
     {
         return useShutdownNow;
@@ -64,6 +72,6 @@ public class ShardingConfig
     @Nonnull
     public static ShardingConfig getDefault()
     {
-        return new ShardingConfig(1, false, GatewayIntent.ALL_INTENTS, MemberCachePolicy.ALL);
+        return new ShardingConfig(1, false, GatewayIntent.ALL_INTENTS, MemberCachePolicy.ALL, DispatchFilter.ALL);
     }
 }
@@ -17,6 +17,9 @@
 package net.dv8tion.jda.internal.utils.config.sharding;
 
 import net.dv8tion.jda.api.utils.Compression;
+import net.dv8tion.jda.api.utils.DecompressionBufferPool;
+import net.dv8tion.jda.api.utils.GatewayEncoding;
+import net.dv8tion.jda.api.utils.RateLimitBackend;
 import net.dv8tion.jda.api.utils.cache.CacheFlag;
 import net.dv8tion.jda.internal.utils.config.MetaConfig;
 import net.dv8tion.jda.internal.utils.config.flags.ConfigFlag;
@@ -29,18 +32,29 @@ import java.util.function.IntFunction;
 
 public class ShardingMetaConfig extends MetaConfig
 {
-    private static final ShardingMetaConfig defaultConfig = new ShardingMetaConfig(2048, null, null, ConfigFlag.getDefault(), Compression.ZLIB);
+    private static final ShardingMetaConfig defaultConfig = new ShardingMetaConfig(2048, null, null, ConfigFlag.getDefault(), Compression.ZLIB, null, GatewayEncoding.JSON, null, 50, 5000);
     private final Compression compression;
+    private final DecompressionBufferPool decompressionPool;
+    private final GatewayEncoding encoding;
+    private final RateLimitBackend rateLimitBackend;
+    private final int messageCacheSize, messageCacheTotal;
     private final IntFunction<? extends ConcurrentMap<String, String>> contextProvider;
 
     public ShardingMetaConfig(
         int maxBufferSize,
         @Nullable IntFunction<? extends ConcurrentMap<String, String>> contextProvider,
-        @Nullable EnumSet<CacheFlag> cacheFlags, EnumSet<ConfigFlag> flags, Compression compression)
+        @Nullable EnumSet<CacheFlag> cacheFlags, EnumSet<ConfigFlag> flags, Compression compression,
+        @Nullable DecompressionBufferPool decompressionPool, GatewayEncoding encoding,
+        @Nullable RateLimitBackend rateLimitBackend, int messageCacheSize, int messageCacheTotal)
     {
         super(maxBufferSize, null, cacheFlags, flags);
 
         this.compression = compression;
+        this.decompressionPool = decompressionPool;
+        this.encoding = encoding;
+        this.rateLimitBackend = rateLimitBackend;
+        this.messageCacheSize = messageCacheSize;
+        this.messageCacheTotal = messageCacheTotal;
         this.contextProvider = contextProvider;
     }
 
@@ -55,6 +69,33 @@ public class ShardingMetaConfig extends MetaConfig
         return compression;
     }
 
+    @Nullable
+    public DecompressionBufferPool getDecompressionPool()
+    {
+        return decompressionPool;
+    }
+
+    public GatewayEncoding getEncoding()
+    {
+        return encoding;
+    }
+
+    @Nullable
+    public RateLimitBackend getRateLimitBackend()
+    {
+        return rateLimitBackend;
+    }
+
+    public int getMessageCacheSize()
+    {
+        return messageCacheSize;
+    }
+
+    public int getMessageCacheTotal()
+    {
+        return messageCacheTotal;
+    }
+
     @Nullable
     public IntFunction<? extends ConcurrentMap<String, String>> getContextProvider()
     {
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2015-2020 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import net.dv8tion.jda.internal.audio.AudioCipher;
+import net.dv8tion.jda.internal.audio.AudioCryptoProvider;
+import net.dv8tion.jda.internal.audio.TweetNaclCipher;
+import net.dv8tion.jda.internal.audio.XSalsa20Poly1305Cipher;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class AudioCipherTest
+{
+    private static final Random RANDOM = new Random(1337);
+
+    @Test
+    public void testMatchesTweetNacl()
+    {
+        for (int i = 0; i < 20; i++)
+        {
+            byte[] key = randomBytes(32);
+            AudioCipher expected = new TweetNaclCipher(key);
+            AudioCipher actual = new XSalsa20Poly1305Cipher(key);
+            for (int length = 0; length < 600; length += 1 + RANDOM.nextInt(40))
+            {
+                byte[] nonce = randomBytes(AudioCipher.NONCE_LENGTH);
+                byte[] message = randomBytes(length);
+                byte[] expectedBox = new byte[length + AudioCipher.OVERHEAD_LENGTH];
+                byte[] actualBox = new byte[length + AudioCipher.OVERHEAD_LENGTH + 3];
+                Assertions.assertEquals(expectedBox.length, expected.seal(message, 0, length, nonce, expectedBox, 0));
+                Assertions.assertEquals(expectedBox.length, actual.seal(message, 0, length, nonce, actualBox, 3));
+                Assertions.assertArrayEquals(expectedBox, Arrays.copyOfRange(actualBox, 3, actualBox.length));
+
+                byte[] opened = new byte[length];
+                Assertions.assertEquals(length, actual.open(expectedBox, 0, expectedBox.length, nonce, opened, 0));
+                Assertions.assertArrayEquals(message, opened);
+            }
+        }
+    }
+
+    @Test
+    public void testRejectsModifiedBox()
+    {
+        byte[] key = randomBytes(32);
+        byte[] nonce = randomBytes(AudioCipher.NONCE_LENGTH);
+        AudioCipher cipher = new XSalsa20Poly1305Cipher(key);
+        byte[] message = randomBytes(100);
+        byte[] box = new byte[message.length + AudioCipher.OVERHEAD_LENGTH];
+        cipher.seal(message, 0, message.length, nonce, box, 0);
+
+        byte[] out = new byte[message.length];
+        for (int i : new int[] { 0, 15, 16, box.length - 1 })
+        {
+            box[i] ^= 1;
+            Assertions.assertEquals(-1, cipher.open(box, 0, box.length, nonce, out, 0));
+            box[i] ^= 1;
+        }
+        Assertions.assertEquals(-1, cipher.open(box, 0, box.length, nonce, new byte[10], 0));
+        Assertions.assertEquals(message.length, cipher.open(box, 0, box.length, nonce, out, 0));
+    }
+
+    @Test
+    public void testDefaultProvider()
+    {
+        Assertions.assertSame(AudioCryptoProvider.XSALSA20, AudioCryptoProvider.getProvider());
+    }
+
+    private static byte[] randomBytes(int length)
+    {
+        byte[] bytes = new byte[length];
+        RANDOM.nextBytes(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2015-2020 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import net.dv8tion.jda.api.audio.factory.IPacketProvider;
+import net.dv8tion.jda.api.audio.hooks.ConnectionStatus;
+import net.dv8tion.jda.api.entities.VoiceChannel;
+import net.dv8tion.jda.internal.audio.AudioReactor;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+public class AudioReactorTest
+{
+    private static final long SEND_MILLIS = 1000;
+
+    @Test
+    public void testSendAndReceive() throws Exception
+    {
+        AudioReactor reactor = new AudioReactor(1, "Test Audio Reactor");
+        try (DatagramChannel server = open(); DatagramChannel first = open(); DatagramChannel second = open())
+        {
+            InetSocketAddress serverAddress = (InetSocketAddress) server.getLocalAddress();
+            AudioReactor.Registration firstRegistration = reactor.register(first);
+            AudioReactor.Registration secondRegistration = reactor.register(second);
+            Assertions.assertSame(firstRegistration, reactor.register(first));
+            Assertions.assertEquals(2, reactor.getConnectionCount());
+
+            // Every connection sends one packet per 20 ms
+            AtomicInteger mixes = new AtomicInteger();
+            long start = System.nanoTime();
+            firstRegistration.setSender(new PacketProvider(serverAddress, (byte) 1));
+            firstRegistration.setMixer(mixes::incrementAndGet);
+            secondRegistration.setSender(new PacketProvider(serverAddress, (byte) 2));
+            int[] received = new int[3];
+            ByteBuffer buffer = ByteBuffer.allocate(16);
+            while (System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(SEND_MILLIS))
+            {
+                buffer.clear();
+                if (server.receive(buffer) != null)
+                    received[buffer.get(0)]++;
+                else
+                    Thread.sleep(1);
+            }
+            long frames = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) / 20;
+            assertFrames(frames, received[1]);
+            assertFrames(frames, received[2]);
+            assertFrames(frames, mixes.get());
+
+            // Received packets are dispatched to the receiver of the connection
+            BlockingQueue<Byte> packets = new LinkedBlockingQueue<>();
+            Consumer<ByteBuffer> receiver = packet -> packets.add(packet.get(0));
+            firstRegistration.setReceiver(receiver);
+            sendUntilReceived(server, first, packets, (byte) 42);
+
+            // A connection without handlers is removed, even if a new registration of its channel follows right away
+            firstRegistration.setSender(null);
+            firstRegistration.setMixer(null);
+            firstRegistration.setReceiver(null);
+            AudioReactor.Registration reregistered = reactor.register(first);
+            Assertions.assertNotSame(firstRegistration, reregistered);
+            reregistered.setReceiver(receiver);
+            sendUntilReceived(server, first, packets, (byte) 43);
+
+            reregistered.setReceiver(null);
+            secondRegistration.close();
+            long deadline = System.currentTimeMillis() + 1000;
+            while (reactor.getConnectionCount() > 0 && System.currentTimeMillis() < deadline)
+                Thread.sleep(5);
+            Assertions.assertEquals(0, reactor.getConnectionCount());
+
+            // Nothing is sent once the connections are removed
+            Thread.sleep(60);
+            while (server.receive(buffer) != null)
+                buffer.clear();
+            Thread.sleep(100);
+            buffer.clear();
+            Assertions.assertNull(server.receive(buffer));
+        }
+        finally
+        {
+            reactor.shutdown();
+        }
+    }
+
+    private static void assertFrames(long expected, int actual)
+    {
+        // Scheduling of the test threads is not exact, a thread which falls behind skips frames
+        Assertions.assertTrue(actual >= expected / 2 && actual <= expected + 2,
+            "Expected about " + expected + " frames, got " + actual);
+    }
+
+    private static void sendUntilReceived(DatagramChannel server, DatagramChannel target, BlockingQueue<Byte> packets, byte value) throws Exception
+    {
+        // The registration is applied by the reactor thread, packets sent before that are only read once it is
+        for (int i = 0; i < 50; i++)
+        {
+            server.send(ByteBuffer.wrap(new byte[] { value }), target.getLocalAddress());
+            Byte packet = packets.poll(20, TimeUnit.MILLISECONDS);
+            if (packet != null && packet == value)
+            {
+                packets.clear();
+                return;
+            }
+        }
+        Assertions.fail("Packet " + value + " was not received");
+    }
+
+    private static DatagramChannel open() throws IOException
+    {
+        DatagramChannel channel = DatagramChannel.open();
+        channel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        channel.configureBlocking(false);
+        return channel;
+    }
+
+    private static class PacketProvider implements IPacketProvider
+    {
+        private final InetSocketAddress address;
+        private final byte id;
+
+        private PacketProvider(InetSocketAddress address, byte id)
+        {
+            this.address = address;
+            this.id = id;
+        }
+
+        @Nonnull
+        @Override
+        public String getIdentifier()
+        {
+            return "Test " + id;
+        }
+
+        @Nonnull
+        @Override
+        public VoiceChannel getConnectedChannel()
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Nonnull
+        @Override
+        public DatagramSocket getUdpSocket()
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Nonnull
+        @Override
+        public InetSocketAddress getSocketAddress()
+        {
+            return address;
+        }
+
+        @Override
+        public ByteBuffer getNextPacketRaw(boolean changeTalking)
+        {
+            return ByteBuffer.wrap(new byte[] { id });
+        }
+
+        @Override
+        public DatagramPacket getNextPacket(boolean changeTalking)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void onConnectionError(@Nonnull ConnectionStatus status) {}
+
+        @Override
+        public void onConnectionLost() {}
+    }
+}
@@ -0,0 +1,432 @@
+/*
+ * Copyright 2015-2020 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import gnu.trove.map.TLongObjectMap;
+import net.dv8tion.jda.api.OnlineStatus;
+import net.dv8tion.jda.api.entities.ClientType;
+import net.dv8tion.jda.api.entities.ISnowflake;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.MessageChannel;
+import net.dv8tion.jda.api.entities.Role;
+import net.dv8tion.jda.api.utils.MemberCachePolicy;
+import net.dv8tion.jda.api.utils.cache.CacheFlag;
+import net.dv8tion.jda.api.utils.cache.CacheStatistics;
+import net.dv8tion.jda.internal.JDAImpl;
+import net.dv8tion.jda.internal.entities.GuildImpl;
+import net.dv8tion.jda.internal.entities.GuildVoiceStateImpl;
+import net.dv8tion.jda.internal.entities.MemberImpl;
+import net.dv8tion.jda.internal.entities.RoleImpl;
+import net.dv8tion.jda.internal.entities.SelfUserImpl;
+import net.dv8tion.jda.internal.entities.UserImpl;
+import net.dv8tion.jda.internal.entities.VoiceChannelImpl;
+import net.dv8tion.jda.internal.utils.UnlockHook;
+import net.dv8tion.jda.internal.utils.cache.CompactMemberCacheViewImpl;
+import net.dv8tion.jda.internal.utils.cache.Interner;
+import net.dv8tion.jda.internal.utils.cache.MemberCacheViewImpl;
+import net.dv8tion.jda.internal.utils.cache.MessageCache;
+import net.dv8tion.jda.internal.utils.cache.SnowflakeCacheViewImpl;
+import net.dv8tion.jda.internal.utils.config.AuthorizationConfig;
+import net.dv8tion.jda.internal.utils.config.MetaConfig;
+import net.dv8tion.jda.internal.utils.config.flags.ConfigFlag;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+public class CacheViewTest
+{
+    @Test
+    public void testNestedWriteLock()
+    {
+        SnowflakeCacheViewImpl<Entity> cache = new SnowflakeCacheViewImpl<>(Entity.class, null);
+        try (UnlockHook outer = cache.writeLock())
+        {
+            cache.getMap().put(1, new Entity(1));
+            cache.remove(1);
+            cache.getMap().put(2, new Entity(2));
+        }
+        Assertions.assertNull(cache.getElementById(1));
+        Assertions.assertEquals(2, cache.getElementById(2).getIdLong());
+    }
+
+    @Test
+    public void testConcurrentLookup() throws InterruptedException
+    {
+        SnowflakeCacheViewImpl<Entity> cache = new SnowflakeCacheViewImpl<>(Entity.class, null);
+        try (UnlockHook hook = cache.writeLock())
+        {
+            for (long id = 0; id < 100; id++)
+                cache.getMap().put(id, new Entity(id));
+        }
+
+        // The writer keeps resizing the map, while the first 100 entries are always present
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread writer = new Thread(() -> {
+            long id = 100;
+            while (running.get())
+            {
+                try (UnlockHook hook = cache.writeLock())
+                {
+                    for (int i = 0; i < 1000; i++)
+                        cache.getMap().put(id + i, new Entity(id + i));
+                }
+                try (UnlockHook hook = cache.writeLock())
+                {
+                    for (int i = 0; i < 1000; i++)
+                        cache.getMap().remove(id + i);
+                }
+                id += 1000;
+            }
+        });
+        writer.start();
+
+        try
+        {
+            for (int i = 0; i < 200_000; i++)
+            {
+                long id = i % 100;
+                Entity entity = cache.getElementById(id);
+                Assertions.assertNotNull(entity);
+                Assertions.assertEquals(id, entity.getIdLong());
+            }
+        }
+        finally
+        {
+            running.set(false);
+            writer.join();
+        }
+    }
+
+    @Test
+    public void testMemberIndex()
+    {
+        JDAImpl api = new JDAImpl(new AuthorizationConfig("token"));
+        GuildImpl guild = new GuildImpl(api, 1);
+        Role admin = new RoleImpl(10, guild), muted = new RoleImpl(11, guild);
+        MemberImpl first = new MemberImpl(guild, new UserImpl(100, api).setName("Minn"));
+        MemberImpl second = new MemberImpl(guild, new UserImpl(101, api).setName("minn"));
+        first.setRoleIds(new long[] { admin.getIdLong() });
+        second.setRoleIds(new long[] { muted.getIdLong(), admin.getIdLong() });
+        second.setNickname("Muted");
+
+        MemberCacheViewImpl cache = new MemberCacheViewImpl(true);
+        cache.put(first);
+        cache.put(second);
+
+        Assertions.assertEquals(2, cache.getElementsWithRoles(admin).size());
+        Assertions.assertEquals(Collections.singletonList(second), cache.getElementsWithRoles(admin, muted));
+        Assertions.assertEquals(Collections.singletonList(first), cache.getElementsByUsername("Minn"));
+        Assertions.assertEquals(2, cache.getElementsByUsername("MINN", true).size());
+        Assertions.assertEquals(Collections.singletonList(second), cache.getElementsByNickname("muted", true));
+        Assertions.assertEquals(Collections.singletonList(first), cache.getElementsByNickname(null));
+
+        second.setRoleIds(new long[] { admin.getIdLong() });
+        second.setNickname(null);
+        cache.reindex(second.getIdLong());
+        Assertions.assertTrue(cache.getElementsWithRoles(muted).isEmpty());
+        Assertions.assertTrue(cache.getElementsByNickname("Muted").isEmpty());
+
+        cache.remove(first.getIdLong());
+        List<Member> admins = cache.getElementsWithRoles(admin);
+        Assertions.assertEquals(Collections.singletonList(second), admins);
+        Assertions.assertTrue(cache.getElementsByUsername("Minn").isEmpty());
+    }
+
+    @Test
+    public void testCompactMemberCache()
+    {
+        MetaConfig config = new MetaConfig(2048, null, EnumSet.allOf(CacheFlag.class), EnumSet.of(ConfigFlag.COMPACT_MEMBER_CACHE));
+        JDAImpl api = new JDAImpl(new AuthorizationConfig("token"), null, null, config);
+        GuildImpl guild = new GuildImpl(api, 1);
+        MemberCacheViewImpl cache = guild.getMembersView();
+        Assertions.assertTrue(cache instanceof CompactMemberCacheViewImpl);
+
+        List<MemberImpl> members = new ArrayList<>();
+        try (UnlockHook hook = api.getUsersView().writeLock())
+        {
+            for (long id = 100; id < 400; id++)
+            {
+                UserImpl user = new UserImpl(id, api).setName("User" + id);
+                api.getUsersView().getMap().put(id, user);
+                MemberImpl member = new MemberImpl(guild, user);
+                member.setNickname(id % 2 == 0 ? "Nick" + id : null)
+                      .setJoinDate(id * 1000)
+                      .setOnlineStatus(OnlineStatus.IDLE)
+                      .setOnlineStatus(ClientType.MOBILE, OnlineStatus.IDLE)
+                      .setRoleIds(new long[] { id % 3 + 10, 20 });
+                members.add(member);
+            }
+        }
+        members.forEach(cache::put);
+        Assertions.assertEquals(300, cache.size());
+
+        Member member = cache.getElementById(142);
+        Assertions.assertEquals("Nick142", member.getNickname());
+        Assertions.assertEquals(142000, ((MemberImpl) member).getJoinDateRaw());
+        Assertions.assertEquals(OnlineStatus.IDLE, member.getOnlineStatus(ClientType.MOBILE));
+        Assertions.assertEquals(EnumSet.of(ClientType.MOBILE), member.getActiveClients());
+        Assertions.assertArrayEquals(new long[] { 11, 20 }, ((MemberImpl) member).getRoleIds());
+
+        // All instances of a member share the same state
+        members.get(42).setNickname("Renamed").setRoleIds(new long[] { 30, 31, 32, 33 });
+        Assertions.assertEquals("Renamed", member.getNickname());
+        Assertions.assertTrue(((MemberImpl) member).hasRole(33));
+
+        // Grow and shrink the role lists to compact the shared role array
+        for (int i = 0; i < 10; i++)
+        {
+            for (MemberImpl m : members)
+                m.setRoleIds(i % 2 == 0 ? new long[] { 1, 2, 3, m.getIdLong() } : new long[] { m.getIdLong() });
+        }
+        for (MemberImpl m : members)
+            Assertions.assertArrayEquals(new long[] { m.getIdLong() }, m.getRoleIds());
+
+        MemberImpl removed = (MemberImpl) cache.remove(142);
+        Assertions.assertNull(cache.getElementById(142));
+        Assertions.assertFalse(removed.isAttached());
+        Assertions.assertEquals("Renamed", removed.getNickname());
+        Assertions.assertEquals(299, cache.asList().size());
+
+        cache.put(new MemberImpl(guild, api.getUsersView().get(142)).setNickname("Rejoined"));
+        Assertions.assertEquals("Rejoined", cache.getElementById(142).getNickname());
+        Assertions.assertEquals(1, cache.getElementsByNickname("Rejoined").size());
+    }
+
+    @Test
+    public void testCompactMemberCacheDetach()
+    {
+        MetaConfig config = new MetaConfig(2048, null, EnumSet.allOf(CacheFlag.class), EnumSet.of(ConfigFlag.COMPACT_MEMBER_CACHE));
+        JDAImpl api = new JDAImpl(new AuthorizationConfig("token"), null, null, config);
+        GuildImpl guild = new GuildImpl(api, 1);
+        MemberCacheViewImpl cache = guild.getMembersView();
+        for (long id = 100; id < 103; id++)
+        {
+            cache.put(new MemberImpl(guild, new UserImpl(id, api).setName("User" + id))
+                .setNickname("Nick" + id)
+                .setJoinDate(id * 1000)
+                .setOnlineStatus(OnlineStatus.IDLE)
+                .setOnlineStatus(ClientType.WEB, OnlineStatus.IDLE)
+                .setRoleIds(new long[] { 20, 10 }));
+        }
+
+        // Instances which were returned before the removal keep the last state
+        MemberImpl removed = (MemberImpl) cache.getElementById(100);
+        Assertions.assertTrue(removed.isAttached());
+        cache.remove(100);
+        Assertions.assertFalse(removed.isAttached());
+        Assertions.assertEquals("Nick100", removed.getNickname());
+        Assertions.assertEquals(100000, removed.getJoinDateRaw());
+        Assertions.assertEquals(OnlineStatus.IDLE, removed.getOnlineStatus());
+        Assertions.assertEquals(EnumSet.of(ClientType.WEB), removed.getActiveClients());
+        Assertions.assertArrayEquals(new long[] { 10, 20 }, removed.getRoleIds());
+
+        // The slot of the removed member is reused without affecting the detached instance
+        cache.put(new MemberImpl(guild, new UserImpl(103, api).setName("User103")).setNickname("Nick103"));
+        Assertions.assertEquals("Nick100", removed.getNickname());
+        Assertions.assertEquals("Nick103", cache.getElementById(103).getNickname());
+
+        // The compact cache only provides a read-only copy of its members
+        TLongObjectMap<Member> map = cache.getMap();
+        Assertions.assertEquals(3, map.size());
+        Assertions.assertEquals("Nick101", map.get(101).getNickname());
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> map.remove(101));
+
+        MemberImpl cleared = (MemberImpl) cache.getElementById(101);
+        cache.clear();
+        Assertions.assertFalse(cleared.isAttached());
+        Assertions.assertEquals("Nick101", cleared.getNickname());
+        Assertions.assertTrue(cleared.hasRole(20));
+    }
+
+    @Test
+    public void testCompactMemberCacheVoiceEviction()
+    {
+        MetaConfig config = new MetaConfig(2048, null, EnumSet.allOf(CacheFlag.class), EnumSet.of(ConfigFlag.COMPACT_MEMBER_CACHE));
+        JDAImpl api = new JDAImpl(new AuthorizationConfig("token"), null, null, config);
+        api.setSelfUser(new SelfUserImpl(1, api));
+        GuildImpl guild = new GuildImpl(api, 1);
+        VoiceChannelImpl channel = new VoiceChannelImpl(10, guild);
+
+        UserImpl user = new UserImpl(100, api).setName("User");
+        try (UnlockHook hook = api.getUsersView().writeLock())
+        {
+            api.getUsersView().getMap().put(user.getIdLong(), user);
+        }
+        MemberImpl member = new MemberImpl(guild, user);
+        guild.getMembersView().put(member);
+        ((GuildVoiceStateImpl) member.getVoiceState()).setConnectedChannel(channel);
+        channel.getConnectedMembersMap().put(member.getIdLong(), member);
+
+        Assertions.assertFalse(api.getEntityBuilder().updateMemberCache(member, true));
+        Assertions.assertNull(guild.getMemberById(100));
+        Assertions.assertTrue(channel.getConnectedMembersMap().isEmpty());
+    }
+
+    @Test
+    public void testLRUMemberCachePolicy()
+    {
+        JDAImpl api = new JDAImpl(new AuthorizationConfig("token"));
+        api.setSelfUser(new SelfUserImpl(1, api));
+        GuildImpl guild = new GuildImpl(api, 1);
+        try (UnlockHook hook = api.getGuildsView().writeLock())
+        {
+            api.getGuildsView().getMap().put(guild.getIdLong(), guild);
+        }
+        List<Member> evicted = new ArrayList<>();
+        MemberCachePolicy policy = MemberCachePolicy.lru(64).setEvictionListener(evicted::add);
+
+        // Same as EntityBuilder#updateMemberCache, which also requires a gateway connection
+        Consumer<Long> load = id -> {
+            MemberImpl member = new MemberImpl(guild, new UserImpl(id, api));
+            if (policy.cacheMember(member))
+                guild.getMembersView().put(member);
+        };
+        for (long id = 100; id < 164; id++)
+            load.accept(id);
+        Assertions.assertEquals(64, guild.getMembersView().size());
+
+        // Access all members except the first two, making them the least recently used
+        long later = System.currentTimeMillis() + 1000;
+        for (long id = 102; id < 164; id++)
+            ((MemberImpl) guild.getMemberById(id)).setLastAccess(later);
+
+        // Evicts a batch of 1 + 64 / 32 members to make room
+        load.accept(164L);
+        Assertions.assertEquals(62, guild.getMembersView().size());
+        Assertions.assertEquals(3, evicted.size());
+        Assertions.assertNull(guild.getMemberById(100));
+        Assertions.assertNull(guild.getMemberById(101));
+        Assertions.assertNotNull(guild.getMemberById(164));
+    }
+
+    @Test
+    public void testCacheStatistics()
+    {
+        JDAImpl api = new JDAImpl(new AuthorizationConfig("token"));
+        GuildImpl guild = new GuildImpl(api, 1);
+        try (UnlockHook hook = api.getGuildsView().writeLock())
+        {
+            api.getGuildsView().getMap().put(guild.getIdLong(), guild);
+        }
+        for (long id = 100; id < 110; id++)
+        {
+            UserImpl user = new UserImpl(id, api).setName("User" + id);
+            try (UnlockHook hook = api.getUsersView().writeLock())
+            {
+                api.getUsersView().getMap().put(id, user);
+            }
+            guild.getMembersView().put(new MemberImpl(guild, user).setNickname("Nickname"));
+        }
+
+        CacheStatistics stats = api.getCacheStatistics();
+        Assertions.assertEquals(1, stats.getTotal(CacheStatistics.Type.GUILD).getSize());
+        Assertions.assertEquals(10, stats.getTotal(CacheStatistics.Type.USER).getSize());
+        Assertions.assertEquals(10, stats.getGuildEntries(1).get(CacheStatistics.Type.MEMBER).getSize());
+        Assertions.assertTrue(stats.getTotal(CacheStatistics.Type.MEMBER).getEstimatedBytes() > 10 * 16);
+        Assertions.assertEquals(0, stats.getTotal(CacheStatistics.Type.ROLE).getSize());
+
+        CacheStatistics combined = CacheStatistics.combine(Arrays.asList(stats, stats));
+        Assertions.assertEquals(20, combined.getTotal(CacheStatistics.Type.USER).getSize());
+        Assertions.assertEquals(2 * stats.getEstimatedBytes(), combined.getEstimatedBytes());
+        Assertions.assertEquals(20, combined.toData().getObject("totals").getObject("member").getLong("size"));
+    }
+
+    @Test
+    public void testInterner()
+    {
+        Interner<String> interner = new Interner<>(16);
+        String name = interner.intern(new String("Spotify"));
+        Assertions.assertSame(name, interner.intern(new String("Spotify")));
+        Assertions.assertNull(interner.intern(null));
+    }
+
+    @Test
+    public void testMessageCache()
+    {
+        MessageCache cache = new MessageCache(3, 5);
+        for (long id = 1; id <= 4; id++)
+            cache.put(message(id, 10));
+        // Only the latest 3 messages of a channel are kept
+        Assertions.assertNull(cache.get(1));
+        Assertions.assertEquals(3, cache.size());
+
+        cache.put(message(5, 20));
+        cache.put(message(6, 20));
+        cache.put(message(7, 20));
+        // Channel 10 is the least active channel and loses its oldest message first
+        Assertions.assertEquals(5, cache.size());
+        Assertions.assertNull(cache.get(2));
+        Assertions.assertNotNull(cache.get(5));
+
+        Message updated = message(7, 20);
+        Assertions.assertNotNull(cache.replace(updated));
+        Assertions.assertSame(updated, cache.get(7));
+        Assertions.assertNull(cache.replace(message(1, 10)));
+        Assertions.assertNull(cache.get(1));
+
+        Assertions.assertSame(updated, cache.remove(20, 7));
+        Assertions.assertNull(cache.remove(20, 7));
+        cache.removeChannel(10);
+        Assertions.assertEquals(2, cache.size());
+    }
+
+    private static Message message(long id, long channelId)
+    {
+        MessageChannel channel = proxy(MessageChannel.class, channelId, null);
+        return proxy(Message.class, id, channel);
+    }
+
+    // Only implements the methods used by the message cache
+    private static <T> T proxy(Class<T> type, long id, MessageChannel channel)
+    {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (instance, method, args) ->
+        {
+            switch (method.getName())
+            {
+            case "getIdLong":
+                return id;
+            case "getChannel":
+                return channel;
+            default:
+                throw new UnsupportedOperationException(method.getName());
+            }
+        }));
+    }
+
+    public static class Entity implements ISnowflake
+    {
+        private final long id;
+
+        public Entity(long id)
+        {
+            this.id = id;
+        }
+
+        @Override
+        public long getIdLong()
+        {
+            return id;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2015-2020 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import net.dv8tion.jda.api.audio.CombinedAudio;
+import net.dv8tion.jda.internal.audio.CombinedAudioMixer;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+public class CombinedAudioMixerTest
+{
+    private static final long TIMEOUT = 100;
+
+    @Test
+    public void testReordersFrames()
+    {
+        CombinedAudioMixer mixer = new CombinedAudioMixer();
+        mixer.add(1, null, (char) 10, frame(1), 0);
+        mixer.add(1, null, (char) 12, frame(3), 0);
+        mixer.add(1, null, (char) 11, frame(2), 0);
+
+        Assertions.assertEquals(1, sample(mixer.mix(0, TIMEOUT)));
+        Assertions.assertEquals(2, sample(mixer.mix(20, TIMEOUT)));
+        Assertions.assertEquals(3, sample(mixer.mix(40, TIMEOUT)));
+        Assertions.assertTrue(mixer.mix(60, TIMEOUT).getUsers().isEmpty());
+
+        // Already played, arrived too late
+        mixer.add(1, null, (char) 11, frame(2), 60);
+        Assertions.assertTrue(mixer.mix(80, TIMEOUT).getUsers().isEmpty());
+    }
+
+    @Test
+    public void testSkipsLostFrames()
+    {
+        CombinedAudioMixer mixer = new CombinedAudioMixer();
+        mixer.add(1, null, (char) 65535, frame(1), 0);
+        mixer.add(1, null, (char) 1, frame(3), 0);
+
+        Assertions.assertEquals(1, sample(mixer.mix(0, TIMEOUT)));
+        // Frame 0 is missing, wait for it once
+        Assertions.assertTrue(mixer.mix(20, TIMEOUT).getUsers().isEmpty());
+        Assertions.assertEquals(3, sample(mixer.mix(40, TIMEOUT)));
+    }
+
+    @Test
+    public void testDropsTimedOutFrames()
+    {
+        CombinedAudioMixer mixer = new CombinedAudioMixer();
+        mixer.add(1, null, (char) 5, frame(1), 0);
+        mixer.add(1, null, (char) 6, frame(2), 50);
+
+        Assertions.assertEquals(2, sample(mixer.mix(120, TIMEOUT)));
+        Assertions.assertTrue(mixer.mix(300, TIMEOUT).getUsers().isEmpty());
+
+        // The sequence restarts after a pause
+        mixer.add(1, null, (char) 2, frame(4), 300);
+        Assertions.assertEquals(4, sample(mixer.mix(320, TIMEOUT)));
+    }
+
+    @Test
+    public void testMixesAndClamps()
+    {
+        CombinedAudioMixer mixer = new CombinedAudioMixer();
+        mixer.add(1, null, (char) 0, frame(Short.MAX_VALUE), 0);
+        mixer.add(2, null, (char) 0, frame(Short.MAX_VALUE), 0);
+        mixer.add(3, null, (char) 0, new short[] { -3, 7 }, 0);
+
+        CombinedAudio audio = mixer.mix(0, TIMEOUT);
+        Assertions.assertEquals(3, audio.getUsers().size());
+        Assertions.assertEquals(Short.MAX_VALUE, sample(audio));
+
+        mixer.remove(1);
+        mixer.add(2, null, (char) 1, frame(-5), 20);
+        mixer.add(3, null, (char) 1, frame(2), 20);
+        audio = mixer.mix(20, TIMEOUT);
+        Assertions.assertEquals(2, audio.getUsers().size());
+        Assertions.assertEquals(-3, sample(audio));
+
+        audio = mixer.mix(40, TIMEOUT);
+        Assertions.assertTrue(audio.getUsers().isEmpty());
+        Assertions.assertEquals(0, sample(audio));
+    }
+
+    private static short[] frame(int value)
+    {
+        short[] frame = new short[CombinedAudioMixer.FRAME_SAMPLES];
+        Arrays.fill(frame, (short) value);
+        return frame;
+    }
+
+    private static int sample(CombinedAudio audio)
+    {
+        byte[] data = audio.getAudioData(1.0);
+        return (short) ((data[data.length - 2] << 8) | (data[data.length - 1] & 0xFF));
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2015-2020 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import net.dv8tion.jda.api.utils.data.DataArray;
+import net.dv8tion.jda.api.utils.data.DataObject;
+import net.dv8tion.jda.internal.requests.PayloadHeader;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class EtfTest
+{
+    @Test
+    public void testRoundTrip()
+    {
+        DataObject object = DataObject.empty()
+            .put("int", 10)
+            .put("long", 81384788765712384L)
+            .put("negative", -5)
+            .put("double", 1.5)
+            .put("boolean", true)
+            .put("string", "tést")
+            .put("null", null)
+            .put("empty", DataArray.empty())
+            .put("array", DataArray.empty().add(1).add("two").add(DataObject.empty().put("three", 3)));
+
+        DataObject result = DataObject.fromETF(object.toETF());
+        Assertions.assertEquals(10, result.getInt("int"));
+        Assertions.assertEquals(81384788765712384L, result.getLong("long"));
+        Assertions.assertEquals(-5, result.getInt("negative"));
+        Assertions.assertEquals(1.5, result.toMap().get("double"));
+        Assertions.assertTrue(result.getBoolean("boolean"));
+        Assertions.assertEquals("tést", result.getString("string"));
+        Assertions.assertTrue(result.isNull("null"));
+        Assertions.assertTrue(result.getArray("empty").isEmpty());
+
+        DataArray array = result.getArray("array");
+        Assertions.assertEquals(1, array.getInt(0));
+        Assertions.assertEquals("two", array.getString(1));
+        Assertions.assertEquals(3, array.getObject(2).getInt("three"));
+    }
+
+    @Test
+    public void testPayloadHeader()
+    {
+        byte[] payload = DataObject.empty()
+            .put("d", DataObject.empty().put("nested", DataArray.empty().add(DataObject.empty().put("op", 5))))
+            .put("t", "TYPING_START")
+            .put("s", 42)
+            .put("op", 0)
+            .toETF();
+        PayloadHeader header = PayloadHeader.fromEtf(payload, 0, payload.length);
+        Assertions.assertNotNull(header);
+        Assertions.assertEquals(0, header.getOp());
+        Assertions.assertEquals("TYPING_START", header.getType());
+        Assertions.assertEquals(42, header.getSequence());
+    }
+}
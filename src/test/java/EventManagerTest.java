@@ -0,0 +1,136 @@
+/*
+ * Copyright 2015-2020 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.events.*;
+import net.dv8tion.jda.api.hooks.AnnotatedEventManager;
+import net.dv8tion.jda.api.hooks.InterfacedEventManager;
+import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import net.dv8tion.jda.api.hooks.SubscribeEvent;
+import net.dv8tion.jda.internal.JDAImpl;
+import net.dv8tion.jda.internal.utils.config.AuthorizationConfig;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class EventManagerTest
+{
+    private final JDA api = new JDAImpl(new AuthorizationConfig("token"));
+
+    @Test
+    public void testInterfacedDispatch()
+    {
+        List<String> received = new ArrayList<>();
+        InterfacedEventManager manager = new InterfacedEventManager();
+        manager.register(new ListenerAdapter()
+        {
+            @Override
+            public void onReady(@Nonnull ReadyEvent event)
+            {
+                received.add("ready");
+            }
+        });
+        manager.register(new ListenerAdapter()
+        {
+            @Override
+            public void onGenericUpdate(@Nonnull UpdateEvent<?, ?> event)
+            {
+                received.add("update");
+            }
+        });
+        manager.register(new ListenerAdapter()
+        {
+            @Override
+            public void onGenericEvent(@Nonnull GenericEvent event)
+            {
+                received.add("generic");
+            }
+        });
+        manager.register((net.dv8tion.jda.api.hooks.EventListener) event -> received.add("lambda"));
+
+        manager.handle(new ReadyEvent(api, 0));
+        Assertions.assertEquals(Arrays.asList("ready", "generic", "lambda"), received);
+
+        received.clear();
+        manager.handle(new StatusChangeEvent(api, JDA.Status.CONNECTED, JDA.Status.LOADING_SUBSYSTEMS));
+        Assertions.assertEquals(Arrays.asList("update", "generic", "lambda"), received);
+
+        received.clear();
+        manager.unregister(manager.getRegisteredListeners().get(2));
+        manager.handle(new ResumedEvent(api, 0));
+        Assertions.assertEquals(Arrays.asList("lambda"), received);
+    }
+
+    @Test
+    public void testAnnotatedDispatch()
+    {
+        AnnotatedListener listener = new AnnotatedListener();
+        AnnotatedEventManager manager = new AnnotatedEventManager();
+        manager.register(listener);
+        manager.register(StaticListener.class);
+
+        manager.handle(new ReadyEvent(api, 0));
+        Assertions.assertEquals(Arrays.asList("ready", "event", "static"), listener.received);
+
+        listener.received.clear();
+        manager.handle(new ResumedEvent(api, 0));
+        Assertions.assertEquals(Arrays.asList("event", "static"), listener.received);
+
+        listener.received.clear();
+        manager.unregister(listener);
+        manager.handle(new ReadyEvent(api, 0));
+        Assertions.assertEquals(Arrays.asList("static"), listener.received);
+    }
+
+    public static class AnnotatedListener
+    {
+        private final List<String> received = StaticListener.received;
+
+        @SubscribeEvent
+        private void onReady(ReadyEvent event)
+        {
+            received.add("ready");
+        }
+
+        @SubscribeEvent
+        public boolean onEvent(Event event)
+        {
+            received.add("event");
+            return true;
+        }
+    }
+
+    public static class StaticListener
+    {
+        private static final List<String> received = new ArrayList<>();
+
+        @SubscribeEvent
+        public static void onEvent(Event event)
+        {
+            received.add("static");
+        }
+
+        @SubscribeEvent
+        public void ignored(Event event)
+        {
+            received.add("ignored");
+        }
+    }
+}
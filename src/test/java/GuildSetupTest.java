@@ -0,0 +1,261 @@
+/*
+ * Copyright 2015-2020 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import gnu.trove.map.TLongObjectMap;
+import gnu.trove.map.hash.TLongObjectHashMap;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.events.GenericEvent;
+import net.dv8tion.jda.api.events.guild.GuildJoinEvent;
+import net.dv8tion.jda.api.events.role.RoleCreateEvent;
+import net.dv8tion.jda.api.hooks.EventListener;
+import net.dv8tion.jda.api.utils.ChunkingFilter;
+import net.dv8tion.jda.api.utils.SessionControllerAdapter;
+import net.dv8tion.jda.api.utils.data.DataArray;
+import net.dv8tion.jda.api.utils.data.DataObject;
+import net.dv8tion.jda.internal.JDAImpl;
+import net.dv8tion.jda.internal.entities.GuildImpl;
+import net.dv8tion.jda.internal.entities.MemberImpl;
+import net.dv8tion.jda.internal.entities.SelfUserImpl;
+import net.dv8tion.jda.internal.handle.EventCache;
+import net.dv8tion.jda.internal.handle.GuildSetupController;
+import net.dv8tion.jda.internal.handle.SetupMember;
+import net.dv8tion.jda.internal.requests.WebSocketClient;
+import net.dv8tion.jda.internal.utils.config.AuthorizationConfig;
+import net.dv8tion.jda.internal.utils.config.SessionConfig;
+import net.dv8tion.jda.internal.utils.config.ThreadingConfig;
+import net.dv8tion.jda.internal.utils.config.flags.ConfigFlag;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class GuildSetupTest
+{
+    private static final long GUILD_ID = 1000;
+    private static final long CHANNEL_ID = 2000;
+
+    @Test
+    public void testPooledGuildSetup() throws Exception
+    {
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try
+        {
+            JDAImpl api = createJDA(pool);
+            GuildSetupController controller = api.getGuildSetupController();
+            List<GenericEvent> events = Collections.synchronizedList(new ArrayList<>());
+            api.addEventListener((EventListener) events::add);
+
+            // An event for the channel of the guild, which arrived before the guild
+            AtomicBoolean playedUnderLock = new AtomicBoolean();
+            api.getEventCache().cache(EventCache.Type.CHANNEL, CHANNEL_ID, 0, DataObject.empty(),
+                (responseTotal, event) -> playedUnderLock.set(Thread.holdsLock(controller.getDispatchLock())));
+
+            // Keep the pool busy, so the guild is still being built while events arrive
+            CountDownLatch blocked = new CountDownLatch(1);
+            pool.execute(() -> await(blocked));
+            synchronized (controller.getDispatchLock())
+            {
+                controller.onCreate(GUILD_ID, guild());
+            }
+            Assertions.assertTrue(controller.isBuilding(GUILD_ID));
+
+            api.getClient().handle(Arrays.asList(roleCreate(10, "First"), roleCreate(11, "Second")));
+            Assertions.assertTrue(events.isEmpty());
+
+            blocked.countDown();
+            pool.submit(() -> {}).get(10, TimeUnit.SECONDS);
+
+            Assertions.assertFalse(controller.isLocked(GUILD_ID));
+            Guild guild = api.getGuildById(GUILD_ID);
+            Assertions.assertNotNull(guild);
+            Assertions.assertNotNull(guild.getRoleById(11));
+            Assertions.assertTrue(playedUnderLock.get());
+
+            Assertions.assertEquals(3, events.size());
+            Assertions.assertTrue(events.get(0) instanceof GuildJoinEvent);
+            Assertions.assertEquals("First", ((RoleCreateEvent) events.get(1)).getRole().getName());
+            Assertions.assertEquals("Second", ((RoleCreateEvent) events.get(2)).getRole().getName());
+        }
+        finally
+        {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testFailedPooledGuildSetup() throws Exception
+    {
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try
+        {
+            JDAImpl api = createJDA(pool);
+            GuildSetupController controller = api.getGuildSetupController();
+            DataObject guild = guild();
+            guild.remove("roles");
+            synchronized (controller.getDispatchLock())
+            {
+                controller.onCreate(GUILD_ID, guild);
+            }
+            pool.submit(() -> {}).get(10, TimeUnit.SECONDS);
+
+            // The node is completed instead of building forever
+            Assertions.assertFalse(controller.isLocked(GUILD_ID));
+            Assertions.assertNull(api.getGuildById(GUILD_ID));
+        }
+        finally
+        {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testSetupMembers()
+    {
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try
+        {
+            JDAImpl api = createJDA(pool);
+            DataObject guildJson = guild();
+            guildJson.getArray("roles").add(role(10, "First")).add(role(11, "Second"));
+            // Role 12 is not cached and has to be filtered out by both paths
+            DataObject setupJson = member(500, "Setup", 11, 12, 10);
+            DataObject memberJson = member(501, "Setup", 11, 12, 10);
+
+            TLongObjectMap<SetupMember> members = new TLongObjectHashMap<>();
+            members.put(500, SetupMember.fromJson(setupJson));
+            Guild guild = api.getEntityBuilder().createGuild(GUILD_ID, guildJson, members, 1);
+            MemberImpl setupMember = (MemberImpl) guild.getMemberById(500);
+            MemberImpl jsonMember = api.getEntityBuilder().createMember((GuildImpl) guild, memberJson);
+
+            Assertions.assertNotNull(setupMember);
+            Assertions.assertEquals("Setup", setupMember.getNickname());
+            Assertions.assertEquals(jsonMember.getNickname(), setupMember.getNickname());
+            Assertions.assertTrue(setupMember.hasTimeJoined());
+            Assertions.assertEquals(jsonMember.getTimeJoined(), setupMember.getTimeJoined());
+            Assertions.assertEquals(jsonMember.getTimeBoosted(), setupMember.getTimeBoosted());
+            Assertions.assertArrayEquals(new long[] { 10, 11 }, setupMember.getRoleIds());
+            Assertions.assertArrayEquals(jsonMember.getRoleIds(), setupMember.getRoleIds());
+            Assertions.assertEquals(jsonMember.getRoles(), setupMember.getRoles());
+            Assertions.assertEquals("User500", setupMember.getUser().getName());
+        }
+        finally
+        {
+            pool.shutdownNow();
+        }
+    }
+
+    private static JDAImpl createJDA(ExecutorService pool)
+    {
+        ThreadingConfig threading = ThreadingConfig.getDefault();
+        threading.setGuildSetupPool(pool, false);
+        SessionConfig session = new SessionConfig(new SessionControllerAdapter()
+        {
+            @Override
+            public void appendSession(@Nonnull SessionConnectNode node) {}
+        }, null, null, null, ConfigFlag.getDefault(), 900, 250);
+
+        JDAImpl api = new JDAImpl(new AuthorizationConfig("token"), session, threading, null)
+        {
+            {
+                // The session controller above never connects this client
+                client = new WebSocketClient(this, null, 0, null);
+            }
+        };
+        api.setSelfUser(new SelfUserImpl(1, api));
+        api.setChunkingFilter(ChunkingFilter.NONE);
+        return api;
+    }
+
+    private static DataObject guild()
+    {
+        return DataObject.empty()
+            .put("id", GUILD_ID)
+            .put("name", "Guild")
+            .put("member_count", 0)
+            .put("afk_timeout", 60)
+            .put("members", DataArray.empty())
+            .put("roles", DataArray.empty().add(role(GUILD_ID, "@everyone")))
+            .put("channels", DataArray.empty().add(DataObject.empty()
+                .put("id", CHANNEL_ID)
+                .put("type", 0)
+                .put("name", "general")
+                .put("position", 0)
+                .put("permission_overwrites", DataArray.empty())))
+            .put("emojis", DataArray.empty())
+            .put("voice_states", DataArray.empty());
+    }
+
+    private static DataObject member(long id, String nickname, long... roles)
+    {
+        DataArray roleArray = DataArray.empty();
+        for (long role : roles)
+            roleArray.add(Long.toUnsignedString(role));
+        return DataObject.empty()
+            .put("user", DataObject.empty()
+                .put("id", id)
+                .put("username", "User" + id)
+                .put("discriminator", "0001")
+                .put("avatar", null)
+                .put("bot", false))
+            .put("nick", nickname)
+            .put("joined_at", "2020-01-02T03:04:05.000000+00:00")
+            .put("premium_since", null)
+            .put("roles", roleArray);
+    }
+
+    private static DataObject roleCreate(long id, String name)
+    {
+        return DataObject.empty()
+            .put("t", "GUILD_ROLE_CREATE")
+            .put("d", DataObject.empty()
+                .put("guild_id", GUILD_ID)
+                .put("role", role(id, name)));
+    }
+
+    private static DataObject role(long id, String name)
+    {
+        return DataObject.empty()
+            .put("id", id)
+            .put("name", name)
+            .put("color", 0)
+            .put("position", 0)
+            .put("permissions", 0)
+            .put("managed", false)
+            .put("hoist", false)
+            .put("mentionable", false);
+    }
+
+    private static void await(CountDownLatch latch)
+    {
+        try
+        {
+            latch.await();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -15,6 +15,7 @@
  */
 
 import net.dv8tion.jda.api.utils.data.DataObject;
+import net.dv8tion.jda.internal.requests.PayloadHeader;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -40,4 +41,22 @@ public class JsonTest
         DataObject symmetric = DataObject.fromJson(result);
         Assertions.assertEquals(object.toMap(), symmetric.toMap()); // lucky that this works here :)
     }
+
+    @Test
+    public void testPayloadHeader()
+    {
+        byte[] payload = "{\"d\":{\"nested\":[1,{\"op\":5}]},\"t\":\"TYPING_START\",\"s\":42,\"op\":0}".getBytes();
+        PayloadHeader header = PayloadHeader.fromJson(payload, 0, payload.length);
+        Assertions.assertNotNull(header);
+        Assertions.assertEquals(0, header.getOp());
+        Assertions.assertEquals("TYPING_START", header.getType());
+        Assertions.assertEquals(42, header.getSequence());
+
+        payload = "{\"t\":null,\"s\":null,\"op\":11,\"d\":null}".getBytes();
+        header = PayloadHeader.fromJson(payload, 0, payload.length);
+        Assertions.assertNotNull(header);
+        Assertions.assertEquals(11, header.getOp());
+        Assertions.assertNull(header.getType());
+        Assertions.assertFalse(header.hasSequence());
+    }
 }
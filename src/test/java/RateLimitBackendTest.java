@@ -0,0 +1,240 @@
+/*
+ * Copyright 2015-2020 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import net.dv8tion.jda.api.utils.LocalRateLimitBackend;
+import net.dv8tion.jda.api.utils.RateLimitBackend;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Nonnull;
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+public class RateLimitBackendTest
+{
+    private static final String BUCKET = "abcd1234:guild_id=125227483518861312:webhook_id";
+
+    private LoopbackServer server;
+    private LoopbackBackend first, second;
+
+    @BeforeEach
+    public void setup() throws IOException
+    {
+        server = new LoopbackServer(new LocalRateLimitBackend());
+        first = new LoopbackBackend(server.getPort());
+        second = new LoopbackBackend(server.getPort());
+    }
+
+    @AfterEach
+    public void teardown() throws IOException
+    {
+        first.close();
+        second.close();
+        server.close();
+    }
+
+    @Test
+    public void testSharedBucket()
+    {
+        Assertions.assertEquals(0, first.tryAcquire(BUCKET), "Unknown buckets should not be limited");
+
+        first.update(BUCKET, 2, 2, System.currentTimeMillis() + 10000);
+        Assertions.assertEquals(0, first.tryAcquire(BUCKET));
+        Assertions.assertEquals(0, second.tryAcquire(BUCKET));
+        Assertions.assertTrue(first.tryAcquire(BUCKET) > 0);
+        Assertions.assertTrue(second.getRateLimit(BUCKET) > 0);
+    }
+
+    @Test
+    public void testOutdatedUpdate()
+    {
+        long reset = System.currentTimeMillis() + 10000;
+        first.update(BUCKET, 5, 5, reset);
+        for (int i = 0; i < 3; i++)
+            Assertions.assertEquals(0, first.tryAcquire(BUCKET));
+
+        // This response does not include the requests reserved afterwards
+        second.update(BUCKET, 5, 4, reset);
+        Assertions.assertEquals(0, second.tryAcquire(BUCKET));
+        Assertions.assertEquals(0, second.tryAcquire(BUCKET));
+        Assertions.assertTrue(second.tryAcquire(BUCKET) > 0);
+    }
+
+    @Test
+    public void testWindowReset()
+    {
+        first.update(BUCKET, 1, 1, System.currentTimeMillis() + 10000);
+        first.update(BUCKET, 1, 0, System.currentTimeMillis() - 1);
+        Assertions.assertEquals(0, second.getRateLimit(BUCKET));
+        Assertions.assertEquals(0, second.tryAcquire(BUCKET));
+        Assertions.assertTrue(first.tryAcquire(BUCKET) > 0);
+    }
+
+    @Test
+    public void testGlobalRateLimit()
+    {
+        long timestamp = System.currentTimeMillis() + 1000;
+        first.setGlobalRateLimit(timestamp);
+        Assertions.assertEquals(timestamp, second.getGlobalRateLimit());
+    }
+
+    // Forwards all calls to a local backend, used as a stand-in for an external coordinator
+    private static class LoopbackServer implements Closeable
+    {
+        private final RateLimitBackend backend;
+        private final ServerSocket socket;
+
+        private LoopbackServer(RateLimitBackend backend) throws IOException
+        {
+            this.backend = backend;
+            this.socket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+            Thread thread = new Thread(this::accept, "LoopbackServer");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        private int getPort()
+        {
+            return socket.getLocalPort();
+        }
+
+        private void accept()
+        {
+            while (!socket.isClosed())
+            {
+                try
+                {
+                    Socket client = socket.accept();
+                    Thread thread = new Thread(() -> handle(client), "LoopbackServer-Client");
+                    thread.setDaemon(true);
+                    thread.start();
+                }
+                catch (IOException ignored) {}
+            }
+        }
+
+        private void handle(Socket client)
+        {
+            try (Socket ignored = client;
+                 BufferedReader in = new BufferedReader(new InputStreamReader(client.getInputStream(), StandardCharsets.UTF_8));
+                 PrintWriter out = new PrintWriter(new OutputStreamWriter(client.getOutputStream(), StandardCharsets.UTF_8), true))
+            {
+                String line;
+                while ((line = in.readLine()) != null)
+                {
+                    String[] args = line.split(" ");
+                    switch (args[0])
+                    {
+                    case "PEEK":
+                        out.println(backend.getRateLimit(args[1]));
+                        break;
+                    case "ACQUIRE":
+                        out.println(backend.tryAcquire(args[1]));
+                        break;
+                    case "UPDATE":
+                        backend.update(args[1], Integer.parseInt(args[2]), Integer.parseInt(args[3]), Long.parseLong(args[4]));
+                        out.println(0);
+                        break;
+                    case "GLOBAL":
+                        out.println(backend.getGlobalRateLimit());
+                        break;
+                    case "SET_GLOBAL":
+                        backend.setGlobalRateLimit(Long.parseLong(args[1]));
+                        out.println(0);
+                        break;
+                    default:
+                        out.println(-1);
+                    }
+                }
+            }
+            catch (IOException ignored) {}
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            socket.close();
+        }
+    }
+
+    private static class LoopbackBackend implements RateLimitBackend, Closeable
+    {
+        private final Socket socket;
+        private final BufferedReader in;
+        private final PrintWriter out;
+
+        private LoopbackBackend(int port) throws IOException
+        {
+            this.socket = new Socket(InetAddress.getLoopbackAddress(), port);
+            this.in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            this.out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), true);
+        }
+
+        private synchronized long call(String command)
+        {
+            out.println(command);
+            try
+            {
+                return Long.parseLong(in.readLine());
+            }
+            catch (IOException e)
+            {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public long getRateLimit(@Nonnull String bucket)
+        {
+            return call("PEEK " + bucket);
+        }
+
+        @Override
+        public long tryAcquire(@Nonnull String bucket)
+        {
+            return call("ACQUIRE " + bucket);
+        }
+
+        @Override
+        public void update(@Nonnull String bucket, int limit, int remaining, long reset)
+        {
+            call("UPDATE " + bucket + " " + limit + " " + remaining + " " + reset);
+        }
+
+        @Override
+        public long getGlobalRateLimit()
+        {
+            return call("GLOBAL");
+        }
+
+        @Override
+        public void setGlobalRateLimit(long timestamp)
+        {
+            call("SET_GLOBAL " + timestamp);
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            socket.close();
+        }
+    }
+}
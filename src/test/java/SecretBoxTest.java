@@ -0,0 +1,70 @@
+/*
+ * Copyright 2015-2020 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import com.iwebpp.crypto.TweetNaclFast;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class SecretBoxTest
+{
+    private static final Random RANDOM = new Random(42);
+
+    @Test
+    public void testBoxInPlace()
+    {
+        TweetNaclFast.SecretBox boxer = new TweetNaclFast.SecretBox(randomBytes(TweetNaclFast.SecretBox.keyLength));
+        byte[] nonce = randomBytes(TweetNaclFast.SecretBox.nonceLength);
+        for (int length : new int[] { 3, 120, 400, 60 })
+        {
+            byte[] message = randomBytes(length);
+            byte[] expected = boxer.box(message, 0, length, nonce);
+
+            byte[] out = new byte[5 + length + TweetNaclFast.SecretBox.overheadLength];
+            int result = boxer.box(message, 0, length, nonce, out, 5);
+            Assertions.assertEquals(expected.length, result);
+            Assertions.assertArrayEquals(expected, Arrays.copyOfRange(out, 5, 5 + result));
+        }
+    }
+
+    @Test
+    public void testOpenInPlace()
+    {
+        TweetNaclFast.SecretBox boxer = new TweetNaclFast.SecretBox(randomBytes(TweetNaclFast.SecretBox.keyLength));
+        byte[] nonce = randomBytes(TweetNaclFast.SecretBox.nonceLength);
+        byte[] message = randomBytes(200);
+        byte[] box = boxer.box(message, 0, message.length, nonce);
+
+        // Decrypt into the same array the box is read from
+        byte[] buffer = Arrays.copyOf(box, box.length + 10);
+        int result = boxer.open(buffer, 0, box.length, nonce, buffer, 10);
+        Assertions.assertEquals(message.length, result);
+        Assertions.assertArrayEquals(message, Arrays.copyOfRange(buffer, 10, 10 + result));
+
+        box[box.length - 1]++;
+        Assertions.assertEquals(-1, boxer.open(box, 0, box.length, nonce, buffer, 0));
+        Assertions.assertEquals(-1, boxer.open(box, 0, box.length, nonce, new byte[10], 0));
+    }
+
+    private static byte[] randomBytes(int length)
+    {
+        byte[] bytes = new byte[length];
+        RANDOM.nextBytes(bytes);
+        return bytes;
+    }
+}